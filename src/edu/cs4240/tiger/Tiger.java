@@ -1,18 +1,29 @@
 package edu.cs4240.tiger;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.List;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
+import edu.cs4240.tiger.analyzer.TigerAnalysisCache;
 import edu.cs4240.tiger.analyzer.TigerAnalyzer;
+import edu.cs4240.tiger.analyzer.TigerFingerprints;
+import edu.cs4240.tiger.analyzer.TigerSymbolTable;
+import edu.cs4240.tiger.ast.Program;
+import edu.cs4240.tiger.ast.TigerASTBuilder;
+import edu.cs4240.tiger.intermediate.TigerIRCache;
 import edu.cs4240.tiger.intermediate.TigerIRGenerator;
+import edu.cs4240.tiger.intermediate.TigerIRProgram;
 import edu.cs4240.tiger.intermediate.interpreter.TigerInterpreter;
 import edu.cs4240.tiger.parser.TigerParseException;
 import edu.cs4240.tiger.parser.TigerParser;
 import edu.cs4240.tiger.parser.TigerScanner;
-import edu.cs4240.tiger.parser.TigerToken;
-import edu.cs4240.tiger.parser.node.RuleNode;
+import edu.cs4240.tiger.parser.TokenBuffer;
+import edu.cs4240.tiger.parser.node.NodeArena;
 import edu.cs4240.tiger.util.StringifyTigerIR;
 
 /**
@@ -28,6 +39,10 @@ public class Tiger {
 		System.out.println("--ast        prints s-expression of the AST");
 		System.out.println("--printil    prints the generated IR");
 		System.out.println("--runil      runs the generated IR");
+		System.out.println("--cache      reuses the analysis of an unchanged source, kept next to it in a .tgc file");
+		System.out.println("--parallel   analyzes function bodies on all cores");
+		System.out.println("--incremental  only re-checks and regenerates the functions that changed since the last run,");
+		System.out.println("             kept next to the source in a .tgi file, --cache is ignored");
 		System.out.println("--debug -d   prints out debug messages in interpreter");
 		System.out.println("--help  -h   prints this help message");
 		System.out.println();
@@ -45,6 +60,9 @@ public class Tiger {
 		boolean printil = false;
 		boolean runil = false;
 		boolean debug = false;
+		boolean cache = false;
+		boolean parallel = false;
+		boolean incremental = false;
 		
 		for(String s : args) {
 			switch(s) {
@@ -60,6 +78,15 @@ public class Tiger {
 				case "--runil":
 					runil = true;
 					break;
+				case "--cache":
+					cache = true;
+					break;
+				case "--parallel":
+					parallel = true;
+					break;
+				case "--incremental":
+					incremental = true;
+					break;
 				case "-d":
 				case "--debug":
 					debug = true;
@@ -79,46 +106,138 @@ public class Tiger {
 			return;
 		}
 		
-		TigerParser parser;
-		try {
-			parser = new TigerParser(new TigerScanner(new BufferedReader(new FileReader(source))));
+		Path sourcePath = Paths.get(source);
+		String sourceBase = source.endsWith(".tgr") ? source.substring(0, source.length() - 4) : source;
+		Path cachePath = Paths.get(sourceBase + ".tgc");
+		Path irCachePath = Paths.get(sourceBase + ".tgi");
+		
+		// an incremental compile leaves the expression types of unchanged bodies out, the analysis cache needs all of them
+		cache &= !incremental;
+		
+		TigerIRCache previousIR = null;
+		long[] fingerprints = null;
+		if(incremental) {
+			try {
+				previousIR = TigerIRCache.read(irCachePath);
+			}
+			catch(IOException exc) {
+				System.err.println("Failed to read cache file " + irCachePath);
+			}
 		}
-		catch(IOException exc) {
-			System.err.println("Failed to open file " + source);
-			return;
+		
+		long sourceHash = 0;
+		TigerAnalysisCache cached = null;
+		if(cache) {
+			try {
+				byte[] sourceBytes = Files.readAllBytes(sourcePath);
+				sourceHash = TigerAnalysisCache.hashSource(sourceBytes);
+				if(Files.exists(cachePath)) {
+					cached = TigerAnalysisCache.read(cachePath, sourceHash, TigerScanner.decode(ByteBuffer.wrap(sourceBytes)));
+				}
+			}
+			catch(IOException exc) {
+				System.err.println("Failed to open file " + source);
+				return;
+			}
 		}
-		catch(TigerParseException exc) {
-			System.err.println(exc.toString());
-			return;
+		
+		NodeArena ast;
+		Program program;
+		TigerSymbolTable symbolTable;
+		if(cached != null) {
+			ast = cached.getArena();
+			program = cached.getProgram();
+			symbolTable = cached.getSymbolTable();
+		} else {
+			TigerParser parser;
+			try {
+				parser = new TigerParser(new TigerScanner(sourcePath));
+			}
+			catch(IOException exc) {
+				System.err.println("Failed to open file " + source);
+				return;
+			}
+			
+			try {
+				ast = parser.parseArena();
+				TigerAnalyzer analyzer = new TigerAnalyzer(TigerASTBuilder.build(ast));
+				analyzer.setParallel(parallel);
+				if(incremental) {
+					analyzer.declare();
+					fingerprints = TigerFingerprints.compute(analyzer.getProgram(), analyzer.getSymbolTable(), ast.getTokenBuffer());
+					analyzer.analyzeBodies(previousIR != null ? previousIR.findCached(analyzer.getProgram(), fingerprints) : null);
+				} else {
+					analyzer.run();
+				}
+				program = analyzer.getProgram();
+				symbolTable = analyzer.getSymbolTable();
+			}
+			catch(TigerParseException exc) {
+				System.err.println(exc.toString());
+				return;
+			}
+			
+			if(cache) {
+				try {
+					TigerAnalysisCache.write(cachePath, sourceHash, ast, symbolTable);
+				}
+				catch(IOException exc) {
+					System.err.println("Failed to write cache file " + cachePath);
+				}
+			}
 		}
 		
-		RuleNode ast;
-		TigerAnalyzer analyzer;
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
 		try {
-			analyzer = new TigerAnalyzer(ast = parser.parse());
-			analyzer.run();
+			if(printTokens) {
+				TokenBuffer tokens = ast.getTokenBuffer();
+				for(int i = 0; i < tokens.size(); i++) {
+					out.append(tokens.getTokenString(i)).append(' ');
+				}
+				out.append('\n');
+			}
+			
+			if(printAST) {
+				ast.print(out);
+				out.append('\n');
+			}
+			out.flush();
 		}
-		catch(TigerParseException exc) {
-			System.err.println(exc.toString());
+		catch(IOException exc) {
+			System.err.println("Failed to write output: " + exc.getMessage());
 			return;
 		}
 		
-		if(printTokens) {
-			for(TigerToken token : parser.getTokens()) {
-				System.out.print(token.getTokenString() + " ");
+		TigerIRGenerator generator = new TigerIRGenerator(program, symbolTable);
+		TigerIRProgram ir;
+		if(incremental) {
+			TigerIRCache nextIR = new TigerIRCache();
+			ir = generator.generateIR(fingerprints, previousIR, nextIR);
+			
+			if(!nextIR.isUnchangedFrom(previousIR)) {
+				try {
+					nextIR.write(irCachePath);
+				}
+				catch(IOException exc) {
+					System.err.println("Failed to write cache file " + irCachePath);
+				}
 			}
-			System.out.println();
-		}
-		
-		if(printAST) {
-			System.out.println(ast);
+		} else {
+			ir = generator.generateIR();
 		}
 		
-		TigerIRGenerator generator = new TigerIRGenerator(ast, analyzer.getSymbolTable());
-		List<String> ir = generator.generateIR();
-		
 		if(printil) {
-			System.out.println(StringifyTigerIR.stringifyIR(ir));
+			try {
+				StringifyTigerIR.printIR(ir, out);
+				out.append('\n');
+				
+				// the interpreter prints straight to System.out
+				out.flush();
+			}
+			catch(IOException exc) {
+				System.err.println("Failed to write output: " + exc.getMessage());
+				return;
+			}
 		}
 		
 		if(runil) {
@@ -0,0 +1,285 @@
+package edu.cs4240.tiger.analyzer;
+
+import static edu.cs4240.tiger.util.Utils.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import edu.cs4240.tiger.analyzer.TigerType.BaseType;
+import edu.cs4240.tiger.analyzer.TigerType.TigerArrayType;
+import edu.cs4240.tiger.ast.Program;
+import edu.cs4240.tiger.ast.TigerASTBuilder;
+import edu.cs4240.tiger.parser.TigerParseTable;
+import edu.cs4240.tiger.parser.TokenBuffer;
+import edu.cs4240.tiger.parser.node.NodeArena;
+import edu.cs4240.tiger.util.Pair;
+
+/**
+ * Front-end results of an analyzed source: its tokens, parse tree, symbol table and expression types, in a binary
+ * file that is memory-mapped back instead of scanning, parsing and analyzing the source again.
+ * <p>
+ * The header holds a magic number, the format version, the grammar hash and the hash of the source,
+ * a file that does not match all four is ignored. It is followed by the length and the CRC32 of the
+ * rest of the file, so a file that was cut short or damaged is ignored too instead of being decoded.
+ * <p>
+ * The source itself is not written, the tokens are read back as offsets into it. Tokens and parse tree
+ * nodes take about a byte each and there are a few nodes per token, so the file is still a few times
+ * larger than the source. Reading it is a few times faster than scanning, parsing and analyzing again
+ * rather than an order of magnitude, as those are single linear passes too and the tree still has to be
+ * rebuilt node by node.
+ *
+ * @author Roi Atalla
+ */
+public class TigerAnalysisCache {
+	private static final int MAGIC = 0x54474143; // "TGAC"
+	private static final int VERSION = 5;
+	
+	private static final BaseType[] baseTypes = BaseType.values();
+	
+	private final TokenBuffer tokens;
+	private final NodeArena arena;
+	private final Program program;
+	private final TigerSymbolTable symbolTable;
+	
+	private TigerAnalysisCache(TokenBuffer tokens, NodeArena arena, Program program, TigerSymbolTable symbolTable) {
+		this.tokens = tokens;
+		this.arena = arena;
+		this.program = program;
+		this.symbolTable = symbolTable;
+	}
+	
+	public TokenBuffer getTokenBuffer() {
+		return tokens;
+	}
+	
+	public NodeArena getArena() {
+		return arena;
+	}
+	
+	/**
+	 * @return the AST built from the arena, its expressions are typed by the symbol table
+	 */
+	public Program getProgram() {
+		return program;
+	}
+	
+	public TigerSymbolTable getSymbolTable() {
+		return symbolTable;
+	}
+	
+	public static long hashSource(byte[] source) {
+		CRC32 crc = new CRC32();
+		crc.update(source);
+		return crc.getValue();
+	}
+	
+	public static void write(Path path, long sourceHash, NodeArena arena, TigerSymbolTable symbolTable) throws IOException {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(1 << 16);
+		try(DataOutputStream out = new DataOutputStream(payload)) {
+			arena.getTokenBuffer().write(out);
+			arena.write(out);
+			
+			out.writeInt(symbolTable.getTypeAliases().size());
+			for(Map.Entry<String, TigerType> typeAlias : symbolTable.getTypeAliases().entrySet()) {
+				writeString(out, typeAlias.getKey());
+				writeType(out, typeAlias.getValue());
+			}
+			
+			out.writeInt(symbolTable.getVariables().size());
+			for(Map.Entry<String, Pair<TigerType, String>> variable : symbolTable.getVariables().entrySet()) {
+				writeString(out, variable.getKey());
+				writeType(out, variable.getValue().getKey());
+				writeString(out, variable.getValue().getValue());
+			}
+			
+			HashMap<String, Pair<TigerType, List<Pair<String, TigerType>>>> functions = new HashMap<>(symbolTable.getFunctions());
+			functions.keySet().removeAll(TigerSymbolTable.builtInFunctions.keySet());
+			
+			out.writeInt(functions.size());
+			for(Map.Entry<String, Pair<TigerType, List<Pair<String, TigerType>>>> function : functions.entrySet()) {
+				writeString(out, function.getKey());
+				writeType(out, function.getValue().getKey());
+				
+				List<Pair<String, TigerType>> params = function.getValue().getValue();
+				out.writeInt(params.size());
+				for(Pair<String, TigerType> param : params) {
+					writeString(out, param.getKey());
+					writeType(out, param.getValue());
+				}
+			}
+			
+			TigerExprTypes exprTypes = symbolTable.getExprTypes();
+			out.writeInt(exprTypes.size());
+			for(int i = 0; i < exprTypes.size(); i++) {
+				writeType(out, exprTypes.get(i));
+			}
+		}
+		
+		CRC32 crc = new CRC32();
+		crc.update(payload.toByteArray());
+		
+		try(DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(TigerParseTable.getGrammarHash());
+			out.writeLong(sourceHash);
+			out.writeInt(payload.size());
+			out.writeLong(crc.getValue());
+			payload.writeTo(out);
+		}
+	}
+	
+	/**
+	 * @param source the decoded source, as scanned
+	 * @return the cached results, or null when the file is truncated, corrupt or from another format version, grammar
+	 * or source
+	 */
+	public static TigerAnalysisCache read(Path path, long sourceHash, char[] source) throws IOException {
+		MappedByteBuffer in;
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		
+		try {
+			return read(in, sourceHash, source);
+		}
+		catch(RuntimeException exc) {
+			// a file that passes the checks but does not decode is as good as a stale one
+			return null;
+		}
+	}
+	
+	private static TigerAnalysisCache read(ByteBuffer in, long sourceHash, char[] source) {
+		if(in.remaining() < 36 || in.getInt() != MAGIC || in.getInt() != VERSION || in.getLong() != TigerParseTable.getGrammarHash() ||
+		     in.getLong() != sourceHash || in.getInt() != in.remaining() - 8) {
+			return null;
+		}
+		
+		long payloadHash = in.getLong();
+		CRC32 crc = new CRC32();
+		crc.update(in.duplicate());
+		if(crc.getValue() != payloadHash) {
+			return null;
+		}
+		
+		TokenBuffer tokens = TokenBuffer.read(in, source);
+		NodeArena arena = NodeArena.read(in, tokens);
+		TigerTypeTable typeTable = new TigerTypeTable();
+		
+		HashMap<String, TigerType> typeAliases = new HashMap<>();
+		for(int i = in.getInt(); i > 0; i--) {
+			typeAliases.put(readString(in), readType(in, typeTable));
+		}
+		
+		HashMap<String, Pair<TigerType, String>> variables = new HashMap<>();
+		for(int i = in.getInt(); i > 0; i--) {
+			String name = readString(in);
+			TigerType type = readType(in, typeTable);
+			variables.put(name, new Pair<>(type, readString(in)));
+		}
+		
+		HashMap<String, Pair<TigerType, List<Pair<String, TigerType>>>> functions = new HashMap<>();
+		for(int i = in.getInt(); i > 0; i--) {
+			String name = readString(in);
+			TigerType returnType = readType(in, typeTable);
+			
+			int paramCount = readCount(in);
+			ArrayList<Pair<String, TigerType>> params = new ArrayList<>(paramCount);
+			for(int p = 0; p < paramCount; p++) {
+				String param = readString(in);
+				params.add(new Pair<>(param, readType(in, typeTable)));
+			}
+			
+			functions.put(name, new Pair<>(returnType, params));
+		}
+		
+		TigerExprTypes exprTypes = new TigerExprTypes(readCount(in));
+		for(int i = 0; i < exprTypes.size(); i++) {
+			exprTypes.set(i, readType(in, typeTable));
+		}
+		
+		// the types are indexed by the expressions of the AST, numbered as it is built
+		Program program = TigerASTBuilder.build(arena);
+		if(program.exprCount != exprTypes.size()) {
+			return null;
+		}
+		
+		return new TigerAnalysisCache(tokens, arena, program, new TigerSymbolTable(typeAliases, variables, functions, tokens.getSymbols(), typeTable, exprTypes));
+	}
+	
+	/**
+	 * Reads the count of the items that follow, each of which takes at least a byte.
+	 */
+	private static int readCount(ByteBuffer in) {
+		int count = in.getInt();
+		if(count < 0 || count > in.remaining()) {
+			throw new IllegalArgumentException("Invalid count " + count);
+		}
+		return count;
+	}
+	
+	private static void writeString(DataOutput out, String s) throws IOException {
+		byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, utf8.length);
+		out.write(utf8);
+	}
+	
+	private static String readString(ByteBuffer in) {
+		int length = readVarInt(in);
+		if(length < 0 || length > in.remaining()) {
+			throw new IllegalArgumentException("Invalid string length " + length);
+		}
+		
+		byte[] utf8 = new byte[length];
+		in.get(utf8);
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Base type ordinal, followed by the size and the sub type for arrays. -1 is a void return type.
+	 */
+	private static void writeType(DataOutput out, TigerType type) throws IOException {
+		if(type == null) {
+			out.writeByte(-1);
+			return;
+		}
+		
+		out.writeByte(type.baseType.ordinal());
+		if(type.baseType == BaseType.ARRAY) {
+			TigerArrayType arrayType = (TigerArrayType)type;
+			out.writeInt(arrayType.size);
+			writeType(out, arrayType.subType);
+		}
+	}
+	
+	private static TigerType readType(ByteBuffer in, TigerTypeTable typeTable) {
+		byte baseType = in.get();
+		if(baseType == -1) {
+			return null;
+		}
+		
+		switch(baseTypes[baseType]) {
+			case INT:
+				return TigerType.INT_TYPE;
+			case FLOAT:
+				return TigerType.FLOAT_TYPE;
+			default:
+				int size = in.getInt();
+				return typeTable.getArrayType(readType(in, typeTable), size);
+		}
+	}
+}
@@ -1,18 +1,31 @@
 package edu.cs4240.tiger.analyzer;
 
 import static edu.cs4240.tiger.analyzer.TigerTypeAnalyzer.*;
-import static edu.cs4240.tiger.util.Utils.*;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import edu.cs4240.tiger.ast.AssignStmt;
+import edu.cs4240.tiger.ast.AstNode;
+import edu.cs4240.tiger.ast.AstNode.Kind;
+import edu.cs4240.tiger.ast.AstVisitor;
+import edu.cs4240.tiger.ast.BreakStmt;
+import edu.cs4240.tiger.ast.CallStmt;
+import edu.cs4240.tiger.ast.Expr;
+import edu.cs4240.tiger.ast.ForStmt;
+import edu.cs4240.tiger.ast.FuncDecl;
+import edu.cs4240.tiger.ast.IfStmt;
+import edu.cs4240.tiger.ast.Program;
+import edu.cs4240.tiger.ast.ReturnStmt;
+import edu.cs4240.tiger.ast.Stmt;
+import edu.cs4240.tiger.ast.TigerASTBuilder;
+import edu.cs4240.tiger.ast.TypeDecl;
+import edu.cs4240.tiger.ast.VarDecl;
+import edu.cs4240.tiger.ast.WhileStmt;
 import edu.cs4240.tiger.parser.TigerParseException;
-import edu.cs4240.tiger.parser.TigerProductionRule;
-import edu.cs4240.tiger.parser.TigerToken;
-import edu.cs4240.tiger.parser.TigerTokenClass;
-import edu.cs4240.tiger.parser.node.LeafNode;
-import edu.cs4240.tiger.parser.node.Node;
 import edu.cs4240.tiger.parser.node.RuleNode;
 import edu.cs4240.tiger.util.Pair;
 
@@ -20,217 +33,387 @@ import edu.cs4240.tiger.util.Pair;
  * @author Roi Atalla
  */
 public class TigerAnalyzer {
-	private RuleNode ast;
+	private Program ast;
 	private TigerSymbolTable symbolTable;
+	private boolean parallel;
+	private boolean[] skipped;
 	
-	public TigerAnalyzer(RuleNode ast) {
+	public TigerAnalyzer(Program ast) {
 		this.ast = ast;
 	}
 	
+	public TigerAnalyzer(RuleNode ast) {
+		this(TigerASTBuilder.build(ast));
+	}
+	
+	/**
+	 * Builds the symbol table and checks the program in one walk. The signatures of all functions are
+	 * declared before any body is checked, since a function can call one declared after it.
+	 */
 	public void run() throws TigerParseException {
-		symbolTable = new TigerSymbolTable(ast);
+		declare();
+		analyzeBodies(null);
+	}
+	
+	/**
+	 * Builds the symbol table from the declarations, without checking any body.
+	 */
+	public void declare() throws TigerParseException {
+		symbolTable = new TigerSymbolTable(ast.symbols, ast.exprCount);
+		
+		for(TypeDecl typeDecl : ast.typeDecls) {
+			symbolTable.declareType(typeDecl);
+		}
 		
-		analyzeFunctions();
-		analyzeProgramStatements();
+		for(VarDecl varDecl : ast.varDecls) {
+			symbolTable.declareVariables(varDecl);
+		}
+		
+		for(FuncDecl funcDecl : ast.funcDecls) {
+			symbolTable.declareFunction(funcDecl);
+		}
+	}
+	
+	/**
+	 * Checks the bodies once declare() has run. Body i is function i and the last one is main.
+	 *
+	 * @param skipped the bodies that are not checked, they get no expression types, or null to check all of them
+	 */
+	public void analyzeBodies(boolean[] skipped) throws TigerParseException {
+		this.skipped = skipped;
+		
+		if(parallel) {
+			analyzeBodiesInParallel();
+		} else {
+			analyzeFunctions();
+			analyzeProgramStatements();
+		}
+	}
+	
+	/**
+	 * @param parallel whether analyzeBodies checks the bodies in parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+	
+	public Program getProgram() {
+		return ast;
 	}
 	
 	public TigerSymbolTable getSymbolTable() {
 		return symbolTable;
 	}
 	
+	private boolean isSkipped(int body) {
+		return skipped != null && skipped[body];
+	}
+	
 	private void analyzeFunctions() throws TigerParseException {
-		if(((RuleNode)ast.getChildren().get(1)).getChildren().size() > 0) {
-			analyzeFunction((RuleNode)((RuleNode)ast.getChildren().get(1)).getChildren().get(2));
+		for(int i = 0; i < ast.funcDecls.size(); i++) {
+			if(!isSkipped(i)) {
+				analyzeFunction(ast.funcDecls.get(i));
+			}
 		}
 	}
 	
-	private void analyzeFunction(RuleNode funcdecls) throws TigerParseException {
-		if(funcdecls.getChildren().size() == 0) {
-			return;
-		}
-		
-		RuleNode funcdecl = (RuleNode)funcdecls.getChildren().get(0);
-		Pair<TigerType, List<Pair<String, TigerType>>> funcInfo = symbolTable.getFunctions().get(((LeafNode)funcdecl.getChildren().get(1)).getToken().getTokenString());
-		
-		HashMap<String, TigerType> funcVarTypes = getVarTypes();
-		funcInfo.getValue().forEach((Pair<String, TigerType> p) -> funcVarTypes.put(p.getKey(), p.getValue()));
+	private void analyzeFunction(FuncDecl funcDecl) throws TigerParseException {
+		Pair<TigerType, List<Pair<String, TigerType>>> funcInfo = symbolTable.getFunction(funcDecl.id.getSymbol());
 		
-		if(!analyzeStatements((RuleNode)funcdecl.getChildren().get(7), funcVarTypes, funcInfo.getKey(), false).getKey() && funcInfo.getKey() != null) {
-			throw new TigerParseException("Not all code paths return", ((LeafNode)funcdecl.getChildren().get(8)).getToken());
+		StatementAnalyzer analyzer = new StatementAnalyzer(symbolTable.getFunctionScope(funcDecl.id.getSymbol()), funcInfo.getKey());
+		if(!analyzer.analyzeStatements(funcDecl.body, false).getKey() && funcInfo.getKey() != null) {
+			throw new TigerParseException("Not all code paths return", funcDecl.end);
 		}
-		analyzeFunction((RuleNode)funcdecls.getChildren().get(1));
-	}
-	
-	private HashMap<String, TigerType> getVarTypes() {
-		HashMap<String, TigerType> varTypes = new HashMap<>();
-		varTypes.putAll(symbolTable.getVariables().keySet().stream().collect(Collectors.toMap(s -> s, s -> symbolTable.getVariables().get(s).getKey())));
-		return varTypes;
 	}
 	
 	private void analyzeProgramStatements() throws TigerParseException {
-		analyzeStatements((RuleNode)ast.getChildren().get(3), getVarTypes(), null, false);
+		if(isSkipped(ast.funcDecls.size())) {
+			return;
+		}
+		
+		new StatementAnalyzer(symbolTable.getGlobalScope(), null).analyzeStatements(ast.body, false);
 	}
 	
-	private Pair<Boolean, Boolean> analyzeStatements(RuleNode stmts, HashMap<String, TigerType> varTypes, TigerType returnValue, boolean insideLoop) throws TigerParseException {
-		ensureValue(stmts.getRule(), TigerProductionRule.STMTS);
+	/**
+	 * Checks the function bodies and main on the common ForkJoinPool once the declarations are in the
+	 * symbol table. The error thrown is the same one a sequential run throws, the first in the source.
+	 */
+	private void analyzeBodiesInParallel() throws TigerParseException {
+		int bodyCount = ast.funcDecls.size() + 1; // main comes after all functions
+		BodyAnalysis analysis = new BodyAnalysis(0, bodyCount, new TigerParseException[bodyCount], new AtomicInteger(bodyCount));
+		ForkJoinPool.commonPool().invoke(analysis);
 		
-		if(stmts.getChildren().size() == 0) {
-			return new Pair<>(false, false);
+		int firstError = analysis.firstError.get();
+		if(firstError < bodyCount) {
+			throw analysis.errors[firstError];
 		}
+	}
+	
+	/**
+	 * Checks the bodies from start to end, body i is function i and the last one is main. Bodies check
+	 * independently, so each error is kept at its index and the lowest index is the one reported.
+	 */
+	private class BodyAnalysis extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final int start, end;
+		private final TigerParseException[] errors;
+		private final AtomicInteger firstError;
 		
-		RuleNode fullstmt = (RuleNode)stmts.getChildren().get(0);
-		ensureValue(fullstmt.getRule(), TigerProductionRule.FULLSTMT);
-		Pair<Boolean, Boolean> doesReturn = analyzeStatement((RuleNode)fullstmt.getChildren().get(0), varTypes, returnValue, insideLoop);
+		BodyAnalysis(int start, int end, TigerParseException[] errors, AtomicInteger firstError) {
+			this.start = start;
+			this.end = end;
+			this.errors = errors;
+			this.firstError = firstError;
+		}
 		
-		if(stmts.getChildren().size() > 1) {
-			if(doesReturn.getKey() || doesReturn.getValue()) {
-				throw new TigerParseException("Dead code", getLeftmostLeaf((RuleNode)stmts.getChildren().get(1)));
-			} else {
-				doesReturn = analyzeStatements((RuleNode)stmts.getChildren().get(1), varTypes, returnValue, insideLoop);
+		@Override
+		protected void compute() {
+			if(end - start > 1) {
+				int mid = (start + end) >>> 1;
+				invokeAll(new BodyAnalysis(start, mid, errors, firstError), new BodyAnalysis(mid, end, errors, firstError));
+				return;
+			}
+			
+			// a body after one that already failed cannot be the reported error
+			if(start > firstError.get() || isSkipped(start)) {
+				return;
+			}
+			
+			try {
+				if(start < ast.funcDecls.size()) {
+					analyzeFunction(ast.funcDecls.get(start));
+				} else {
+					analyzeProgramStatements();
+				}
+			}
+			catch(TigerParseException exc) {
+				errors[start] = exc;
+				firstError.accumulateAndGet(start, Math::min);
 			}
 		}
+	}
+	
+	/**
+	 * A statement list being checked by StatementAnalyzer.
+	 */
+	private static class Block {
+		final Stmt owner; // the statement the list is the body of, null for the function body
+		final List<Stmt> stmts;
+		final boolean insideLoop;
+		final Pair<Boolean, Boolean> thenReturns; // the result of the then statements when this is an else
+		int next;
+		Pair<Boolean, Boolean> doesReturn = new Pair<>(false, false);
 		
-		return doesReturn;
+		Block(Stmt owner, List<Stmt> stmts, boolean insideLoop, Pair<Boolean, Boolean> thenReturns) {
+			this.owner = owner;
+			this.stmts = stmts;
+			this.insideLoop = insideLoop;
+			this.thenReturns = thenReturns;
+		}
 	}
 	
-	private Pair<Boolean, Boolean> analyzeStatement(RuleNode stmt, HashMap<String, TigerType> varTypes, TigerType returnType, boolean insideLoop) throws TigerParseException {
-		ensureValue(stmt.getRule(), TigerProductionRule.STMT);
+	/**
+	 * Checks the statements of one function body. The context is whether the statement is inside a loop,
+	 * the result is whether it always returns and whether it always breaks.
+	 * <p>
+	 * If, while and for check their header and push a block for their statements, then return null: the
+	 * loop in analyzeStatements checks the blocks, so nested statements do not recurse, and finishBlock
+	 * gives the statement its result once its blocks are done.
+	 */
+	private class StatementAnalyzer implements AstVisitor<Pair<Boolean, Boolean>, Boolean, TigerParseException> {
+		private final TigerScope scope;
+		private final TigerType returnType;
+		private final TigerExprTypes types;
+		private final ArrayDeque<Block> blocks = new ArrayDeque<>();
 		
-		Node first = stmt.getChildren().get(0);
-		if(first instanceof RuleNode) {
-			RuleNode firstRule = (RuleNode)first;
+		StatementAnalyzer(TigerScope scope, TigerType returnType) {
+			this.scope = scope;
+			this.returnType = returnType;
+			this.types = symbolTable.getExprTypes();
+		}
+		
+		Pair<Boolean, Boolean> analyzeStatements(List<Stmt> stmts, boolean insideLoop) throws TigerParseException {
+			blocks.push(new Block(null, stmts, insideLoop, null));
 			
-			switch(firstRule.getRule()) {
-				case LVALUE:
-					TigerType lvalueType = getIdOptOffsetType((RuleNode)stmt.getChildren().get(0), varTypes);
-					TigerType numexprType = getNumexprType((RuleNode)stmt.getChildren().get(2), varTypes);
-					
-					if(!isTypeCompatibleAssign(lvalueType, numexprType)) {
-						throw new TigerParseException("Incompatible types", getLeftmostLeaf((RuleNode)stmt.getChildren().get(2)));
-					}
-					
-					break;
-				case OPTSTORE:
-					TigerToken functionToken = ((LeafNode)stmt.getChildren().get(1)).getToken();
-					Pair<TigerType, List<Pair<String, TigerType>>> function = symbolTable.getFunctions().get(functionToken.getTokenString());
-					
-					RuleNode optstore = (RuleNode)stmt.getChildren().get(0);
-					if(optstore.getChildren().size() > 0) {
-						lvalueType = getIdOptOffsetType((RuleNode)optstore.getChildren().get(0), varTypes);
-						
-						if(function.getKey() == null) {
-							throw new TigerParseException("Function does not return a value", functionToken);
-						}
-						
-						if(!isTypeCompatibleAssign(lvalueType, function.getKey())) {
-							throw new TigerParseException("Return type incompatible with left-hand side type", functionToken);
-						}
+			while(true) {
+				Block block = blocks.peek();
+				if(block.next < block.stmts.size()) {
+					Stmt stmt = block.stmts.get(block.next++);
+					if(block.doesReturn.getKey() || block.doesReturn.getValue()) {
+						throw new TigerParseException("Dead code", stmt.getFirstLeaf());
 					}
 					
-					RuleNode numexprs = (RuleNode)stmt.getChildren().get(3);
-					if(function == null) {
-						throw new TigerParseException("No such function found", ((LeafNode)stmt.getChildren().get(1)).getToken());
+					Pair<Boolean, Boolean> doesReturn = visit(stmt, block.insideLoop);
+					if(doesReturn != null) {
+						block.doesReturn = doesReturn;
 					}
-					
-					if(numexprs.getChildren().size() == 0 && function.getValue().size() != 0) {
-						throw new TigerParseException("Missing arguments to function", functionToken);
+				} else {
+					blocks.pop();
+					if(block.owner == null) {
+						return block.doesReturn;
 					}
 					
-					if(numexprs.getChildren().size() == 1) {
-						RuleNode neexprs = (RuleNode)numexprs.getChildren().get(0);
-						
-						for(Pair<String, TigerType> arg : function.getValue()) {
-							if(neexprs == null) {
-								throw new TigerParseException("Argument mismatch", functionToken);
-							}
-							
-							RuleNode numexpr = (RuleNode)neexprs.getChildren().get(0);
-							TigerType argType = getNumexprType(numexpr, varTypes);
-							
-							if(!isTypeCompatibleAssign(arg.getValue(), argType)) {
-								throw new TigerParseException("Incompatible types", getLeftmostLeaf(numexpr));
-							}
-							
-							if(neexprs.getChildren().size() == 3) {
-								neexprs = (RuleNode)neexprs.getChildren().get(2);
-							} else {
-								neexprs = null;
-							}
-						}
+					Pair<Boolean, Boolean> ownerReturns = finishBlock(block);
+					if(ownerReturns != null) {
+						blocks.peek().doesReturn = ownerReturns;
 					}
-					
-					break;
-				default:
-					throw new TigerParseException("Expected LVALUE or OPTSTORE, received " + firstRule.getRule());
+				}
 			}
-		} else {
-			LeafNode firstLeaf = (LeafNode)first;
+		}
+		
+		/**
+		 * @return the result of the owner of block, or null if it has another block to check first
+		 */
+		private Pair<Boolean, Boolean> finishBlock(Block block) {
+			Pair<Boolean, Boolean> doesReturn = block.doesReturn;
 			
-			switch(firstLeaf.getToken().getTokenClass()) {
-				case IF:
-					analyzeBoolexpr((RuleNode)stmt.getChildren().get(1), varTypes);
-					Pair<Boolean, Boolean> doesReturn = analyzeStatements((RuleNode)stmt.getChildren().get(3), varTypes, returnType, insideLoop);
-					
-					if(((LeafNode)stmt.getChildren().get(4)).getToken().getTokenClass() == TigerTokenClass.ELSE) {
-						Pair<Boolean, Boolean> subStmtReturns = analyzeStatements((RuleNode)stmt.getChildren().get(5), varTypes, returnType, insideLoop);
-						doesReturn.set(doesReturn.getKey() & subStmtReturns.getKey(), doesReturn.getValue() & subStmtReturns.getValue());
-					} else {
-						doesReturn = new Pair<>(false, false);
-					}
-					
-					return doesReturn;
-				case WHILE:
-					analyzeBoolexpr((RuleNode)stmt.getChildren().get(1), varTypes);
-					Pair<Boolean, Boolean> bodyReturns = analyzeStatements((RuleNode)stmt.getChildren().get(3), varTypes, returnType, true);
-					bodyReturns.setValue(false);
-					return bodyReturns;
-				case FOR:
-					TigerType idType = varTypes.get(((LeafNode)stmt.getChildren().get(1)).getToken().getTokenString());
-					if(idType == null) {
-						throw new TigerParseException("Undeclared variable", ((LeafNode)stmt.getChildren().get(1)).getToken());
-					}
-					
-					if(!idType.equals(TigerType.INT_TYPE)) {
-						throw new TigerParseException("Iterating variable must be of integer type", ((LeafNode)stmt.getChildren().get(1)).getToken());
-					}
-					
-					TigerType numexpr1 = getNumexprType((RuleNode)stmt.getChildren().get(3), varTypes);
-					
-					if(!isTypeCompatibleAssign(idType, numexpr1)) {
-						throw new TigerParseException("Type of expression does not match type of iterating variable", getLeftmostLeaf((RuleNode)stmt.getChildren().get(3)));
-					}
-					
-					TigerType numexpr2 = getNumexprType((RuleNode)stmt.getChildren().get(5), varTypes);
-					
-					if(!isTypeCompatibleAssign(idType, numexpr2)) {
-						throw new TigerParseException("Type of expression does not match type of iterating variable", getLeftmostLeaf((RuleNode)stmt.getChildren().get(5)));
-					}
-					
-					bodyReturns = analyzeStatements((RuleNode)stmt.getChildren().get(7), varTypes, returnType, true);
-					bodyReturns.setValue(false);
-					return bodyReturns;
-				case BREAK:
-					if(!insideLoop) {
-						throw new TigerParseException("Illegal break, not inside any loops", firstLeaf.getToken());
-					}
-					return new Pair<>(false, true);
-				case RETURN:
-					if(returnType == null) {
-						throw new TigerParseException("Illegal return statement", firstLeaf.getToken());
+			if(block.owner.kind != Kind.IF) {
+				return new Pair<>(doesReturn.getKey(), false);
+			}
+			
+			IfStmt ifStmt = (IfStmt)block.owner;
+			if(ifStmt.elseStmts == null) {
+				return new Pair<>(false, false);
+			}
+			
+			if(block.thenReturns == null) {
+				blocks.push(new Block(ifStmt, ifStmt.elseStmts, block.insideLoop, doesReturn));
+				return null;
+			}
+			
+			return new Pair<>(block.thenReturns.getKey() & doesReturn.getKey(), block.thenReturns.getValue() & doesReturn.getValue());
+		}
+		
+		@Override
+		public Pair<Boolean, Boolean> visitDefault(AstNode node, Boolean insideLoop) throws TigerParseException {
+			throw new TigerParseException("Unexpected statement", ((Stmt)node).getFirstLeaf());
+		}
+		
+		@Override
+		public Pair<Boolean, Boolean> visitAssign(AssignStmt assignStmt, Boolean insideLoop) throws TigerParseException {
+			TigerType lvalueType = getLValueType(assignStmt.target, scope, types);
+			TigerType numexprType = getNumexprType(assignStmt.value, scope, types);
+			
+			if(!isTypeCompatibleAssign(lvalueType, numexprType)) {
+				throw new TigerParseException("Incompatible types", assignStmt.value.getFirstLeaf());
+			}
+			
+			return new Pair<>(false, false);
+		}
+		
+		@Override
+		public Pair<Boolean, Boolean> visitCall(CallStmt callStmt, Boolean insideLoop) throws TigerParseException {
+			Pair<TigerType, List<Pair<String, TigerType>>> function = symbolTable.getFunction(callStmt.function.getSymbol());
+			
+			if(callStmt.store != null) {
+				TigerType lvalueType = getLValueType(callStmt.store, scope, types);
+				
+				if(function.getKey() == null) {
+					throw new TigerParseException("Function does not return a value", callStmt.function);
+				}
+				
+				if(!isTypeCompatibleAssign(lvalueType, function.getKey())) {
+					throw new TigerParseException("Return type incompatible with left-hand side type", callStmt.function);
+				}
+			}
+			
+			if(function == null) {
+				throw new TigerParseException("No such function found", callStmt.function);
+			}
+			
+			if(callStmt.args.size() == 0 && function.getValue().size() != 0) {
+				throw new TigerParseException("Missing arguments to function", callStmt.function);
+			}
+			
+			if(callStmt.args.size() > 0) {
+				int argIndex = 0;
+				for(Pair<String, TigerType> arg : function.getValue()) {
+					if(argIndex >= callStmt.args.size()) {
+						throw new TigerParseException("Argument mismatch", callStmt.function);
 					}
 					
-					TigerType type = getNumexprType((RuleNode)stmt.getChildren().get(1), varTypes);
+					Expr numexpr = callStmt.args.get(argIndex);
+					TigerType argType = getNumexprType(numexpr, scope, types);
 					
-					if(!isTypeCompatibleAssign(returnType, type)) {
-						throw new TigerParseException("Type of returned expression does not match return type", getLeftmostLeaf((RuleNode)stmt.getChildren().get(1)));
+					if(!isTypeCompatibleAssign(arg.getValue(), argType)) {
+						throw new TigerParseException("Incompatible types", numexpr.getFirstLeaf());
 					}
 					
-					return new Pair<>(true, false);
-				default:
-					throw new TigerParseException("Unexpected statement", firstLeaf.getToken());
+					argIndex++;
+				}
+				
+				// arguments past the parameters are not checked, but still typed for the IR generator
+				for(; argIndex < callStmt.args.size(); argIndex++) {
+					getNumexprType(callStmt.args.get(argIndex), scope, types);
+				}
+			}
+			
+			return new Pair<>(false, false);
+		}
+		
+		@Override
+		public Pair<Boolean, Boolean> visitIf(IfStmt ifStmt, Boolean insideLoop) throws TigerParseException {
+			analyzeBoolexpr(ifStmt.condition, scope, types);
+			blocks.push(new Block(ifStmt, ifStmt.thenStmts, insideLoop, null));
+			return null;
+		}
+		
+		@Override
+		public Pair<Boolean, Boolean> visitWhile(WhileStmt whileStmt, Boolean insideLoop) throws TigerParseException {
+			analyzeBoolexpr(whileStmt.condition, scope, types);
+			blocks.push(new Block(whileStmt, whileStmt.body, true, null));
+			return null;
+		}
+		
+		@Override
+		public Pair<Boolean, Boolean> visitFor(ForStmt forStmt, Boolean insideLoop) throws TigerParseException {
+			TigerType idType = scope.lookup(forStmt.id.getSymbol());
+			if(idType == null) {
+				throw new TigerParseException("Undeclared variable", forStmt.id);
+			}
+			
+			if(idType != TigerType.INT_TYPE) {
+				throw new TigerParseException("Iterating variable must be of integer type", forStmt.id);
+			}
+			
+			TigerType numexpr1 = getNumexprType(forStmt.from, scope, types);
+			
+			if(!isTypeCompatibleAssign(idType, numexpr1)) {
+				throw new TigerParseException("Type of expression does not match type of iterating variable", forStmt.from.getFirstLeaf());
+			}
+			
+			TigerType numexpr2 = getNumexprType(forStmt.to, scope, types);
+			
+			if(!isTypeCompatibleAssign(idType, numexpr2)) {
+				throw new TigerParseException("Type of expression does not match type of iterating variable", forStmt.to.getFirstLeaf());
 			}
+			
+			blocks.push(new Block(forStmt, forStmt.body, true, null));
+			return null;
 		}
 		
-		return new Pair<>(false, false);
+		@Override
+		public Pair<Boolean, Boolean> visitBreak(BreakStmt breakStmt, Boolean insideLoop) throws TigerParseException {
+			if(!insideLoop) {
+				throw new TigerParseException("Illegal break, not inside any loops", breakStmt.keyword);
+			}
+			return new Pair<>(false, true);
+		}
+		
+		@Override
+		public Pair<Boolean, Boolean> visitReturn(ReturnStmt returnStmt, Boolean insideLoop) throws TigerParseException {
+			if(returnType == null) {
+				throw new TigerParseException("Illegal return statement", returnStmt.keyword);
+			}
+			
+			TigerType type = getNumexprType(returnStmt.value, scope, types);
+			
+			if(!isTypeCompatibleAssign(returnType, type)) {
+				throw new TigerParseException("Type of returned expression does not match return type", returnStmt.value.getFirstLeaf());
+			}
+			
+			return new Pair<>(true, false);
+		}
 	}
 }
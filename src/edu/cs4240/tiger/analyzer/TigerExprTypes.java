@@ -0,0 +1,37 @@
+package edu.cs4240.tiger.analyzer;
+
+import edu.cs4240.tiger.ast.Expr;
+
+/**
+ * The type of every expression of a program, indexed by Expr.exprIndex. TigerAnalyzer records them as it
+ * checks the program and TigerIRGenerator reads them back instead of typing the expressions again.
+ *
+ * @author Roi Atalla
+ */
+public class TigerExprTypes {
+	private final TigerType[] types;
+	
+	public TigerExprTypes(int exprCount) {
+		types = new TigerType[exprCount];
+	}
+	
+	public TigerType get(Expr expr) {
+		return types[expr.exprIndex];
+	}
+	
+	TigerType get(int exprIndex) {
+		return types[exprIndex];
+	}
+	
+	void set(Expr expr, TigerType type) {
+		types[expr.exprIndex] = type;
+	}
+	
+	void set(int exprIndex, TigerType type) {
+		types[exprIndex] = type;
+	}
+	
+	public int size() {
+		return types.length;
+	}
+}
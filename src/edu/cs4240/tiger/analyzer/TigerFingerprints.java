@@ -0,0 +1,100 @@
+package edu.cs4240.tiger.analyzer;
+
+import edu.cs4240.tiger.ast.FuncDecl;
+import edu.cs4240.tiger.ast.Program;
+import edu.cs4240.tiger.parser.TigerTokenClass;
+import edu.cs4240.tiger.parser.TokenBuffer;
+import edu.cs4240.tiger.util.SymbolInterner;
+
+/**
+ * Fingerprints of the bodies of a program, body i is function i and the last one is main. A body's
+ * fingerprint covers its own tokens and, for every name it uses, what the symbol table declares under
+ * that name: the function signature, the global variable type and the type alias. A body with the same
+ * fingerprint as in an earlier compile checks the same way and generates the same IR.
+ *
+ * @author Roi Atalla
+ */
+public class TigerFingerprints {
+	private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+	private static final long FNV_PRIME = 0x100000001B3L;
+	
+	private final TigerSymbolTable symbolTable;
+	private final TokenBuffer tokens;
+	private final long[] declarationHashes;
+	private final boolean[] hashed;
+	
+	private TigerFingerprints(TigerSymbolTable symbolTable, TokenBuffer tokens) {
+		this.symbolTable = symbolTable;
+		this.tokens = tokens;
+		
+		int symbolCount = symbolTable.getSymbols().size();
+		declarationHashes = new long[symbolCount];
+		hashed = new boolean[symbolCount];
+	}
+	
+	/**
+	 * @param symbolTable the table once the declarations are in it, the bodies need not be checked
+	 */
+	public static long[] compute(Program ast, TigerSymbolTable symbolTable, TokenBuffer tokens) {
+		TigerFingerprints fingerprints = new TigerFingerprints(symbolTable, tokens);
+		
+		long[] bodies = new long[ast.funcDecls.size() + 1];
+		int mainStart = 0;
+		for(int i = 0; i < ast.funcDecls.size(); i++) {
+			FuncDecl funcDecl = ast.funcDecls.get(i);
+			bodies[i] = fingerprints.hashTokens(funcDecl.id.getTokenIndex(), funcDecl.end.getTokenIndex() + 1);
+			mainStart = funcDecl.end.getTokenIndex() + 1;
+		}
+		
+		// main is everything after the last function, with no functions it includes the declarations
+		bodies[bodies.length - 1] = fingerprints.hashTokens(mainStart, tokens.size());
+		
+		return bodies;
+	}
+	
+	private long hashTokens(int start, int end) {
+		long hash = FNV_OFFSET;
+		for(int i = start; i < end; i++) {
+			TigerTokenClass tokenClass = tokens.getTokenClass(i);
+			hash = mix(hash, tokenClass.ordinal());
+			
+			if(tokenClass == TigerTokenClass.ID) {
+				long declarationHash = getDeclarationHash(tokens.getSymbol(i));
+				hash = mix(hash, (int)declarationHash);
+				hash = mix(hash, (int)(declarationHash >>> 32));
+			} else if(tokenClass == TigerTokenClass.INTLIT || tokenClass == TigerTokenClass.FLOATLIT) {
+				hash = mix(hash, tokens.getTokenString(i));
+			}
+		}
+		return hash;
+	}
+	
+	private long getDeclarationHash(int symbol) {
+		if(!hashed[symbol]) {
+			SymbolInterner symbols = symbolTable.getSymbols();
+			String name = symbols.getName(symbol);
+			
+			long hash = mix(FNV_OFFSET, name);
+			hash = mix(hash, String.valueOf(symbolTable.getFunction(symbol)));
+			hash = mix(hash, String.valueOf(symbolTable.getGlobalScope().lookup(symbol)));
+			hash = mix(hash, String.valueOf(symbolTable.getTypeAliases().get(name)));
+			
+			declarationHashes[symbol] = hash;
+			hashed[symbol] = true;
+		}
+		
+		return declarationHashes[symbol];
+	}
+	
+	private static long mix(long hash, int value) {
+		return (hash ^ value) * FNV_PRIME;
+	}
+	
+	private static long mix(long hash, String s) {
+		hash = mix(hash, s.length());
+		for(int i = 0; i < s.length(); i++) {
+			hash = mix(hash, s.charAt(i));
+		}
+		return hash;
+	}
+}
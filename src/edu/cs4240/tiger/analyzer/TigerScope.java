@@ -0,0 +1,117 @@
+package edu.cs4240.tiger.analyzer;
+
+import edu.cs4240.tiger.util.SymbolInterner;
+
+/**
+ * The variable types visible in one scope, keyed by interned symbol id.
+ * <p>
+ * A function scope only holds the parameters and layers over the global scope, which every function
+ * shares. Each scope is an open addressing table, so a lookup is a probe per scope on the chain.
+ *
+ * @author Roi Atalla
+ */
+public class TigerScope {
+	private final TigerScope parent;
+	private final SymbolInterner symbols;
+	private int[] ids;
+	private TigerType[] types;
+	private int size;
+	
+	public TigerScope(SymbolInterner symbols) {
+		this(null, symbols, 16);
+	}
+	
+	public TigerScope(TigerScope parent, int capacity) {
+		this(parent, parent.symbols, capacity);
+	}
+	
+	private TigerScope(TigerScope parent, SymbolInterner symbols, int capacity) {
+		this.parent = parent;
+		this.symbols = symbols;
+		
+		int tableSize = 4;
+		while(tableSize < capacity * 2) {
+			tableSize <<= 1;
+		}
+		ids = new int[tableSize];
+		types = new TigerType[tableSize];
+	}
+	
+	public TigerScope getParent() {
+		return parent;
+	}
+	
+	public SymbolInterner getSymbols() {
+		return symbols;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @return false if the symbol was already declared in this scope, it then keeps its first type
+	 */
+	public boolean declare(int id, TigerType type) {
+		if((size + 1) * 2 > ids.length) {
+			grow();
+		}
+		
+		int slot = find(id);
+		if(types[slot] != null) {
+			return false;
+		}
+		
+		ids[slot] = id;
+		types[slot] = type;
+		size++;
+		return true;
+	}
+	
+	public boolean declare(String name, TigerType type) {
+		return declare(symbols.intern(name), type);
+	}
+	
+	/**
+	 * @return the type of the symbol in the closest scope that declares it, or null if none does
+	 */
+	public TigerType lookup(int id) {
+		for(TigerScope scope = this; scope != null; scope = scope.parent) {
+			TigerType type = scope.types[scope.find(id)];
+			if(type != null) {
+				return type;
+			}
+		}
+		return null;
+	}
+	
+	public TigerType lookup(String name) {
+		int id = symbols.find(name);
+		return id == SymbolInterner.NONE ? null : lookup(id);
+	}
+	
+	private int find(int id) {
+		int mask = ids.length - 1;
+		int hash = id * 0x9E3779B9;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while(types[slot] != null && ids[slot] != id) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+	
+	private void grow() {
+		int[] oldIds = ids;
+		TigerType[] oldTypes = types;
+		ids = new int[oldIds.length * 2];
+		types = new TigerType[oldTypes.length * 2];
+		
+		for(int i = 0; i < oldIds.length; i++) {
+			if(oldTypes[i] != null) {
+				int slot = find(oldIds[i]);
+				ids[slot] = oldIds[i];
+				types[slot] = oldTypes[i];
+			}
+		}
+	}
+}
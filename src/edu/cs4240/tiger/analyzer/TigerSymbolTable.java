@@ -1,31 +1,37 @@
 package edu.cs4240.tiger.analyzer;
 
-import static edu.cs4240.tiger.util.Utils.*;
-
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
-import edu.cs4240.tiger.analyzer.TigerType.TigerArrayType;
+import edu.cs4240.tiger.ast.AstWalker;
+import edu.cs4240.tiger.ast.FuncDecl;
+import edu.cs4240.tiger.ast.Param;
+import edu.cs4240.tiger.ast.TypeDecl;
+import edu.cs4240.tiger.ast.TypeRef;
+import edu.cs4240.tiger.ast.VarDecl;
 import edu.cs4240.tiger.parser.TigerParseException;
-import edu.cs4240.tiger.parser.TigerProductionRule;
-import edu.cs4240.tiger.parser.TigerToken;
 import edu.cs4240.tiger.parser.TigerTokenClass;
 import edu.cs4240.tiger.parser.node.LeafNode;
-import edu.cs4240.tiger.parser.node.Node;
-import edu.cs4240.tiger.parser.node.RuleNode;
 import edu.cs4240.tiger.util.Pair;
+import edu.cs4240.tiger.util.SymbolInterner;
+import edu.cs4240.tiger.util.SymbolMap;
 
 /**
  * @author Roi Atalla
  */
 public class TigerSymbolTable {
-	private RuleNode ast;
 	private HashMap<String, TigerType> typeAliases;
 	private HashMap<String, Pair<TigerType, String>> variables; // HashMap<Name, Pair<Type, @Nullable InitValue>>
 	private HashMap<String, Pair<TigerType, List<Pair<String, TigerType>>>> functions; // HashMap<Name, Pair<@Nullable ReturnType, List<Pair<ArgName, ArgType>>>>
+	private SymbolMap<Pair<TigerType, List<Pair<String, TigerType>>>> functionsBySymbol;
+	private SymbolMap<TigerScope> functionScopes;
+	private SymbolInterner symbols;
+	private TigerTypeTable typeTable;
+	private TigerExprTypes exprTypes;
+	private TigerScope globalScope;
 	public final static HashMap<String, Pair<TigerType, List<Pair<String, TigerType>>>> builtInFunctions;
 	
 	static {
@@ -45,9 +51,43 @@ public class TigerSymbolTable {
 		builtInFunctions.put("destroyWindow", new Pair<>(null, Collections.singletonList(new Pair<>("id", TigerType.INT_TYPE))));
 	}
 	
-	public TigerSymbolTable(RuleNode ast) throws TigerParseException {
-		this.ast = ast;
-		buildSymbolTable();
+	/**
+	 * An empty table, TigerAnalyzer declares into it as it walks the program.
+	 *
+	 * @param symbols the names of the program, the symbols of its id leaves are ids in here
+	 * @param exprCount the number of expressions in the program
+	 */
+	TigerSymbolTable(SymbolInterner symbols, int exprCount) {
+		this(new HashMap<>(), new HashMap<>(), new HashMap<>(), symbols, new TigerTypeTable(), new TigerExprTypes(exprCount));
+	}
+	
+	/**
+	 * Restores an analyzed table, functions do not include the built-in ones. Its array types must come from typeTable.
+	 */
+	TigerSymbolTable(HashMap<String, TigerType> typeAliases, HashMap<String, Pair<TigerType, String>> variables, HashMap<String, Pair<TigerType, List<Pair<String, TigerType>>>> functions, SymbolInterner symbols, TigerTypeTable typeTable, TigerExprTypes exprTypes) {
+		this.typeAliases = typeAliases;
+		this.variables = variables;
+		this.functions = functions;
+		this.symbols = symbols;
+		this.typeTable = typeTable;
+		this.exprTypes = exprTypes;
+		
+		functionsBySymbol = new SymbolMap<>();
+		functionScopes = new SymbolMap<>();
+		globalScope = new TigerScope(symbols);
+		
+		variables.forEach((name, variable) -> globalScope.declare(name, variable.getKey()));
+		functions.forEach((name, function) -> {
+			TigerScope scope = new TigerScope(globalScope, function.getValue().size());
+			function.getValue().forEach(param -> scope.declare(param.getKey(), param.getValue()));
+			functionScopes.put(symbols.intern(name), scope);
+			functionsBySymbol.put(symbols.intern(name), function);
+		});
+		
+		builtInFunctions.forEach((name, function) -> {
+			functions.put(name, function);
+			functionsBySymbol.put(symbols.intern(name), function);
+		});
 	}
 	
 	public void printSymbolTables() {
@@ -67,181 +107,157 @@ public class TigerSymbolTable {
 		}
 	}
 	
+	public HashMap<String, TigerType> getTypeAliases() {
+		return typeAliases;
+	}
+	
 	public HashMap<String, Pair<TigerType, String>> getVariables() {
 		return variables;
 	}
 	
-	public HashMap<String, Pair<TigerType, List<Pair<String, TigerType>>>> getFunctions() {
-		return functions;
+	public SymbolInterner getSymbols() {
+		return symbols;
 	}
 	
-	private void buildSymbolTable() throws TigerParseException {
-		typeAliases = new HashMap<>();
-		variables = new HashMap<>();
-		functions = new HashMap<>();
-		
-		List<Node> declseg = ((RuleNode)ast.getChildren().get(1)).getChildren();
-		if(declseg.size() > 0) {
-			buildTypedecls((RuleNode)declseg.get(0));
-			buildVardecls((RuleNode)declseg.get(1));
-			buildFuncdecls((RuleNode)declseg.get(2));
-		}
-		
-		functions.putAll(builtInFunctions);
+	public TigerTypeTable getTypeTable() {
+		return typeTable;
 	}
 	
-	private void buildTypedecls(RuleNode typedecls) throws TigerParseException {
-		ensureValue(typedecls.getRule(), TigerProductionRule.TYPEDECLS);
-		
-		if(typedecls.getChildren().size() == 0) {
-			return;
-		}
-		
-		RuleNode typedecl = (RuleNode)typedecls.getChildren().get(0);
-		TigerToken id = ((LeafNode)typedecl.getChildren().get(1)).getToken();
-		TigerType type = getBaseType((RuleNode)typedecl.getChildren().get(3));
-		
-		if(typeAliases.get(id.getTokenString()) != null) {
-			throw new TigerParseException("Type previously declared", id);
-		}
-		
-		typeAliases.put(id.getTokenString(), type);
-		
-		buildTypedecls((RuleNode)typedecls.getChildren().get(1));
+	/**
+	 * The type of each expression of the program, filled in by TigerAnalyzer.
+	 */
+	public TigerExprTypes getExprTypes() {
+		return exprTypes;
+	}
+	
+	/**
+	 * The global variables, every function scope layers over this one.
+	 */
+	public TigerScope getGlobalScope() {
+		return globalScope;
+	}
+	
+	/**
+	 * @return the parameters of a declared function over the global scope, null for built-in functions
+	 */
+	public TigerScope getFunctionScope(int symbol) {
+		return functionScopes.get(symbol);
 	}
 	
-	private void buildVardecls(RuleNode vardecls) throws TigerParseException {
-		ensureValue(vardecls.getRule(), TigerProductionRule.VARDECLS);
+	/**
+	 * @return the signature of the function, or null if there is none with this name
+	 */
+	public Pair<TigerType, List<Pair<String, TigerType>>> getFunction(int symbol) {
+		return functionsBySymbol.get(symbol);
+	}
+	
+	public HashMap<String, Pair<TigerType, List<Pair<String, TigerType>>>> getFunctions() {
+		return functions;
+	}
+	
+	void declareType(TypeDecl typeDecl) throws TigerParseException {
+		TigerType type = getBaseType(typeDecl.type);
 		
-		if(vardecls.getChildren().size() == 0) {
-			return;
+		if(typeAliases.get(typeDecl.id.getTokenString()) != null) {
+			throw new TigerParseException("Type previously declared", typeDecl.id);
 		}
 		
-		RuleNode vardecl = (RuleNode)vardecls.getChildren().get(0);
-		RuleNode ids = (RuleNode)vardecl.getChildren().get(1);
-		TigerType type = getBaseType((RuleNode)vardecl.getChildren().get(3));
+		typeAliases.put(typeDecl.id.getTokenString(), type);
+	}
+	
+	void declareVariables(VarDecl varDecl) throws TigerParseException {
+		TigerType type = getBaseType(varDecl.type);
 		
 		String initValue = "";
 		
-		RuleNode optinit = (RuleNode)vardecl.getChildren().get(4);
-		if(optinit.getChildren().size() > 0) {
-			TigerToken constToken = ((LeafNode)((RuleNode)optinit.getChildren().get(1)).getChildren().get(0)).getToken();
-			TigerType literalType = TigerType.getLiteralType(constToken);
+		if(varDecl.init != null) {
+			TigerType literalType = TigerType.getLiteralType(varDecl.init.getToken());
 			
 			if(!TigerTypeAnalyzer.isTypeCompatibleAssign(type, literalType)) {
-				throw new TigerParseException("Incompatible types", constToken);
+				throw new TigerParseException("Incompatible types", varDecl.init);
 			}
 			
-			initValue = constToken.getTokenString();
+			initValue = varDecl.init.getTokenString();
 		}
 		
-		buildIds(ids, type, initValue);
-		
-		buildVardecls((RuleNode)vardecls.getChildren().get(1));
-	}
-	
-	private void buildIds(RuleNode ids, TigerType type, String initValue) throws TigerParseException {
-		ensureValue(ids.getRule(), TigerProductionRule.IDS);
-		
-		for(Node child : ids.getChildren()) {
-			if(child instanceof RuleNode) {
-				buildIds((RuleNode)child, type, initValue);
-			} else {
-				TigerToken token = ((LeafNode)child).getToken();
-				if(token.getTokenClass() == TigerTokenClass.ID) {
-					if(variables.get(token.getTokenString()) != null) {
-						throw new TigerParseException("Variable previously declared", token);
-					}
-					
-					variables.put(token.getTokenString(), new Pair<>(type, initValue));
-				}
+		for(LeafNode id : varDecl.ids) {
+			if(variables.get(id.getTokenString()) != null) {
+				throw new TigerParseException("Variable previously declared", id);
 			}
+			
+			variables.put(id.getTokenString(), new Pair<>(type, initValue));
+			globalScope.declare(id.getSymbol(), type);
 		}
 	}
 	
-	private void buildFuncdecls(RuleNode funcdecls) throws TigerParseException {
-		ensureValue(funcdecls.getRule(), TigerProductionRule.FUNCDECLS);
-		
-		if(funcdecls.getChildren().size() == 0) {
-			return;
-		}
-		
-		RuleNode funcdecl = (RuleNode)funcdecls.getChildren().get(0);
-		TigerToken id = ((LeafNode)funcdecl.getChildren().get(1)).getToken();
-		RuleNode params = (RuleNode)funcdecl.getChildren().get(3);
-		RuleNode optrettype = (RuleNode)funcdecl.getChildren().get(5);
+	void declareFunction(FuncDecl funcDecl) throws TigerParseException {
+		LeafNode id = funcDecl.id;
 		
 		if(builtInFunctions.get(id.getTokenString()) != null) {
 			throw new TigerParseException("Cannot redeclare built-in function", id);
 		}
 		
-		if(functions.get(id.getTokenString()) != null) {
+		if(functionsBySymbol.get(id.getSymbol()) != null) {
 			throw new TigerParseException("Function previously declared", id);
 		}
 		
 		ArrayList<Pair<String, TigerType>> argumentTypes = new ArrayList<>();
+		TigerScope scope = new TigerScope(globalScope, funcDecl.params.size());
+		buildFuncArgs(funcDecl.params, argumentTypes, scope);
+		functionScopes.put(id.getSymbol(), scope);
 		
-		if(params.getChildren().size() == 1) {
-			buildFuncArgs((RuleNode)params.getChildren().get(0), argumentTypes);
-		}
-		
-		if(optrettype.getChildren().size() != 0) {
-			TigerType type = getBaseType((RuleNode)optrettype.getChildren().get(1));
-			functions.put(id.getTokenString(), new Pair<>(type, argumentTypes));
+		Pair<TigerType, List<Pair<String, TigerType>>> function;
+		if(funcDecl.returnType != null) {
+			TigerType type = getBaseType(funcDecl.returnType);
+			function = new Pair<>(type, argumentTypes);
 		} else {
-			functions.put(id.getTokenString(), new Pair<>(null, argumentTypes)); // null == void
+			function = new Pair<>(null, argumentTypes); // null == void
 		}
 		
-		buildFuncdecls((RuleNode)funcdecls.getChildren().get(1));
-	}
-	
-	private void buildFuncArgs(RuleNode params, List<Pair<String, TigerType>> argumentTypes) throws TigerParseException {
-		ensureValue(params.getRule(), TigerProductionRule.NEPARAMS);
-		
-		for(Node child : params.getChildren()) {
-			if(child instanceof RuleNode) {
-				RuleNode ruleNode = (RuleNode)child;
-				
-				switch(ruleNode.getRule()) {
-					case NEPARAMS:
-						buildFuncArgs((RuleNode)child, argumentTypes);
-						break;
-					case PARAM:
-						TigerToken id = ((LeafNode)ruleNode.getChildren().get(0)).getToken();
-						ensureValue(id.getTokenClass(), TigerTokenClass.ID);
-						
-						TigerType type = getBaseType((RuleNode)ruleNode.getChildren().get(2));
-						
-						for(Pair<String, TigerType> pair : argumentTypes) {
-							if(pair.getKey().equals(id.getTokenString())) {
-								throw new TigerParseException("Argument previously declared", id);
-							}
-						}
-						
-						argumentTypes.add(new Pair<>(id.getTokenString(), type));
-						break;
-					default:
-						throw new IllegalArgumentException("Expecting NEPARAMS or PARAM, received " + ruleNode.getRule());
-				}
+		functions.put(id.getTokenString(), function);
+		functionsBySymbol.put(id.getSymbol(), function);
+	}
+	
+	private void buildFuncArgs(List<Param> params, List<Pair<String, TigerType>> argumentTypes, TigerScope scope) throws TigerParseException {
+		for(Param param : params) {
+			TigerType type = getBaseType(param.type);
+			
+			if(!scope.declare(param.id.getSymbol(), type)) {
+				throw new TigerParseException("Argument previously declared", param.id);
 			}
+			
+			argumentTypes.add(new Pair<>(param.id.getTokenString(), type));
 		}
 	}
 	
-	private TigerType getBaseType(RuleNode typeNode) throws TigerParseException {
-		ensureValue(typeNode.getRule(), TigerProductionRule.TYPE);
+	private TigerType getBaseType(TypeRef typeRef) throws TigerParseException {
+		typeResolver.walk(typeRef, null);
+		return typeResolver.type;
+	}
+	
+	private final TypeResolver typeResolver = new TypeResolver();
+	
+	/**
+	 * Resolves a type from the inside out, an array type is visited after its element type.
+	 */
+	private class TypeResolver extends AstWalker<Void, TigerParseException> {
+		private TigerType type;
 		
-		TigerToken token = ((LeafNode)typeNode.getChildren().get(0)).getToken();
-		if(token.getTokenClass() == TigerTokenClass.ARRAY) {
-			int size = Integer.parseInt(((LeafNode)typeNode.getChildren().get(2)).getToken().getTokenString());
-			return new TigerArrayType(getBaseType((RuleNode)typeNode.getChildren().get(5)), size);
-		} else if(token.getTokenClass() == TigerTokenClass.ID) {
-			TigerType tmp = typeAliases.get(token.getTokenString());
-			if(tmp == null) {
-				throw new TigerParseException("Unknown type", token);
+		@Override
+		public Void visitType(TypeRef typeRef, Void context) throws TigerParseException {
+			LeafNode token = typeRef.token;
+			if(token.getTokenClass() == TigerTokenClass.ARRAY) {
+				int size = Integer.parseInt(typeRef.size.getTokenString());
+				type = typeTable.getArrayType(type, size);
+			} else if(token.getTokenClass() == TigerTokenClass.ID) {
+				type = typeAliases.get(token.getTokenString());
+				if(type == null) {
+					throw new TigerParseException("Unknown type", token);
+				}
+			} else {
+				type = TigerType.getLiteralType(token.getToken());
 			}
-			return tmp;
-		} else {
-			return TigerType.getLiteralType(token);
+			return null;
 		}
 	}
 }
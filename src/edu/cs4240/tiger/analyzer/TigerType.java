@@ -4,6 +4,9 @@ import edu.cs4240.tiger.parser.TigerToken;
 import edu.cs4240.tiger.parser.TigerTokenClass;
 
 /**
+ * Types are canonical: INT_TYPE and FLOAT_TYPE are the only scalar instances and array types come
+ * from a TigerTypeTable, so scalars compare by identity.
+ *
  * @author Roi Atalla
  */
 public class TigerType {
@@ -13,23 +16,34 @@ public class TigerType {
 		ARRAY
 	}
 	
-	public static final TigerType INT_TYPE = new TigerType(BaseType.INT);
-	public static final TigerType FLOAT_TYPE = new TigerType(BaseType.FLOAT);
+	public static final TigerType INT_TYPE = new TigerType(BaseType.INT, 0);
+	public static final TigerType FLOAT_TYPE = new TigerType(BaseType.FLOAT, 1);
 	
 	public final BaseType baseType;
+	public final int id; // unique within a TigerTypeTable
 	
-	public TigerType(BaseType baseType) {
+	TigerType(BaseType baseType, int id) {
 		this.baseType = baseType;
+		this.id = id;
+	}
+	
+	/**
+	 * @return the scalar type at the bottom of this type, itself for scalars
+	 */
+	public TigerType getElementType() {
+		return this;
+	}
+	
+	/**
+	 * @return the number of scalars in a value of this type
+	 */
+	public long getElementCount() {
+		return 1;
 	}
 	
 	@Override
-	public boolean equals(Object o) {
-		if(o instanceof TigerType) {
-			TigerType t = (TigerType)o;
-			return t.baseType == this.baseType;
-		}
-		
-		return false;
+	public int hashCode() {
+		return id;
 	}
 	
 	public static TigerType getLiteralType(TigerToken token) {
@@ -44,7 +58,7 @@ public class TigerType {
 	}
 	
 	public static boolean isNumericType(TigerType type) {
-		return type.equals(TigerType.INT_TYPE) || type.equals(TigerType.FLOAT_TYPE);
+		return type == INT_TYPE || type == FLOAT_TYPE;
 	}
 	
 	@Override
@@ -56,22 +70,54 @@ public class TigerType {
 		public final TigerType subType;
 		public final int size;
 		
-		public TigerArrayType(TigerType subType, int size) {
-			super(BaseType.ARRAY);
+		public final TigerType elementType;
+		public final int dimensions;
+		public final long elementCount;
+		public final long stride; // scalars in one element of this array
+		
+		TigerArrayType(TigerType subType, int size, int id) {
+			super(BaseType.ARRAY, id);
 			this.subType = subType;
 			this.size = size;
+			
+			elementType = subType.getElementType();
+			dimensions = subType.baseType == BaseType.ARRAY ? ((TigerArrayType)subType).dimensions + 1 : 1;
+			stride = subType.getElementCount();
+			elementCount = stride * size;
 		}
 		
+		@Override
+		public TigerType getElementType() {
+			return elementType;
+		}
+		
+		@Override
+		public long getElementCount() {
+			return elementCount;
+		}
+		
+		/**
+		 * Sizes are not part of an array type, arrays of the same depth and element type are equal.
+		 */
 		@Override
 		public boolean equals(Object o) {
+			if(this == o) {
+				return true;
+			}
+			
 			if(o instanceof TigerArrayType) {
 				TigerArrayType t = (TigerArrayType)o;
-				return t.baseType == this.baseType && t.subType.equals(this.subType);
+				return t.dimensions == this.dimensions && t.elementType == this.elementType;
 			}
 			
 			return false;
 		}
 		
+		@Override
+		public int hashCode() {
+			return dimensions * 31 + elementType.id;
+		}
+		
 		@Override
 		public String toString() {
 			return super.toString() + "[" + size + "] of " + subType.toString();
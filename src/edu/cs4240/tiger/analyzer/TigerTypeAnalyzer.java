@@ -1,223 +1,128 @@
 package edu.cs4240.tiger.analyzer;
 
-import static edu.cs4240.tiger.util.Utils.*;
-
-import java.util.HashMap;
-
 import edu.cs4240.tiger.analyzer.TigerType.BaseType;
 import edu.cs4240.tiger.analyzer.TigerType.TigerArrayType;
+import edu.cs4240.tiger.ast.ArrayAccess;
+import edu.cs4240.tiger.ast.AstNode;
+import edu.cs4240.tiger.ast.AstNode.Kind;
+import edu.cs4240.tiger.ast.AstWalker;
+import edu.cs4240.tiger.ast.BinaryExpr;
+import edu.cs4240.tiger.ast.BoolExpr;
+import edu.cs4240.tiger.ast.Comparison;
+import edu.cs4240.tiger.ast.ConstExpr;
+import edu.cs4240.tiger.ast.Expr;
+import edu.cs4240.tiger.ast.LValue;
+import edu.cs4240.tiger.ast.ParenExpr;
+import edu.cs4240.tiger.ast.VarExpr;
 import edu.cs4240.tiger.parser.TigerParseException;
-import edu.cs4240.tiger.parser.TigerProductionRule;
-import edu.cs4240.tiger.parser.TigerTokenClass;
-import edu.cs4240.tiger.parser.node.LeafNode;
-import edu.cs4240.tiger.parser.node.Node;
-import edu.cs4240.tiger.parser.node.RuleNode;
 
 /**
  * @author Roi Atalla
  */
 public class TigerTypeAnalyzer {
 	public static boolean isTypeCompatibleAssign(TigerType dest, TigerType src) {
-		return dest.equals(src) || (dest.equals(TigerType.FLOAT_TYPE) && src.equals(TigerType.INT_TYPE));
+		return dest == src || dest.equals(src) || (dest == TigerType.FLOAT_TYPE && src == TigerType.INT_TYPE);
 	}
 	
-	public static TigerType getNumexprType(RuleNode numexpr, HashMap<String, TigerType> varTypes) throws TigerParseException {
-		ensureValue(numexpr.getRule(), TigerProductionRule.NUMEXPR);
-		
-		RuleNode leftChild = (RuleNode)numexpr.getChildren().get(0);
-		if(leftChild.getRule() == TigerProductionRule.NUMEXPR) {
-			RuleNode rightChild = (RuleNode)numexpr.getChildren().get(2);
-			
-			TigerType leftType = getNumexprType(leftChild, varTypes);
-			TigerType rightType = getTermType(rightChild, varTypes);
-			
-			if(!TigerType.isNumericType(leftType)) {
-				throw new TigerParseException("Operator can only be applied on numeric types", getLeftmostLeaf(leftChild));
-			}
-			
-			if(!TigerType.isNumericType(rightType)) {
-				throw new TigerParseException("Operator can only be applied on numeric types", getLeftmostLeaf(rightChild));
-			}
-			
-			if(leftType.equals(TigerType.FLOAT_TYPE)) {
-				return leftType;
-			}
-			
-			if(rightType.equals(TigerType.FLOAT_TYPE)) {
-				return rightType;
-			}
-			
-			return leftType;
-		} else {
-			return getTermType(leftChild, varTypes);
-		}
+	/**
+	 * Types expr and records the type of it and of each of its sub expressions in types.
+	 */
+	public static TigerType getNumexprType(Expr expr, TigerScope scope, TigerExprTypes types) throws TigerParseException {
+		new ExprTyper(types).walk(expr, scope);
+		return types.get(expr);
 	}
 	
-	private static TigerType getTermType(RuleNode term, HashMap<String, TigerType> varTypes) throws TigerParseException {
-		ensureValue(term.getRule(), TigerProductionRule.TERM);
-		
-		RuleNode leftChild = (RuleNode)term.getChildren().get(0);
-		if(leftChild.getRule() == TigerProductionRule.TERM) {
-			RuleNode rightChild = (RuleNode)term.getChildren().get(2);
-			
-			TigerType leftType = getTermType(leftChild, varTypes);
-			TigerType rightType = getFactorType(rightChild, varTypes);
-			
-			if(!TigerType.isNumericType(leftType)) {
-				throw new TigerParseException("Operator can only be applied on numeric types", getLeftmostLeaf(leftChild));
-			}
-			
-			if(!TigerType.isNumericType(rightType)) {
-				throw new TigerParseException("Operator can only be applied on numeric types", getLeftmostLeaf(rightChild));
-			}
-			
-			if(leftType.equals(TigerType.FLOAT_TYPE)) {
-				return leftType;
-			}
-			
-			if(rightType.equals(TigerType.FLOAT_TYPE)) {
-				return rightType;
-			}
-			
-			return leftType;
-		} else {
-			return getFactorType(leftChild, varTypes);
-		}
+	public static TigerType getLValueType(LValue lvalue, TigerScope scope, TigerExprTypes types) throws TigerParseException {
+		new ExprTyper(types).walk(lvalue, scope);
+		return types.get(lvalue);
 	}
 	
-	private static TigerType getFactorType(RuleNode factor, HashMap<String, TigerType> varTypes) throws TigerParseException {
-		ensureValue(factor.getRule(), TigerProductionRule.FACTOR);
-		
-		Node first = factor.getChildren().get(0);
-		if(first instanceof LeafNode) {
-			LeafNode firstLeaf = (LeafNode)first;
-			
-			switch(firstLeaf.getToken().getTokenClass()) {
-				case ID:
-					return getIdOptOffsetType(factor, varTypes);
-				case LPAREN:
-					return getNumexprType((RuleNode)factor.getChildren().get(1), varTypes);
-				default:
-					throw new TigerParseException("Something went very wrong", firstLeaf.getToken());
-			}
-		} else {
-			RuleNode firstRule = (RuleNode)first;
-			
-			switch(firstRule.getRule()) {
-				case CONST:
-					return TigerType.getLiteralType(((LeafNode)firstRule.getChildren().get(0)).getToken());
-				default:
-					throw new TigerParseException("Something went very wrong", getLeftmostLeaf(firstRule));
-			}
-		}
+	public static void analyzeBoolexpr(BoolExpr expr, TigerScope scope, TigerExprTypes types) throws TigerParseException {
+		new ExprTyper(types).walk(expr, scope);
 	}
 	
-	public static TigerType getIdOptOffsetType(RuleNode rule, HashMap<String, TigerType> varTypes) throws TigerParseException {
-		LeafNode id = (LeafNode)rule.getChildren().get(0);
+	/**
+	 * Checks and types each node of an expression once its children are typed, in the order the source has them.
+	 */
+	private static class ExprTyper extends AstWalker<TigerScope, TigerParseException> {
+		private TigerExprTypes types;
 		
-		TigerType idType = varTypes.get(id.getToken().getTokenString());
+		ExprTyper(TigerExprTypes types) {
+			this.types = types;
+		}
 		
-		if(idType == null) {
-			throw new TigerParseException("Undeclared variable", id.getToken());
+		@Override
+		protected void enter(AstNode node, TigerScope scope) throws TigerParseException {
+			// an array is looked up before its index is checked
+			if(node.kind == Kind.ARRAY_ACCESS && scope.lookup(((ArrayAccess)node).id.getSymbol()) == null) {
+				throw new TigerParseException("Undeclared variable", ((ArrayAccess)node).id);
+			}
 		}
 		
-		if(rule.getChildren().size() == 1) {
-			return idType;
-		} else {
-			LeafNode lbracket, rbracket;
-			RuleNode numexpr;
-			
-			if(rule.getChildren().get(1) instanceof RuleNode) { // optoffset rule
-				if(((RuleNode)rule.getChildren().get(1)).getChildren().size() == 0) {
-					return idType;
-				}
-				
-				lbracket = (LeafNode)((RuleNode)rule.getChildren().get(1)).getChildren().get(0);
-				rbracket = (LeafNode)((RuleNode)rule.getChildren().get(1)).getChildren().get(2);
-				numexpr = (RuleNode)((RuleNode)rule.getChildren().get(1)).getChildren().get(1);
-			} else {
-				lbracket = (LeafNode)rule.getChildren().get(1);
-				rbracket = (LeafNode)rule.getChildren().get(3);
-				numexpr = (RuleNode)rule.getChildren().get(2);
+		@Override
+		public Void visitConst(ConstExpr constExpr, TigerScope scope) {
+			types.set(constExpr, TigerType.getLiteralType(constExpr.value.getToken()));
+			return null;
+		}
+		
+		@Override
+		public Void visitVar(VarExpr varExpr, TigerScope scope) throws TigerParseException {
+			TigerType idType = scope.lookup(varExpr.id.getSymbol());
+			if(idType == null) {
+				throw new TigerParseException("Undeclared variable", varExpr.id);
 			}
 			
-			ensureValue(lbracket.getToken().getTokenClass(), TigerTokenClass.LBRACKET);
-			ensureValue(rbracket.getToken().getTokenClass(), TigerTokenClass.RBRACKET);
-			
-			TigerType indexType = getNumexprType(numexpr, varTypes);
-			if(!indexType.equals(TigerType.INT_TYPE)) {
-				throw new TigerParseException("Array index must be an integer type", getLeftmostLeaf(numexpr));
+			types.set(varExpr, idType);
+			return null;
+		}
+		
+		@Override
+		public Void visitArrayAccess(ArrayAccess arrayAccess, TigerScope scope) throws TigerParseException {
+			if(types.get(arrayAccess.index) != TigerType.INT_TYPE) {
+				throw new TigerParseException("Array index must be an integer type", arrayAccess.index.getFirstLeaf());
 			}
 			
+			TigerType idType = scope.lookup(arrayAccess.id.getSymbol());
 			if(idType.baseType != BaseType.ARRAY) {
-				throw new TigerParseException("Cannot index into non-array type", lbracket.getToken());
+				throw new TigerParseException("Cannot index into non-array type", arrayAccess.lbracket);
 			}
 			
-			return ((TigerArrayType)idType).subType;
+			types.set(arrayAccess, ((TigerArrayType)idType).subType);
+			return null;
 		}
-	}
-	
-	public static void analyzeBoolexpr(RuleNode boolexpr, HashMap<String, TigerType> varTypes) throws TigerParseException {
-		ensureValue(boolexpr.getRule(), TigerProductionRule.BOOLEXPR);
 		
-		RuleNode child = (RuleNode)boolexpr.getChildren().get(0);
-		if(child.getRule() == TigerProductionRule.BOOLEXPR) {
-			analyzeBoolexpr(child, varTypes);
-			analyzeClause((RuleNode)boolexpr.getChildren().get(2), varTypes);
-		} else {
-			analyzeClause(child, varTypes);
+		@Override
+		public Void visitParen(ParenExpr parenExpr, TigerScope scope) {
+			types.set(parenExpr, types.get(parenExpr.expr));
+			return null;
 		}
-	}
-	
-	private static void analyzeClause(RuleNode clause, HashMap<String, TigerType> varTypes) throws TigerParseException {
-		ensureValue(clause.getRule(), TigerProductionRule.CLAUSE);
-		
-		RuleNode child = (RuleNode)clause.getChildren().get(0);
-		if(child.getRule() == TigerProductionRule.CLAUSE) {
-			analyzeClause(child, varTypes);
-			analyzePred((RuleNode)clause.getChildren().get(2), varTypes);
-		} else {
-			analyzePred(child, varTypes);
-		}
-	}
-	
-	private static void analyzePred(RuleNode pred, HashMap<String, TigerType> varTypes) throws TigerParseException {
-		ensureValue(pred.getRule(), TigerProductionRule.PRED);
 		
-		Node first = pred.getChildren().get(0);
-		if(first instanceof LeafNode) {
-			LeafNode firstLeaf = (LeafNode)first;
+		@Override
+		public Void visitBinary(BinaryExpr binaryExpr, TigerScope scope) throws TigerParseException {
+			TigerType leftType = types.get(binaryExpr.left), rightType = types.get(binaryExpr.right);
 			
-			switch(firstLeaf.getToken().getTokenClass()) {
-//				case ID:
-//					if(!TigerType.BOOL_TYPE.equals(varTypes.get(firstLeaf.getTokenString().getTokenString()))) {
-//						throw new TigerParseException("Not a boolean type", firstLeaf.getTokenString());
-//					}
-//					break;
-				case LPAREN:
-					analyzeBoolexpr((RuleNode)pred.getChildren().get(1), varTypes);
-					break;
-				default:
-					throw new TigerParseException("Something went very wrong", firstLeaf.getToken());
+			if(!TigerType.isNumericType(leftType)) {
+				throw new TigerParseException("Operator can only be applied on numeric types", binaryExpr.left.getFirstLeaf());
 			}
-		} else {
-			RuleNode leftRule = (RuleNode)first;
-			RuleNode rightRule = (RuleNode)pred.getChildren().get(2);
 			
-			if(leftRule.getRule() != TigerProductionRule.NUMEXPR) {
-				throw new TigerParseException("Something went very wrong", getLeftmostLeaf(leftRule));
+			if(!TigerType.isNumericType(rightType)) {
+				throw new TigerParseException("Operator can only be applied on numeric types", binaryExpr.right.getFirstLeaf());
 			}
 			
-			TigerType leftType = getNumexprType(leftRule, varTypes);
-			TigerType rightType = getNumexprType(rightRule, varTypes);
-			
-			if(!TigerType.isNumericType(leftType)) {
-				throw new TigerParseException("Operator can only be applied on numeric types", getLeftmostLeaf(leftRule));
+			types.set(binaryExpr, leftType != TigerType.FLOAT_TYPE && rightType == TigerType.FLOAT_TYPE ? rightType : leftType);
+			return null;
+		}
+		
+		@Override
+		public Void visitComparison(Comparison comparison, TigerScope scope) throws TigerParseException {
+			if(!TigerType.isNumericType(types.get(comparison.left))) {
+				throw new TigerParseException("Operator can only be applied on numeric types", comparison.left.getFirstLeaf());
 			}
 			
-			if(!TigerType.isNumericType(rightType)) {
-				throw new TigerParseException("Operator can only be applied on numeric types", getLeftmostLeaf(rightRule));
+			if(!TigerType.isNumericType(types.get(comparison.right))) {
+				throw new TigerParseException("Operator can only be applied on numeric types", comparison.right.getFirstLeaf());
 			}
+			return null;
 		}
 	}
 }
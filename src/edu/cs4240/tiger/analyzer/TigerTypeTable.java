@@ -0,0 +1,32 @@
+package edu.cs4240.tiger.analyzer;
+
+import java.util.HashMap;
+
+import edu.cs4240.tiger.analyzer.TigerType.TigerArrayType;
+
+/**
+ * Interns array types by sub type and size, so the same declaration always maps to the same
+ * instance and a type's id can stand in for it.
+ *
+ * @author Roi Atalla
+ */
+public class TigerTypeTable {
+	private final HashMap<Long, TigerArrayType> arrayTypes = new HashMap<>();
+	private int nextId = 2; // INT_TYPE and FLOAT_TYPE are 0 and 1
+	
+	public TigerArrayType getArrayType(TigerType subType, int size) {
+		long key = ((long)subType.id << 32) | (size & 0xFFFFFFFFL);
+		
+		TigerArrayType type = arrayTypes.get(key);
+		if(type == null) {
+			type = new TigerArrayType(subType, size, nextId++);
+			arrayTypes.put(key, type);
+		}
+		
+		return type;
+	}
+	
+	public int size() {
+		return nextId;
+	}
+}
@@ -0,0 +1,19 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * id[index]
+ *
+ * @author Roi Atalla
+ */
+public class ArrayAccess extends LValue {
+	public final LeafNode lbracket;
+	public final Expr index;
+	
+	public ArrayAccess(LeafNode id, LeafNode lbracket, Expr index, int exprIndex) {
+		super(Kind.ARRAY_ACCESS, id, exprIndex);
+		this.lbracket = lbracket;
+		this.index = index;
+	}
+}
@@ -0,0 +1,24 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * target := value
+ *
+ * @author Roi Atalla
+ */
+public class AssignStmt extends Stmt {
+	public final LValue target;
+	public final Expr value;
+	
+	public AssignStmt(LValue target, Expr value) {
+		super(Kind.ASSIGN);
+		this.target = target;
+		this.value = value;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return target.getFirstLeaf();
+	}
+}
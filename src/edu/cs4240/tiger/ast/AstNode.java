@@ -0,0 +1,41 @@
+package edu.cs4240.tiger.ast;
+
+/**
+ * Typed AST, lowered from the parse tree by TigerASTBuilder.
+ * <p>
+ * Nodes have fixed fields instead of child lists, and the tokens they keep are the LeafNodes of the
+ * parse tree. The kind lets tree walks switch on the node type instead of testing it with instanceof.
+ *
+ * @author Roi Atalla
+ */
+public abstract class AstNode {
+	public enum Kind {
+		PROGRAM,
+		TYPE_DECL,
+		TYPE,
+		VAR_DECL,
+		FUNC_DECL,
+		PARAM,
+		ASSIGN,
+		CALL,
+		IF,
+		WHILE,
+		FOR,
+		BREAK,
+		RETURN,
+		CONST,
+		VAR,
+		ARRAY_ACCESS,
+		BINARY,
+		PAREN,
+		COMPARISON,
+		LOGICAL,
+		PAREN_BOOL
+	}
+	
+	public final Kind kind;
+	
+	protected AstNode(Kind kind) {
+		this.kind = kind;
+	}
+}
@@ -0,0 +1,152 @@
+package edu.cs4240.tiger.ast;
+
+/**
+ * Visitor over the typed AST, with one method per Kind.
+ * <p>
+ * visit() dispatches with a single switch on the node kind instead of a virtual accept() on every node
+ * class, so each pass has one dispatch site that it inlines. Methods a pass does not override fall back
+ * to visitDefault(), which rejects the node.
+ *
+ * @param <R> the result of visiting a node
+ * @param <C> the context passed down the walk
+ * @param <X> the exception the pass can throw, TigerParseException for checks
+ * @author Roi Atalla
+ */
+public interface AstVisitor<R, C, X extends Exception> {
+	default R visit(AstNode node, C context) throws X {
+		switch(node.kind) {
+			case PROGRAM:
+				return visitProgram((Program)node, context);
+			case TYPE_DECL:
+				return visitTypeDecl((TypeDecl)node, context);
+			case TYPE:
+				return visitType((TypeRef)node, context);
+			case VAR_DECL:
+				return visitVarDecl((VarDecl)node, context);
+			case FUNC_DECL:
+				return visitFuncDecl((FuncDecl)node, context);
+			case PARAM:
+				return visitParam((Param)node, context);
+			case ASSIGN:
+				return visitAssign((AssignStmt)node, context);
+			case CALL:
+				return visitCall((CallStmt)node, context);
+			case IF:
+				return visitIf((IfStmt)node, context);
+			case WHILE:
+				return visitWhile((WhileStmt)node, context);
+			case FOR:
+				return visitFor((ForStmt)node, context);
+			case BREAK:
+				return visitBreak((BreakStmt)node, context);
+			case RETURN:
+				return visitReturn((ReturnStmt)node, context);
+			case CONST:
+				return visitConst((ConstExpr)node, context);
+			case VAR:
+				return visitVar((VarExpr)node, context);
+			case ARRAY_ACCESS:
+				return visitArrayAccess((ArrayAccess)node, context);
+			case BINARY:
+				return visitBinary((BinaryExpr)node, context);
+			case PAREN:
+				return visitParen((ParenExpr)node, context);
+			case COMPARISON:
+				return visitComparison((Comparison)node, context);
+			case LOGICAL:
+				return visitLogical((LogicalExpr)node, context);
+			case PAREN_BOOL:
+				return visitParenBool((ParenBoolExpr)node, context);
+			default:
+				throw new IllegalStateException("Unknown node kind: " + node.kind);
+		}
+	}
+	
+	default R visitDefault(AstNode node, C context) throws X {
+		throw new IllegalStateException("Unexpected node: " + node.kind);
+	}
+	
+	default R visitProgram(Program program, C context) throws X {
+		return visitDefault(program, context);
+	}
+	
+	default R visitTypeDecl(TypeDecl typeDecl, C context) throws X {
+		return visitDefault(typeDecl, context);
+	}
+	
+	default R visitType(TypeRef type, C context) throws X {
+		return visitDefault(type, context);
+	}
+	
+	default R visitVarDecl(VarDecl varDecl, C context) throws X {
+		return visitDefault(varDecl, context);
+	}
+	
+	default R visitFuncDecl(FuncDecl funcDecl, C context) throws X {
+		return visitDefault(funcDecl, context);
+	}
+	
+	default R visitParam(Param param, C context) throws X {
+		return visitDefault(param, context);
+	}
+	
+	default R visitAssign(AssignStmt assignStmt, C context) throws X {
+		return visitDefault(assignStmt, context);
+	}
+	
+	default R visitCall(CallStmt callStmt, C context) throws X {
+		return visitDefault(callStmt, context);
+	}
+	
+	default R visitIf(IfStmt ifStmt, C context) throws X {
+		return visitDefault(ifStmt, context);
+	}
+	
+	default R visitWhile(WhileStmt whileStmt, C context) throws X {
+		return visitDefault(whileStmt, context);
+	}
+	
+	default R visitFor(ForStmt forStmt, C context) throws X {
+		return visitDefault(forStmt, context);
+	}
+	
+	default R visitBreak(BreakStmt breakStmt, C context) throws X {
+		return visitDefault(breakStmt, context);
+	}
+	
+	default R visitReturn(ReturnStmt returnStmt, C context) throws X {
+		return visitDefault(returnStmt, context);
+	}
+	
+	default R visitConst(ConstExpr constExpr, C context) throws X {
+		return visitDefault(constExpr, context);
+	}
+	
+	default R visitVar(VarExpr varExpr, C context) throws X {
+		return visitDefault(varExpr, context);
+	}
+	
+	default R visitArrayAccess(ArrayAccess arrayAccess, C context) throws X {
+		return visitDefault(arrayAccess, context);
+	}
+	
+	default R visitBinary(BinaryExpr binaryExpr, C context) throws X {
+		return visitDefault(binaryExpr, context);
+	}
+	
+	default R visitParen(ParenExpr parenExpr, C context) throws X {
+		return visitDefault(parenExpr, context);
+	}
+	
+	default R visitComparison(Comparison comparison, C context) throws X {
+		return visitDefault(comparison, context);
+	}
+	
+	default R visitLogical(LogicalExpr logicalExpr, C context) throws X {
+		return visitDefault(logicalExpr, context);
+	}
+	
+	default R visitParenBool(ParenBoolExpr parenBoolExpr, C context) throws X {
+		return visitDefault(parenBoolExpr, context);
+	}
+}
@@ -0,0 +1,178 @@
+package edu.cs4240.tiger.ast;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Walks the tree under a node in post-order on an explicit stack, so operator chains, parentheses and
+ * nested statements do not recurse however deep they go. Each node is visited with the method of its
+ * kind once all of its children have been, and kinds a pass does not override are skipped. enter() is
+ * called on the way down, before the children.
+ * <p>
+ * Children are walked in source order, a pass can override getChild to walk them in another.
+ *
+ * @author Roi Atalla
+ */
+public abstract class AstWalker<C, X extends Exception> implements AstVisitor<Void, C, X> {
+	private AstNode[] nodes = new AstNode[16];
+	private int[] nextChildren = new int[16];
+	private int size, base;
+	
+	public void walk(AstNode root, C context) throws X {
+		// a visit method can start another walk, it is stacked above this one
+		int outerBase = base;
+		base = size;
+		
+		try {
+			push(root);
+			enter(root, context);
+			
+			while(size > base) {
+				AstNode node = nodes[size - 1];
+				AstNode child = getChild(node, nextChildren[size - 1]++);
+				if(child == null) {
+					visit(node, context);
+					nodes[--size] = null;
+					continue;
+				}
+				
+				push(child);
+				enter(child, context);
+			}
+		}
+		finally {
+			while(size > base) {
+				nodes[--size] = null;
+			}
+			base = outerBase;
+		}
+	}
+	
+	private void push(AstNode node) {
+		if(size == nodes.length) {
+			nodes = Arrays.copyOf(nodes, size * 2);
+			nextChildren = Arrays.copyOf(nextChildren, size * 2);
+		}
+		nodes[size] = node;
+		nextChildren[size] = 0;
+		size++;
+	}
+	
+	protected void enter(AstNode node, C context) throws X {}
+	
+	/**
+	 * @return how far the node being entered or visited is below the root of the walk, 0 for the root
+	 */
+	protected int getDepth() {
+		return size - 1 - base;
+	}
+	
+	/**
+	 * @return the parent of the node being entered or visited, null for the root of the walk
+	 */
+	protected AstNode getParent() {
+		return size - 2 >= base ? nodes[size - 2] : null;
+	}
+	
+	/**
+	 * @return the index getChild returned the node being entered or visited for
+	 */
+	protected int getChildIndex() {
+		return size - 2 >= base ? nextChildren[size - 2] - 1 : 0;
+	}
+	
+	/**
+	 * @return the child of node at index in the order it is walked in, or null past the last one
+	 */
+	protected AstNode getChild(AstNode node, int index) {
+		switch(node.kind) {
+			case PROGRAM: {
+				Program program = (Program)node;
+				return getChild(index, program.typeDecls, program.varDecls, program.funcDecls, program.body);
+			}
+			case TYPE_DECL:
+				return index == 0 ? ((TypeDecl)node).type : null;
+			case TYPE:
+				return index == 0 ? ((TypeRef)node).subType : null;
+			case VAR_DECL:
+				return index == 0 ? ((VarDecl)node).type : null;
+			case FUNC_DECL: {
+				FuncDecl funcDecl = (FuncDecl)node;
+				if(index < funcDecl.params.size()) {
+					return funcDecl.params.get(index);
+				}
+				index -= funcDecl.params.size();
+				
+				if(funcDecl.returnType != null) {
+					if(index == 0) {
+						return funcDecl.returnType;
+					}
+					index--;
+				}
+				return getChild(index, funcDecl.body);
+			}
+			case PARAM:
+				return index == 0 ? ((Param)node).type : null;
+			case ASSIGN:
+				return index == 0 ? ((AssignStmt)node).target : index == 1 ? ((AssignStmt)node).value : null;
+			case CALL: {
+				CallStmt callStmt = (CallStmt)node;
+				if(callStmt.store != null) {
+					if(index == 0) {
+						return callStmt.store;
+					}
+					index--;
+				}
+				return getChild(index, callStmt.args);
+			}
+			case IF: {
+				IfStmt ifStmt = (IfStmt)node;
+				if(index == 0) {
+					return ifStmt.condition;
+				}
+				return ifStmt.elseStmts != null ? getChild(index - 1, ifStmt.thenStmts, ifStmt.elseStmts) : getChild(index - 1, ifStmt.thenStmts);
+			}
+			case WHILE:
+				return index == 0 ? ((WhileStmt)node).condition : getChild(index - 1, ((WhileStmt)node).body);
+			case FOR: {
+				ForStmt forStmt = (ForStmt)node;
+				return index == 0 ? forStmt.from : index == 1 ? forStmt.to : getChild(index - 2, forStmt.body);
+			}
+			case RETURN:
+				return index == 0 ? ((ReturnStmt)node).value : null;
+			case ARRAY_ACCESS:
+				return index == 0 ? ((ArrayAccess)node).index : null;
+			case BINARY:
+				return index == 0 ? ((BinaryExpr)node).left : index == 1 ? ((BinaryExpr)node).right : null;
+			case PAREN:
+				return index == 0 ? ((ParenExpr)node).expr : null;
+			case COMPARISON:
+				return index == 0 ? ((Comparison)node).left : index == 1 ? ((Comparison)node).right : null;
+			case LOGICAL:
+				return index == 0 ? ((LogicalExpr)node).left : index == 1 ? ((LogicalExpr)node).right : null;
+			case PAREN_BOOL:
+				return index == 0 ? ((ParenBoolExpr)node).expr : null;
+			default:
+				return null;
+		}
+	}
+	
+	/**
+	 * @return the element at index of the lists one after the other, or null past the last one
+	 */
+	@SafeVarargs
+	private static AstNode getChild(int index, List<? extends AstNode>... lists) {
+		for(List<? extends AstNode> list : lists) {
+			if(index < list.size()) {
+				return list.get(index);
+			}
+			index -= list.size();
+		}
+		return null;
+	}
+	
+	@Override
+	public Void visitDefault(AstNode node, C context) throws X {
+		return null;
+	}
+}
@@ -0,0 +1,31 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * left op right, with op one of + - * / %
+ *
+ * @author Roi Atalla
+ */
+public class BinaryExpr extends Expr {
+	public final Expr left;
+	public final LeafNode op;
+	public final Expr right;
+	
+	public BinaryExpr(Expr left, LeafNode op, Expr right, int exprIndex) {
+		super(Kind.BINARY, exprIndex);
+		this.left = left;
+		this.op = op;
+		this.right = right;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		// Chains of operators nest on the left, so walk down them instead of recursing
+		Expr expr = left;
+		while(expr.kind == Kind.BINARY) {
+			expr = ((BinaryExpr)expr).left;
+		}
+		return expr.getFirstLeaf();
+	}
+}
@@ -0,0 +1,17 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * @author Roi Atalla
+ */
+public abstract class BoolExpr extends AstNode {
+	protected BoolExpr(Kind kind) {
+		super(kind);
+	}
+	
+	/**
+	 * @return the first token of this node in the source, where errors about it are reported
+	 */
+	public abstract LeafNode getFirstLeaf();
+}
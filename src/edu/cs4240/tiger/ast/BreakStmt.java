@@ -0,0 +1,20 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * @author Roi Atalla
+ */
+public class BreakStmt extends Stmt {
+	public final LeafNode keyword;
+	
+	public BreakStmt(LeafNode keyword) {
+		super(Kind.BREAK);
+		this.keyword = keyword;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return keyword;
+	}
+}
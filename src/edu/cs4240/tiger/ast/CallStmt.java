@@ -0,0 +1,28 @@
+package edu.cs4240.tiger.ast;
+
+import java.util.List;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * [store :=] function(args)
+ *
+ * @author Roi Atalla
+ */
+public class CallStmt extends Stmt {
+	public final LValue store;
+	public final LeafNode function;
+	public final List<Expr> args;
+	
+	public CallStmt(LValue store, LeafNode function, List<Expr> args) {
+		super(Kind.CALL);
+		this.store = store;
+		this.function = function;
+		this.args = args;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return store != null ? store.getFirstLeaf() : function;
+	}
+}
@@ -0,0 +1,26 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * left op right, with op one of = <> < <= > >=
+ *
+ * @author Roi Atalla
+ */
+public class Comparison extends BoolExpr {
+	public final Expr left;
+	public final LeafNode op;
+	public final Expr right;
+	
+	public Comparison(Expr left, LeafNode op, Expr right) {
+		super(Kind.COMPARISON);
+		this.left = left;
+		this.op = op;
+		this.right = right;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return left.getFirstLeaf();
+	}
+}
@@ -0,0 +1,22 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * An int or float literal.
+ *
+ * @author Roi Atalla
+ */
+public class ConstExpr extends Expr {
+	public final LeafNode value;
+	
+	public ConstExpr(LeafNode value, int exprIndex) {
+		super(Kind.CONST, exprIndex);
+		this.value = value;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return value;
+	}
+}
@@ -0,0 +1,21 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * @author Roi Atalla
+ */
+public abstract class Expr extends AstNode {
+	// numbers the expressions of a program from 0, side tables like TigerExprTypes are indexed by it
+	public final int exprIndex;
+	
+	protected Expr(Kind kind, int exprIndex) {
+		super(kind);
+		this.exprIndex = exprIndex;
+	}
+	
+	/**
+	 * @return the first token of this node in the source, where errors about it are reported
+	 */
+	public abstract LeafNode getFirstLeaf();
+}
@@ -0,0 +1,32 @@
+package edu.cs4240.tiger.ast;
+
+import java.util.List;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * for id := from to to do body enddo
+ *
+ * @author Roi Atalla
+ */
+public class ForStmt extends Stmt {
+	public final LeafNode keyword;
+	public final LeafNode id;
+	public final Expr from;
+	public final Expr to;
+	public final List<Stmt> body;
+	
+	public ForStmt(LeafNode keyword, LeafNode id, Expr from, Expr to, List<Stmt> body) {
+		super(Kind.FOR);
+		this.keyword = keyword;
+		this.id = id;
+		this.from = from;
+		this.to = to;
+		this.body = body;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return keyword;
+	}
+}
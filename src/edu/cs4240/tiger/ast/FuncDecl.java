@@ -0,0 +1,27 @@
+package edu.cs4240.tiger.ast;
+
+import java.util.List;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * func id(params) [: returnType] begin body end;
+ *
+ * @author Roi Atalla
+ */
+public class FuncDecl extends AstNode {
+	public final LeafNode id;
+	public final List<Param> params;
+	public final TypeRef returnType;
+	public final List<Stmt> body;
+	public final LeafNode end;
+	
+	public FuncDecl(LeafNode id, List<Param> params, TypeRef returnType, List<Stmt> body, LeafNode end) {
+		super(Kind.FUNC_DECL);
+		this.id = id;
+		this.params = params;
+		this.returnType = returnType;
+		this.body = body;
+		this.end = end;
+	}
+}
@@ -0,0 +1,30 @@
+package edu.cs4240.tiger.ast;
+
+import java.util.List;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * if condition then thenStmts [else elseStmts] endif
+ *
+ * @author Roi Atalla
+ */
+public class IfStmt extends Stmt {
+	public final LeafNode keyword;
+	public final BoolExpr condition;
+	public final List<Stmt> thenStmts;
+	public final List<Stmt> elseStmts;
+	
+	public IfStmt(LeafNode keyword, BoolExpr condition, List<Stmt> thenStmts, List<Stmt> elseStmts) {
+		super(Kind.IF);
+		this.keyword = keyword;
+		this.condition = condition;
+		this.thenStmts = thenStmts;
+		this.elseStmts = elseStmts;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return keyword;
+	}
+}
@@ -0,0 +1,22 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * A variable, or an element of an array variable.
+ *
+ * @author Roi Atalla
+ */
+public abstract class LValue extends Expr {
+	public final LeafNode id;
+	
+	protected LValue(Kind kind, LeafNode id, int exprIndex) {
+		super(kind, exprIndex);
+		this.id = id;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return id;
+	}
+}
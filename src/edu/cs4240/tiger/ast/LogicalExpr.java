@@ -0,0 +1,30 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * left | right or left & right
+ *
+ * @author Roi Atalla
+ */
+public class LogicalExpr extends BoolExpr {
+	public final BoolExpr left;
+	public final LeafNode op;
+	public final BoolExpr right;
+	
+	public LogicalExpr(BoolExpr left, LeafNode op, BoolExpr right) {
+		super(Kind.LOGICAL);
+		this.left = left;
+		this.op = op;
+		this.right = right;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		BoolExpr expr = left;
+		while(expr.kind == Kind.LOGICAL) {
+			expr = ((LogicalExpr)expr).left;
+		}
+		return expr.getFirstLeaf();
+	}
+}
@@ -0,0 +1,17 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * @author Roi Atalla
+ */
+public class Param extends AstNode {
+	public final LeafNode id;
+	public final TypeRef type;
+	
+	public Param(LeafNode id, TypeRef type) {
+		super(Kind.PARAM);
+		this.id = id;
+		this.type = type;
+	}
+}
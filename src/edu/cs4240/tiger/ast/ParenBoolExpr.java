@@ -0,0 +1,24 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * (expr)
+ *
+ * @author Roi Atalla
+ */
+public class ParenBoolExpr extends BoolExpr {
+	public final LeafNode lparen;
+	public final BoolExpr expr;
+	
+	public ParenBoolExpr(LeafNode lparen, BoolExpr expr) {
+		super(Kind.PAREN_BOOL);
+		this.lparen = lparen;
+		this.expr = expr;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return lparen;
+	}
+}
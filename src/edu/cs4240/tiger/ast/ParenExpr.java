@@ -0,0 +1,24 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * (expr)
+ *
+ * @author Roi Atalla
+ */
+public class ParenExpr extends Expr {
+	public final LeafNode lparen;
+	public final Expr expr;
+	
+	public ParenExpr(LeafNode lparen, Expr expr, int exprIndex) {
+		super(Kind.PAREN, exprIndex);
+		this.lparen = lparen;
+		this.expr = expr;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return lparen;
+	}
+}
@@ -0,0 +1,33 @@
+package edu.cs4240.tiger.ast;
+
+import java.util.List;
+
+import edu.cs4240.tiger.util.SymbolInterner;
+
+/**
+ * The root of the typed AST.
+ *
+ * @author Roi Atalla
+ */
+public class Program extends AstNode {
+	public final List<TypeDecl> typeDecls;
+	public final List<VarDecl> varDecls;
+	public final List<FuncDecl> funcDecls;
+	public final List<Stmt> body;
+	
+	// the names of the token buffer the leaves point into, the symbol of an id leaf is its id in here
+	public final SymbolInterner symbols;
+	
+	// the number of expressions, their exprIndex is below this
+	public final int exprCount;
+	
+	public Program(List<TypeDecl> typeDecls, List<VarDecl> varDecls, List<FuncDecl> funcDecls, List<Stmt> body, SymbolInterner symbols, int exprCount) {
+		super(Kind.PROGRAM);
+		this.typeDecls = typeDecls;
+		this.varDecls = varDecls;
+		this.funcDecls = funcDecls;
+		this.body = body;
+		this.symbols = symbols;
+		this.exprCount = exprCount;
+	}
+}
@@ -0,0 +1,22 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * @author Roi Atalla
+ */
+public class ReturnStmt extends Stmt {
+	public final LeafNode keyword;
+	public final Expr value;
+	
+	public ReturnStmt(LeafNode keyword, Expr value) {
+		super(Kind.RETURN);
+		this.keyword = keyword;
+		this.value = value;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return keyword;
+	}
+}
@@ -0,0 +1,332 @@
+package edu.cs4240.tiger.ast;
+
+import static edu.cs4240.tiger.util.Utils.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.cs4240.tiger.parser.TigerProductionRule;
+import edu.cs4240.tiger.parser.TigerTokenClass;
+import edu.cs4240.tiger.parser.node.LeafNode;
+import edu.cs4240.tiger.parser.node.NodeArena;
+import edu.cs4240.tiger.parser.node.RuleNode;
+
+/**
+ * Lowers the parse tree into the typed AST, walking the NodeArena the parser builds.
+ *
+ * @author Roi Atalla
+ */
+public class TigerASTBuilder {
+	private final NodeArena arena;
+	
+	private final NodeArena.Cursor cursor;
+	
+	// the AST nodes built but not yet taken by their parent
+	private AstNode[] values = new AstNode[32];
+	private int valuesSize;
+	
+	private int exprCount;
+	
+	private TigerASTBuilder(NodeArena arena) {
+		this.arena = arena;
+		cursor = arena.cursor();
+	}
+	
+	public static Program build(RuleNode program) {
+		return build(NodeArena.of(program));
+	}
+	
+	public static Program build(NodeArena arena) {
+		return new TigerASTBuilder(arena).buildProgram(arena.getRoot());
+	}
+	
+	private int child(int node, int k) {
+		return arena.getChild(node, k);
+	}
+	
+	private LeafNode leaf(int node, int k) {
+		return arena.getLeaf(arena.getChild(node, k));
+	}
+	
+	private Program buildProgram(int program) {
+		ensureValue(arena.getRule(program), TigerProductionRule.PROGRAM);
+		
+		List<TypeDecl> typeDecls = Collections.emptyList();
+		List<VarDecl> varDecls = Collections.emptyList();
+		List<FuncDecl> funcDecls = Collections.emptyList();
+		
+		int declseg = child(program, 1);
+		if(arena.hasChildren(declseg)) {
+			int typedecls = arena.getFirstChild(declseg);
+			int vardecls = arena.getNextSibling(typedecls);
+			typeDecls = buildTypeDecls(typedecls);
+			varDecls = buildVarDecls(vardecls);
+			funcDecls = buildFuncDecls(arena.getNextSibling(vardecls));
+		}
+		
+		return new Program(typeDecls, varDecls, funcDecls, buildStmts(child(program, 3)), arena.getTokenBuffer().getSymbols(), exprCount);
+	}
+	
+	private List<TypeDecl> buildTypeDecls(int typedecls) {
+		ensureValue(arena.getRule(typedecls), TigerProductionRule.TYPEDECLS);
+		
+		ArrayList<TypeDecl> typeDecls = new ArrayList<>();
+		for(int typedecl = arena.getFirstChild(typedecls); typedecl != NodeArena.NONE; typedecl = arena.getNextSibling(typedecl)) {
+			typeDecls.add(new TypeDecl(leaf(typedecl, 1), buildType(child(typedecl, 3))));
+		}
+		return typeDecls;
+	}
+	
+	private TypeRef buildType(int type) {
+		ensureValue(arena.getRule(type), TigerProductionRule.TYPE);
+		
+		LeafNode token = leaf(type, 0);
+		if(token.getTokenClass() == TigerTokenClass.ARRAY) {
+			return new TypeRef(token, leaf(type, 2), buildType(child(type, 5)));
+		}
+		
+		return new TypeRef(token, null, null);
+	}
+	
+	private List<VarDecl> buildVarDecls(int vardecls) {
+		ensureValue(arena.getRule(vardecls), TigerProductionRule.VARDECLS);
+		
+		ArrayList<VarDecl> varDecls = new ArrayList<>();
+		for(int vardecl = arena.getFirstChild(vardecls); vardecl != NodeArena.NONE; vardecl = arena.getNextSibling(vardecl)) {
+			// ids separated by commas
+			ArrayList<LeafNode> ids = new ArrayList<>();
+			for(int id = arena.getFirstChild(child(vardecl, 1)); id != NodeArena.NONE; id = arena.getNextSibling(id)) {
+				ids.add(arena.getLeaf(id));
+				if((id = arena.getNextSibling(id)) == NodeArena.NONE) {
+					break;
+				}
+			}
+			
+			LeafNode init = null;
+			int optinit = child(vardecl, 4);
+			if(arena.hasChildren(optinit)) {
+				init = leaf(child(optinit, 1), 0);
+			}
+			
+			varDecls.add(new VarDecl(ids, buildType(child(vardecl, 3)), init));
+		}
+		return varDecls;
+	}
+	
+	private List<FuncDecl> buildFuncDecls(int funcdecls) {
+		ensureValue(arena.getRule(funcdecls), TigerProductionRule.FUNCDECLS);
+		
+		ArrayList<FuncDecl> funcDecls = new ArrayList<>();
+		for(int funcdecl = arena.getFirstChild(funcdecls); funcdecl != NodeArena.NONE; funcdecl = arena.getNextSibling(funcdecl)) {
+			ArrayList<Param> params = new ArrayList<>();
+			int paramsNode = child(funcdecl, 3);
+			if(arena.hasChildren(paramsNode)) {
+				// params separated by commas
+				for(int param = arena.getFirstChild(arena.getFirstChild(paramsNode)); param != NodeArena.NONE; param = arena.getNextSibling(param)) {
+					params.add(new Param(leaf(param, 0), buildType(child(param, 2))));
+					if((param = arena.getNextSibling(param)) == NodeArena.NONE) {
+						break;
+					}
+				}
+			}
+			
+			TypeRef returnType = null;
+			int optrettype = child(funcdecl, 5);
+			if(arena.hasChildren(optrettype)) {
+				returnType = buildType(child(optrettype, 1));
+			}
+			
+			funcDecls.add(new FuncDecl(leaf(funcdecl, 1), params, returnType, buildStmts(child(funcdecl, 7)), leaf(funcdecl, 8)));
+		}
+		return funcDecls;
+	}
+	
+	private List<Stmt> buildStmts(int stmts) {
+		ensureValue(arena.getRule(stmts), TigerProductionRule.STMTS);
+		
+		walk(stmts);
+		return popList(arena.getChildCount(stmts), Stmt.class);
+	}
+	
+	/**
+	 * Builds the AST under node in post-order with the arena cursor instead of recursing, so statements,
+	 * parentheses and indices can nest as deep as memory allows. Each node is built by reduce once all of
+	 * its children are, the nodes it leaves on values are taken by its parent.
+	 */
+	private void walk(int node) {
+		cursor.reset(node);
+		while(true) {
+			if(!cursor.isLeaf() && cursor.gotoFirstChild()) {
+				continue;
+			}
+			
+			// every child of the rules the cursor comes back up to has been reduced
+			while(true) {
+				if(!cursor.isLeaf()) {
+					reduce(cursor.getNode());
+				}
+				
+				if(cursor.gotoNextSibling()) {
+					break;
+				}
+				
+				if(!cursor.gotoParent()) {
+					return;
+				}
+			}
+		}
+	}
+	
+	private void push(AstNode value) {
+		if(valuesSize == values.length) {
+			values = Arrays.copyOf(values, valuesSize * 2);
+		}
+		values[valuesSize++] = value;
+	}
+	
+	private AstNode pop() {
+		AstNode value = values[--valuesSize];
+		values[valuesSize] = null;
+		return value;
+	}
+	
+	/**
+	 * Pops the last count values in order, like the statements of a STMTS node.
+	 */
+	private <T extends AstNode> List<T> popList(int count, Class<T> type) {
+		ArrayList<T> list = new ArrayList<>(count);
+		for(int i = valuesSize - count; i < valuesSize; i++) {
+			list.add(type.cast(values[i]));
+			values[i] = null;
+		}
+		valuesSize -= count;
+		return list;
+	}
+	
+	private void reduce(int node) {
+		switch(arena.getRule(node)) {
+			case STMT:
+				push(reduceStmt(node));
+				break;
+			case LVALUE: {
+				int optoffset = child(node, 1);
+				if(arena.hasChildren(optoffset)) {
+					push(new ArrayAccess(leaf(node, 0), leaf(optoffset, 0), (Expr)pop(), exprCount++));
+				} else {
+					push(new VarExpr(leaf(node, 0), exprCount++));
+				}
+				break;
+			}
+			case NUMEXPR:
+			case TERM:
+				// op chains are nested on the left: "numexpr linop term" or just "term", whose value is already there
+				if(arena.getNextSibling(arena.getFirstChild(node)) != NodeArena.NONE) {
+					Expr right = (Expr)pop();
+					push(new BinaryExpr((Expr)pop(), leaf(child(node, 1), 0), right, exprCount++));
+				}
+				break;
+			case CONST:
+				push(new ConstExpr(leaf(node, 0), exprCount++));
+				break;
+			case FACTOR: {
+				int first = arena.getFirstChild(node);
+				if(!arena.isLeaf(first)) {
+					break;
+				}
+				
+				LeafNode token = arena.getLeaf(first);
+				switch(token.getTokenClass()) {
+					case ID: {
+						int lbracket = arena.getNextSibling(first);
+						if(lbracket == NodeArena.NONE) {
+							push(new VarExpr(token, exprCount++));
+						} else {
+							push(new ArrayAccess(token, arena.getLeaf(lbracket), (Expr)pop(), exprCount++));
+						}
+						break;
+					}
+					case LPAREN:
+						push(new ParenExpr(token, (Expr)pop(), exprCount++));
+						break;
+					default:
+						throw new IllegalArgumentException("Invalid token class for factor: " + token.getTokenClass());
+				}
+				break;
+			}
+			case BOOLEXPR:
+			case CLAUSE:
+				if(arena.getNextSibling(arena.getFirstChild(node)) != NodeArena.NONE) {
+					BoolExpr right = (BoolExpr)pop();
+					push(new LogicalExpr((BoolExpr)pop(), leaf(node, 1), right));
+				}
+				break;
+			case PRED: {
+				int first = arena.getFirstChild(node);
+				if(arena.isLeaf(first)) {
+					push(new ParenBoolExpr(arena.getLeaf(first), (BoolExpr)pop()));
+				} else {
+					Expr right = (Expr)pop();
+					push(new Comparison((Expr)pop(), leaf(arena.getNextSibling(first), 0), right));
+				}
+				break;
+			}
+			default:
+				// the other rules only group tokens and the values of their children
+		}
+	}
+	
+	private Stmt reduceStmt(int stmt) {
+		int first = arena.getFirstChild(stmt);
+		if(!arena.isLeaf(first)) {
+			switch(arena.getRule(first)) {
+				case LVALUE: {
+					Expr value = (Expr)pop();
+					return new AssignStmt((LValue)pop(), value);
+				}
+				case OPTSTORE: {
+					int argCount = 0;
+					int numexprs = child(stmt, 3);
+					if(arena.hasChildren(numexprs)) {
+						// numexprs separated by commas
+						argCount = (arena.getChildCount(arena.getFirstChild(numexprs)) + 1) / 2;
+					}
+					
+					List<Expr> args = popList(argCount, Expr.class);
+					LValue store = arena.hasChildren(first) ? (LValue)pop() : null;
+					return new CallStmt(store, leaf(stmt, 1), args);
+				}
+				default:
+					throw new IllegalArgumentException("Invalid production rule for stmt: " + arena.getRule(first));
+			}
+		}
+		
+		LeafNode keyword = arena.getLeaf(first);
+		switch(keyword.getTokenClass()) {
+			case IF: {
+				List<Stmt> elseStmts = null;
+				if(arena.getTokenClass(child(stmt, 4)) == TigerTokenClass.ELSE) {
+					elseStmts = popList(arena.getChildCount(child(stmt, 5)), Stmt.class);
+				}
+				List<Stmt> thenStmts = popList(arena.getChildCount(child(stmt, 3)), Stmt.class);
+				return new IfStmt(keyword, (BoolExpr)pop(), thenStmts, elseStmts);
+			}
+			case WHILE: {
+				List<Stmt> body = popList(arena.getChildCount(child(stmt, 3)), Stmt.class);
+				return new WhileStmt(keyword, (BoolExpr)pop(), body);
+			}
+			case FOR: {
+				List<Stmt> body = popList(arena.getChildCount(child(stmt, 7)), Stmt.class);
+				Expr to = (Expr)pop();
+				return new ForStmt(keyword, leaf(stmt, 1), (Expr)pop(), to, body);
+			}
+			case BREAK:
+				return new BreakStmt(keyword);
+			case RETURN:
+				return new ReturnStmt(keyword, (Expr)pop());
+			default:
+				throw new IllegalArgumentException("Invalid token class for stmt: " + keyword.getTokenClass());
+		}
+	}
+}
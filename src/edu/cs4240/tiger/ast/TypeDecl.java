@@ -0,0 +1,19 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * type id := type;
+ *
+ * @author Roi Atalla
+ */
+public class TypeDecl extends AstNode {
+	public final LeafNode id;
+	public final TypeRef type;
+	
+	public TypeDecl(LeafNode id, TypeRef type) {
+		super(Kind.TYPE_DECL);
+		this.id = id;
+		this.type = type;
+	}
+}
@@ -0,0 +1,21 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * A type as written in a declaration: int, float, a type alias, or array [size] of subType.
+ *
+ * @author Roi Atalla
+ */
+public class TypeRef extends AstNode {
+	public final LeafNode token;
+	public final LeafNode size;
+	public final TypeRef subType;
+	
+	public TypeRef(LeafNode token, LeafNode size, TypeRef subType) {
+		super(Kind.TYPE);
+		this.token = token;
+		this.size = size;
+		this.subType = subType;
+	}
+}
@@ -0,0 +1,23 @@
+package edu.cs4240.tiger.ast;
+
+import java.util.List;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * var ids : type [:= init];
+ *
+ * @author Roi Atalla
+ */
+public class VarDecl extends AstNode {
+	public final List<LeafNode> ids;
+	public final TypeRef type;
+	public final LeafNode init;
+	
+	public VarDecl(List<LeafNode> ids, TypeRef type, LeafNode init) {
+		super(Kind.VAR_DECL);
+		this.ids = ids;
+		this.type = type;
+		this.init = init;
+	}
+}
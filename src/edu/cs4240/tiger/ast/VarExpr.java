@@ -0,0 +1,12 @@
+package edu.cs4240.tiger.ast;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * @author Roi Atalla
+ */
+public class VarExpr extends LValue {
+	public VarExpr(LeafNode id, int exprIndex) {
+		super(Kind.VAR, id, exprIndex);
+	}
+}
@@ -0,0 +1,28 @@
+package edu.cs4240.tiger.ast;
+
+import java.util.List;
+
+import edu.cs4240.tiger.parser.node.LeafNode;
+
+/**
+ * while condition do body enddo
+ *
+ * @author Roi Atalla
+ */
+public class WhileStmt extends Stmt {
+	public final LeafNode keyword;
+	public final BoolExpr condition;
+	public final List<Stmt> body;
+	
+	public WhileStmt(LeafNode keyword, BoolExpr condition, List<Stmt> body) {
+		super(Kind.WHILE);
+		this.keyword = keyword;
+		this.condition = condition;
+		this.body = body;
+	}
+	
+	@Override
+	public LeafNode getFirstLeaf() {
+		return keyword;
+	}
+}
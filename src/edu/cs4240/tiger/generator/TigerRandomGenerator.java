@@ -35,7 +35,7 @@ public class TigerRandomGenerator {
 					List<TigerSymbol> production = null;
 					
 					if(limit <= 0) {
-						for(List<TigerSymbol> p : rule.productions) {
+						for(List<TigerSymbol> p : rule.getProductions()) {
 							if(p.get(0) == TigerTokenClass.EPSILON) {
 								production = p;
 								break;
@@ -46,8 +46,8 @@ public class TigerRandomGenerator {
 					if(production == null) {
 						int trycount = rng.nextInt(3) + 1;
 						while(trycount-- > 0) {
-							int idx = rng.nextInt(rule.productions.size());
-							production = rule.productions.get(idx);
+							int idx = rng.nextInt(rule.getProductions().size());
+							production = rule.getProductions().get(idx);
 							
 							// Rule 52 exception
 							if(rule == TigerProductionRule.PRED && production.get(0) == TigerTokenClass.LPAREN) {
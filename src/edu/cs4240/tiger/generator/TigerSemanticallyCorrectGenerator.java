@@ -12,6 +12,7 @@ import edu.cs4240.tiger.analyzer.TigerType;
 import edu.cs4240.tiger.analyzer.TigerType.BaseType;
 import edu.cs4240.tiger.analyzer.TigerType.TigerArrayType;
 import edu.cs4240.tiger.analyzer.TigerTypeAnalyzer;
+import edu.cs4240.tiger.analyzer.TigerTypeTable;
 import edu.cs4240.tiger.parser.TigerProductionRule;
 import edu.cs4240.tiger.parser.TigerSymbol;
 import edu.cs4240.tiger.parser.TigerToken;
@@ -26,6 +27,8 @@ import edu.cs4240.tiger.util.Utils;
  * @author Roi Atalla
  */
 public class TigerSemanticallyCorrectGenerator {
+	private static final TigerTypeTable typeTable = new TigerTypeTable();
+	
 	public static Node generate(Random rng, int limit) {
 		RuleNode program = new RuleNode(TigerProductionRule.PROGRAM);
 		program.getChildren().add(new LeafNode(tokenify(TigerTokenClass.LET)));
@@ -253,7 +256,7 @@ public class TigerSemanticallyCorrectGenerator {
 		do {
 			stmtNode = null;
 			
-			List<TigerSymbol> chosenStmt = TigerProductionRule.STMT.productions.get(rng.nextInt(TigerProductionRule.STMT.productions.size()));
+			List<TigerSymbol> chosenStmt = TigerProductionRule.STMT.getProductions().get(rng.nextInt(TigerProductionRule.STMT.getProductions().size()));
 			if(chosenStmt.get(0) instanceof TigerProductionRule) {
 				switch((TigerProductionRule)chosenStmt.get(0)) {
 					case LVALUE: {
@@ -529,7 +532,7 @@ public class TigerSemanticallyCorrectGenerator {
 		do {
 			tryCount--;
 			
-			List<TigerSymbol> chosenRule = TigerProductionRule.FACTOR.productions.get(rng.nextInt(TigerProductionRule.FACTOR.productions.size()));
+			List<TigerSymbol> chosenRule = TigerProductionRule.FACTOR.getProductions().get(rng.nextInt(TigerProductionRule.FACTOR.getProductions().size()));
 			
 			if(tryCount == -1 || chosenRule.get(0) == TigerProductionRule.CONST) {
 				if(exprType.baseType == BaseType.INT) {
@@ -624,7 +627,7 @@ public class TigerSemanticallyCorrectGenerator {
 		TigerType type2 = rng.nextBoolean() ? TigerType.INT_TYPE : TigerType.FLOAT_TYPE;
 		
 		predNode.getChildren().add(generateNumexpr(rng, limit / 2, type1, varTypes));
-		TigerTokenClass chosenBoolop = (TigerTokenClass)TigerProductionRule.BOOLOP.productions.get(rng.nextInt(TigerProductionRule.BOOLOP.productions.size())).get(0);
+		TigerTokenClass chosenBoolop = (TigerTokenClass)TigerProductionRule.BOOLOP.getProductions().get(rng.nextInt(TigerProductionRule.BOOLOP.getProductions().size())).get(0);
 		predNode.getChildren().add(new RuleNode(TigerProductionRule.BOOLOP, new LeafNode(tokenify(chosenBoolop))));
 		predNode.getChildren().add(generateNumexpr(rng, limit / 2, type2, varTypes));
 		
@@ -654,7 +657,7 @@ public class TigerSemanticallyCorrectGenerator {
 		
 		List<TigerSymbol> chosenType;
 		do {
-			chosenType = TigerProductionRule.TYPE.productions.get(rng.nextInt(TigerProductionRule.TYPE.productions.size()));
+			chosenType = TigerProductionRule.TYPE.getProductions().get(rng.nextInt(TigerProductionRule.TYPE.getProductions().size()));
 		} while(chosenType.get(0) == TigerTokenClass.ID && typeAliases.size() == 0);
 		
 		if(chosenType.get(0) == TigerTokenClass.ARRAY) {
@@ -670,7 +673,7 @@ public class TigerSemanticallyCorrectGenerator {
 			
 			typeNode.getChildren().add(subTypeNode.getKey());
 			
-			return new Pair<>(typeNode, new TigerArrayType(subTypeNode.getValue(), Integer.parseInt(size)));
+			return new Pair<>(typeNode, typeTable.getArrayType(subTypeNode.getValue(), Integer.parseInt(size)));
 		} else if(chosenType.get(0) == TigerTokenClass.ID) {
 			String idTypeName = chooseRandomKey(rng, typeAliases.keySet());
 			TigerType idType = typeAliases.get(idTypeName);
@@ -1,5 +1,9 @@
 package edu.cs4240.tiger.generator;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Random;
 
 import edu.cs4240.tiger.parser.node.Node;
@@ -103,6 +107,14 @@ public class TigerSourceGenerator {
 			System.out.printf("// Generated Tiger program with depth=%d and seed=%d in %.3f ms\n\n", depth, seed, time / 1e6);
 		}
 		
-		System.out.println(StringifyTigerAST.stringifyAST(program));
+		try {
+			Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+			StringifyTigerAST.printAST(program, out);
+			out.append('\n');
+			out.flush();
+		}
+		catch(IOException exc) {
+			System.err.println("Failed to write output: " + exc.getMessage());
+		}
 	}
 }
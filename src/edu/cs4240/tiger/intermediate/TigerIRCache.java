@@ -0,0 +1,162 @@
+package edu.cs4240.tiger.intermediate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+import edu.cs4240.tiger.ast.FuncDecl;
+import edu.cs4240.tiger.ast.Program;
+
+/**
+ * The IR of each body of a compiled program with the fingerprint it was generated from, see
+ * TigerFingerprints. A later compile of an edited source reuses the IR of the bodies whose fingerprint
+ * did not change instead of checking and generating them again.
+ * <p>
+ * Registers and labels are numbered across the whole program, so a body is kept numbered from 0 with
+ * how many of each it used, and is renumbered to start at the counters of the compile that copies it.
+ *
+ * @author Roi Atalla
+ */
+public class TigerIRCache {
+	private static final int MAGIC = 0x54474952; // "TGIR"
+	private static final int VERSION = 4;
+	
+	// functions are cached by name, main under a name no function can have
+	public static final String MAIN = "";
+	
+	public static class Body {
+		public final String name;
+		public final long fingerprint;
+		public final int intCount, floatCount, labelCount;
+		public final TigerIRProgram ir; // just this function, without variables
+		
+		public Body(String name, long fingerprint, int intCount, int floatCount, int labelCount, TigerIRProgram ir) {
+			this.name = name;
+			this.fingerprint = fingerprint;
+			this.intCount = intCount;
+			this.floatCount = floatCount;
+			this.labelCount = labelCount;
+			this.ir = ir;
+		}
+	}
+	
+	private final HashMap<String, Body> bodies = new HashMap<>();
+	
+	public void put(Body body) {
+		bodies.put(body.name, body);
+	}
+	
+	/**
+	 * @return the cached body, or null if it is not cached or was generated from another fingerprint
+	 */
+	public Body get(String name, long fingerprint) {
+		Body body = bodies.get(name);
+		return body != null && body.fingerprint == fingerprint ? body : null;
+	}
+	
+	/**
+	 * @return whether previous holds the same body objects as this cache, writing this one again would not change the file
+	 */
+	public boolean isUnchangedFrom(TigerIRCache previous) {
+		if(previous == null || previous.bodies.size() != bodies.size()) {
+			return false;
+		}
+		
+		for(Body body : bodies.values()) {
+			if(previous.bodies.get(body.name) != body) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @param fingerprints the fingerprints of the bodies of ast, from TigerFingerprints
+	 * @return for each body whether its IR is cached, body i is function i and the last one is main
+	 */
+	public boolean[] findCached(Program ast, long[] fingerprints) {
+		boolean[] cached = new boolean[fingerprints.length];
+		for(int i = 0; i < ast.funcDecls.size(); i++) {
+			FuncDecl funcDecl = ast.funcDecls.get(i);
+			cached[i] = get(funcDecl.id.getTokenString(), fingerprints[i]) != null;
+		}
+		cached[cached.length - 1] = get(MAIN, fingerprints[fingerprints.length - 1]) != null;
+		return cached;
+	}
+	
+	public void write(Path path) throws IOException {
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			
+			out.writeInt(bodies.size());
+			for(Body body : bodies.values()) {
+				writeString(out, body.name);
+				out.writeLong(body.fingerprint);
+				out.writeInt(body.intCount);
+				out.writeInt(body.floatCount);
+				out.writeInt(body.labelCount);
+				
+				body.ir.write(out);
+			}
+		}
+	}
+	
+	/**
+	 * @return the cache, or null when the file is missing, truncated or from another format version
+	 */
+	public static TigerIRCache read(Path path) throws IOException {
+		if(!Files.exists(path)) {
+			return null;
+		}
+		
+		MappedByteBuffer in;
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		
+		try {
+			return read(in);
+		}
+		catch(BufferUnderflowException exc) {
+			return null;
+		}
+	}
+	
+	private static TigerIRCache read(ByteBuffer in) {
+		if(in.remaining() < 8 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+			return null;
+		}
+		
+		TigerIRCache cache = new TigerIRCache();
+		for(int i = in.getInt(); i > 0; i--) {
+			String name = readString(in);
+			long fingerprint = in.getLong();
+			int intCount = in.getInt(), floatCount = in.getInt(), labelCount = in.getInt();
+			
+			cache.put(new Body(name, fingerprint, intCount, floatCount, labelCount, TigerIRProgram.read(in)));
+		}
+		return cache;
+	}
+	
+	static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(utf8.length);
+		out.write(utf8);
+	}
+	
+	static String readString(ByteBuffer in) {
+		byte[] utf8 = new byte[in.getInt()];
+		in.get(utf8);
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+}
@@ -1,22 +1,47 @@
 package edu.cs4240.tiger.intermediate;
 
-import static edu.cs4240.tiger.util.Utils.*;
-
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
+import edu.cs4240.tiger.analyzer.TigerExprTypes;
 import edu.cs4240.tiger.analyzer.TigerSymbolTable;
 import edu.cs4240.tiger.analyzer.TigerType;
 import edu.cs4240.tiger.analyzer.TigerType.BaseType;
 import edu.cs4240.tiger.analyzer.TigerType.TigerArrayType;
+import edu.cs4240.tiger.ast.ArrayAccess;
+import edu.cs4240.tiger.ast.AssignStmt;
+import edu.cs4240.tiger.ast.AstNode;
+import edu.cs4240.tiger.ast.AstNode.Kind;
+import edu.cs4240.tiger.ast.AstVisitor;
+import edu.cs4240.tiger.ast.AstWalker;
+import edu.cs4240.tiger.ast.BinaryExpr;
+import edu.cs4240.tiger.ast.BoolExpr;
+import edu.cs4240.tiger.ast.BreakStmt;
+import edu.cs4240.tiger.ast.CallStmt;
+import edu.cs4240.tiger.ast.Comparison;
+import edu.cs4240.tiger.ast.ConstExpr;
+import edu.cs4240.tiger.ast.Expr;
+import edu.cs4240.tiger.ast.ForStmt;
+import edu.cs4240.tiger.ast.FuncDecl;
+import edu.cs4240.tiger.ast.IfStmt;
+import edu.cs4240.tiger.ast.LValue;
+import edu.cs4240.tiger.ast.LogicalExpr;
+import edu.cs4240.tiger.ast.ParenBoolExpr;
+import edu.cs4240.tiger.ast.ParenExpr;
+import edu.cs4240.tiger.ast.Program;
+import edu.cs4240.tiger.ast.ReturnStmt;
+import edu.cs4240.tiger.ast.Stmt;
+import edu.cs4240.tiger.ast.TigerASTBuilder;
+import edu.cs4240.tiger.ast.VarExpr;
+import edu.cs4240.tiger.ast.WhileStmt;
 import edu.cs4240.tiger.intermediate.TigerIROpcode.ParamType;
-import edu.cs4240.tiger.parser.TigerProductionRule;
 import edu.cs4240.tiger.parser.TigerToken;
 import edu.cs4240.tiger.parser.TigerTokenClass;
 import edu.cs4240.tiger.parser.node.LeafNode;
-import edu.cs4240.tiger.parser.node.Node;
 import edu.cs4240.tiger.parser.node.RuleNode;
 import edu.cs4240.tiger.util.Pair;
 
@@ -24,16 +49,22 @@ import edu.cs4240.tiger.util.Pair;
  * @author Roi Atalla
  */
 public class TigerIRGenerator {
-	private RuleNode ast;
+	private Program ast;
 	private TigerSymbolTable symbolTable;
+	private TigerExprTypes exprTypes;
 	
-	public TigerIRGenerator(RuleNode ast, TigerSymbolTable symbolTable) {
+	public TigerIRGenerator(Program ast, TigerSymbolTable symbolTable) {
 		this.ast = ast;
 		this.symbolTable = symbolTable;
+		this.exprTypes = symbolTable.getExprTypes();
+	}
+	
+	public TigerIRGenerator(RuleNode ast, TigerSymbolTable symbolTable) {
+		this(TigerASTBuilder.build(ast), symbolTable);
 	}
 	
-	public List<String> generateIR() {
-		ArrayList<String> ir = new ArrayList<>();
+	public TigerIRProgram generateIR() {
+		TigerIRProgram ir = new TigerIRProgram();
 		
 		generateVariables(ir);
 		generateFunctions(ir);
@@ -42,539 +73,589 @@ public class TigerIRGenerator {
 		return ir;
 	}
 	
-	private void generateVariables(List<String> ir) {
+	/**
+	 * Generates the same IR as generateIR(), but copies the bodies that previous has with an unchanged
+	 * fingerprint instead of generating them, those bodies need not have been analyzed.
+	 *
+	 * @param fingerprints the fingerprints of the bodies from TigerFingerprints, the last one is main
+	 * @param previous the bodies of the last compile, or null
+	 * @param next receives every body of this compile
+	 */
+	public TigerIRProgram generateIR(long[] fingerprints, TigerIRCache previous, TigerIRCache next) {
+		TigerIRProgram ir = new TigerIRProgram();
+		
+		generateVariables(ir);
+		for(int i = 0; i < ast.funcDecls.size(); i++) {
+			FuncDecl funcDecl = ast.funcDecls.get(i);
+			generateBody(funcDecl.id.getTokenString(), fingerprints[i], previous, next, ir, bodyIR -> generateFunction(funcDecl, bodyIR));
+		}
+		generateBody(TigerIRCache.MAIN, fingerprints[fingerprints.length - 1], previous, next, ir, this::generateMain);
+		
+		return ir;
+	}
+	
+	/**
+	 * Cached bodies number their registers and labels from 0, they are moved to start at the current
+	 * counters when copied into ir.
+	 */
+	private void generateBody(String name, long fingerprint, TigerIRCache previous, TigerIRCache next, TigerIRProgram ir, Consumer<TigerIRProgram> generator) {
+		int intBase = intRegCount, floatBase = floatRegCount, labelBase = labelCount;
+		
+		TigerIRCache.Body cached = previous != null ? previous.get(name, fingerprint) : null;
+		if(cached != null) {
+			ir.append(cached.ir, 0, cached.ir.getInstructions().size(), intBase, floatBase, labelBase);
+			intRegCount += cached.intCount;
+			floatRegCount += cached.floatCount;
+			labelCount += cached.labelCount;
+			next.put(cached);
+		} else {
+			int start = ir.getInstructions().size();
+			generator.accept(ir);
+			
+			TigerIRProgram bodyIR = new TigerIRProgram();
+			bodyIR.append(ir, start, ir.getInstructions().size(), -intBase, -floatBase, -labelBase);
+			next.put(new TigerIRCache.Body(name, fingerprint, intRegCount - intBase, floatRegCount - floatBase, labelCount - labelBase, bodyIR));
+		}
+	}
+	
+	private void generateVariables(TigerIRProgram ir) {
 		HashMap<String, Pair<TigerType, String>> variables = symbolTable.getVariables();
 		for(String var : variables.keySet()) {
 			Pair<TigerType, String> type = variables.get(var);
+			String initValue = type.getValue();
 			
 			if(type.getKey().baseType == BaseType.INT) {
-				ir.add(".VARi " + var + " " + type.getValue());
+				ir.addIntVariable(var, initValue);
 			} else if(type.getKey().baseType == BaseType.FLOAT) {
-				ir.add(".VARf " + var + " " + type.getValue());
+				ir.addFloatVariable(var, initValue);
 			} else if(type.getKey().baseType == BaseType.ARRAY) {
-				String instr = ".ARRAY";
+				TigerArrayType arrayType = (TigerArrayType)type.getKey();
 				
-				String sizes = "";
-				for(TigerArrayType currType = (TigerArrayType)type.getKey(); ; ) {
-					sizes += " " + currType.size;
-					
-					if(currType.subType.baseType == BaseType.INT) {
-						instr += "i ";
-						break;
-					} else if(currType.subType.baseType == BaseType.FLOAT) {
-						instr += "f ";
-						break;
-					} else {
-						currType = (TigerArrayType)currType.subType;
-					}
+				int[] sizes = new int[arrayType.dimensions];
+				TigerType currType = arrayType;
+				for(int i = 0; i < sizes.length; i++, currType = ((TigerArrayType)currType).subType) {
+					sizes[i] = ((TigerArrayType)currType).size;
 				}
 				
-				ir.add(instr + var + sizes);
+				ir.addArray(var, arrayType.elementType == TigerType.FLOAT_TYPE, sizes);
 			}
 		}
 	}
 	
-	private void generateFunctions(List<String> ir) {
-		RuleNode declseg = (RuleNode)ast.getChildren().get(1);
-		if(declseg.getChildren().size() < 3) {
-			return;
-		}
-		
-		RuleNode funcdecls = (RuleNode)declseg.getChildren().get(2);
-		while(funcdecls.getChildren().size() > 0) {
-			generateFunction((RuleNode)funcdecls.getChildren().get(0), ir);
-			
-			funcdecls = (RuleNode)funcdecls.getChildren().get(1);
+	private void generateFunctions(TigerIRProgram ir) {
+		for(FuncDecl funcDecl : ast.funcDecls) {
+			generateFunction(funcDecl, ir);
 		}
 	}
 	
-	private void generateFunction(RuleNode ruleNode, List<String> ir) {
-		ensureValue(ruleNode.getRule(), TigerProductionRule.FUNCDECL);
-		
-		String funcName = ((LeafNode)ruleNode.getChildren().get(1)).getToken().getTokenString();
-		String params = "";
-		
-		RuleNode paramsNode = (RuleNode)ruleNode.getChildren().get(3);
-		if(paramsNode.getChildren().size() > 0) {
-			RuleNode neparamsNode = (RuleNode)paramsNode.getChildren().get(0);
-			
-			do {
-				RuleNode paramNode = (RuleNode)neparamsNode.getChildren().get(0);
-				params += " " + ((LeafNode)paramNode.getChildren().get(0)).getToken().getTokenString();
-				neparamsNode = neparamsNode.getChildren().size() < 3 ? null : (RuleNode)neparamsNode.getChildren().get(2);
-			} while(neparamsNode != null);
+	private void generateFunction(FuncDecl funcDecl, TigerIRProgram ir) {
+		String[] params = new String[funcDecl.params.size()];
+		for(int i = 0; i < params.length; i++) {
+			params[i] = funcDecl.params.get(i).id.getTokenString();
 		}
 		
-		ir.add(".FUNC " + funcName + params);
+		ir.beginFunction(funcDecl.id.getTokenString(), params);
 		
-		HashMap<String, TigerType> names = new HashMap<>();
-		names.putAll(symbolTable.getVariables().keySet().stream().collect(Collectors.toMap(s -> s, s -> symbolTable.getVariables().get(s).getKey())));
-		names.putAll(symbolTable.getFunctions().get(funcName).getValue().stream().collect(Collectors.toMap(Pair::getKey, Pair::getValue)));
-		generateStatements((RuleNode)ruleNode.getChildren().get(7), names, null, ir);
+		new StatementGenerator(ir).generateStatements(funcDecl.body, null);
 		
-		ir.add("RET");
+		ir.add(TigerIROpcode.RET);
 	}
 	
-	private void generateMain(List<String> ir) {
-		ir.add(".FUNC main");
-		HashMap<String, TigerType> names = new HashMap<>();
-		names.putAll(symbolTable.getVariables().keySet().stream().collect(Collectors.toMap(s -> s, s -> symbolTable.getVariables().get(s).getKey())));
-		generateStatements((RuleNode)ast.getChildren().get(3), names, null, ir);
-		ir.add("RET");
+	private void generateMain(TigerIRProgram ir) {
+		ir.beginFunction("main");
+		new StatementGenerator(ir).generateStatements(ast.body, null);
+		ir.add(TigerIROpcode.RET);
 	}
 	
-	private void generateStatements(RuleNode stmts, HashMap<String, TigerType> names, String breakLabel, List<String> ir) {
-		ensureValue(stmts.getRule(), TigerProductionRule.STMTS);
-		
-		RuleNode stmt = (RuleNode)((RuleNode)stmts.getChildren().get(0)).getChildren().get(0);
-		
-		Node firstNode = stmt.getChildren().get(0);
-		if(firstNode instanceof LeafNode) {
-			LeafNode firstLeaf = (LeafNode)firstNode;
-			
-			switch(firstLeaf.getToken().getTokenClass()) {
-				case IF: {
-					Pair<String, ParamType> condReg = generateBoolexpr((RuleNode)stmt.getChildren().get(1), names, ir);
-					String elseLabel = nextLabel();
-					
-					ir.add("BRZ " + condReg.getKey() + " " + elseLabel);
-					generateStatements((RuleNode)stmt.getChildren().get(3), names, breakLabel, ir);
-					
-					String endifLabel = null;
-					
-					if(stmt.getChildren().size() >= 6) {
-						endifLabel = nextLabel();
-						ir.add("BR " + endifLabel);
-					}
-					
-					ir.add(elseLabel + ":");
-					
-					if(stmt.getChildren().size() >= 6) {
-						generateStatements((RuleNode)stmt.getChildren().get(5), names, breakLabel, ir);
-						ir.add(endifLabel + ":");
-					}
-					
-					break;
-				}
-				case WHILE: {
-					String loopLabel = nextLabel();
-					String endLabel = nextLabel();
-					
-					ir.add(loopLabel + ":");
-					
-					Pair<String, ParamType> condReg = generateBoolexpr((RuleNode)stmt.getChildren().get(1), names, ir);
-					ir.add("BRZ " + condReg.getKey() + " " + endLabel);
-					
-					generateStatements((RuleNode)stmt.getChildren().get(3), names, endLabel, ir);
-					
-					ir.add("BR " + loopLabel);
-					ir.add(endLabel + ":");
-					
-					break;
-				}
-				case FOR: {
-					String id = ((LeafNode)stmt.getChildren().get(1)).getToken().getTokenString();
-					
-					Pair<String, ParamType> idValue = generateNumexpr((RuleNode)stmt.getChildren().get(3), names, true, ir);
-					ir.add("ST" + getOpSuffix(idValue.getValue()) + " " + idValue.getKey() + " " + id);
-					
-					String loopLabel = nextLabel();
-					String endLabel = nextLabel();
-					
-					ir.add(loopLabel + ":");
-					
-					Pair<String, ParamType> limitValue = generateNumexpr((RuleNode)stmt.getChildren().get(5), names, true, ir);
-					
-					String condReg = nextIntReg();
-					String idReg = nextIntReg();
-					ir.add("LDi " + idReg + " " + id);
-					ir.add("NEQ" + getOpSuffix(limitValue.getValue()) + " " + condReg + " " + idReg + " " + limitValue.getKey());
-					ir.add("BRZ " + condReg + " " + endLabel);
-					
-					generateStatements((RuleNode)stmt.getChildren().get(7), names, endLabel, ir);
-					
-					ir.add("LDi " + idReg + " " + id);
-					ir.add("ADDIi " + idReg + " " + idReg + " 1");
-					ir.add("STi " + idReg + " " + id);
-					ir.add("BR " + loopLabel);
-					ir.add(endLabel + ":");
-					
-					break;
-				}
-				case BREAK: {
-					if(breakLabel == null) {
-						throw new IllegalArgumentException("Something went very wrong: Break label is null!");
-					}
-					ir.add("BR " + breakLabel);
-					break;
-				}
-				case RETURN: {
-					Pair<String, ParamType> returnValue = generateNumexpr((RuleNode)stmt.getChildren().get(1), names, false, ir);
-					ir.add("RET" + getOpSuffix(returnValue.getValue()) + " " + returnValue.getKey());
-					break;
-				}
-				default:
-					throw new IllegalStateException("Invalid token class for stmt: " + firstLeaf.getToken().getTokenClass());
+	/**
+	 * Generates the statements of one function body, the context is the label a break jumps to.
+	 * <p>
+	 * If, while and for generate their header and push their statements, and the code that goes after them,
+	 * on work. generateStatements runs work in a loop, so nested statements do not recurse.
+	 */
+	private class StatementGenerator implements AstVisitor<Void, Integer, RuntimeException> {
+		private final TigerIRProgram ir;
+		private final ArrayDeque<Runnable> work = new ArrayDeque<>();
+		
+		StatementGenerator(TigerIRProgram ir) {
+			this.ir = ir;
+		}
+		
+		void generateStatements(List<Stmt> stmts, Integer breakLabel) {
+			pushStatements(stmts, breakLabel);
+			while(!work.isEmpty()) {
+				work.pop().run();
 			}
-		} else {
-			RuleNode firstRule = (RuleNode)firstNode;
+		}
+		
+		private void pushStatements(List<Stmt> stmts, Integer breakLabel) {
+			for(int i = stmts.size() - 1; i >= 0; i--) {
+				Stmt stmt = stmts.get(i);
+				work.push(() -> visit(stmt, breakLabel));
+			}
+		}
+		
+		@Override
+		public Void visitIf(IfStmt ifStmt, Integer breakLabel) {
+			Pair<Integer, ParamType> condReg = generateBoolexpr(ifStmt.condition, ir);
+			int elseLabel = nextLabel();
 			
-			switch(firstRule.getRule()) {
-				case LVALUE: {
-					Pair<String, ParamType> reg = generateNumexpr((RuleNode)stmt.getChildren().get(2), names, true, ir);
-					handleStoreLvalue(firstRule, reg, names, ir);
-					break;
-				}
-				case OPTSTORE: {
-					String funcArgs = "";
-					RuleNode numexprs = (RuleNode)stmt.getChildren().get(3);
-					if(numexprs.getChildren().size() > 0) {
-						RuleNode neexprs = (RuleNode)numexprs.getChildren().get(0);
-						while(true) {
-							Pair<String, ParamType> argReg = generateNumexpr((RuleNode)neexprs.getChildren().get(0), names, false, ir);
-							funcArgs += " " + argReg.getKey();
-							if(neexprs.getChildren().size() > 1) {
-								neexprs = (RuleNode)neexprs.getChildren().get(2);
-							} else {
-								break;
-							}
-						}
-					}
-					
-					String funcName = ((LeafNode)stmt.getChildren().get(1)).getToken().getTokenString();
-					
-					if(firstRule.getChildren().size() == 0) {
-						ir.add("CALL " + funcName + funcArgs);
-					} else {
-						TigerType.BaseType baseType = symbolTable.getFunctions().get(funcName).getKey().baseType;
-						Pair<String, ParamType> returnReg;
-						if(baseType == BaseType.INT || baseType == BaseType.ARRAY) {
-							returnReg = new Pair<>(nextIntReg(), ParamType.REGISTERi);
-						} else if(baseType == BaseType.FLOAT) {
-							returnReg = new Pair<>(nextFloatReg(), ParamType.REGISTERf);
-						} else {
-							throw new IllegalArgumentException("Unknown basetype " + baseType);
-						}
-						
-						ir.add("CALL_RET " + funcName + " " + returnReg.getKey() + funcArgs);
-						
-						handleStoreLvalue((RuleNode)firstRule.getChildren().get(0), returnReg, names, ir);
-					}
-					break;
+			ir.add(TigerIROpcode.BRZ, condReg.getKey(), elseLabel);
+			
+			work.push(() -> {
+				if(ifStmt.elseStmts == null) {
+					ir.placeLabel(elseLabel);
+					return;
 				}
-				default:
-					throw new IllegalStateException("Invalid production rule for stmt: " + firstRule.getRule());
-			}
+				
+				int endifLabel = nextLabel();
+				ir.add(TigerIROpcode.BR, endifLabel);
+				ir.placeLabel(elseLabel);
+				
+				work.push(() -> ir.placeLabel(endifLabel));
+				pushStatements(ifStmt.elseStmts, breakLabel);
+			});
+			pushStatements(ifStmt.thenStmts, breakLabel);
+			
+			return null;
 		}
 		
-		if(stmts.getChildren().size() == 2) {
-			generateStatements((RuleNode)stmts.getChildren().get(1), names, breakLabel, ir);
+		@Override
+		public Void visitWhile(WhileStmt whileStmt, Integer breakLabel) {
+			int loopLabel = nextLabel();
+			int endLabel = nextLabel();
+			
+			ir.placeLabel(loopLabel);
+			
+			Pair<Integer, ParamType> condReg = generateBoolexpr(whileStmt.condition, ir);
+			ir.add(TigerIROpcode.BRZ, condReg.getKey(), endLabel);
+			
+			work.push(() -> {
+				ir.add(TigerIROpcode.BR, loopLabel);
+				ir.placeLabel(endLabel);
+			});
+			pushStatements(whileStmt.body, endLabel);
+			
+			return null;
 		}
-	}
-	
-	private void handleStoreLvalue(RuleNode lvalue, Pair<String, ParamType> sourceReg, HashMap<String, TigerType> names, List<String> ir) {
-		String name = ((LeafNode)lvalue.getChildren().get(0)).getToken().getTokenString();
 		
-		RuleNode optoffset = (RuleNode)lvalue.getChildren().get(1);
-		if(optoffset.getChildren().size() > 1) { // array access
-			TigerArrayType arrayType = (TigerArrayType)names.get(name);
+		@Override
+		public Void visitFor(ForStmt forStmt, Integer breakLabel) {
+			int id = ir.getSymbols().intern(forStmt.id.getTokenString());
 			
-			if(arrayType.subType.baseType == BaseType.FLOAT) {
-				handleIntToFloat(new Pair<>(null, ParamType.REGISTERf), sourceReg, ir);
-			}
+			Pair<Integer, ParamType> idValue = generateNumexpr(forStmt.from, true, ir);
+			ir.add(TigerIROpcode.STi.forType(idValue.getValue()), idValue.getKey(), id);
 			
-			Pair<String, ParamType> offset = generateNumexpr((RuleNode)optoffset.getChildren().get(1), names, true, ir);
+			int loopLabel = nextLabel();
+			int endLabel = nextLabel();
 			
-			String addrReg = nextIntReg();
-			ir.add("LDi " + addrReg + " " + name);
-			String offsetAdd = "ADD" + (offset.getValue() == ParamType.IMMEDIATEi ? "Ii" : "i");
-			ir.add(offsetAdd + " " + addrReg + " " + addrReg + " " + offset.getKey());
+			ir.placeLabel(loopLabel);
 			
-			ir.add("STR" + getOpSuffix(sourceReg.getValue()) + " " + sourceReg.getKey() + " " + addrReg);
-		} else {
-			if(names.get(name).baseType == BaseType.FLOAT) {
-				handleIntToFloat(new Pair<>(null, ParamType.REGISTERf), sourceReg, ir);
+			Pair<Integer, ParamType> limitValue = generateNumexpr(forStmt.to, true, ir);
+			
+			int condReg = nextIntReg();
+			int idReg = nextIntReg();
+			ir.add(TigerIROpcode.LDi, idReg, id);
+			ir.add(TigerIROpcode.NEQi.forType(limitValue.getValue()), condReg, idReg, limitValue.getKey());
+			ir.add(TigerIROpcode.BRZ, condReg, endLabel);
+			
+			work.push(() -> {
+				ir.add(TigerIROpcode.LDi, idReg, id);
+				ir.add(TigerIROpcode.ADDIi, idReg, idReg, 1);
+				ir.add(TigerIROpcode.STi, idReg, id);
+				ir.add(TigerIROpcode.BR, loopLabel);
+				ir.placeLabel(endLabel);
+			});
+			pushStatements(forStmt.body, endLabel);
+			
+			return null;
+		}
+		
+		@Override
+		public Void visitBreak(BreakStmt breakStmt, Integer breakLabel) {
+			if(breakLabel == null) {
+				throw new IllegalArgumentException("Something went very wrong: Break label is null!");
 			}
+			ir.add(TigerIROpcode.BR, breakLabel);
 			
-			ir.add("ST" + getOpSuffix(sourceReg.getValue()) + " " + sourceReg.getKey() + " " + name);
+			return null;
 		}
-	}
-	
-	private Pair<String, ParamType> generateNumexpr(RuleNode numexpr, HashMap<String, TigerType> names, boolean returnImm, List<String> ir) {
-		ensureValue(numexpr.getRule(), TigerProductionRule.NUMEXPR);
 		
-		RuleNode firstRule = (RuleNode)numexpr.getChildren().get(0);
-		if(firstRule.getRule() == TigerProductionRule.TERM) {
-			return generateTerm(firstRule, names, returnImm, ir);
-		} else {
-			Pair<String, ParamType> numexprChild = generateNumexpr(firstRule, names, false, ir);
-			Pair<String, ParamType> termChild = generateTerm((RuleNode)numexpr.getChildren().get(2), names, true, ir);
+		@Override
+		public Void visitReturn(ReturnStmt returnStmt, Integer breakLabel) {
+			Pair<Integer, ParamType> returnValue = generateNumexpr(returnStmt.value, false, ir);
+			ir.add(TigerIROpcode.RETi.forType(returnValue.getValue()), returnValue.getKey());
 			
-			handleIntToFloat(numexprChild, termChild, ir);
+			return null;
+		}
+		
+		@Override
+		public Void visitAssign(AssignStmt assignStmt, Integer breakLabel) {
+			Pair<Integer, ParamType> reg = generateNumexpr(assignStmt.value, true, ir);
+			handleStoreLvalue(assignStmt.target, reg, exprTypes.get(assignStmt.value), ir);
 			
-			String reg;
-			boolean isInt = numexprChild.getValue() == ParamType.REGISTERi;
-			if(isInt) {
-				reg = nextIntReg();
+			return null;
+		}
+		
+		@Override
+		public Void visitCall(CallStmt callStmt, Integer breakLabel) {
+			// CALL function args... or CALL_RET function returnReg args...
+			int first = callStmt.store == null ? 1 : 2;
+			int[] operands = new int[first + callStmt.args.size()];
+			ParamType[] types = new ParamType[operands.length];
+			
+			Pair<TigerType, List<Pair<String, TigerType>>> signature = symbolTable.getFunction(callStmt.function.getSymbol());
+			for(int i = 0; i < callStmt.args.size(); i++) {
+				Pair<Integer, ParamType> argReg = generateNumexpr(callStmt.args.get(i), false, ir);
+				// the analyzer lets a call pass more arguments than there are parameters, those are passed as they are
+				List<Pair<String, TigerType>> params = signature.getValue();
+				if(i < params.size() && params.get(i).getValue() == TigerType.FLOAT_TYPE && exprTypes.get(callStmt.args.get(i)) == TigerType.INT_TYPE) {
+					argReg = toFloat(argReg, ir);
+				}
+				operands[first + i] = argReg.getKey();
+				types[first + i] = argReg.getValue();
+			}
+			
+			operands[0] = ir.function(callStmt.function.getTokenString());
+			types[0] = ParamType.FUNCTION;
+			
+			if(callStmt.store == null) {
+				ir.add(TigerIROpcode.CALL, types, operands);
 			} else {
-				reg = nextFloatReg();
+				TigerType returnType = signature.getKey();
+				BaseType baseType = returnType.baseType;
+				Pair<Integer, ParamType> returnReg;
+				if(baseType == BaseType.INT || baseType == BaseType.ARRAY) {
+					returnReg = new Pair<>(nextIntReg(), ParamType.REGISTERi);
+				} else if(baseType == BaseType.FLOAT) {
+					returnReg = new Pair<>(nextFloatReg(), ParamType.REGISTERf);
+				} else {
+					throw new IllegalArgumentException("Unknown basetype " + baseType);
+				}
+				
+				operands[1] = returnReg.getKey();
+				types[1] = returnReg.getValue();
+				ir.add(TigerIROpcode.CALL_RET, types, operands);
+				
+				handleStoreLvalue(callStmt.store, returnReg, returnType, ir);
 			}
 			
-			String op = operatorToCommand(((LeafNode)((RuleNode)numexpr.getChildren().get(1)).getChildren().get(0)).getToken());
-			op += getOpSuffix(termChild.getValue());
-			ir.add(op + " " + reg + " " + numexprChild.getKey() + " " + termChild.getKey());
-			return new Pair<>(reg, isInt ? ParamType.REGISTERi : ParamType.REGISTERf);
+			return null;
 		}
 	}
 	
-	private Pair<String, ParamType> generateTerm(RuleNode term, HashMap<String, TigerType> names, boolean returnImm, List<String> ir) {
-		ensureValue(term.getRule(), TigerProductionRule.TERM);
+	private void handleStoreLvalue(LValue lvalue, Pair<Integer, ParamType> sourceReg, TigerType sourceType, TigerIRProgram ir) {
+		int name = ir.getSymbols().intern(lvalue.id.getTokenString());
 		
-		RuleNode firstRule = (RuleNode)term.getChildren().get(0);
-		if(firstRule.getRule() == TigerProductionRule.FACTOR) {
-			return generateFactor(firstRule, names, returnImm, ir);
-		} else {
-			Pair<String, ParamType> termChild = generateTerm(firstRule, names, false, ir);
-			Pair<String, ParamType> factorChild = generateFactor((RuleNode)term.getChildren().get(2), names, true, ir);
+		if(exprTypes.get(lvalue) == TigerType.FLOAT_TYPE && sourceType == TigerType.INT_TYPE) {
+			sourceReg = toFloat(sourceReg, ir);
+		}
+		
+		if(lvalue.kind == Kind.ARRAY_ACCESS) {
+			Pair<Integer, ParamType> offset = generateNumexpr(((ArrayAccess)lvalue).index, true, ir);
 			
-			handleIntToFloat(termChild, factorChild, ir);
+			int addrReg = nextIntReg();
+			ir.add(TigerIROpcode.LDi, addrReg, name);
+			ir.add(TigerIROpcode.ADDi.forType(offset.getValue()), addrReg, addrReg, offset.getKey());
 			
-			String reg;
-			boolean isInt = termChild.getValue() == ParamType.REGISTERi;
-			if(isInt) {
-				reg = nextIntReg();
-			} else {
-				reg = nextFloatReg();
-			}
-			
-			String op = operatorToCommand(((LeafNode)((RuleNode)term.getChildren().get(1)).getChildren().get(0)).getToken());
-			op += getOpSuffix(factorChild.getValue());
-			ir.add(op + " " + reg + " " + termChild.getKey() + " " + factorChild.getKey());
-			return new Pair<>(reg, isInt ? ParamType.REGISTERi : ParamType.REGISTERf);
+			ir.add(TigerIROpcode.STRi.forType(sourceReg.getValue()), sourceReg.getKey(), addrReg);
+		} else {
+			ir.add(TigerIROpcode.STi.forType(sourceReg.getValue()), sourceReg.getKey(), name);
 		}
 	}
 	
-	private Pair<String, ParamType> generateFactor(RuleNode factor, HashMap<String, TigerType> names, boolean returnImm, List<String> ir) {
-		ensureValue(factor.getRule(), TigerProductionRule.FACTOR);
-		
-		Node firstNode = factor.getChildren().get(0);
-		if(firstNode instanceof RuleNode) {
-			LeafNode litNode = (LeafNode)((RuleNode)firstNode).getChildren().get(0);
-			switch(litNode.getToken().getTokenClass()) {
-				case INTLIT:
+	private Pair<Integer, ParamType> generateNumexpr(Expr expr, boolean returnImm, TigerIRProgram ir) {
+		return exprGenerator.generate(expr, returnImm, ir);
+	}
+	
+	private Pair<Integer, ParamType> generateBoolexpr(BoolExpr expr, TigerIRProgram ir) {
+		return exprGenerator.generate(expr, false, ir);
+	}
+	
+	private final ExprGenerator exprGenerator = new ExprGenerator();
+	
+	/**
+	 * Generates each node of an expression once its children are, leaving the register or immediate of its
+	 * value on values, where its parent takes it from.
+	 */
+	private class ExprGenerator extends AstWalker<TigerIRProgram, RuntimeException> {
+		private final ArrayList<Pair<Integer, ParamType>> values = new ArrayList<>();
+		
+		// per depth, whether a constant can be returned as an immediate instead of being loaded into a register
+		private boolean[] returnImms = new boolean[16];
+		
+		Pair<Integer, ParamType> generate(AstNode root, boolean returnImm, TigerIRProgram ir) {
+			returnImms[0] = returnImm;
+			walk(root, ir);
+			return pop();
+		}
+		
+		@Override
+		protected void enter(AstNode node, TigerIRProgram ir) {
+			int depth = getDepth();
+			if(depth == 0) {
+				return;
+			}
+			
+			if(depth == returnImms.length) {
+				returnImms = Arrays.copyOf(returnImms, depth * 2);
+			}
+			
+			// the left operand is loaded into a register, the right one and an index can be immediates
+			AstNode parent = getParent();
+			returnImms[depth] = parent.kind == Kind.PAREN ? returnImms[depth - 1] : getChildIndex() == 1 || parent.kind == Kind.ARRAY_ACCESS;
+		}
+		
+		/**
+		 * The right side of a swapped comparison is generated first.
+		 */
+		@Override
+		protected AstNode getChild(AstNode node, int index) {
+			if(node.kind == Kind.COMPARISON && isSwapped((Comparison)node) && index < 2) {
+				index = 1 - index;
+			}
+			return super.getChild(node, index);
+		}
+		
+		@Override
+		public Void visitConst(ConstExpr constExpr, TigerIRProgram ir) {
+			boolean returnImm = returnImms[getDepth()];
+			LeafNode litNode = constExpr.value;
+			switch(litNode.getTokenClass()) {
+				case INTLIT: {
+					int value = Integer.parseInt(litNode.getTokenString());
 					if(returnImm) {
-						return new Pair<>(litNode.getToken().getTokenString(), ParamType.IMMEDIATEi);
+						values.add(new Pair<>(value, ParamType.IMMEDIATEi));
 					} else {
-						String reg = nextIntReg();
-						ir.add("LDIi " + reg + " " + litNode.getToken().getTokenString());
-						return new Pair<>(reg, ParamType.REGISTERi);
+						int reg = nextIntReg();
+						ir.add(TigerIROpcode.LDIi, reg, value);
+						values.add(new Pair<>(reg, ParamType.REGISTERi));
 					}
-				case FLOATLIT:
+					return null;
+				}
+				case FLOATLIT: {
+					int value = ir.floatImmediate(litNode.getTokenString());
 					if(returnImm) {
-						return new Pair<>(litNode.getToken().getTokenString(), ParamType.IMMEDIATEf);
+						values.add(new Pair<>(value, ParamType.IMMEDIATEf));
 					} else {
-						String reg = nextFloatReg();
-						ir.add("LDIf " + reg + " " + litNode.getToken().getTokenString());
-						return new Pair<>(reg, ParamType.REGISTERf);
-					}
-				default:
-					throw new IllegalArgumentException("Invalid const leaf " + litNode.getToken().getTokenClass());
-			}
-		} else {
-			LeafNode firstLeaf = (LeafNode)firstNode;
-			
-			switch(firstLeaf.getToken().getTokenClass()) {
-				case ID: {
-					String name = firstLeaf.getToken().getTokenString();
-					TigerType type = names.get(name);
-					
-					if(factor.getChildren().size() > 1) { // array access
-						Pair<String, ParamType> offset = generateNumexpr((RuleNode)factor.getChildren().get(2), names, true, ir);
-						
-						String addrReg = nextIntReg();
-						ir.add("LDi " + addrReg + " " + name);
-						String offsetAdd = "ADD" + (offset.getValue() == ParamType.IMMEDIATEi ? "Ii" : "i");
-						ir.add(offsetAdd + " " + addrReg + " " + addrReg + " " + offset.getKey());
-						
-						TigerArrayType arrayType = (TigerArrayType)type;
-						if(arrayType.subType.baseType == BaseType.INT || arrayType.subType.baseType == BaseType.ARRAY) {
-							String reg = nextIntReg();
-							ir.add("LDRi " + reg + " " + addrReg);
-							return new Pair<>(reg, ParamType.REGISTERi);
-						} else if(arrayType.subType.baseType == BaseType.FLOAT) {
-							String reg = nextFloatReg();
-							ir.add("LDRf " + reg + " " + addrReg);
-							return new Pair<>(reg, ParamType.REGISTERf);
-						} else {
-							throw new IllegalArgumentException("Unrecognized basetype");
-						}
-					} else {
-						if(type.baseType == BaseType.INT || type.baseType == BaseType.ARRAY) {
-							String reg = nextIntReg();
-							ir.add("LDi " + reg + " " + name);
-							return new Pair<>(reg, ParamType.REGISTERi);
-						} else if(type.baseType == BaseType.FLOAT) {
-							String reg = nextFloatReg();
-							ir.add("LDf " + reg + " " + name);
-							return new Pair<>(reg, ParamType.REGISTERf);
-						} else {
-							throw new IllegalArgumentException("Unrecognized basetype");
-						}
+						int reg = nextFloatReg();
+						ir.add(TigerIROpcode.LDIf, reg, value);
+						values.add(new Pair<>(reg, ParamType.REGISTERf));
 					}
+					return null;
 				}
-				case LPAREN:
-					return generateNumexpr((RuleNode)factor.getChildren().get(1), names, returnImm, ir);
 				default:
-					throw new IllegalArgumentException("Invalid token class for factor: " + firstLeaf.getToken().getTokenClass());
+					throw new IllegalArgumentException("Invalid const leaf " + litNode.getTokenClass());
 			}
 		}
-	}
-	
-	private Pair<String, ParamType> generateBoolexpr(RuleNode boolexpr, HashMap<String, TigerType> names, List<String> ir) {
-		ensureValue(boolexpr.getRule(), TigerProductionRule.BOOLEXPR);
 		
-		RuleNode firstRule = (RuleNode)boolexpr.getChildren().get(0);
-		if(firstRule.getRule() == TigerProductionRule.CLAUSE) {
-			return generateClause(firstRule, names, ir);
-		} else {
-			Pair<String, ParamType> boolexprChild = generateBoolexpr(firstRule, names, ir);
-			Pair<String, ParamType> clauseChild = generateClause((RuleNode)boolexpr.getChildren().get(2), names, ir);
+		@Override
+		public Void visitArrayAccess(ArrayAccess arrayAccess, TigerIRProgram ir) {
+			int name = ir.getSymbols().intern(arrayAccess.id.getTokenString());
 			
-			handleIntToFloat(boolexprChild, clauseChild, ir);
+			Pair<Integer, ParamType> offset = pop();
 			
-			String reg = nextIntReg();
-			ir.add("OR" + getOpSuffix(clauseChild.getValue()) + " " + reg + " " + boolexprChild.getKey() + " " + clauseChild.getKey());
-			return new Pair<>(reg, ParamType.REGISTERi);
+			int addrReg = nextIntReg();
+			ir.add(TigerIROpcode.LDi, addrReg, name);
+			ir.add(TigerIROpcode.ADDi.forType(offset.getValue()), addrReg, addrReg, offset.getKey());
+			
+			BaseType baseType = exprTypes.get(arrayAccess).baseType;
+			if(baseType == BaseType.INT || baseType == BaseType.ARRAY) {
+				int reg = nextIntReg();
+				ir.add(TigerIROpcode.LDRi, reg, addrReg);
+				values.add(new Pair<>(reg, ParamType.REGISTERi));
+			} else if(baseType == BaseType.FLOAT) {
+				int reg = nextFloatReg();
+				ir.add(TigerIROpcode.LDRf, reg, addrReg);
+				values.add(new Pair<>(reg, ParamType.REGISTERf));
+			} else {
+				throw new IllegalArgumentException("Unrecognized basetype");
+			}
+			return null;
 		}
-	}
-	
-	private Pair<String, ParamType> generateClause(RuleNode clause, HashMap<String, TigerType> names, List<String> ir) {
-		ensureValue(clause.getRule(), TigerProductionRule.CLAUSE);
 		
-		RuleNode firstRule = (RuleNode)clause.getChildren().get(0);
-		if(firstRule.getRule() == TigerProductionRule.PRED) {
-			return generatePred(firstRule, names, ir);
-		} else {
-			Pair<String, ParamType> clauseChild = generateClause(firstRule, names, ir);
-			Pair<String, ParamType> predChild = generatePred((RuleNode)clause.getChildren().get(2), names, ir);
-			
-			handleIntToFloat(clauseChild, predChild, ir);
+		@Override
+		public Void visitVar(VarExpr varExpr, TigerIRProgram ir) {
+			int name = ir.getSymbols().intern(varExpr.id.getTokenString());
+			TigerType type = exprTypes.get(varExpr);
 			
-			String reg = nextIntReg();
-			ir.add("AND" + getOpSuffix(predChild.getValue()) + " " + reg + " " + clauseChild.getKey() + " " + predChild.getKey());
-			return new Pair<>(reg, ParamType.REGISTERi);
+			if(type.baseType == BaseType.INT || type.baseType == BaseType.ARRAY) {
+				int reg = nextIntReg();
+				ir.add(TigerIROpcode.LDi, reg, name);
+				values.add(new Pair<>(reg, ParamType.REGISTERi));
+			} else if(type.baseType == BaseType.FLOAT) {
+				int reg = nextFloatReg();
+				ir.add(TigerIROpcode.LDf, reg, name);
+				values.add(new Pair<>(reg, ParamType.REGISTERf));
+			} else {
+				throw new IllegalArgumentException("Unrecognized basetype");
+			}
+			return null;
 		}
-	}
-	
-	private Pair<String, ParamType> generatePred(RuleNode pred, HashMap<String, TigerType> names, List<String> ir) {
-		ensureValue(pred.getRule(), TigerProductionRule.PRED);
 		
-		Node firstNode = pred.getChildren().get(0);
-		if(firstNode instanceof LeafNode) {
-			return generateBoolexpr((RuleNode)pred.getChildren().get(1), names, ir);
-		} else {
-			Pair<String, ParamType> leftNumexpr, rightNumexpr;
+		// the value of the inner expression is the value
+		@Override
+		public Void visitParen(ParenExpr parenExpr, TigerIRProgram ir) {
+			return null;
+		}
+		
+		@Override
+		public Void visitParenBool(ParenBoolExpr parenBoolExpr, TigerIRProgram ir) {
+			return null;
+		}
+		
+		@Override
+		public Void visitBinary(BinaryExpr binaryExpr, TigerIRProgram ir) {
+			Pair<Integer, ParamType> rightChild = pop();
+			Pair<Integer, ParamType> leftChild = pop();
 			
-			LeafNode boolop = (LeafNode)((RuleNode)pred.getChildren().get(1)).getChildren().get(0);
-			if(boolop.getToken().getTokenClass() == TigerTokenClass.LT || boolop.getToken().getTokenClass() == TigerTokenClass.LEQUAL) {
-				leftNumexpr = generateNumexpr((RuleNode)pred.getChildren().get(2), names, false, ir);
-				rightNumexpr = generateNumexpr((RuleNode)firstNode, names, true, ir);
-				boolop = new LeafNode(new TigerToken(boolop.getToken().getTokenClass() == TigerTokenClass.LT ? TigerTokenClass.GT : TigerTokenClass.GEQUAL, "", "", 0, 0));
+			// the analyzer typed the operation as float if either operand is, the int one is converted
+			boolean isInt = exprTypes.get(binaryExpr) != TigerType.FLOAT_TYPE;
+			if(!isInt) {
+				if(exprTypes.get(binaryExpr.left) == TigerType.INT_TYPE) {
+					leftChild = toFloat(leftChild, ir);
+				}
+				if(exprTypes.get(binaryExpr.right) == TigerType.INT_TYPE) {
+					rightChild = toFloat(rightChild, ir);
+				}
+			}
+			
+			int reg;
+			if(isInt) {
+				reg = nextIntReg();
 			} else {
-				leftNumexpr = generateNumexpr((RuleNode)firstNode, names, false, ir);
-				rightNumexpr = generateNumexpr((RuleNode)pred.getChildren().get(2), names, true, ir);
+				reg = nextFloatReg();
+			}
+			
+			TigerIROpcode op = operatorToCommand(binaryExpr.op.getToken()).forType(rightChild.getValue());
+			ir.add(op, reg, leftChild.getKey(), rightChild.getKey());
+			values.add(new Pair<>(reg, isInt ? ParamType.REGISTERi : ParamType.REGISTERf));
+			return null;
+		}
+		
+		@Override
+		public Void visitLogical(LogicalExpr logicalExpr, TigerIRProgram ir) {
+			Pair<Integer, ParamType> rightChild = pop();
+			Pair<Integer, ParamType> leftChild = pop();
+			
+			TigerIROpcode op = logicalExpr.op.getTokenClass() == TigerTokenClass.PIPE ? TigerIROpcode.ORi : TigerIROpcode.ANDi;
+			int reg = nextIntReg();
+			ir.add(op.forType(rightChild.getValue()), reg, leftChild.getKey(), rightChild.getKey());
+			values.add(new Pair<>(reg, ParamType.REGISTERi));
+			return null;
+		}
+		
+		@Override
+		public Void visitComparison(Comparison comparison, TigerIRProgram ir) {
+			Expr left = comparison.left, right = comparison.right;
+			
+			LeafNode boolop = comparison.op;
+			if(isSwapped(comparison)) {
+				left = comparison.right;
+				right = comparison.left;
+				boolop = new LeafNode(new TigerToken(boolop.getTokenClass() == TigerTokenClass.LT ? TigerTokenClass.GT : TigerTokenClass.GEQUAL, "", "", 0, 0));
 			}
 			
-			handleIntToFloat(leftNumexpr, rightNumexpr, ir);
+			Pair<Integer, ParamType> rightNumexpr = pop();
+			Pair<Integer, ParamType> leftNumexpr = pop();
 			
-			String reg = nextIntReg();
-			ir.add(getBoolop(boolop) + getOpSuffix(rightNumexpr.getValue()) + " " + reg + " " + leftNumexpr.getKey() + " " + rightNumexpr.getKey());
-			return new Pair<>(reg, ParamType.REGISTERi);
+			// compared as floats if either side is a float
+			TigerType leftType = exprTypes.get(left), rightType = exprTypes.get(right);
+			if(leftType == TigerType.FLOAT_TYPE || rightType == TigerType.FLOAT_TYPE) {
+				if(leftType == TigerType.INT_TYPE) {
+					leftNumexpr = toFloat(leftNumexpr, ir);
+				}
+				if(rightType == TigerType.INT_TYPE) {
+					rightNumexpr = toFloat(rightNumexpr, ir);
+				}
+			}
+			
+			int reg = nextIntReg();
+			ir.add(getBoolop(boolop).forType(rightNumexpr.getValue()), reg, leftNumexpr.getKey(), rightNumexpr.getKey());
+			values.add(new Pair<>(reg, ParamType.REGISTERi));
+			return null;
+		}
+		
+		@Override
+		public Void visitDefault(AstNode node, TigerIRProgram ir) {
+			throw new IllegalArgumentException("Invalid expression: " + node.kind);
+		}
+		
+		private Pair<Integer, ParamType> pop() {
+			return values.remove(values.size() - 1);
 		}
 	}
 	
+	/**
+	 * a < b and a <= b are generated as b > a and b >= a
+	 */
+	private static boolean isSwapped(Comparison comparison) {
+		TigerTokenClass op = comparison.op.getTokenClass();
+		return op == TigerTokenClass.LT || op == TigerTokenClass.LEQUAL;
+	}
+	
 	private int intRegCount = 0;
 	
-	private String nextIntReg() {
-		return "$i" + intRegCount++;
+	private int nextIntReg() {
+		return intRegCount++;
 	}
 	
 	private int floatRegCount = 0;
 	
-	private String nextFloatReg() {
-		return "$f" + floatRegCount++;
+	private int nextFloatReg() {
+		return floatRegCount++;
 	}
 	
 	private int labelCount = 0;
 	
-	private String nextLabel() {
-		return "Label" + labelCount++;
+	private int nextLabel() {
+		return labelCount++;
 	}
 	
-	private void handleIntToFloat(Pair<String, ParamType> leftParam, Pair<String, ParamType> rightParam, List<String> ir) {
-		if(leftParam.getValue() == ParamType.REGISTERi && rightParam.getValue() == ParamType.REGISTERf) {
-			String tmpReg = nextFloatReg();
-			ir.add("ITOF " + tmpReg + " " + leftParam.getKey());
-			leftParam.set(tmpReg, ParamType.REGISTERf);
-		} else if(leftParam.getValue() == ParamType.REGISTERf) {
-			if(rightParam.getValue() == ParamType.REGISTERi) {
-				String tmpReg = nextFloatReg();
-				ir.add("ITOF " + tmpReg + " " + rightParam.getKey());
-				rightParam.set(tmpReg, ParamType.REGISTERf);
-			} else if(rightParam.getValue() == ParamType.IMMEDIATEi) {
-				String tmpReg = nextIntReg();
-				String tmpRegf = nextFloatReg();
-				ir.add("LDIi " + tmpReg + " " + rightParam.getKey());
-				ir.add("ITOF " + tmpRegf + " " + tmpReg);
-				rightParam.set(tmpRegf, ParamType.REGISTERf);
-			}
+	/**
+	 * Converts an int register or immediate into a new float register.
+	 */
+	private Pair<Integer, ParamType> toFloat(Pair<Integer, ParamType> param, TigerIRProgram ir) {
+		int intReg = param.getKey();
+		if(param.getValue() == ParamType.IMMEDIATEi) {
+			intReg = nextIntReg();
+			ir.add(TigerIROpcode.LDIi, intReg, param.getKey());
 		}
+		
+		int floatReg = nextFloatReg();
+		ir.add(TigerIROpcode.ITOF, floatReg, intReg);
+		return new Pair<>(floatReg, ParamType.REGISTERf);
 	}
 	
-	private String getBoolop(LeafNode leafNode) {
-		switch(leafNode.getToken().getTokenClass()) {
+	private TigerIROpcode getBoolop(LeafNode leafNode) {
+		switch(leafNode.getTokenClass()) {
 			case EQUAL:
-				return "EQ";
+				return TigerIROpcode.EQi;
 			case NOTEQUAL:
-				return "NEQ";
+				return TigerIROpcode.NEQi;
 			case GT:
-				return "GT";
+				return TigerIROpcode.GTi;
 			case GEQUAL:
-				return "GEQ";
+				return TigerIROpcode.GEQi;
 		}
 		
 		throw new IllegalArgumentException("Invalid boolop " + leafNode.getToken());
 	}
 	
-	private String operatorToCommand(TigerToken token) {
+	private TigerIROpcode operatorToCommand(TigerToken token) {
 		switch(token.getTokenClass()) {
 			case PLUS:
-				return "ADD";
+				return TigerIROpcode.ADDi;
 			case MINUS:
-				return "SUB";
+				return TigerIROpcode.SUBi;
 			case STAR:
-				return "MUL";
+				return TigerIROpcode.MULi;
 			case FWSLASH:
-				return "DIV";
+				return TigerIROpcode.DIVi;
 			case PERCENT:
-				return "MOD";
+				return TigerIROpcode.MODi;
 			default:
 				throw new IllegalArgumentException("Not an operator: " + token);
 		}
 	}
-	
-	private String getOpSuffix(ParamType type) {
-		switch(type) {
-			case IMMEDIATEi:
-				return "Ii";
-			case IMMEDIATEf:
-				return "If";
-			case REGISTERi:
-				return "i";
-			case REGISTERf:
-				return "f";
-			default:
-				throw new IllegalArgumentException("Invalid op type");
-		}
-	}
 }
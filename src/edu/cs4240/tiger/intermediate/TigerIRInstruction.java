@@ -1,23 +1,29 @@
 package edu.cs4240.tiger.intermediate;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.regex.Matcher;
 
 import edu.cs4240.tiger.intermediate.TigerIROpcode.ParamType;
-import edu.cs4240.tiger.util.Pair;
 
 /**
+ * An instruction of a TigerIRProgram. Each operand is an int: the number of a register, the value of
+ * an int immediate, the symbol of a float immediate or variable name, or the index of a label or
+ * function in the program. Its type says which.
+ *
  * @author Roi Atalla
  */
 public class TigerIRInstruction {
-	private TigerIROpcode opcode;
-	private List<Pair<String, ParamType>> params;
-	private int lineNumber;
+	private final TigerIROpcode opcode;
+	private final int[] operands;
+	private final ParamType[] types;
+	private final int lineNumber;
 	
-	public TigerIRInstruction(TigerIROpcode opcode, List<Pair<String, ParamType>> params, int lineNumber) {
+	/**
+	 * @param types the type of each operand, REGISTERi, REGISTERf, IMMEDIATEi, IMMEDIATEf, VARIABLE, LABEL or FUNCTION
+	 */
+	public TigerIRInstruction(TigerIROpcode opcode, int[] operands, ParamType[] types, int lineNumber) {
 		this.opcode = opcode;
-		this.params = params;
+		this.operands = operands;
+		this.types = types;
 		this.lineNumber = lineNumber;
 	}
 	
@@ -25,91 +31,119 @@ public class TigerIRInstruction {
 		return opcode;
 	}
 	
-	public List<Pair<String, ParamType>> getParams() {
-		return params;
+	public int getOperandCount() {
+		return operands.length;
+	}
+	
+	public int getOperand(int operand) {
+		return operands[operand];
+	}
+	
+	public ParamType getType(int operand) {
+		return types[operand];
 	}
 	
 	public int getLineNumber() {
 		return lineNumber;
 	}
 	
-	@Override
-	public String toString() {
-		String s = "[" + opcode.toString();
-		for(Pair<String, ParamType> pair : params) {
-			s += ", " + pair.getKey();
+	/**
+	 * @param program the names of variables, labels and functions are interned in here
+	 */
+	public static TigerIRInstruction parseInstruction(String[] inst, int lineNumber, TigerIRProgram program) {
+		TigerIROpcode op;
+		try {
+			op = TigerIROpcode.valueOf(inst[0]);
 		}
-		return s + "]";
-	}
-	
-	public static TigerIRInstruction parseInstruction(String[] inst, int lineNumber) {
-		TigerIROpcode opcode = null;
-		ArrayList<Pair<String, ParamType>> params = new ArrayList<>();
+		catch(IllegalArgumentException exc) {
+			throw new IllegalArgumentException("Unrecognized op " + inst[0]);
+		}
+		
+		int[] operands = new int[inst.length - 1];
+		ParamType[] types = new ParamType[inst.length - 1];
 		
-		for(TigerIROpcode op : TigerIROpcode.values()) {
-			if(op.toString().equals(inst[0])) {
-				opcode = op;
-				
-				int lastI = 0;
-				for(int i = 0; i < op.paramTypes.length; i++) {
-					ParamType paramType = op.paramTypes[i];
-					
-					if(paramType == ParamType.OPT_MORE_REGISTERS) {
-						while(++i < inst.length) {
-							String s = inst[i];
-							lastI = i;
-							
-							Matcher matcher = ParamType.REGISTERi.pattern.matcher(s);
-							if(matcher.matches()) {
-								params.add(new Pair<>(s, ParamType.REGISTERi));
-								continue;
-							}
-							
-							matcher = ParamType.REGISTERf.pattern.matcher(s);
-							if(matcher.matches()) {
-								params.add(new Pair<>(s, ParamType.REGISTERf));
-								continue;
-							}
-							
-							throw new IllegalArgumentException("Invalid parameter '" + s + "' for instruction " + op);
-						}
-					} else if(paramType == ParamType.OPT_IMMi) {
-						if(i + 1 < inst.length) {
-							String s = inst[i + 1];
-							lastI = i + 1;
-							
-							Matcher matcher = ParamType.IMMEDIATEi.pattern.matcher(s);
-							if(matcher.matches()) {
-								params.add(new Pair<>(s, paramType));
-							} else {
-								throw new IllegalArgumentException("Invalid parameter '" + s + "' for instruction " + op);
-							}
-						}
-					} else if(i + 1 >= inst.length) {
-						throw new IllegalArgumentException("Not enough parameters for instruction " + op);
-					} else {
-						String s = inst[i + 1];
-						lastI = i + 1;
-						
-						Matcher matcher = paramType.pattern.matcher(s);
-						if(matcher.matches()) {
-							params.add(new Pair<>(s, paramType));
-						} else {
-							throw new IllegalArgumentException("Invalid parameter '" + s + "' for instruction " + op);
-						}
-					}
+		int lastI = 0;
+		for(int i = 0; i < op.paramTypes.length; i++) {
+			ParamType paramType = op.paramTypes[i];
+			
+			if(paramType == ParamType.OPT_MORE_REGISTERS) {
+				while(++i < inst.length) {
+					lastI = i;
+					parseRegister(op, inst[i], ParamType.REGISTER, operands, types, i - 1);
 				}
-				
-				if(lastI + 1 != inst.length) {
-					throw new IllegalArgumentException("Too many parameters for instruction " + op);
+			} else if(paramType == ParamType.OPT_IMMi) {
+				if(i + 1 < inst.length) {
+					lastI = i + 1;
+					parseOperand(op, inst[i + 1], ParamType.IMMEDIATEi, operands, types, i, program);
 				}
+			} else if(i + 1 >= inst.length) {
+				throw new IllegalArgumentException("Not enough parameters for instruction " + op);
+			} else {
+				lastI = i + 1;
+				parseOperand(op, inst[i + 1], paramType, operands, types, i, program);
 			}
 		}
 		
-		if(opcode == null) {
-			throw new IllegalArgumentException("Unrecognized op " + inst[0]);
+		if(lastI + 1 != inst.length) {
+			throw new IllegalArgumentException("Too many parameters for instruction " + op);
+		}
+		
+		return new TigerIRInstruction(op, operands, types, lineNumber);
+	}
+	
+	private static void parseOperand(TigerIROpcode op, String s, ParamType paramType, int[] operands, ParamType[] types, int operand, TigerIRProgram program) {
+		switch(paramType) {
+			case REGISTER:
+			case REGISTERi:
+			case REGISTERf:
+				parseRegister(op, s, paramType, operands, types, operand);
+				return;
+		}
+		
+		if(!paramType.pattern.matcher(s).matches()) {
+			throw new IllegalArgumentException("Invalid parameter '" + s + "' for instruction " + op);
+		}
+		
+		switch(paramType) {
+			case IMMEDIATEi:
+				operands[operand] = Integer.parseInt(s);
+				break;
+			case IMMEDIATEf:
+				operands[operand] = program.floatImmediate(s);
+				break;
+			case VARIABLE:
+				operands[operand] = program.getSymbols().intern(s);
+				break;
+			case LABEL:
+				operands[operand] = program.label(s);
+				break;
+			case FUNCTION:
+				operands[operand] = program.function(s);
+				break;
+			default:
+				throw new IllegalArgumentException("Invalid op type");
+		}
+		types[operand] = paramType;
+	}
+	
+	/**
+	 * @param paramType REGISTER accepts either kind of register
+	 */
+	private static void parseRegister(TigerIROpcode op, String s, ParamType paramType, int[] operands, ParamType[] types, int operand) {
+		Matcher matcher = ParamType.REGISTERi.pattern.matcher(s);
+		if(paramType != ParamType.REGISTERf && matcher.matches()) {
+			operands[operand] = Integer.parseInt(matcher.group(1));
+			types[operand] = ParamType.REGISTERi;
+			return;
+		}
+		
+		matcher = ParamType.REGISTERf.pattern.matcher(s);
+		if(paramType != ParamType.REGISTERi && matcher.matches()) {
+			operands[operand] = Integer.parseInt(matcher.group(1));
+			types[operand] = ParamType.REGISTERf;
+			return;
 		}
 		
-		return new TigerIRInstruction(opcode, params, lineNumber);
+		throw new IllegalArgumentException("Invalid parameter '" + s + "' for instruction " + op);
 	}
 }
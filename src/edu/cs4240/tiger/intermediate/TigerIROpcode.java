@@ -19,11 +19,11 @@ public enum TigerIROpcode {
 	MULIi(ParamType.REGISTERi, ParamType.REGISTERi, ParamType.IMMEDIATEi),
 	MULIf(ParamType.REGISTERf, ParamType.REGISTERf, ParamType.IMMEDIATEf),
 	DIVi(ParamType.REGISTERi, ParamType.REGISTERi, ParamType.REGISTERi),
-	DIVf(ParamType.REGISTERf, ParamType.REGISTERf, ParamType.REGISTERi),
+	DIVf(ParamType.REGISTERf, ParamType.REGISTERf, ParamType.REGISTERf),
 	DIVIi(ParamType.REGISTERi, ParamType.REGISTERi, ParamType.IMMEDIATEi),
 	DIVIf(ParamType.REGISTERf, ParamType.REGISTERf, ParamType.IMMEDIATEf),
 	MODi(ParamType.REGISTERi, ParamType.REGISTERi, ParamType.REGISTERi),
-	MODf(ParamType.REGISTERf, ParamType.REGISTERf, ParamType.REGISTERi),
+	MODf(ParamType.REGISTERf, ParamType.REGISTERf, ParamType.REGISTERf),
 	MODIi(ParamType.REGISTERi, ParamType.REGISTERi, ParamType.IMMEDIATEi),
 	MODIf(ParamType.REGISTERf, ParamType.REGISTERf, ParamType.IMMEDIATEf),
 	ANDi(ParamType.REGISTERi, ParamType.REGISTERi, ParamType.REGISTERi),
@@ -49,16 +49,16 @@ public enum TigerIROpcode {
 	
 	ITOF(ParamType.REGISTERf, ParamType.REGISTERi),
 	
-	LDi(ParamType.REGISTERi, ParamType.LABEL),
-	LDf(ParamType.REGISTERf, ParamType.LABEL),
+	LDi(ParamType.REGISTERi, ParamType.VARIABLE),
+	LDf(ParamType.REGISTERf, ParamType.VARIABLE),
 	LDIi(ParamType.REGISTERi, ParamType.IMMEDIATEi),
 	LDIf(ParamType.REGISTERf, ParamType.IMMEDIATEf),
 	LDRi(ParamType.REGISTERi, ParamType.REGISTERi, ParamType.OPT_IMMi),
 	LDRf(ParamType.REGISTERf, ParamType.REGISTERi, ParamType.OPT_IMMi),
-	STi(ParamType.REGISTERi, ParamType.LABEL),
-	STf(ParamType.REGISTERf, ParamType.LABEL),
-	STIi(ParamType.IMMEDIATEi, ParamType.LABEL),
-	STIf(ParamType.IMMEDIATEf, ParamType.LABEL),
+	STi(ParamType.REGISTERi, ParamType.VARIABLE),
+	STf(ParamType.REGISTERf, ParamType.VARIABLE),
+	STIi(ParamType.IMMEDIATEi, ParamType.VARIABLE),
+	STIf(ParamType.IMMEDIATEf, ParamType.VARIABLE),
 	STRi(ParamType.REGISTERi, ParamType.REGISTERi, ParamType.OPT_IMMi),
 	STRf(ParamType.REGISTERf, ParamType.REGISTERi, ParamType.OPT_IMMi),
 	STRIi(ParamType.IMMEDIATEi, ParamType.REGISTERi, ParamType.OPT_IMMi),
@@ -67,18 +67,49 @@ public enum TigerIROpcode {
 	BRZ(ParamType.REGISTERi, ParamType.LABEL),
 	BRNZ(ParamType.REGISTERi, ParamType.LABEL),
 	BR(ParamType.LABEL),
-	CALL(ParamType.LABEL, ParamType.OPT_MORE_REGISTERS),
-	CALL_RET(ParamType.LABEL, ParamType.REGISTER, ParamType.OPT_MORE_REGISTERS),
+	CALL(ParamType.FUNCTION, ParamType.OPT_MORE_REGISTERS),
+	CALL_RET(ParamType.FUNCTION, ParamType.REGISTER, ParamType.OPT_MORE_REGISTERS),
 	RET(),
 	RETi(ParamType.REGISTERi),
 	RETf(ParamType.REGISTERf);
 	
 	public final ParamType[] paramTypes;
 	
+	// the forms of the same operation for each type of last operand, indexed by ParamType ordinal
+	private TigerIROpcode[] forms;
+	
 	TigerIROpcode(ParamType... paramTypes) {
 		this.paramTypes = paramTypes;
 	}
 	
+	static {
+		ParamType[] types = { ParamType.REGISTERi, ParamType.REGISTERf, ParamType.IMMEDIATEi, ParamType.IMMEDIATEf };
+		String[] suffixes = { "i", "f", "Ii", "If" };
+		
+		for(TigerIROpcode op : values()) {
+			String operation = op.name().replaceFirst("I?[if]$", "");
+			op.forms = new TigerIROpcode[ParamType.values().length];
+			for(int i = 0; i < types.length; i++) {
+				for(TigerIROpcode form : values()) {
+					if(form.name().equals(operation + suffixes[i])) {
+						op.forms[types[i].ordinal()] = form;
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return the opcode of the same operation with a last operand of the given type, ADDi.forType(IMMEDIATEf) is ADDIf
+	 */
+	public TigerIROpcode forType(ParamType type) {
+		TigerIROpcode form = forms[type.ordinal()];
+		if(form == null) {
+			throw new IllegalArgumentException("Invalid op type");
+		}
+		return form;
+	}
+	
 	public enum ParamType {
 		REGISTER(Pattern.compile("^\\$[if](\\d+)$")),
 		REGISTERi(Pattern.compile("^\\$i(\\d+)$")),
@@ -87,7 +118,9 @@ public enum TigerIROpcode {
 		IMMEDIATEf(Pattern.compile("^(\\d+\\.\\d*)$")),
 		OPT_MORE_REGISTERS(null),
 		OPT_IMMi(null),
-		LABEL(Pattern.compile("^([A-Za-z_]\\w*)$"));
+		LABEL(Pattern.compile("^([A-Za-z_]\\w*)$")),
+		VARIABLE(LABEL.pattern),
+		FUNCTION(LABEL.pattern);
 		
 		public Pattern pattern;
 		
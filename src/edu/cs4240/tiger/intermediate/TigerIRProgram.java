@@ -0,0 +1,597 @@
+package edu.cs4240.tiger.intermediate;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import edu.cs4240.tiger.intermediate.TigerIROpcode.ParamType;
+import edu.cs4240.tiger.util.SymbolInterner;
+import edu.cs4240.tiger.util.SymbolMap;
+
+/**
+ * The IR of a program as TigerIRGenerator emits it and TigerInterpreter runs it: the variable
+ * declarations, then the instructions of every function one after the other, addressed by their index.
+ * <p>
+ * Variable and parameter names are symbols of getSymbols(), and so are float immediates, as written, so
+ * the text form prints them unchanged. Functions and labels are numbered in the
+ * order they are first mentioned, and an instruction refers to them by that index. A function that is
+ * only called, like the built-ins, has no address.
+ * <p>
+ * The text form is only for --printil and .tir files: print() writes it and parse() reads it back.
+ *
+ * @author Roi Atalla
+ */
+public class TigerIRProgram {
+	public static class Variable {
+		public final int symbol;
+		public final boolean isFloat;
+		public final int[] sizes; // null unless an array
+		public final int value; // the initial value, the bits of it for a float
+		public final String text; // the initial value as written, empty if there is none
+		
+		Variable(int symbol, boolean isFloat, int[] sizes, int value, String text) {
+			this.symbol = symbol;
+			this.isFloat = isFloat;
+			this.sizes = sizes;
+			this.value = value;
+			this.text = text;
+		}
+	}
+	
+	public class Function {
+		public final int index;
+		public final int symbol;
+		public int[] params;
+		public int address = -1;
+		
+		Function(int index, int symbol) {
+			this.index = index;
+			this.symbol = symbol;
+		}
+		
+		public String getName() {
+			return symbols.getName(symbol);
+		}
+		
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder("([");
+			for(int i = 0; i < params.length; i++) {
+				builder.append(i > 0 ? ", " : "").append(symbols.getName(params[i]));
+			}
+			return builder.append("] :: ").append(address).append(')').toString();
+		}
+	}
+	
+	private final SymbolInterner symbols = new SymbolInterner();
+	private final ArrayList<Variable> variables = new ArrayList<>();
+	private final ArrayList<Function> functions = new ArrayList<>();
+	private final SymbolMap<Function> functionsBySymbol = new SymbolMap<>();
+	private final ArrayList<TigerIRInstruction> instructions = new ArrayList<>();
+	
+	private int[] labelAddresses = new int[16];
+	private int labelCount;
+	private ArrayList<String> labelNames; // null when every label is named after its index
+	private SymbolMap<Integer> labelsBySymbol;
+	
+	// the .FUNC and label lines in order, a function index or ~label at the address it was placed at
+	private int[] marks = new int[16], markAddresses = new int[16];
+	private int markCount;
+	
+	// the number of lines of the text form so far, the line number of the next instruction is one more
+	private int lineCount;
+	
+	public SymbolInterner getSymbols() {
+		return symbols;
+	}
+	
+	public List<Variable> getVariables() {
+		return variables;
+	}
+	
+	public List<Function> getFunctions() {
+		return functions;
+	}
+	
+	public Function getFunction(int index) {
+		return functions.get(index);
+	}
+	
+	public List<TigerIRInstruction> getInstructions() {
+		return instructions;
+	}
+	
+	public int getLabelCount() {
+		return labelCount;
+	}
+	
+	/**
+	 * @return the address of the label, or -1 if it was never placed
+	 */
+	public int getLabelAddress(int label) {
+		return labelAddresses[label];
+	}
+	
+	public String getLabelName(int label) {
+		return labelNames != null ? labelNames.get(label) : "Label" + label;
+	}
+	
+	/**
+	 * @param value the literal it is initialized to, or an empty string for 0
+	 */
+	public void addIntVariable(String name, String value) {
+		variables.add(new Variable(symbols.intern(name), false, null, value.isEmpty() ? 0 : Integer.parseInt(value), value));
+		lineCount++;
+	}
+	
+	/**
+	 * @param value the literal it is initialized to, or an empty string for 0.0
+	 */
+	public void addFloatVariable(String name, String value) {
+		variables.add(new Variable(symbols.intern(name), true, null, Float.floatToIntBits(value.isEmpty() ? 0 : Float.parseFloat(value)), value));
+		lineCount++;
+	}
+	
+	public void addArray(String name, boolean isFloat, int[] sizes) {
+		variables.add(new Variable(symbols.intern(name), isFloat, sizes, 0, ""));
+		lineCount++;
+	}
+	
+	/**
+	 * @return the operand of a float immediate written as text
+	 */
+	public int floatImmediate(String text) {
+		return symbols.intern(text);
+	}
+	
+	public float getFloatImmediate(TigerIRInstruction instr, int operand) {
+		return Float.parseFloat(symbols.getName(instr.getOperand(operand)));
+	}
+	
+	/**
+	 * @return the index of the function, numbering it if it was not mentioned before
+	 */
+	public int function(String name) {
+		int symbol = symbols.intern(name);
+		Function function = functionsBySymbol.get(symbol);
+		if(function == null) {
+			function = new Function(functions.size(), symbol);
+			functions.add(function);
+			functionsBySymbol.put(symbol, function);
+		}
+		return function.index;
+	}
+	
+	/**
+	 * Starts a function at the next instruction.
+	 */
+	public void beginFunction(String name, String... params) {
+		Function function = functions.get(function(name));
+		function.params = new int[params.length];
+		for(int i = 0; i < params.length; i++) {
+			function.params[i] = symbols.intern(params[i]);
+		}
+		function.address = instructions.size();
+		addMark(function.index);
+	}
+	
+	/**
+	 * Places the label at the next instruction, labels are numbered by whoever emits them.
+	 */
+	public void placeLabel(int label) {
+		if(label >= labelAddresses.length) {
+			int length = Math.max(labelAddresses.length * 2, label + 1);
+			labelAddresses = Arrays.copyOf(labelAddresses, length);
+		}
+		
+		for(; labelCount <= label; labelCount++) {
+			labelAddresses[labelCount] = -1;
+		}
+		
+		labelAddresses[label] = instructions.size();
+		addMark(~label);
+	}
+	
+	/**
+	 * @return the index of the named label, numbering it if it was not mentioned before
+	 */
+	int label(String name) {
+		int symbol = symbols.intern(name);
+		Integer label = labelsBySymbol.get(symbol);
+		if(label == null) {
+			label = labelCount;
+			labelNames.add(name);
+			labelsBySymbol.put(symbol, label);
+			
+			if(label == labelAddresses.length) {
+				labelAddresses = Arrays.copyOf(labelAddresses, label * 2);
+			}
+			labelAddresses[labelCount++] = -1;
+		}
+		return label;
+	}
+	
+	private void addMark(int mark) {
+		if(markCount == marks.length) {
+			marks = Arrays.copyOf(marks, markCount * 2);
+			markAddresses = Arrays.copyOf(markAddresses, markCount * 2);
+		}
+		
+		marks[markCount] = mark;
+		markAddresses[markCount++] = instructions.size();
+		lineCount++;
+	}
+	
+	/**
+	 * Adds an instruction whose operand types are the parameter types of the opcode, an optional
+	 * immediate may be left out.
+	 */
+	public void add(TigerIROpcode opcode, int... operands) {
+		ParamType[] types = opcode.paramTypes;
+		add(opcode, types.length == operands.length ? types : Arrays.copyOf(types, operands.length), operands);
+	}
+	
+	public void add(TigerIROpcode opcode, ParamType[] types, int[] operands) {
+		instructions.add(new TigerIRInstruction(opcode, operands, types, ++lineCount));
+	}
+	
+	/**
+	 * Appends the instructions of source in [start, end) with the functions and labels placed among
+	 * them, adding the offsets to their registers and labels.
+	 */
+	public void append(TigerIRProgram source, int start, int end, int intOffset, int floatOffset, int labelOffset) {
+		int mark = 0;
+		while(mark < source.markCount && source.markAddresses[mark] < start) {
+			mark++;
+		}
+		
+		for(int address = start; address < end; address++) {
+			for(; mark < source.markCount && source.markAddresses[mark] == address; mark++) {
+				int m = source.marks[mark];
+				if(m >= 0) {
+					Function function = source.functions.get(m);
+					String[] params = new String[function.params.length];
+					for(int i = 0; i < params.length; i++) {
+						params[i] = source.symbols.getName(function.params[i]);
+					}
+					beginFunction(function.getName(), params);
+				} else {
+					placeLabel(~m + labelOffset);
+				}
+			}
+			
+			TigerIRInstruction instr = source.instructions.get(address);
+			int[] operands = new int[instr.getOperandCount()];
+			ParamType[] types = new ParamType[operands.length];
+			for(int i = 0; i < operands.length; i++) {
+				int operand = instr.getOperand(i);
+				types[i] = instr.getType(i);
+				switch(types[i]) {
+					case REGISTERi:
+						operand += intOffset;
+						break;
+					case REGISTERf:
+						operand += floatOffset;
+						break;
+					case IMMEDIATEf:
+					case VARIABLE:
+						operand = symbols.intern(source.symbols.getName(operand));
+						break;
+					case LABEL:
+						operand += labelOffset;
+						break;
+					case FUNCTION:
+						operand = function(source.functions.get(operand).getName());
+						break;
+				}
+				operands[i] = operand;
+			}
+			add(instr.getOpcode(), types, operands);
+		}
+	}
+	
+	/**
+	 * Writes the functions, labels and instructions for TigerIRCache, labels must be numbered rather than named.
+	 */
+	void write(DataOutputStream out) throws IOException {
+		out.writeInt(symbols.size());
+		for(int symbol = 0; symbol < symbols.size(); symbol++) {
+			TigerIRCache.writeString(out, symbols.getName(symbol));
+		}
+		
+		out.writeInt(functions.size());
+		for(Function function : functions) {
+			out.writeInt(function.symbol);
+			out.writeInt(function.address);
+			if(function.address != -1) {
+				out.writeInt(function.params.length);
+				for(int param : function.params) {
+					out.writeInt(param);
+				}
+			}
+		}
+		
+		out.writeInt(labelCount);
+		for(int label = 0; label < labelCount; label++) {
+			out.writeInt(labelAddresses[label]);
+		}
+		
+		out.writeInt(markCount);
+		for(int mark = 0; mark < markCount; mark++) {
+			out.writeInt(marks[mark]);
+			out.writeInt(markAddresses[mark]);
+		}
+		
+		out.writeInt(instructions.size());
+		for(TigerIRInstruction instr : instructions) {
+			out.writeByte(instr.getOpcode().ordinal());
+			out.writeByte(instr.getOperandCount());
+			for(int i = 0; i < instr.getOperandCount(); i++) {
+				out.writeByte(instr.getType(i).ordinal());
+				out.writeInt(instr.getOperand(i));
+			}
+		}
+	}
+	
+	static TigerIRProgram read(ByteBuffer in) {
+		TigerIRProgram program = new TigerIRProgram();
+		
+		for(int i = in.getInt(); i > 0; i--) {
+			program.symbols.intern(TigerIRCache.readString(in));
+		}
+		
+		for(int i = in.getInt(); i > 0; i--) {
+			Function function = program.functions.get(program.function(program.symbols.getName(in.getInt())));
+			function.address = in.getInt();
+			if(function.address != -1) {
+				function.params = new int[in.getInt()];
+				for(int j = 0; j < function.params.length; j++) {
+					function.params[j] = in.getInt();
+				}
+			}
+		}
+		
+		program.labelCount = in.getInt();
+		program.labelAddresses = new int[Math.max(program.labelCount, 1)];
+		for(int label = 0; label < program.labelCount; label++) {
+			program.labelAddresses[label] = in.getInt();
+		}
+		
+		program.markCount = in.getInt();
+		program.marks = new int[Math.max(program.markCount, 1)];
+		program.markAddresses = new int[program.marks.length];
+		for(int mark = 0; mark < program.markCount; mark++) {
+			program.marks[mark] = in.getInt();
+			program.markAddresses[mark] = in.getInt();
+		}
+		
+		TigerIROpcode[] opcodes = TigerIROpcode.values();
+		ParamType[] paramTypes = ParamType.values();
+		for(int i = in.getInt(); i > 0; i--) {
+			TigerIROpcode opcode = opcodes[in.get()];
+			int[] operands = new int[in.get()];
+			ParamType[] types = new ParamType[operands.length];
+			for(int j = 0; j < operands.length; j++) {
+				types[j] = paramTypes[in.get()];
+				operands[j] = in.getInt();
+			}
+			program.add(opcode, types, operands);
+		}
+		
+		return program;
+	}
+	
+	public void print(Appendable out) throws IOException {
+		for(Variable variable : variables) {
+			if(variable.sizes == null) {
+				out.append(variable.isFloat ? ".VARf " : ".VARi ").append(symbols.getName(variable.symbol)).append(' ');
+				out.append(variable.text).append('\n');
+			} else {
+				out.append(variable.isFloat ? ".ARRAYf " : ".ARRAYi ").append(symbols.getName(variable.symbol));
+				for(int size : variable.sizes) {
+					out.append(' ').append(String.valueOf(size));
+				}
+				out.append('\n');
+			}
+		}
+		
+		int mark = 0;
+		for(int address = 0; address <= instructions.size(); address++) {
+			for(; mark < markCount && markAddresses[mark] == address; mark++) {
+				if(marks[mark] >= 0) {
+					Function function = functions.get(marks[mark]);
+					out.append(".FUNC ").append(function.getName());
+					for(int param : function.params) {
+						out.append(' ').append(symbols.getName(param));
+					}
+					out.append('\n');
+				} else {
+					out.append(getLabelName(~marks[mark])).append(":\n");
+				}
+			}
+			
+			if(address < instructions.size()) {
+				TigerIRInstruction instr = instructions.get(address);
+				out.append('\t').append(instr.getOpcode().name());
+				for(int i = 0; i < instr.getOperandCount(); i++) {
+					out.append(' ').append(operandToString(instr, i));
+				}
+				out.append('\n');
+			}
+		}
+	}
+	
+	public String operandToString(TigerIRInstruction instr, int operand) {
+		int value = instr.getOperand(operand);
+		switch(instr.getType(operand)) {
+			case REGISTERi:
+				return "$i" + value;
+			case REGISTERf:
+				return "$f" + value;
+			case IMMEDIATEi:
+				return String.valueOf(value);
+			case IMMEDIATEf:
+			case VARIABLE:
+				return symbols.getName(value);
+			case LABEL:
+				return getLabelName(value);
+			case FUNCTION:
+				return functions.get(value).getName();
+			default:
+				throw new IllegalArgumentException("Invalid op type");
+		}
+	}
+	
+	/**
+	 * Reads the text form of a program, line numbers count from 1.
+	 */
+	public static TigerIRProgram parse(List<String> input) {
+		TigerIRProgram program = new TigerIRProgram();
+		program.labelNames = new ArrayList<>();
+		program.labelsBySymbol = new SymbolMap<>();
+		
+		boolean inFunction = false;
+		int currLine = 1;
+		
+		for(String s : input) {
+			String[] parts = split(s);
+			
+			try {
+				if(parts == null) {
+					continue;
+				}
+				
+				switch(parts[0]) {
+					case ".VARi": {
+						if(inFunction) {
+							throw new IllegalArgumentException("Variable declarations come before functions");
+						}
+						
+						program.checkNotDeclared(parts[1], false);
+						
+						if(parts.length == 2) {
+							program.addIntVariable(parts[1], "");
+						} else if(parts.length == 3) {
+							program.addIntVariable(parts[1], parts[2]);
+						} else {
+							throw new IllegalArgumentException("Incorrect number of arguments to .VARi");
+						}
+						break;
+					}
+					case ".VARf": {
+						if(inFunction) {
+							throw new IllegalArgumentException("Variable declarations come before functions");
+						}
+						
+						program.checkNotDeclared(parts[1], true);
+						
+						if(parts.length == 2) {
+							program.addFloatVariable(parts[1], "");
+						} else if(parts.length == 3) {
+							program.addFloatVariable(parts[1], parts[2]);
+						} else {
+							throw new IllegalArgumentException("Incorrect number of arguments to .VARf");
+						}
+						break;
+					}
+					case ".ARRAYi":
+					case ".ARRAYf": {
+						if(inFunction) {
+							throw new IllegalArgumentException("Variable declarations come before functions");
+						}
+						
+						if(parts.length <= 2) {
+							throw new IllegalArgumentException("Incorrect number of arguments to .ARRAYi");
+						}
+						
+						int[] sizes = new int[parts.length - 2];
+						for(int i = 0; i < sizes.length; i++) {
+							sizes[i] = Integer.parseInt(parts[i + 2]);
+						}
+						
+						boolean isFloat = parts[0].equals(".ARRAYf");
+						if(program.isDeclared(parts[1], isFloat)) {
+							throw new IllegalArgumentException("Array already declared: '" + parts[1] + "'");
+						}
+						
+						program.addArray(parts[1], isFloat, sizes);
+						break;
+					}
+					case ".FUNC":
+						if(parts.length == 1) {
+							throw new IllegalArgumentException("Incorrect number of arguments to .FUNC");
+						}
+						
+						program.beginFunction(parts[1], Arrays.copyOfRange(parts, 2, parts.length));
+						inFunction = true;
+						break;
+					default:
+						if(Pattern.matches("^([A-Za-z_]\\w*):$", parts[0])) {
+							if(!inFunction) {
+								throw new IllegalArgumentException("Labels go inside functions");
+							}
+							
+							program.placeLabel(program.label(parts[0].substring(0, parts[0].length() - 1)));
+							parts = Arrays.copyOfRange(parts, 1, parts.length);
+						}
+						
+						if(parts.length > 0) {
+							TigerIRInstruction instr = TigerIRInstruction.parseInstruction(parts, currLine, program);
+							
+							if(!inFunction) {
+								throw new IllegalArgumentException("Instructions go inside functions");
+							}
+							
+							program.instructions.add(instr);
+						}
+						
+						break;
+				}
+			}
+			catch(Exception exc) {
+				throw new IllegalStateException("Error on line " + currLine + ": " + exc.getMessage());
+			}
+			finally {
+				currLine++;
+			}
+		}
+		
+		return program;
+	}
+	
+	private boolean isDeclared(String name, boolean isFloat) {
+		int symbol = symbols.find(name);
+		for(Variable variable : variables) {
+			if(variable.symbol == symbol && (variable.isFloat && variable.sizes == null) == isFloat) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private void checkNotDeclared(String name, boolean isFloat) {
+		if(isDeclared(name, isFloat)) {
+			throw new IllegalArgumentException("Variable already declared: '" + name + "'");
+		}
+	}
+	
+	private static String[] split(String inst) {
+		if(inst.trim().isEmpty()) {
+			return null;
+		}
+		
+		String[] p = inst.replace(',', ' ').split("\\s");
+		ArrayList<String> parts = new ArrayList<>();
+		for(String s : p) {
+			String t = s.trim();
+			if(!t.isEmpty()) {
+				parts.add(t);
+			}
+		}
+		return parts.toArray(new String[parts.size()]);
+	}
+}
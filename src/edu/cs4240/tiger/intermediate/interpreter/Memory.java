@@ -1,31 +1,42 @@
 package edu.cs4240.tiger.intermediate.interpreter;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import edu.cs4240.tiger.util.SymbolInterner;
 
 /**
+ * Variables are indexed by the symbol id of their name.
+ *
  * @author Roi Atalla
  */
 public class Memory {
-	private HashMap<String, Integer> intVars;
-	private HashMap<String, Float> floatVars;
+	private SymbolInterner symbols;
+	
+	private int[] intVars;
+	private float[] floatVars;
+	private boolean[] hasIntVar, hasFloatVar;
 	
 	private ArrayList<int[]> intArrays;
 	private ArrayList<float[]> floatArrays;
 	
-	public Memory() {
-		intVars = new HashMap<>();
-		floatVars = new HashMap<>();
+	public Memory(SymbolInterner symbols) {
+		this.symbols = symbols;
+		intVars = new int[16];
+		floatVars = new float[16];
+		hasIntVar = new boolean[16];
+		hasFloatVar = new boolean[16];
 		intArrays = new ArrayList<>();
 		floatArrays = new ArrayList<>();
 	}
 	
 	public void printMemory() {
 		System.out.print("\nInt vars: ");
-		System.out.println(intVars);
+		System.out.println(varsToString(hasIntVar, symbol -> intVars[symbol]));
 		
 		System.out.print("\nFloat vars: ");
-		System.out.println(floatVars);
+		System.out.println(varsToString(hasFloatVar, symbol -> floatVars[symbol]));
 		
 		System.out.println("\nInt memory:");
 		for(int i = 0, currAddr = 0; i < intArrays.size(); i++) {
@@ -44,16 +55,40 @@ public class Memory {
 		System.out.println();
 	}
 	
-	public void addIntVar(String name, int value) {
-		intVars.put(name, value);
+	private String varsToString(boolean[] hasVar, IntFunction<Object> value) {
+		StringBuilder builder = new StringBuilder("{");
+		for(int symbol = 0; symbol < hasVar.length; symbol++) {
+			if(hasVar[symbol]) {
+				builder.append(builder.length() > 1 ? ", " : "").append(symbols.getName(symbol)).append('=').append(value.apply(symbol));
+			}
+		}
+		return builder.append('}').toString();
+	}
+	
+	public void addIntVar(int symbol, int value) {
+		if(symbol >= intVars.length) {
+			int length = Math.max(intVars.length * 2, symbol + 1);
+			intVars = Arrays.copyOf(intVars, length);
+			hasIntVar = Arrays.copyOf(hasIntVar, length);
+		}
+		
+		intVars[symbol] = value;
+		hasIntVar[symbol] = true;
 	}
 	
-	public void addFloatVar(String name, float value) {
-		floatVars.put(name, value);
+	public void addFloatVar(int symbol, float value) {
+		if(symbol >= floatVars.length) {
+			int length = Math.max(floatVars.length * 2, symbol + 1);
+			floatVars = Arrays.copyOf(floatVars, length);
+			hasFloatVar = Arrays.copyOf(hasFloatVar, length);
+		}
+		
+		floatVars[symbol] = value;
+		hasFloatVar[symbol] = true;
 	}
 	
-	public void addArray(String name, int[] sizes, boolean allocateInt) {
-		intVars.put(name, addArray(sizes, 0, allocateInt));
+	public void addArray(int symbol, int[] sizes, boolean allocateInt) {
+		addIntVar(symbol, addArray(sizes, 0, allocateInt));
 	}
 	
 	private int addArray(int[] sizes, int sizesIdx, boolean allocateInt) {
@@ -85,20 +120,20 @@ public class Memory {
 		}
 	}
 	
-	public boolean containsIntVar(String name) {
-		return intVars.containsKey(name);
+	public boolean containsIntVar(int symbol) {
+		return symbol < hasIntVar.length && hasIntVar[symbol];
 	}
 	
-	public boolean containsFloatVar(String name) {
-		return floatVars.containsKey(name);
+	public boolean containsFloatVar(int symbol) {
+		return symbol < hasFloatVar.length && hasFloatVar[symbol];
 	}
 	
-	public boolean containsIntArray(String name) {
-		return containsIntVar(name);
+	public boolean containsIntArray(int symbol) {
+		return containsIntVar(symbol);
 	}
 	
-	public boolean containsFloatArray(String name) {
-		return containsFloatVar(name);
+	public boolean containsFloatArray(int symbol) {
+		return containsFloatVar(symbol);
 	}
 	
 	public int loadInt(int address) {
@@ -115,12 +150,12 @@ public class Memory {
 		throw new IllegalArgumentException("Invalid address '" + address + "'");
 	}
 	
-	public int loadInt(String name) {
-		if(intVars.containsKey(name)) {
-			return intVars.get(name);
+	public int loadIntVar(int symbol) {
+		if(containsIntVar(symbol)) {
+			return intVars[symbol];
 		}
 		
-		throw new IllegalArgumentException("Invalid variable name '" + name + "'");
+		throw new IllegalArgumentException("Invalid variable name '" + symbols.getName(symbol) + "'");
 	}
 	
 	public float loadFloat(int address) {
@@ -137,12 +172,12 @@ public class Memory {
 		throw new IllegalArgumentException("Invalid address '" + address + "'");
 	}
 	
-	public float loadFloat(String name) {
-		if(floatVars.containsKey(name)) {
-			return floatVars.get(name);
+	public float loadFloatVar(int symbol) {
+		if(containsFloatVar(symbol)) {
+			return floatVars[symbol];
 		}
 		
-		throw new IllegalArgumentException("Invalid variable name '" + name + "'");
+		throw new IllegalArgumentException("Invalid variable name '" + symbols.getName(symbol) + "'");
 	}
 	
 	public void storeInt(int address, int value) {
@@ -160,13 +195,13 @@ public class Memory {
 		throw new IllegalArgumentException("Invalid address '" + address + "'");
 	}
 	
-	public void storeInt(String name, int value) {
-		if(intVars.containsKey(name)) {
-			intVars.put(name, value);
+	public void storeIntVar(int symbol, int value) {
+		if(containsIntVar(symbol)) {
+			intVars[symbol] = value;
 			return;
 		}
 		
-		throw new IllegalArgumentException("Invalid variable name '" + name + "'");
+		throw new IllegalArgumentException("Invalid variable name '" + symbols.getName(symbol) + "'");
 	}
 	
 	public void storeFloat(int address, float value) {
@@ -184,12 +219,12 @@ public class Memory {
 		throw new IllegalArgumentException("Invalid address '" + address + "'");
 	}
 	
-	public void storeFloat(String name, float value) {
-		if(floatVars.containsKey(name)) {
-			floatVars.put(name, value);
+	public void storeFloatVar(int symbol, float value) {
+		if(containsFloatVar(symbol)) {
+			floatVars[symbol] = value;
 			return;
 		}
 		
-		throw new IllegalArgumentException("Invalid variable name '" + name + "'");
+		throw new IllegalArgumentException("Invalid variable name '" + symbols.getName(symbol) + "'");
 	}
 }
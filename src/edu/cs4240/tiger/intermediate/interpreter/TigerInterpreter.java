@@ -1,15 +1,12 @@
 package edu.cs4240.tiger.intermediate.interpreter;
 
 import java.awt.Color;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import javax.swing.JFrame;
 import javax.swing.WindowConstants;
@@ -17,258 +14,357 @@ import javax.swing.WindowConstants;
 import edu.cs4240.tiger.intermediate.TigerIRInstruction;
 import edu.cs4240.tiger.intermediate.TigerIROpcode;
 import edu.cs4240.tiger.intermediate.TigerIROpcode.ParamType;
+import edu.cs4240.tiger.intermediate.TigerIRProgram;
+import edu.cs4240.tiger.intermediate.TigerIRProgram.Function;
 import edu.cs4240.tiger.util.Pair;
+import edu.cs4240.tiger.util.SymbolInterner;
+import edu.cs4240.tiger.util.SymbolMap;
 
 /**
  * @author Roi Atalla
  */
 public class TigerInterpreter {
+	private static final TigerIROpcode[] OPCODES = TigerIROpcode.values();
+	
+	// variables are keyed by symbol id, functions and labels by their index in the program
+	private TigerIRProgram program;
+	private SymbolInterner symbols;
 	private Memory memory;
-	private HashMap<String, Pair<List<String>, Integer>> functions;
-	private HashMap<String, Pair<Pair<Integer, Boolean>, BuiltInFunction>> builtInFunctions;
-	private HashMap<String, Integer> labels;
-	private ArrayList<TigerIRInstruction> instructions;
+	private SymbolMap<Pair<Pair<Integer, Boolean>, BuiltInFunction>> builtInFunctions;
+	private List<TigerIRInstruction> instructions;
+	
+	// the decoded program, see decode()
+	private int[] code;
+	private TigerIRInstruction[] decodedFrom; // the instruction starting at each pc, for error messages
+	private int[] functionPCs; // -1 if the function is not defined
+	private int[] functionArities;
+	
+	// registers are numbered as written, $i17 is intRegs[17], and start at 0
+	private int intRegCount, floatRegCount;
+	private int[] intRegs;
+	private float[] floatRegs;
+	
+	// the call stack: per frame, the pc to return to, the register the caller wants the return value in
+	// and where its arguments start in args
+	private int[] frameReturnPCs, frameReturnRegs, frameArgBases;
+	private int frameCount;
+	
+	// argument values, floats as their bits, of the current frame from argBase up to argTop
+	private int[] args;
+	private boolean[] argIsFloat;
+	private int argBase, argTop;
 	
 	private Random rng;
 	private Scanner stdin;
 	
+	/**
+	 * Runs the text form of a program, as read from a .tir file.
+	 */
 	public TigerInterpreter(List<String> input) {
-		memory = new Memory();
-		functions = new HashMap<>();
-		labels = new HashMap<>();
-		instructions = new ArrayList<>();
-		parse(input);
+		this(TigerIRProgram.parse(input));
+	}
+	
+	public TigerInterpreter(TigerIRProgram program) {
+		this.program = program;
+		symbols = program.getSymbols();
+		memory = new Memory(symbols);
+		instructions = program.getInstructions();
+		load();
 		buildBuiltIntFunctions();
+		decode();
 	}
 	
-	private void parse(List<String> input) {
-		int currLine = 1;
-		
-		for(String s : input) {
-			String[] parts = split(s);
-			
-			try {
-				if(parts == null) {
-					continue;
-				}
-				
-				switch(parts[0]) {
-					case ".VARi":
-						if(functions.size() > 0) {
-							throw new IllegalArgumentException("Variable declarations come before functions");
-						}
-						
-						if(memory.containsIntVar(parts[1])) {
-							throw new IllegalArgumentException("Variable already declared: '" + parts[1] + "'");
-						}
-						
-						if(parts.length == 2) {
-							memory.addIntVar(parts[1], 0);
-						} else if(parts.length == 3) {
-							memory.addIntVar(parts[1], Integer.parseInt(parts[2]));
-						} else {
-							throw new IllegalArgumentException("Incorrect number of arguments to .VARi");
-						}
-						break;
-					case ".VARf":
-						if(functions.size() > 0) {
-							throw new IllegalArgumentException("Variable declarations come before functions");
-						}
-						
-						if(memory.containsFloatVar(parts[1])) {
-							throw new IllegalArgumentException("Variable already declared: '" + parts[1] + "'");
-						}
-						
-						if(parts.length == 2) {
-							memory.addFloatVar(parts[1], 0);
-						} else if(parts.length == 3) {
-							memory.addFloatVar(parts[1], Float.parseFloat(parts[2]));
-						} else {
-							throw new IllegalArgumentException("Incorrect number of arguments to .VARf");
-						}
-						break;
-					case ".ARRAYi":
-					case ".ARRAYf": {
-						if(functions.size() > 0) {
-							throw new IllegalArgumentException("Variable declarations come before functions");
-						}
-						
-						if(parts.length <= 2) {
-							throw new IllegalArgumentException("Incorrect number of arguments to .ARRAYi");
-						}
-						
-						int[] sizes = new int[parts.length - 2];
-						for(int i = 0; i < sizes.length; i++) {
-							sizes[i] = Integer.parseInt(parts[i + 2]);
-						}
-						
-						if(parts[0].equals(".ARRAYi")) {
-							if(memory.containsIntArray(parts[1])) {
-								throw new IllegalArgumentException("Array already declared: '" + parts[1] + "'");
-							}
-							
-							memory.addArray(parts[1], sizes, true);
-						} else {
-							if(memory.containsFloatArray(parts[1])) {
-								throw new IllegalArgumentException("Array already declared: '" + parts[1] + "'");
-							}
-							
-							memory.addArray(parts[1], sizes, false);
-						}
-						
-						break;
-					}
-					case ".FUNC":
-						if(parts.length == 1) {
-							throw new IllegalArgumentException("Incorrect number of arguments to .FUNC");
-						}
-						
-						ArrayList<String> args = new ArrayList<>();
-						for(int i = 2; i < parts.length; i++) {
-							args.add(parts[i]);
-						}
-						
-						functions.put(parts[1], new Pair<>(args, instructions.size()));
-						break;
-					default:
-						if(Pattern.matches("^([A-Za-z_]\\w*):$", parts[0])) {
-							if(functions.size() == 0) {
-								throw new IllegalArgumentException("Labels go inside functions");
-							}
-							
-							labels.put(parts[0].substring(0, parts[0].length() - 1), instructions.size());
-							
-							String[] tmp = new String[parts.length - 1];
-							System.arraycopy(parts, 1, tmp, 0, tmp.length);
-							parts = tmp;
-						}
-						
-						if(parts.length > 0) {
-							instructions.add(TigerIRInstruction.parseInstruction(parts, currLine));
-							
-							if(functions.size() == 0) {
-								throw new IllegalArgumentException("Instructions go inside functions");
-							}
-						}
-						
-						break;
-				}
-			}
-			catch(Exception exc) {
-				throw new IllegalStateException("Error on line " + currLine + ": " + exc.getMessage());
-			}
-			finally {
-				currLine++;
+	private void load() {
+		for(TigerIRProgram.Variable variable : program.getVariables()) {
+			if(variable.sizes != null) {
+				memory.addArray(variable.symbol, variable.sizes, !variable.isFloat);
+			} else if(variable.isFloat) {
+				memory.addFloatVar(variable.symbol, Float.intBitsToFloat(variable.value));
+			} else {
+				memory.addIntVar(variable.symbol, variable.value);
 			}
 		}
 		
-		if(functions.get("main") == null) {
+		Function main = getMain();
+		if(main == null || main.address == -1) {
 			throw new IllegalStateException("No main function found");
 		}
 		
-		if(functions.get("main").getKey().size() > 0) {
+		if(main.params.length > 0) {
 			throw new IllegalStateException("Main function cannot have arguments");
 		}
 	}
 	
+	private Function getMain() {
+		for(Function function : program.getFunctions()) {
+			if(function.getName().equals("main")) {
+				return function;
+			}
+		}
+		return null;
+	}
+	
 	private void buildBuiltIntFunctions() {
-		builtInFunctions = new HashMap<>();
+		HashMap<String, Pair<Pair<Integer, Boolean>, BuiltInFunction>> builtIns = new HashMap<>();
 		
 		// Pair<Pair<NumParams, ReturnsValue?>, Function>
-		builtInFunctions.put("printi", new Pair<>(new Pair<>(1, false), (args, returnReg, intRegs, floatRegs) -> System.out.println("printi: " + getRegValue(args.get(0).getKey(), intRegs))));
-		builtInFunctions.put("printc", new Pair<>(new Pair<>(1, false), (args, returnReg, intRegs, floatRegs) -> System.out.print((char)(int)getRegValue(args.get(0).getKey(), intRegs))));
-		builtInFunctions.put("printf", new Pair<>(new Pair<>(1, false), (args, returnReg, intRegs, floatRegs) -> System.out.println("printf: " + getRegValue(args.get(0).getKey(), floatRegs))));
-		builtInFunctions.put("srand", new Pair<>(new Pair<>(1, false), (args, returnReg, intRegs, floatRegs) -> rng = new Random(getRegValue(args.get(0).getKey(), intRegs))));
+		builtIns.put("printi", new Pair<>(new Pair<>(1, false), (arg, returnReg) -> System.out.println("printi: " + getIntArg(arg))));
+		builtIns.put("printc", new Pair<>(new Pair<>(1, false), (arg, returnReg) -> System.out.print((char)getIntArg(arg))));
+		builtIns.put("printf", new Pair<>(new Pair<>(1, false), (arg, returnReg) -> System.out.println("printf: " + getFloatArg(arg))));
+		builtIns.put("srand", new Pair<>(new Pair<>(1, false), (arg, returnReg) -> rng = new Random(getIntArg(arg))));
 		
-		builtInFunctions.put("readi", new Pair<>(new Pair<>(0, true), (args, returnReg, intRegs, floatRegs) -> {
+		builtIns.put("readi", new Pair<>(new Pair<>(0, true), (arg, returnReg) -> {
 			System.out.print("readi: ");
 			if(!stdin.hasNextInt()) {
 				throw new IllegalStateException("Type mismatch, readi expected integer");
 			}
 			
-			if(returnReg != null) {
-				intRegs.put(returnReg.getKey(), stdin.nextInt());
+			if(returnReg != -1) {
+				intRegs[returnReg] = stdin.nextInt();
 			}
 		}));
-		builtInFunctions.put("readf", new Pair<>(new Pair<>(0, true), (args, returnReg, intRegs, floatRegs) -> {
+		builtIns.put("readf", new Pair<>(new Pair<>(0, true), (arg, returnReg) -> {
 			System.out.print("readf: ");
 			if(!stdin.hasNextFloat()) {
 				throw new IllegalStateException("Type mismatch, readf expected float");
 			}
 			
-			if(returnReg != null) {
-				floatRegs.put(returnReg.getKey(), stdin.nextFloat());
+			if(returnReg != -1) {
+				floatRegs[returnReg] = stdin.nextFloat();
 			}
 		}));
-		builtInFunctions.put("randi", new Pair<>(new Pair<>(0, true), (args, returnReg, intRegs, floatRegs) -> {
+		builtIns.put("randi", new Pair<>(new Pair<>(0, true), (arg, returnReg) -> {
 			if(rng == null) {
 				rng = new Random();
 			}
 			
-			if(returnReg != null) {
-				intRegs.put(returnReg.getKey(), rng.nextInt());
+			if(returnReg != -1) {
+				intRegs[returnReg] = rng.nextInt();
 			}
 		}));
-		builtInFunctions.put("randf", new Pair<>(new Pair<>(0, true), (args, returnReg, intRegs, floatRegs) -> {
+		builtIns.put("randf", new Pair<>(new Pair<>(0, true), (arg, returnReg) -> {
 			if(rng == null) {
 				rng = new Random();
 			}
 			
-			if(returnReg != null) {
-				floatRegs.put(returnReg.getKey(), rng.nextFloat());
+			if(returnReg != -1) {
+				floatRegs[returnReg] = rng.nextFloat();
 			}
 		}));
 		
 		ArrayList<JFrame> windows = new ArrayList<>();
-		builtInFunctions.put("createWindow", new Pair<>(new Pair<>(2, true), (args, returnReg, intRegs, floatRegs) -> {
+		builtIns.put("createWindow", new Pair<>(new Pair<>(2, true), (arg, returnReg) -> {
 			int idx = windows.size();
 			
 			JFrame frame = new JFrame();
 			windows.add(frame);
 			
-			frame.setSize(intRegs.get(args.get(0).getKey()), intRegs.get(args.get(1).getKey()));
+			frame.setSize(getIntArg(arg), getIntArg(arg + 1));
 			frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
 			frame.setVisible(true);
 			frame.setLocationRelativeTo(null);
 			
-			if(returnReg != null) {
-				intRegs.put(returnReg.getKey(), idx);
+			if(returnReg != -1) {
+				intRegs[returnReg] = idx;
 			}
 		}));
 		
-		builtInFunctions.put("setWindowBackground", new Pair<>(new Pair<>(4, false), (args, returnReg, intRegs, floatRegs) -> {
-			JFrame frame = windows.get(intRegs.get(args.get(0).getKey()));
-			int r = intRegs.get(args.get(1).getKey());
-			int g = intRegs.get(args.get(2).getKey());
-			int b = intRegs.get(args.get(3).getKey());
+		builtIns.put("setWindowBackground", new Pair<>(new Pair<>(4, false), (arg, returnReg) -> {
+			JFrame frame = windows.get(getIntArg(arg));
+			int r = getIntArg(arg + 1);
+			int g = getIntArg(arg + 2);
+			int b = getIntArg(arg + 3);
 			frame.getContentPane().setBackground(new Color(r, g, b));
 			frame.getContentPane().setForeground(new Color(r, g, b));
 		}));
 		
-		builtInFunctions.put("destroyWindow", new Pair<>(new Pair<>(1, false), (args, returnReg, intRegs, floatRegs) -> {
-			JFrame frame = windows.get(intRegs.get(args.get(0).getKey()));
+		builtIns.put("destroyWindow", new Pair<>(new Pair<>(1, false), (arg, returnReg) -> {
+			JFrame frame = windows.get(getIntArg(arg));
 			frame.setVisible(false);
 			frame.dispose();
 		}));
+		
+		builtInFunctions = new SymbolMap<>();
+		for(Function function : program.getFunctions()) {
+			Pair<Pair<Integer, Boolean>, BuiltInFunction> builtIn = builtIns.get(function.getName());
+			if(builtIn != null) {
+				builtInFunctions.put(function.index, builtIn);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Lays the instructions out in code, each as its opcode followed by its operands, with everything the
+	 * interpreter would otherwise look up on each execution resolved:
+	 * - LD and ST of a parameter of the enclosing function name its index in the frame as ~index
+	 * - a float immediate is the bits of its value
+	 * - the optional offset of LDR and STR is always there
+	 * - a branch names the pc of its label, or -1 if the label is never placed
+	 * - a call is the function, the return register of CALL_RET, the number of arguments and then the
+	 *   arguments. Registers whose type the opcode does not fix are register << 1 | 1 if float.
+	 */
+	private void decode() {
+		int[] pcs = new int[instructions.size() + 1];
+		for(int address = 0; address < instructions.size(); address++) {
+			pcs[address + 1] = pcs[address] + decodedLength(instructions.get(address));
+		}
+		
+		List<Function> functions = program.getFunctions();
+		functionPCs = new int[functions.size()];
+		functionArities = new int[functions.size()];
+		Function[] startingAt = new Function[instructions.size() + 1];
+		for(Function function : functions) {
+			functionPCs[function.index] = -1;
+			if(function.address != -1) {
+				functionPCs[function.index] = pcs[function.address];
+				functionArities[function.index] = function.params.length;
+				startingAt[function.address] = function;
+			}
+		}
+		
+		code = new int[pcs[instructions.size()]];
+		decodedFrom = new TigerIRInstruction[code.length];
+		
+		Function function = null;
+		int pc = 0;
+		for(int address = 0; address < instructions.size(); address++) {
+			if(startingAt[address] != null) {
+				function = startingAt[address];
+			}
+			
+			TigerIRInstruction instr = instructions.get(address);
+			for(int i = 0; i < instr.getOperandCount(); i++) {
+				if(instr.getType(i) == ParamType.REGISTERi) {
+					intRegCount = Math.max(intRegCount, instr.getOperand(i) + 1);
+				} else if(instr.getType(i) == ParamType.REGISTERf) {
+					floatRegCount = Math.max(floatRegCount, instr.getOperand(i) + 1);
+				}
+			}
+			
+			decodedFrom[pc] = instr;
+			code[pc++] = instr.getOpcode().ordinal();
+			
+			switch(instr.getOpcode()) {
+				case LDi:
+				case LDf:
+				case STi:
+				case STf:
+					code[pc++] = instr.getOperand(0);
+					code[pc++] = variableSlot(function, instr.getOperand(1));
+					break;
+				case LDRi:
+				case LDRf:
+				case STRi:
+				case STRf:
+				case STRIi:
+				case STRIf:
+					code[pc++] = operand(instr, 0);
+					code[pc++] = instr.getOperand(1);
+					code[pc++] = instr.getOperandCount() == 3 ? instr.getOperand(2) : 0;
+					break;
+				case BRZ:
+				case BRNZ:
+					code[pc++] = instr.getOperand(0);
+					code[pc++] = labelPC(instr.getOperand(1), pcs);
+					break;
+				case BR:
+					code[pc++] = labelPC(instr.getOperand(0), pcs);
+					break;
+				case CALL:
+				case CALL_RET: {
+					code[pc++] = instr.getOperand(0);
+					
+					int arg = 1;
+					if(instr.getOpcode() == TigerIROpcode.CALL_RET) {
+						code[pc++] = typedRegister(instr, arg++);
+					}
+					
+					code[pc++] = instr.getOperandCount() - arg;
+					for(; arg < instr.getOperandCount(); arg++) {
+						code[pc++] = typedRegister(instr, arg);
+					}
+					break;
+				}
+				default:
+					for(int i = 0; i < instr.getOperandCount(); i++) {
+						code[pc++] = operand(instr, i);
+					}
+			}
+		}
+	}
+	
+	/**
+	 * @return the operand, or the bits of it for a float immediate
+	 */
+	private int operand(TigerIRInstruction instr, int operand) {
+		if(instr.getType(operand) == ParamType.IMMEDIATEf) {
+			return Float.floatToRawIntBits(program.getFloatImmediate(instr, operand));
+		}
+		return instr.getOperand(operand);
+	}
+	
+	private static int decodedLength(TigerIRInstruction instr) {
+		switch(instr.getOpcode()) {
+			case LDRi:
+			case LDRf:
+			case STRi:
+			case STRf:
+			case STRIi:
+			case STRIf:
+				return 4;
+			case CALL:
+			case CALL_RET:
+				return instr.getOperandCount() + 2;
+			default:
+				return instr.getOperandCount() + 1;
+		}
+	}
+	
+	private static int variableSlot(Function function, int symbol) {
+		if(function != null) {
+			for(int i = 0; i < function.params.length; i++) {
+				if(function.params[i] == symbol) {
+					return ~i;
+				}
+			}
+		}
+		return symbol;
+	}
+	
+	private int labelPC(int label, int[] pcs) {
+		int address = program.getLabelAddress(label);
+		return address == -1 ? -1 : pcs[address];
+	}
+	
+	private static int typedRegister(TigerIRInstruction instr, int operand) {
+		return instr.getOperand(operand) << 1 | (instr.getType(operand) == ParamType.REGISTERf ? 1 : 0);
 	}
 	
 	public void run(boolean printDebug) {
 		if(printDebug) {
-			System.out.println(functions);
-			System.out.println(labels);
-			System.out.println(instructions);
+			System.out.println(functionsToString());
+			System.out.println(labelsToString());
+			System.out.println(instructionsToString());
 			System.out.println();
 		}
 		
-		HashMap<String, Integer> intRegs = new HashMap<>();
-		HashMap<String, Float> floatRegs = new HashMap<>();
-		// Pair<Pair<Return Address, Return Value Register>, HashMap<Argument, Value>>
-		Deque<Pair<Pair<Integer, String>, HashMap<String, Number>>> stack = new ArrayDeque<>();
+		intRegs = new int[intRegCount];
+		floatRegs = new float[floatRegCount];
+		
+		frameReturnPCs = new int[16];
+		frameReturnRegs = new int[16];
+		frameArgBases = new int[16];
+		frameCount = 0;
+		
+		args = new int[64];
+		argIsFloat = new boolean[64];
+		argBase = argTop = 0;
 		
 		stdin = new Scanner(System.in);
 		rng = null;
 		
-		int currentPC = functions.get("main").getValue();
+		int pc = functionPCs[getMain().index];
 		
 		boolean keepRunning = true;
 		
@@ -276,528 +372,543 @@ public class TigerInterpreter {
 		
 		try {
 			while(keepRunning) {
-				if(currentPC >= instructions.size()) {
+				if(pc >= code.length) {
 					break;
 				}
 				
 				instrCount++;
 				
-				TigerIRInstruction currInstr = instructions.get(currentPC++);
-				List<Pair<String, ParamType>> params = currInstr.getParams();
+				int instrPC = pc;
+				TigerIROpcode opcode = OPCODES[code[pc++]];
 				
 				try {
-					switch(currInstr.getOpcode()) {
+					switch(opcode) {
 						case ADDi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = getRegValue(params.get(2).getKey(), intRegs);
-							intRegs.put(params.get(0).getKey(), src1 + src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = intRegs[code[pc++]];
+							intRegs[dst] = src1 + src2;
 							break;
 						}
 						case ADDIi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = Integer.parseInt(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 + src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = code[pc++];
+							intRegs[dst] = src1 + src2;
 							break;
 						}
 						case ADDf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = getRegValue(params.get(2).getKey(), floatRegs);
-							floatRegs.put(params.get(0).getKey(), src1 + src2);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = floatRegs[code[pc++]];
+							floatRegs[dst] = src1 + src2;
 							break;
 						}
 						case ADDIf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = Float.parseFloat(params.get(2).getKey());
-							floatRegs.put(params.get(0).getKey(), src1 + src2);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = Float.intBitsToFloat(code[pc++]);
+							floatRegs[dst] = src1 + src2;
 							break;
 						}
 						
 						case SUBi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = getRegValue(params.get(2).getKey(), intRegs);
-							intRegs.put(params.get(0).getKey(), src1 - src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = intRegs[code[pc++]];
+							intRegs[dst] = src1 - src2;
 							break;
 						}
 						case SUBIi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = Integer.parseInt(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 - src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = code[pc++];
+							intRegs[dst] = src1 - src2;
 							break;
 						}
 						case SUBf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = getRegValue(params.get(2).getKey(), floatRegs);
-							floatRegs.put(params.get(0).getKey(), src1 - src2);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = floatRegs[code[pc++]];
+							floatRegs[dst] = src1 - src2;
 							break;
 						}
 						case SUBIf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = Float.parseFloat(params.get(2).getKey());
-							floatRegs.put(params.get(0).getKey(), src1 - src2);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = Float.intBitsToFloat(code[pc++]);
+							floatRegs[dst] = src1 - src2;
 							break;
 						}
 						
 						case MULi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = getRegValue(params.get(2).getKey(), intRegs);
-							intRegs.put(params.get(0).getKey(), src1 * src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = intRegs[code[pc++]];
+							intRegs[dst] = src1 * src2;
 							break;
 						}
 						case MULIi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = Integer.parseInt(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 * src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = code[pc++];
+							intRegs[dst] = src1 * src2;
 							break;
 						}
 						case MULf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = getRegValue(params.get(2).getKey(), floatRegs);
-							floatRegs.put(params.get(0).getKey(), src1 * src2);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = floatRegs[code[pc++]];
+							floatRegs[dst] = src1 * src2;
 							break;
 						}
 						case MULIf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = Float.parseFloat(params.get(2).getKey());
-							floatRegs.put(params.get(0).getKey(), src1 * src2);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = Float.intBitsToFloat(code[pc++]);
+							floatRegs[dst] = src1 * src2;
 							break;
 						}
 						
 						case DIVi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = getRegValue(params.get(2).getKey(), intRegs);
-							intRegs.put(params.get(0).getKey(), src1 / src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = intRegs[code[pc++]];
+							intRegs[dst] = src1 / src2;
 							break;
 						}
 						case DIVIi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = Integer.parseInt(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 / src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = code[pc++];
+							intRegs[dst] = src1 / src2;
 							break;
 						}
 						case DIVf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = getRegValue(params.get(2).getKey(), floatRegs);
-							floatRegs.put(params.get(0).getKey(), src1 / src2);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = floatRegs[code[pc++]];
+							floatRegs[dst] = src1 / src2;
 							break;
 						}
 						case DIVIf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = Float.parseFloat(params.get(2).getKey());
-							floatRegs.put(params.get(0).getKey(), src1 / src2);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = Float.intBitsToFloat(code[pc++]);
+							floatRegs[dst] = src1 / src2;
 							break;
 						}
 						
 						case MODi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = getRegValue(params.get(2).getKey(), intRegs);
-							intRegs.put(params.get(0).getKey(), src1 % src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = intRegs[code[pc++]];
+							intRegs[dst] = src1 % src2;
 							break;
 						}
 						case MODIi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = Integer.parseInt(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 % src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = code[pc++];
+							intRegs[dst] = src1 % src2;
 							break;
 						}
 						case MODf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = getRegValue(params.get(2).getKey(), floatRegs);
-							floatRegs.put(params.get(0).getKey(), src1 % src2);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = floatRegs[code[pc++]];
+							floatRegs[dst] = src1 % src2;
 							break;
 						}
 						case MODIf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = Float.parseFloat(params.get(2).getKey());
-							floatRegs.put(params.get(0).getKey(), src1 % src2);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = Float.intBitsToFloat(code[pc++]);
+							floatRegs[dst] = src1 % src2;
 							break;
 						}
 						
 						case ANDi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = getRegValue(params.get(2).getKey(), intRegs);
-							intRegs.put(params.get(0).getKey(), src1 & src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = intRegs[code[pc++]];
+							intRegs[dst] = src1 & src2;
 							break;
 						}
 						case ANDIi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = Integer.parseInt(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 & src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = code[pc++];
+							intRegs[dst] = src1 & src2;
 							break;
 						}
 						
 						case ORi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = getRegValue(params.get(2).getKey(), intRegs);
-							intRegs.put(params.get(0).getKey(), src1 | src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = intRegs[code[pc++]];
+							intRegs[dst] = src1 | src2;
 							break;
 						}
 						case ORIi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = Integer.parseInt(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 | src2);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = code[pc++];
+							intRegs[dst] = src1 | src2;
 							break;
 						}
 						
 						case GTi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = getRegValue(params.get(2).getKey(), intRegs);
-							intRegs.put(params.get(0).getKey(), src1 > src2 ? 1 : 0);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = intRegs[code[pc++]];
+							intRegs[dst] = src1 > src2 ? 1 : 0;
 							break;
 						}
 						case GTIi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = Integer.parseInt(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 > src2 ? 1 : 0);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = code[pc++];
+							intRegs[dst] = src1 > src2 ? 1 : 0;
 							break;
 						}
 						case GTf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = getRegValue(params.get(2).getKey(), floatRegs);
-							intRegs.put(params.get(0).getKey(), src1 > src2 ? 1 : 0);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = floatRegs[code[pc++]];
+							intRegs[dst] = src1 > src2 ? 1 : 0;
 							break;
 						}
 						case GTIf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = Float.parseFloat(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 > src2 ? 1 : 0);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = Float.intBitsToFloat(code[pc++]);
+							intRegs[dst] = src1 > src2 ? 1 : 0;
 							break;
 						}
 						
 						case GEQi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = getRegValue(params.get(2).getKey(), intRegs);
-							intRegs.put(params.get(0).getKey(), src1 >= src2 ? 1 : 0);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = intRegs[code[pc++]];
+							intRegs[dst] = src1 >= src2 ? 1 : 0;
 							break;
 						}
 						case GEQIi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = Integer.parseInt(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 >= src2 ? 1 : 0);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = code[pc++];
+							intRegs[dst] = src1 >= src2 ? 1 : 0;
 							break;
 						}
 						case GEQf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = getRegValue(params.get(2).getKey(), floatRegs);
-							intRegs.put(params.get(0).getKey(), src1 >= src2 ? 1 : 0);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = floatRegs[code[pc++]];
+							intRegs[dst] = src1 >= src2 ? 1 : 0;
 							break;
 						}
 						case GEQIf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = Float.parseFloat(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 >= src2 ? 1 : 0);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = Float.intBitsToFloat(code[pc++]);
+							intRegs[dst] = src1 >= src2 ? 1 : 0;
 							break;
 						}
 						
 						case EQi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = getRegValue(params.get(2).getKey(), intRegs);
-							intRegs.put(params.get(0).getKey(), src1 == src2 ? 1 : 0);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = intRegs[code[pc++]];
+							intRegs[dst] = src1 == src2 ? 1 : 0;
 							break;
 						}
 						case EQIi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = Integer.parseInt(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 == src2 ? 1 : 0);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = code[pc++];
+							intRegs[dst] = src1 == src2 ? 1 : 0;
 							break;
 						}
 						case EQf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = getRegValue(params.get(2).getKey(), floatRegs);
-							intRegs.put(params.get(0).getKey(), src1 == src2 ? 1 : 0);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = floatRegs[code[pc++]];
+							intRegs[dst] = src1 == src2 ? 1 : 0;
 							break;
 						}
 						case EQIf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = Float.parseFloat(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 == src2 ? 1 : 0);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = Float.intBitsToFloat(code[pc++]);
+							intRegs[dst] = src1 == src2 ? 1 : 0;
 							break;
 						}
 						
 						case NEQi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = getRegValue(params.get(2).getKey(), intRegs);
-							intRegs.put(params.get(0).getKey(), src1 != src2 ? 1 : 0);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = intRegs[code[pc++]];
+							intRegs[dst] = src1 != src2 ? 1 : 0;
 							break;
 						}
 						case NEQIi: {
-							int src1 = getRegValue(params.get(1).getKey(), intRegs);
-							int src2 = Integer.parseInt(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 != src2 ? 1 : 0);
+							int dst = code[pc++];
+							int src1 = intRegs[code[pc++]];
+							int src2 = code[pc++];
+							intRegs[dst] = src1 != src2 ? 1 : 0;
 							break;
 						}
 						case NEQf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = getRegValue(params.get(2).getKey(), floatRegs);
-							intRegs.put(params.get(0).getKey(), src1 != src2 ? 1 : 0);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = floatRegs[code[pc++]];
+							intRegs[dst] = src1 != src2 ? 1 : 0;
 							break;
 						}
 						case NEQIf: {
-							float src1 = getRegValue(params.get(1).getKey(), floatRegs);
-							float src2 = Float.parseFloat(params.get(2).getKey());
-							intRegs.put(params.get(0).getKey(), src1 != src2 ? 1 : 0);
+							int dst = code[pc++];
+							float src1 = floatRegs[code[pc++]];
+							float src2 = Float.intBitsToFloat(code[pc++]);
+							intRegs[dst] = src1 != src2 ? 1 : 0;
 							break;
 						}
 						
+						
 						case ITOF: {
-							floatRegs.put(params.get(0).getKey(), (float)getRegValue(params.get(1).getKey(), intRegs));
+							int dst = code[pc++];
+							floatRegs[dst] = (float)intRegs[code[pc++]];
 							break;
 						}
 						
 						case LDi: {
+							int dst = code[pc++];
+							int slot = code[pc++];
 							int value;
-							Pair<Pair<Integer, String>, HashMap<String, Number>> context = stack.peek();
-							if(context != null && context.getValue().containsKey(params.get(1).getKey())) {
-								value = context.getValue().get(params.get(1).getKey()).intValue();
+							if(slot < 0) {
+								int arg = argBase + ~slot;
+								value = argIsFloat[arg] ? (int)Float.intBitsToFloat(args[arg]) : args[arg];
 							} else {
-								value = memory.loadInt(params.get(1).getKey());
+								value = memory.loadIntVar(slot);
 							}
 							
-							intRegs.put(params.get(0).getKey(), value);
+							intRegs[dst] = value;
 							break;
 						}
 						case LDf: {
+							int dst = code[pc++];
+							int slot = code[pc++];
 							float value;
-							Pair<Pair<Integer, String>, HashMap<String, Number>> context = stack.peek();
-							if(context != null && context.getValue().containsKey(params.get(1).getKey())) {
-								value = context.getValue().get(params.get(1).getKey()).floatValue();
+							if(slot < 0) {
+								int arg = argBase + ~slot;
+								value = argIsFloat[arg] ? Float.intBitsToFloat(args[arg]) : (float)args[arg];
 							} else {
-								value = memory.loadFloat(params.get(1).getKey());
+								value = memory.loadFloatVar(slot);
 							}
 							
-							floatRegs.put(params.get(0).getKey(), value);
+							floatRegs[dst] = value;
 							break;
 						}
 						case LDIi: {
-							intRegs.put(params.get(0).getKey(), Integer.parseInt(params.get(1).getKey()));
+							int dst = code[pc++];
+							intRegs[dst] = code[pc++];
 							break;
 						}
 						case LDIf: {
-							floatRegs.put(params.get(0).getKey(), Float.parseFloat(params.get(1).getKey()));
+							int dst = code[pc++];
+							floatRegs[dst] = Float.intBitsToFloat(code[pc++]);
 							break;
 						}
 						case LDRi: {
-							int offset = params.size() == 3 ? Integer.parseInt(params.get(2).getKey()) : 0;
-							intRegs.put(params.get(0).getKey(), memory.loadInt(getRegValue(params.get(1).getKey(), intRegs) + offset));
+							int dst = code[pc++];
+							int base = intRegs[code[pc++]];
+							intRegs[dst] = memory.loadInt(base + code[pc++]);
 							break;
 						}
 						case LDRf: {
-							int offset = params.size() == 3 ? Integer.parseInt(params.get(2).getKey()) : 0;
-							floatRegs.put(params.get(0).getKey(), memory.loadFloat(getRegValue(params.get(1).getKey(), intRegs) + offset));
+							int dst = code[pc++];
+							int base = intRegs[code[pc++]];
+							floatRegs[dst] = memory.loadFloat(base + code[pc++]);
 							break;
 						}
 						
 						case STi: {
-							int value = getRegValue(params.get(0).getKey(), intRegs);
-							Pair<Pair<Integer, String>, HashMap<String, Number>> context = stack.peek();
-							if(context != null && context.getValue().containsKey(params.get(1).getKey())) {
-								if(context.getValue().get(params.get(1).getKey()).getClass() != Integer.class) {
-									throw new IllegalArgumentException("Type mismatch for '" + params.get(1).getKey() + "'");
+							int value = intRegs[code[pc++]];
+							int slot = code[pc++];
+							if(slot < 0) {
+								int arg = argBase + ~slot;
+								if(argIsFloat[arg]) {
+									throw new IllegalArgumentException("Type mismatch for '" + program.operandToString(decodedFrom[instrPC], 1) + "'");
 								}
-								context.getValue().put(params.get(1).getKey(), value);
+								args[arg] = value;
 							} else {
-								memory.storeInt(params.get(1).getKey(), value);
+								memory.storeIntVar(slot, value);
 							}
 							break;
 						}
 						case STf: {
-							float value = getRegValue(params.get(0).getKey(), floatRegs);
-							Pair<Pair<Integer, String>, HashMap<String, Number>> context = stack.peek();
-							if(context != null && context.getValue().containsKey(params.get(1).getKey())) {
-								if(context.getValue().get(params.get(1).getKey()).getClass() != Float.class) {
-									throw new IllegalArgumentException("Type mismatch for '" + params.get(1).getKey() + "'");
+							float value = floatRegs[code[pc++]];
+							int slot = code[pc++];
+							if(slot < 0) {
+								int arg = argBase + ~slot;
+								if(!argIsFloat[arg]) {
+									throw new IllegalArgumentException("Type mismatch for '" + program.operandToString(decodedFrom[instrPC], 1) + "'");
 								}
-								context.getValue().put(params.get(1).getKey(), value);
+								args[arg] = Float.floatToRawIntBits(value);
 							} else {
-								memory.storeFloat(params.get(1).getKey(), value);
+								memory.storeFloatVar(slot, value);
 							}
 							break;
 						}
 						case STIi: {
-							memory.storeInt(params.get(1).getKey(), Integer.parseInt(params.get(0).getKey()));
+							int value = code[pc++];
+							memory.storeIntVar(code[pc++], value);
 							break;
 						}
 						case STIf: {
-							memory.storeFloat(params.get(1).getKey(), Float.parseFloat(params.get(0).getKey()));
+							float value = Float.intBitsToFloat(code[pc++]);
+							memory.storeFloatVar(code[pc++], value);
 							break;
 						}
 						case STRi: {
-							int offset = params.size() == 3 ? Integer.parseInt(params.get(2).getKey()) : 0;
-							memory.storeInt(getRegValue(params.get(1).getKey(), intRegs) + offset, getRegValue(params.get(0).getKey(), intRegs));
+							int value = intRegs[code[pc++]];
+							int base = intRegs[code[pc++]];
+							memory.storeInt(base + code[pc++], value);
 							break;
 						}
 						case STRf: {
-							int offset = params.size() == 3 ? Integer.parseInt(params.get(2).getKey()) : 0;
-							memory.storeFloat(getRegValue(params.get(1).getKey(), intRegs) + offset, getRegValue(params.get(0).getKey(), floatRegs));
+							float value = floatRegs[code[pc++]];
+							int base = intRegs[code[pc++]];
+							memory.storeFloat(base + code[pc++], value);
 							break;
 						}
 						case STRIi: {
-							int offset = params.size() == 3 ? Integer.parseInt(params.get(2).getKey()) : 0;
-							memory.storeInt(getRegValue(params.get(1).getKey(), intRegs) + offset, Integer.parseInt(params.get(0).getKey()));
+							int value = code[pc++];
+							int base = intRegs[code[pc++]];
+							memory.storeInt(base + code[pc++], value);
 							break;
 						}
 						case STRIf: {
-							int offset = params.size() == 3 ? Integer.parseInt(params.get(2).getKey()) : 0;
-							memory.storeFloat(getRegValue(params.get(1).getKey(), intRegs) + offset, Float.parseFloat(params.get(0).getKey()));
+							float value = Float.intBitsToFloat(code[pc++]);
+							int base = intRegs[code[pc++]];
+							memory.storeFloat(base + code[pc++], value);
 							break;
 						}
 						
 						case BRZ: {
-							int src = getRegValue(params.get(0).getKey(), intRegs);
+							int src = intRegs[code[pc++]];
+							int target = code[pc++];
 							if(src == 0) {
-								if(!labels.containsKey(params.get(1).getKey())) {
-									throw new IllegalArgumentException("Invalid label '" + params.get(1).getKey() + "'");
+								if(target == -1) {
+									throw new IllegalArgumentException("Invalid label '" + program.operandToString(decodedFrom[instrPC], 1) + "'");
 								}
 								
-								currentPC = labels.get(params.get(1).getKey());
+								pc = target;
 							}
 							break;
 						}
 						case BRNZ: {
-							int src = getRegValue(params.get(0).getKey(), intRegs);
+							int src = intRegs[code[pc++]];
+							int target = code[pc++];
 							if(src != 0) {
-								if(!labels.containsKey(params.get(1).getKey())) {
-									throw new IllegalArgumentException("Invalid label '" + params.get(1).getKey() + "'");
+								if(target == -1) {
+									throw new IllegalArgumentException("Invalid label '" + program.operandToString(decodedFrom[instrPC], 1) + "'");
 								}
 								
-								currentPC = labels.get(params.get(1).getKey());
+								pc = target;
 							}
 							break;
 						}
 						case BR: {
-							if(!labels.containsKey(params.get(0).getKey())) {
-								throw new IllegalArgumentException("Invalid label '" + params.get(0).getKey() + "'");
+							int target = code[pc];
+							if(target == -1) {
+								throw new IllegalArgumentException("Invalid label '" + program.operandToString(decodedFrom[instrPC], 0) + "'");
 							}
 							
-							currentPC = labels.get(params.get(0).getKey());
+							pc = target;
 							break;
 						}
 						
-						case CALL: {
-							if(builtInFunctions.containsKey(params.get(0).getKey())) {
-								Pair<Pair<Integer, Boolean>, BuiltInFunction> builtInFunctionPair = builtInFunctions.get(params.get(0).getKey());
-								
-								int paramCount = builtInFunctionPair.getKey().getKey() + 1;
-								if(params.size() < paramCount) {
-									throw new IllegalArgumentException("Incorrect number of arguments to function '" + params.get(0).getKey() + "'. Expected " + paramCount + ", got " + (params.size() - 1));
-								}
-								
-								List<Pair<String, ParamType>> funcArgs = new ArrayList<>();
-								for(int i = 1; i < params.size(); i++) {
-									funcArgs.add(params.get(i));
-								}
-								
-								builtInFunctionPair.getValue().call(funcArgs, null, intRegs, floatRegs);
-							} else {
-								if(!functions.containsKey(params.get(0).getKey())) {
-									throw new IllegalArgumentException("Unknown function name '" + params.get(0).getKey());
-								}
-								
-								Pair<List<String>, Integer> func = functions.get(params.get(0).getKey());
-								if(func.getKey().size() != params.size() - 1) {
-									throw new IllegalArgumentException("Incorrect number of arguments to function '" + params.get(0).getKey() +
-									                                     "'. Expected " + func.getKey().size() + ", got " + (params.size() - 1));
-								}
-								
-								HashMap<String, Number> funcArgs = new HashMap<>();
-								for(int i = 0; i < func.getKey().size(); i++) {
-									if(params.get(i + 1).getValue() == ParamType.REGISTERi) {
-										funcArgs.put(func.getKey().get(i), getRegValue(params.get(i + 1).getKey(), intRegs));
-									} else {
-										funcArgs.put(func.getKey().get(i), getRegValue(params.get(i + 1).getKey(), floatRegs));
-									}
-								}
-								stack.push(new Pair<>(new Pair<>(currentPC, null), funcArgs));
-								currentPC = func.getValue();
-							}
-							break;
-						}
+						case CALL:
 						case CALL_RET: {
-							if(builtInFunctions.containsKey(params.get(0).getKey())) {
-								Pair<Pair<Integer, Boolean>, BuiltInFunction> builtInFunctionPair = builtInFunctions.get(params.get(0).getKey());
-								
-								if(!builtInFunctionPair.getKey().getValue()) {
-									throw new IllegalArgumentException("Function '" + params.get(0).getKey() + "' does not return a value.");
-								}
-								
-								int paramCount = builtInFunctionPair.getKey().getKey() + 2;
-								if(params.size() < paramCount) {
-									throw new IllegalArgumentException("Incorrect number of arguments to function '" + params.get(0).getKey() + "'. Expected " + paramCount + ", got " + (params.size() - 1));
+							int function = code[pc++];
+							int returnReg = opcode == TigerIROpcode.CALL_RET ? code[pc++] : -1;
+							int argCount = code[pc++];
+							int firstArg = pc;
+							pc += argCount;
+							
+							Pair<Pair<Integer, Boolean>, BuiltInFunction> builtInFunctionPair = builtInFunctions.get(function);
+							if(builtInFunctionPair != null) {
+								if(returnReg != -1 && !builtInFunctionPair.getKey().getValue()) {
+									throw new IllegalArgumentException("Function '" + program.operandToString(decodedFrom[instrPC], 0) + "' does not return a value.");
 								}
 								
-								List<Pair<String, ParamType>> funcArgs = new ArrayList<>();
-								for(int i = 2; i < params.size(); i++) {
-									funcArgs.add(params.get(i));
+								int paramCount = builtInFunctionPair.getKey().getKey();
+								if(argCount < paramCount) {
+									int extra = returnReg != -1 ? 1 : 0;
+									throw new IllegalArgumentException("Incorrect number of arguments to function '" + program.operandToString(decodedFrom[instrPC], 0) + "'. Expected " + (paramCount + 1 + extra) + ", got " + (argCount + extra));
 								}
 								
-								builtInFunctionPair.getValue().call(funcArgs, params.get(1), intRegs, floatRegs);
+								builtInFunctionPair.getValue().call(firstArg, returnReg == -1 ? -1 : returnReg >> 1);
 							} else {
-								if(!functions.containsKey(params.get(0).getKey())) {
-									throw new IllegalArgumentException("Unknown function name '" + params.get(0).getKey());
+								if(functionPCs[function] == -1) {
+									throw new IllegalArgumentException("Unknown function name '" + program.operandToString(decodedFrom[instrPC], 0));
 								}
 								
-								Pair<List<String>, Integer> func = functions.get(params.get(0).getKey());
-								if(func.getKey().size() != params.size() - 2) {
-									throw new IllegalArgumentException("Incorrect number of arguments to function '" + params.get(0).getKey() +
-									                                     "'. Expected " + func.getKey().size() + ", got " + (params.size() - 2));
+								if(functionArities[function] != argCount) {
+									throw new IllegalArgumentException("Incorrect number of arguments to function '" + program.operandToString(decodedFrom[instrPC], 0) +
+									                                     "'. Expected " + functionArities[function] + ", got " + argCount);
 								}
 								
-								HashMap<String, Number> funcArgs = new HashMap<>();
-								for(int i = 0; i < func.getKey().size(); i++) {
-									if(params.get(i + 2).getValue() == ParamType.REGISTERi) {
-										funcArgs.put(func.getKey().get(i), getRegValue(params.get(i + 2).getKey(), intRegs));
-									} else {
-										funcArgs.put(func.getKey().get(i), getRegValue(params.get(i + 2).getKey(), floatRegs));
-									}
-								}
-								stack.push(new Pair<>(new Pair<>(currentPC, params.get(1).getKey()), funcArgs));
-								currentPC = func.getValue();
+								pushFrame(pc, returnReg, firstArg, argCount);
+								pc = functionPCs[function];
 							}
 							break;
 						}
 						case RET: {
-							if(stack.size() == 0) {
+							if(frameCount == 0) {
 								keepRunning = false;
 								break;
 							}
 							
-							Pair<Pair<Integer, String>, HashMap<String, Number>> context = stack.pop();
-							if(context.getKey().getValue() != null) {
+							if(frameReturnRegs[frameCount - 1] != -1) {
 								throw new IllegalArgumentException("Expected return value");
 							}
 							
-							currentPC = context.getKey().getKey();
+							pc = popFrame();
 							break;
 						}
 						case RETi:
 						case RETf: {
-							if(stack.size() == 0) {
+							if(frameCount == 0) {
 								throw new IllegalArgumentException("Cannot return value from main");
 							}
 							
-							Pair<Pair<Integer, String>, HashMap<String, Number>> context = stack.pop();
-							if(context.getKey().getValue() != null) {
-								if(currInstr.getOpcode() == TigerIROpcode.RETi) {
-									if(context.getKey().getValue().charAt(1) == 'i') {
-										intRegs.put(context.getKey().getValue(), getRegValue(params.get(0).getKey(), intRegs));
+							int returnReg = frameReturnRegs[frameCount - 1];
+							if(returnReg != -1) {
+								boolean returnsFloat = (returnReg & 1) != 0;
+								if(opcode == TigerIROpcode.RETi) {
+									if(!returnsFloat) {
+										intRegs[returnReg >> 1] = intRegs[code[pc]];
 									} else {
-										floatRegs.put(context.getKey().getValue(), (float)getRegValue(params.get(0).getKey(), intRegs));
+										floatRegs[returnReg >> 1] = (float)intRegs[code[pc]];
 									}
 								} else {
-									if(context.getKey().getValue().charAt(1) != 'f') {
+									if(!returnsFloat) {
 										throw new IllegalArgumentException("Type mismatch on return value, callsite expected int");
 									}
 									
-									floatRegs.put(context.getKey().getValue(), getRegValue(params.get(0).getKey(), floatRegs));
+									floatRegs[returnReg >> 1] = floatRegs[code[pc]];
 								}
 							}
 							
-							currentPC = context.getKey().getKey();
+							pc = popFrame();
 							break;
 						}
 					}
 				}
 				catch(Exception exc) {
-					throw new IllegalStateException("Error on line " + currInstr.getLineNumber() + ": " + exc.getMessage(), exc);
+					throw new IllegalStateException("Error on line " + decodedFrom[instrPC].getLineNumber() + ": " + exc.getMessage(), exc);
 				}
 			}
 		}
@@ -810,13 +921,13 @@ public class TigerInterpreter {
 				
 				System.out.println("\nInt regs:");
 				
-				for(String s : intRegs.keySet().stream().sorted((s1, s2) -> Integer.parseInt(s1.substring(2)) - Integer.parseInt(s2.substring(2))).collect(Collectors.toList())) {
-					System.out.println(s + ": " + intRegs.get(s));
+				for(int reg = 0; reg < intRegs.length; reg++) {
+					System.out.println("$i" + reg + ": " + intRegs[reg]);
 				}
 				
 				System.out.println("\nFloat regs:");
-				for(String s : floatRegs.keySet().stream().sorted((s1, s2) -> Integer.parseInt(s1.substring(2)) - Integer.parseInt(s2.substring(2))).collect(Collectors.toList())) {
-					System.out.println(s + ": " + floatRegs.get(s));
+				for(int reg = 0; reg < floatRegs.length; reg++) {
+					System.out.println("$f" + reg + ": " + floatRegs[reg]);
 				}
 				
 				memory.printMemory();
@@ -824,31 +935,96 @@ public class TigerInterpreter {
 		}
 	}
 	
-	private static <T> T getRegValue(String name, HashMap<String, T> regs) {
-		if(regs.containsKey(name)) {
-			return regs.get(name);
+	/**
+	 * Copies the arguments into a new frame.
+	 *
+	 * @param firstArg the pc of the first argument register of the call
+	 */
+	private void pushFrame(int returnPC, int returnReg, int firstArg, int argCount) {
+		if(frameCount == frameReturnPCs.length) {
+			frameReturnPCs = Arrays.copyOf(frameReturnPCs, frameCount * 2);
+			frameReturnRegs = Arrays.copyOf(frameReturnRegs, frameCount * 2);
+			frameArgBases = Arrays.copyOf(frameArgBases, frameCount * 2);
+		}
+		
+		if(argTop + argCount > args.length) {
+			args = Arrays.copyOf(args, Math.max(args.length * 2, argTop + argCount));
+			argIsFloat = Arrays.copyOf(argIsFloat, args.length);
 		}
 		
-		throw new IllegalArgumentException("Register '" + name + "' does not exist.");
+		for(int i = 0; i < argCount; i++) {
+			int reg = code[firstArg + i];
+			argIsFloat[argTop + i] = (reg & 1) != 0;
+			args[argTop + i] = (reg & 1) != 0 ? Float.floatToRawIntBits(floatRegs[reg >> 1]) : intRegs[reg >> 1];
+		}
+		
+		frameReturnPCs[frameCount] = returnPC;
+		frameReturnRegs[frameCount] = returnReg;
+		frameArgBases[frameCount] = argTop;
+		frameCount++;
+		
+		argBase = argTop;
+		argTop += argCount;
+	}
+	
+	/**
+	 * @return the pc to return to
+	 */
+	private int popFrame() {
+		frameCount--;
+		argTop = frameArgBases[frameCount];
+		argBase = frameCount > 0 ? frameArgBases[frameCount - 1] : 0;
+		return frameReturnPCs[frameCount];
+	}
+	
+	/**
+	 * @param arg the pc of an argument register of a call
+	 */
+	private int getIntArg(int arg) {
+		return intRegs[code[arg] >> 1];
+	}
+	
+	private float getFloatArg(int arg) {
+		return floatRegs[code[arg] >> 1];
 	}
 	
-	private static String[] split(String inst) {
-		if(inst.trim().isEmpty()) {
-			return null;
+	private String functionsToString() {
+		StringBuilder builder = new StringBuilder("{");
+		for(Function function : program.getFunctions()) {
+			if(function.address != -1) {
+				builder.append(builder.length() > 1 ? ", " : "").append(function.getName()).append('=').append(function);
+			}
 		}
-		
-		String[] p = inst.replace(',', ' ').split("\\s");
-		ArrayList<String> parts = new ArrayList<>();
-		for(String s : p) {
-			String t = s.trim();
-			if(!t.isEmpty()) {
-				parts.add(t);
+		return builder.append('}').toString();
+	}
+	
+	private String labelsToString() {
+		StringBuilder builder = new StringBuilder("{");
+		for(int label = 0; label < program.getLabelCount(); label++) {
+			if(program.getLabelAddress(label) != -1) {
+				builder.append(builder.length() > 1 ? ", " : "").append(program.getLabelName(label)).append('=').append(program.getLabelAddress(label));
+			}
+		}
+		return builder.append('}').toString();
+	}
+	
+	private String instructionsToString() {
+		StringBuilder builder = new StringBuilder("[");
+		for(TigerIRInstruction instr : instructions) {
+			builder.append(builder.length() > 1 ? ", [" : "[").append(instr.getOpcode());
+			for(int i = 0; i < instr.getOperandCount(); i++) {
+				builder.append(", ").append(program.operandToString(instr, i));
 			}
+			builder.append(']');
 		}
-		return parts.toArray(new String[parts.size()]);
+		return builder.append(']').toString();
 	}
 	
 	interface BuiltInFunction {
-		void call(List<Pair<String, ParamType>> args, Pair<String, ParamType> returnReg, HashMap<String, Integer> intRegs, HashMap<String, Float> floatRegs);
+		/**
+		 * @param arg the pc of the first argument register of the call
+		 * @param returnReg the register the caller wants the value in, or -1
+		 */
+		void call(int arg, int returnReg);
 	}
 }
@@ -0,0 +1,277 @@
+package edu.cs4240.tiger.parser;
+
+/**
+ * Generated by TigerGrammarTablesGenerator from ProductionRules.txt, do not edit.
+ * Run 'make grammar' after changing the grammar or the TigerProductionRule and TigerTokenClass enums.
+ *
+ * @author Roi Atalla
+ */
+final class TigerGrammarTables {
+	static final long GRAMMAR_HASH = 0xfd7209d8L;
+	
+	// [rule][production][symbol]: token classes are stored as their ordinal, production rules as ~ordinal
+	static final int[][][] PRODUCTIONS = {
+		{ // PROGRAM
+			{ 15, -2, 13, -18, 6 }, // program → let declseg in stmts end
+		},
+		{ // DECLSEG
+			{ -3, -6, -11 }, // declseg → typedecls vardecls funcdecls
+		},
+		{ // TYPEDECLS
+			{ 0 }, // typedecls → ϵ
+			{ -4, -3 }, // typedecls → typedecl typedecls
+		},
+		{ // TYPEDECL
+			{ 20, 45, 44, -5, 25 }, // typedecl → type_ id := type ;
+		},
+		{ // TYPE
+			{ 14 }, // type → int
+			{ 9 }, // type → float
+			{ 45 }, // type → id
+			{ 1, 28, 46, 29, 16, -5 }, // type → array [ intlit ] of type
+		},
+		{ // VARDECLS
+			{ 0 }, // vardecls → ϵ
+			{ -7, -6 }, // vardecls → vardecl vardecls
+		},
+		{ // VARDECL
+			{ 21, -8, 24, -5, -10, 25 }, // vardecl → var ids : type optinit ;
+		},
+		{ // IDS
+			{ 45, -9 }, // ids → id ids_tail
+		},
+		{ // IDS_TAIL
+			{ 0 }, // ids_tail → ϵ
+			{ 23, -8 }, // ids_tail → , ids
+		},
+		{ // OPTINIT
+			{ 0 }, // optinit → ϵ
+			{ 44, -43 }, // optinit → := const
+		},
+		{ // FUNCDECLS
+			{ 0 }, // funcdecls → ϵ
+			{ -12, -11 }, // funcdecls → funcdecl funcdecls
+		},
+		{ // FUNCDECL
+			{ 11, 45, 26, -13, 27, -17, 2, -18, 6, 25 }, // funcdecl → func id ( params ) optrettype begin stmts end ;
+		},
+		{ // PARAMS
+			{ 0 }, // params → ϵ
+			{ -14 }, // params → neparams
+		},
+		{ // NEPARAMS
+			{ -16, -15 }, // neparams → param neparams_tail
+		},
+		{ // NEPARAMS_TAIL
+			{ 0 }, // neparams_tail → ϵ
+			{ 23, -14 }, // neparams_tail → , neparams
+		},
+		{ // PARAM
+			{ 45, 24, -5 }, // param → id : type
+		},
+		{ // OPTRETTYPE
+			{ 0 }, // optrettype → ϵ
+			{ 24, -5 }, // optrettype → : type
+		},
+		{ // STMTS
+			{ -20, -19 }, // stmts → fullstmt stmts_tail
+		},
+		{ // STMTS_TAIL
+			{ 0 }, // stmts_tail → ϵ
+			{ -18 }, // stmts_tail → stmts
+		},
+		{ // FULLSTMT
+			{ -21, 25 }, // fullstmt → stmt ;
+		},
+		{ // STMT
+			{ 12, -29, 18, -18, -22 }, // stmt → if boolexpr then stmts stmt_tail
+			{ 22, -29, 4, -18, 7 }, // stmt → while boolexpr do stmts enddo
+			{ 10, 45, 44, -35, 19, -35, 4, -18, 7 }, // stmt → for id := numexpr to numexpr do stmts enddo
+			{ -25, 45, 26, -26, 27 }, // stmt → optstore id ( numexprs )
+			{ -23, 44, -35 }, // stmt → lvalue := numexpr
+			{ 3 }, // stmt → break
+			{ 17, -35 }, // stmt → return numexpr
+		},
+		{ // STMT_TAIL
+			{ 8 }, // stmt_tail → endif
+			{ 5, -18, 8 }, // stmt_tail → else stmts endif
+		},
+		{ // LVALUE
+			{ 45, -24 }, // lvalue → id optoffset
+		},
+		{ // OPTOFFSET
+			{ 0 }, // optoffset → ϵ
+			{ 28, -35, 29 }, // optoffset → [ numexpr ]
+		},
+		{ // OPTSTORE
+			{ 0 }, // optstore → ϵ
+			{ -23, 44 }, // optstore → lvalue :=
+		},
+		{ // NUMEXPRS
+			{ 0 }, // numexprs → ϵ
+			{ -27 }, // numexprs → neexprs
+		},
+		{ // NEEXPRS
+			{ -35, -28 }, // neexprs → numexpr neexprs_tail
+		},
+		{ // NEEXPRS_TAIL
+			{ 0 }, // neexprs_tail → ϵ
+			{ 23, -27 }, // neexprs_tail → , neexprs
+		},
+		{ // BOOLEXPR
+			{ -31, -30 }, // boolexpr → clause boolexpr_tail
+		},
+		{ // BOOLEXPR_TAIL
+			{ 0 }, // boolexpr_tail → ϵ
+			{ 43, -29 }, // boolexpr_tail → | boolexpr
+		},
+		{ // CLAUSE
+			{ -33, -32 }, // clause → pred clause_tail
+		},
+		{ // CLAUSE_TAIL
+			{ 0 }, // clause_tail → ϵ
+			{ 42, -31 }, // clause_tail → & clause
+		},
+		{ // PRED
+			{ -35, -34, -35 }, // pred → numexpr boolop numexpr
+			{ 26, -29, 27 }, // pred → ( boolexpr )
+		},
+		{ // BOOLOP
+			{ 36 }, // boolop → =
+			{ 37 }, // boolop → <>
+			{ 40 }, // boolop → <=
+			{ 41 }, // boolop → >=
+			{ 38 }, // boolop → <
+			{ 39 }, // boolop → >
+		},
+		{ // NUMEXPR
+			{ -38, -36 }, // numexpr → term numexpr_tail
+		},
+		{ // NUMEXPR_TAIL
+			{ 0 }, // numexpr_tail → ϵ
+			{ -37, -35 }, // numexpr_tail → linop numexpr
+		},
+		{ // LINOP
+			{ 31 }, // linop → +
+			{ 32 }, // linop → -
+		},
+		{ // TERM
+			{ -41, -39 }, // term → factor term_tail
+		},
+		{ // TERM_TAIL
+			{ 0 }, // term_tail → ϵ
+			{ -40, -38 }, // term_tail → nonlinop term
+		},
+		{ // NONLINOP
+			{ 33 }, // nonlinop → *
+			{ 34 }, // nonlinop → /
+			{ 35 }, // nonlinop → %
+		},
+		{ // FACTOR
+			{ -43 }, // factor → const
+			{ 45, -42 }, // factor → id factor_tail
+			{ 26, -35, 27 }, // factor → ( numexpr )
+		},
+		{ // FACTOR_TAIL
+			{ 0 }, // factor_tail → ϵ
+			{ 28, -35, 29 }, // factor_tail → [ numexpr ]
+		},
+		{ // CONST
+			{ 46 }, // const → intlit
+			{ 47 }, // const → floatlit
+		},
+	};
+	
+	static final boolean[] NULLABLE = {
+		false, // PROGRAM
+		true, // DECLSEG
+		true, // TYPEDECLS
+		false, // TYPEDECL
+		false, // TYPE
+		true, // VARDECLS
+		false, // VARDECL
+		false, // IDS
+		true, // IDS_TAIL
+		true, // OPTINIT
+		true, // FUNCDECLS
+		false, // FUNCDECL
+		true, // PARAMS
+		false, // NEPARAMS
+		true, // NEPARAMS_TAIL
+		false, // PARAM
+		true, // OPTRETTYPE
+		false, // STMTS
+		true, // STMTS_TAIL
+		false, // FULLSTMT
+		false, // STMT
+		false, // STMT_TAIL
+		false, // LVALUE
+		true, // OPTOFFSET
+		true, // OPTSTORE
+		true, // NUMEXPRS
+		false, // NEEXPRS
+		true, // NEEXPRS_TAIL
+		false, // BOOLEXPR
+		true, // BOOLEXPR_TAIL
+		false, // CLAUSE
+		true, // CLAUSE_TAIL
+		false, // PRED
+		false, // BOOLOP
+		false, // NUMEXPR
+		true, // NUMEXPR_TAIL
+		false, // LINOP
+		false, // TERM
+		true, // TERM_TAIL
+		false, // NONLINOP
+		false, // FACTOR
+		true, // FACTOR_TAIL
+		false, // CONST
+	};
+	
+	// [rule][token class] -> production index, or one of TigerParseTable.ERROR, CONFLICT and EMPTY
+	static final int[][] PREDICT = {
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // PROGRAM
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -3, -1, -1, -1, -1, -1, -1, 0, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // DECLSEG
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -3, -1, -3, -1, -1, -1, -1, -1, -1, 1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // TYPEDECLS
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // TYPEDECL
+		{ -1, 3, -1, -1, -1, -1, -1, -1, -1, 1, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 2, -1, -1 }, // TYPE
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -3, -1, -3, -1, -1, -1, -1, -1, -1, -1, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // VARDECLS
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // VARDECL
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1 }, // IDS
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // IDS_TAIL
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -1, -1, -1 }, // OPTINIT
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // FUNCDECLS
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // FUNCDECL
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -1, -1 }, // PARAMS
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1 }, // NEPARAMS
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // NEPARAMS_TAIL
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1 }, // PARAM
+		{ -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // OPTRETTYPE
+		{ -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, 0, -1, 0, -1, -1, -1, -1, 0, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1 }, // STMTS
+		{ -1, -1, -1, 1, -1, -3, -3, -3, -3, -1, 1, -1, 1, -1, -1, -1, -1, 1, -1, -1, -1, -1, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -1, -1 }, // STMTS_TAIL
+		{ -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, 0, -1, 0, -1, -1, -1, -1, 0, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1 }, // FULLSTMT
+		{ -1, -1, -1, 5, -1, -1, -1, -1, -1, -1, 2, -1, 0, -1, -1, -1, -1, 6, -1, -1, -1, -1, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -2, -1, -1 }, // STMT
+		{ -1, -1, -1, -1, -1, 1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // STMT_TAIL
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1 }, // LVALUE
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -3, -1, -1, -1 }, // OPTOFFSET
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -2, -1, -1 }, // OPTSTORE
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, 1, 1 }, // NUMEXPRS
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, 0, 0 }, // NEEXPRS
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // NEEXPRS_TAIL
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, 0, 0 }, // BOOLEXPR
+		{ -1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -1, -1, -1, -1 }, // BOOLEXPR_TAIL
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, 0, 0 }, // CLAUSE
+		{ -1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -3, -1, -1, -1, -1 }, // CLAUSE_TAIL
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, 0, 0 }, // PRED
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, 1, 4, 5, 2, 3, -1, -1, -1, -1, -1, -1 }, // BOOLOP
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, 0, 0 }, // NUMEXPR
+		{ -1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -3, -3, -1, -1, -1, -3, -1, -3, -1, -3, -1, -3, -1, 1, 1, -1, -1, -1, -3, -3, -3, -3, -3, -3, -3, -3, -1, -1, -1, -1 }, // NUMEXPR_TAIL
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // LINOP
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, 0, 0 }, // TERM
+		{ -1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -3, -3, -1, -1, -1, -3, -1, -3, -1, -3, -1, -3, -1, -3, -3, 1, 1, 1, -3, -3, -3, -3, -3, -3, -3, -3, -1, -1, -1, -1 }, // TERM_TAIL
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, 1, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 }, // NONLINOP
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, 0, 0 }, // FACTOR
+		{ -1, -1, -1, -1, -3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -3, -3, -1, -1, -1, -3, -1, -3, -1, -3, 1, -3, -1, -3, -3, -3, -3, -3, -3, -3, -3, -3, -3, -3, -3, -3, -1, -1, -1, -1 }, // FACTOR_TAIL
+		{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0, 1 }, // CONST
+	};
+}
@@ -0,0 +1,304 @@
+package edu.cs4240.tiger.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import edu.cs4240.tiger.util.Utils;
+
+/**
+ * Build step that turns ProductionRules.txt into TigerGrammarTables.java: the productions, the nullable
+ * rules and the LL(1) predict table computed from the FIRST and FOLLOW sets.
+ * <p>
+ * Usage: TigerGrammarTablesGenerator ProductionRules.txt TigerGrammarTables.java [--check]
+ * <p>
+ * With --check nothing is written, it fails when the existing tables do not match the grammar.
+ *
+ * @author Roi Atalla
+ */
+public class TigerGrammarTablesGenerator {
+	private static final int TOKEN_CLASSES = TigerTokenClass.values().length;
+	private static final int END_OF_INPUT = TigerTokenClass.EPSILON.ordinal();
+	
+	private final List<List<List<TigerSymbol>>> productions;
+	private final boolean[] nullable;
+	private final BitSet[] firstSets, followSets;
+	private final int[][] predict;
+	
+	public static void main(String[] args) throws IOException {
+		if(args.length < 2 || (args.length == 3 && !args[2].equals("--check")) || args.length > 3) {
+			System.out.println("Usage: java edu.cs4240.tiger.parser.TigerGrammarTablesGenerator ProductionRules.txt TigerGrammarTables.java [--check]");
+			System.exit(1);
+		}
+		
+		List<String> grammar = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+		String tables = new TigerGrammarTablesGenerator(grammar).generate();
+		
+		Path output = Paths.get(args[1]);
+		if(args.length == 3) {
+			if(!Files.exists(output) || !new String(Files.readAllBytes(output), StandardCharsets.UTF_8).equals(tables)) {
+				System.err.println(output + " is out of date with " + args[0] + ", run 'make grammar'.");
+				System.exit(1);
+			}
+		} else {
+			Files.write(output, tables.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+	
+	public TigerGrammarTablesGenerator(List<String> grammar) {
+		TigerProductionRule[] rules = TigerProductionRule.values();
+		
+		productions = new ArrayList<>();
+		for(int i = 0; i < rules.length; i++) {
+			productions.add(new ArrayList<>());
+		}
+		
+		for(String line : grammar) {
+			if(line.trim().isEmpty()) {
+				continue;
+			}
+			
+			TigerProductionRule rule = parseProduction(line);
+			productions.get(rule.ordinal()).add(parseSymbols(line, rule));
+		}
+		
+		for(TigerProductionRule rule : rules) {
+			if(productions.get(rule.ordinal()).isEmpty()) {
+				throw new RuntimeException("Empty production rule: " + rule);
+			}
+		}
+		
+		nullable = new boolean[rules.length];
+		firstSets = new BitSet[rules.length];
+		followSets = new BitSet[rules.length];
+		for(TigerProductionRule rule : rules) {
+			firstSets[rule.ordinal()] = new BitSet(TOKEN_CLASSES);
+			followSets[rule.ordinal()] = new BitSet(TOKEN_CLASSES);
+		}
+		
+		boolean changed = true;
+		while(changed) {
+			changed = false;
+			
+			for(TigerProductionRule rule : rules) {
+				for(List<TigerSymbol> production : productions.get(rule.ordinal())) {
+					BitSet first = firstSets[rule.ordinal()];
+					int before = first.cardinality();
+					
+					first.or(getFirst(production, 0));
+					changed |= first.cardinality() != before;
+					
+					if(!nullable[rule.ordinal()] && isNullable(production, 0)) {
+						nullable[rule.ordinal()] = true;
+						changed = true;
+					}
+				}
+			}
+		}
+		
+		followSets[TigerProductionRule.PROGRAM.ordinal()].set(END_OF_INPUT);
+		
+		changed = true;
+		while(changed) {
+			changed = false;
+			
+			for(TigerProductionRule rule : rules) {
+				for(List<TigerSymbol> production : productions.get(rule.ordinal())) {
+					for(int i = 0; i < production.size(); i++) {
+						if(!(production.get(i) instanceof TigerProductionRule)) {
+							continue;
+						}
+						
+						BitSet follow = followSets[((TigerProductionRule)production.get(i)).ordinal()];
+						int before = follow.cardinality();
+						
+						follow.or(getFirst(production, i + 1));
+						if(isNullable(production, i + 1)) {
+							follow.or(followSets[rule.ordinal()]);
+						}
+						
+						changed |= follow.cardinality() != before;
+					}
+				}
+			}
+		}
+		
+		predict = new int[rules.length][TOKEN_CLASSES];
+		for(TigerProductionRule rule : rules) {
+			int[] row = predict[rule.ordinal()];
+			for(int i = 0; i < row.length; i++) {
+				row[i] = TigerParseTable.ERROR;
+			}
+			
+			List<List<TigerSymbol>> ruleProductions = productions.get(rule.ordinal());
+			for(int p = 0; p < ruleProductions.size(); p++) {
+				BitSet first = getFirst(ruleProductions.get(p), 0);
+				for(int t = first.nextSetBit(0); t >= 0; t = first.nextSetBit(t + 1)) {
+					row[t] = row[t] == TigerParseTable.ERROR ? p : TigerParseTable.CONFLICT;
+				}
+			}
+			
+			// A rule only derives nothing when the lookahead cannot start it
+			if(nullable[rule.ordinal()]) {
+				BitSet follow = followSets[rule.ordinal()];
+				for(int t = follow.nextSetBit(0); t >= 0; t = follow.nextSetBit(t + 1)) {
+					row[t] = row[t] == TigerParseTable.ERROR ? TigerParseTable.EMPTY : TigerParseTable.CONFLICT;
+				}
+			}
+		}
+	}
+	
+	private static TigerProductionRule parseProduction(String line) {
+		int arrowIdx = line.indexOf('→');
+		if(arrowIdx == -1) {
+			throw new RuntimeException("No arrow found: " + line);
+		}
+		
+		String productionName = line.substring(0, arrowIdx).trim().toUpperCase();
+		try {
+			return TigerProductionRule.valueOf(productionName);
+		}
+		catch(Exception exc) {
+			throw new RuntimeException("Unrecognized production: " + productionName);
+		}
+	}
+	
+	private static List<TigerSymbol> parseSymbols(String line, TigerProductionRule productionRule) {
+		ArrayList<TigerSymbol> production = new ArrayList<>();
+		
+		String[] symbols = line.substring(line.indexOf('→') + 1).trim().split(" ");
+		for(String symbol : symbols) {
+			symbol = symbol.trim();
+			if(symbol.isEmpty()) {
+				continue;
+			}
+			
+			TigerTokenClass specialChar = Utils.specialTokenStringToClasses.get(symbol);
+			if(specialChar != null) {
+				production.add(specialChar);
+				continue;
+			}
+			
+			symbol = symbol.toUpperCase();
+			
+			try {
+				production.add(TigerProductionRule.valueOf(symbol));
+			}
+			catch(Exception exc) {
+				try {
+					production.add(TigerTokenClass.valueOf(symbol));
+				}
+				catch(Exception exc2) {
+					throw new RuntimeException("Unrecognized symbol '" + symbol + "' for rule " + productionRule);
+				}
+			}
+		}
+		
+		return production;
+	}
+	
+	private BitSet getFirst(List<TigerSymbol> production, int from) {
+		BitSet first = new BitSet(TOKEN_CLASSES);
+		for(int i = from; i < production.size(); i++) {
+			TigerSymbol symbol = production.get(i);
+			if(symbol == TigerTokenClass.EPSILON) {
+				continue;
+			}
+			
+			if(symbol instanceof TigerTokenClass) {
+				first.set(((TigerTokenClass)symbol).ordinal());
+				break;
+			}
+			
+			TigerProductionRule rule = (TigerProductionRule)symbol;
+			first.or(firstSets[rule.ordinal()]);
+			if(!nullable[rule.ordinal()]) {
+				break;
+			}
+		}
+		return first;
+	}
+	
+	private boolean isNullable(List<TigerSymbol> production, int from) {
+		for(int i = from; i < production.size(); i++) {
+			TigerSymbol symbol = production.get(i);
+			if(symbol instanceof TigerProductionRule ? !nullable[((TigerProductionRule)symbol).ordinal()] : symbol != TigerTokenClass.EPSILON) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * The hash only covers the productions themselves, so reformatting the grammar file does not change it.
+	 */
+	private long getGrammarHash() {
+		CRC32 crc = new CRC32();
+		for(TigerProductionRule rule : TigerProductionRule.values()) {
+			for(List<TigerSymbol> production : productions.get(rule.ordinal())) {
+				crc.update((TigerProductionRule.printRule(rule, production) + "\n").getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		return crc.getValue();
+	}
+	
+	public String generate() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("package edu.cs4240.tiger.parser;\n\n");
+		builder.append("/**\n");
+		builder.append(" * Generated by TigerGrammarTablesGenerator from ProductionRules.txt, do not edit.\n");
+		builder.append(" * Run 'make grammar' after changing the grammar or the TigerProductionRule and TigerTokenClass enums.\n");
+		builder.append(" *\n");
+		builder.append(" * @author Roi Atalla\n");
+		builder.append(" */\n");
+		builder.append("final class TigerGrammarTables {\n");
+		builder.append("\tstatic final long GRAMMAR_HASH = 0x").append(Long.toHexString(getGrammarHash())).append("L;\n");
+		builder.append("\t\n");
+		
+		builder.append("\t// [rule][production][symbol]: token classes are stored as their ordinal, production rules as ~ordinal\n");
+		builder.append("\tstatic final int[][][] PRODUCTIONS = {\n");
+		for(TigerProductionRule rule : TigerProductionRule.values()) {
+			builder.append("\t\t{ // ").append(rule).append('\n');
+			for(List<TigerSymbol> production : productions.get(rule.ordinal())) {
+				builder.append("\t\t\t{");
+				for(int i = 0; i < production.size(); i++) {
+					TigerSymbol symbol = production.get(i);
+					builder.append(i == 0 ? " " : ", ");
+					builder.append(symbol instanceof TigerProductionRule ? ~((TigerProductionRule)symbol).ordinal() : ((TigerTokenClass)symbol).ordinal());
+				}
+				builder.append(" }, // ").append(TigerProductionRule.printRule(rule, production)).append('\n');
+			}
+			builder.append("\t\t},\n");
+		}
+		builder.append("\t};\n");
+		builder.append("\t\n");
+		
+		builder.append("\tstatic final boolean[] NULLABLE = {\n");
+		for(TigerProductionRule rule : TigerProductionRule.values()) {
+			builder.append("\t\t").append(nullable[rule.ordinal()]).append(", // ").append(rule).append('\n');
+		}
+		builder.append("\t};\n");
+		builder.append("\t\n");
+		
+		builder.append("\t// [rule][token class] -> production index, or one of TigerParseTable.ERROR, CONFLICT and EMPTY\n");
+		builder.append("\tstatic final int[][] PREDICT = {\n");
+		for(TigerProductionRule rule : TigerProductionRule.values()) {
+			builder.append("\t\t{");
+			int[] row = predict[rule.ordinal()];
+			for(int t = 0; t < row.length; t++) {
+				builder.append(t == 0 ? " " : ", ").append(row[t]);
+			}
+			builder.append(" }, // ").append(rule).append('\n');
+		}
+		builder.append("\t};\n");
+		builder.append("}\n");
+		
+		return builder.toString();
+	}
+}
@@ -1,5 +1,7 @@
 package edu.cs4240.tiger.parser;
 
+import edu.cs4240.tiger.parser.node.LeafNode;
+
 /**
  * @author Roi Atalla
  */
@@ -7,6 +9,10 @@ public class TigerParseException extends Exception {
 	private String line;
 	private int lineNum, indexNum;
 	
+	// the line is only pulled out of the token buffer when the error is printed
+	private TokenBuffer tokens;
+	private int tokenIndex;
+	
 	public TigerParseException(String message) {
 		this(message, null, -1, -1);
 	}
@@ -15,6 +21,17 @@ public class TigerParseException extends Exception {
 		this(message, token.getLine(), token.getLineNumber(), token.getIndexNumber());
 	}
 	
+	public TigerParseException(String message, TokenBuffer tokens, int tokenIndex) {
+		this(message, null, tokens.getLineNumber(tokenIndex), tokens.getIndexNumber(tokenIndex));
+		
+		this.tokens = tokens;
+		this.tokenIndex = tokenIndex;
+	}
+	
+	public TigerParseException(String message, LeafNode leaf) {
+		this(message, leaf.getTokenBuffer(), leaf.getTokenIndex());
+	}
+	
 	public TigerParseException(String message, String line, int lineNum, int indexNum) {
 		super(message);
 		
@@ -24,6 +41,10 @@ public class TigerParseException extends Exception {
 	}
 	
 	public String getLine() {
+		if(line == null && tokens != null) {
+			line = tokens.getLine(tokenIndex);
+		}
+		
 		return line;
 	}
 	
@@ -37,6 +58,7 @@ public class TigerParseException extends Exception {
 	
 	@Override
 	public String toString() {
+		String line = getLine();
 		if(line == null)
 			return getMessage();
 		
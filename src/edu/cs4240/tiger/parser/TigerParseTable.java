@@ -0,0 +1,50 @@
+package edu.cs4240.tiger.parser;
+
+/**
+ * LL(1) predict table, computed from the FIRST and FOLLOW sets of the production rules at build time
+ * by TigerGrammarTablesGenerator.
+ * <p>
+ * The end of the input is represented by the EPSILON column.
+ *
+ * @author Roi Atalla
+ */
+public class TigerParseTable {
+	public static final int ERROR = -1;
+	public static final int CONFLICT = -2;
+	public static final int EMPTY = -3;
+	
+	private static final int END_OF_INPUT = TigerTokenClass.EPSILON.ordinal();
+	
+	/**
+	 * @param tokenClass the lookahead token class, or null at the end of the input
+	 * @return the index of the production to expand, EMPTY if the rule derives nothing, ERROR,
+	 * or CONFLICT when one token of lookahead is not enough
+	 */
+	public static int predict(TigerProductionRule rule, TigerTokenClass tokenClass) {
+		return TigerGrammarTables.PREDICT[rule.ordinal()][tokenClass == null ? END_OF_INPUT : tokenClass.ordinal()];
+	}
+	
+	public static boolean isNullable(TigerProductionRule rule) {
+		return TigerGrammarTables.NULLABLE[rule.ordinal()];
+	}
+	
+	/**
+	 * @return the index of the production of this rule that starts with the given symbol
+	 */
+	public static int getProduction(TigerProductionRule rule, TigerSymbol firstSymbol) {
+		for(int p = 0; p < rule.getProductions().size(); p++) {
+			if(rule.getProductions().get(p).get(0) == firstSymbol) {
+				return p;
+			}
+		}
+		
+		throw new IllegalArgumentException("No production of " + rule + " starts with " + firstSymbol);
+	}
+	
+	/**
+	 * @return a hash of the productions the tables were generated from
+	 */
+	public static long getGrammarHash() {
+		return TigerGrammarTables.GRAMMAR_HASH;
+	}
+}
@@ -1,302 +1,429 @@
 package edu.cs4240.tiger.parser;
 
-import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Queue;
-import java.util.stream.Collectors;
 
-import edu.cs4240.tiger.parser.node.LeafNode;
-import edu.cs4240.tiger.parser.node.Node;
+import edu.cs4240.tiger.parser.node.NodeArena;
 import edu.cs4240.tiger.parser.node.RuleNode;
-import edu.cs4240.tiger.util.Pair;
 
 /**
  * @author Roi Atalla
  */
 public class TigerParser {
 	private RuleNode ast;
-	private Queue<TigerToken> tokenQueue;
+	private NodeArena arena;
+	private TigerTokenStream tokens;
 	
-	public TigerParser(TigerScanner scanner) throws IOException, TigerParseException {
-		tokenQueue = new LinkedList<>();
-		
-		while(true) {
-			TigerToken token = scanner.nextToken();
-			if(token == null) {
-				break;
-			}
-			tokenQueue.offer(token);
-		}
+	// Symbols still to be matched, each paired with the node its subtree gets added to
+	private TigerSymbol[] symbolStack;
+	private int[] parentStack;
+	private int stackSize;
+	
+	// "( boolexpr )" preds whose ) is not matched yet
+	private int openGroups;
+	
+	// preds that are only a numexpr, alone in parentheses still to be settled, see settleParenPred
+	private int[] pendingPreds, pendingCloses, pendingErrors;
+	private int pendingSize;
+	
+	public TigerParser(TigerScanner scanner) {
+		tokens = new TigerTokenStream(scanner);
+	}
+	
+	public TigerParser(TokenBuffer tokenBuffer) {
+		tokens = new TigerTokenStream(tokenBuffer);
 	}
 	
-	public TigerParser(Queue<TigerToken> tokenQueue) {
-		this.tokenQueue = tokenQueue;
+	public TokenBuffer getTokenBuffer() {
+		return tokens.getTokenBuffer();
 	}
 	
 	public List<TigerToken> getTokens() {
-		return Collections.unmodifiableList(new LinkedList<>(tokenQueue));
+		TokenBuffer buffer = tokens.getTokenBuffer();
+		
+		List<TigerToken> tokenList = new ArrayList<>(buffer.size());
+		for(int i = 0; i < buffer.size(); i++) {
+			tokenList.add(buffer.getToken(i));
+		}
+		
+		return Collections.unmodifiableList(tokenList);
 	}
 	
+	/**
+	 * @return the parse tree as RuleNodes and LeafNodes, built from the arena
+	 */
 	public RuleNode parse() throws TigerParseException {
 		if(ast == null) {
-			ArrayDeque<TigerSymbol> symbolStack = new ArrayDeque<>();
-			symbolStack.push(TigerProductionRule.PROGRAM);
-			
-			ast = (RuleNode)parse(new LinkedList<>(tokenQueue), symbolStack);
-			cleanupTails(ast);
-			cleanupRecursiveRules(ast);
+			ast = parseArena().toRuleNode();
 		}
 		
 		return ast;
 	}
 	
-	private void cleanupTails(Node node) throws TigerParseException {
-		if(node instanceof RuleNode) {
-			RuleNode ruleNode = (RuleNode)node;
+	/**
+	 * @return the parse tree in a NodeArena, no object is allocated per node
+	 */
+	public NodeArena parseArena() throws TigerParseException {
+		if(arena == null) {
+			arena = parseProgram();
+			tokens.skipToEnd();
+		}
+		
+		return arena;
+	}
+	
+	private NodeArena parseProgram() throws TigerParseException {
+		TokenBuffer buffer = tokens.getTokenBuffer();
+		NodeArena arena = new NodeArena(buffer);
+		
+		symbolStack = new TigerSymbol[64];
+		parentStack = new int[64];
+		stackSize = 0;
+		
+		openGroups = 0;
+		pendingPreds = new int[16];
+		pendingCloses = new int[16];
+		pendingErrors = new int[16];
+		pendingSize = 0;
+		
+		int root = arena.addRule(TigerProductionRule.PROGRAM);
+		push(TigerProductionRule.PROGRAM, root);
+		
+		while(stackSize > 0) {
+			stackSize--;
+			TigerSymbol symbol = symbolStack[stackSize];
+			int parent = parentStack[stackSize];
+			symbolStack[stackSize] = null;
 			
-			for(int i = 0; i < ruleNode.getChildren().size(); i++) {
-				Node child = ruleNode.getChildren().get(i);
+			int token = tokens.peek();
+			TigerTokenClass tokenClass = token == TokenBuffer.NONE ? null : buffer.getTokenClass(token);
+			
+			if(symbol instanceof TigerProductionRule) {
+				TigerProductionRule rule = (TigerProductionRule)symbol;
 				
-				if(child instanceof RuleNode) {
-					RuleNode childRule = (RuleNode)child;
-					cleanupTails(childRule);
+				int production = TigerParseTable.predict(rule, tokenClass);
+				if(production == TigerParseTable.CONFLICT) {
+					production = resolveConflict(rule);
+				} else if(production == TigerParseTable.ERROR) {
+					if(rule == TigerProductionRule.BOOLOP && tokenClass == TigerTokenClass.RPAREN && openGroups > 0) {
+						// a numexpr at the end of "( boolexpr )" may be "( numexpr )", drop the rest of its pred until that is settled
+						stackSize--;
+						symbolStack[stackSize] = null;
+						pushPending(parent, token, token);
+						continue;
+					}
 					
-					if(childRule.getRule().toString().endsWith("_TAIL")) {
-						ruleNode.getChildren().remove(i);
-						
-						for(int j = 0; j < childRule.getChildren().size(); j++) {
-							ruleNode.getChildren().add(i + j, childRule.getChildren().get(j));
-						}
-						
-						i += childRule.getChildren().size() - 1;
+					// Let the error surface on the next terminal instead
+					if(TigerParseTable.isNullable(rule)) {
+						production = TigerParseTable.EMPTY;
+					} else if(tokenClass == null) {
+						throw new TigerParseException("Unexpected end-of-file.");
+					} else {
+						throw new TigerParseException("Unexpected token '" + buffer.getTokenString(token) + "'", buffer, token);
 					}
 				}
+				
+				List<TigerSymbol> symbols = production == TigerParseTable.EMPTY ? Collections.emptyList() : rule.getProductions().get(production);
+				TigerProductionRule parentRule = arena.getRule(parent);
+				
+				int node;
+				if(listRules.contains(rule) && parentRule == rule) {
+					// the rest of a list is spliced into the list node, so lists stay flat
+					node = parent;
+				} else if(!tailRules[rule.ordinal()]) {
+					node = arena.addRule(rule);
+					arena.addChild(parent, node);
+				} else if(!symbols.isEmpty() && leftAssociativeRules.contains(parentRule)) {
+					// "op rule" continues a chain: everything so far becomes the left operand,
+					// and the right operand is parsed straight into the same node
+					arena.wrapChildren(parent);
+					
+					push(parentRule.getProductions().get(0), parent);
+					push(symbols.subList(0, symbols.size() - 1), parent);
+					continue;
+				} else {
+					// _TAIL rules are spliced into the node they continue
+					node = parent;
+				}
+				
+				push(symbols, node);
+			} else if(tokenClass == null) {
+				throw new TigerParseException("Unexpected end-of-file. Expected token " + symbol);
+			} else if(symbol == tokenClass) {
+				arena.addChild(parent, arena.addLeaf(tokens.next()));
+				if(tokenClass == TigerTokenClass.RPAREN && arena.getRule(parent) == TigerProductionRule.PRED) {
+					settleParenPred(arena, parent, token);
+				}
+			} else {
+				throw new TigerParseException("Unexpected token '" + buffer.getTokenString(token) + "'", buffer, token);
 			}
 		}
+		
+		symbolStack = null;
+		parentStack = null;
+		pendingPreds = pendingCloses = pendingErrors = null;
+		
+		arena.setRoot(arena.getFirstChild(root));
+		return arena;
 	}
 	
-	private void cleanupRecursiveRules(Node node) throws TigerParseException {
-		RuleNode ruleNode = (RuleNode)node;
-		for(Node child : ruleNode.getChildren()) {
-			if(child instanceof RuleNode) {
-				RuleNode childRule = (RuleNode)child;
-				
-				cleanupRecursiveRule(ruleNode, childRule, TigerProductionRule.NUMEXPR, TigerProductionRule.TERM);
-				cleanupRecursiveRule(ruleNode, childRule, TigerProductionRule.TERM, TigerProductionRule.FACTOR);
-				cleanupRecursiveRule(ruleNode, childRule, TigerProductionRule.BOOLEXPR, TigerProductionRule.CLAUSE);
-				cleanupRecursiveRule(ruleNode, childRule, TigerProductionRule.CLAUSE, TigerProductionRule.PRED);
-				
-				cleanupRecursiveRules(child);
+	private void push(List<TigerSymbol> symbols, int parent) {
+		for(int i = symbols.size() - 1; i >= 0; i--) {
+			if(symbols.get(i) != TigerTokenClass.EPSILON) {
+				push(symbols.get(i), parent);
 			}
 		}
 	}
 	
-	private void cleanupRecursiveRule(RuleNode ruleNode, RuleNode childRule, TigerProductionRule parent, TigerProductionRule child) throws TigerParseException {
-		if(ruleNode.getRule() != parent && childRule.getRule() == parent) {
-			while(true) {
-				if(childRule.getChildren().size() == 3) {
-					RuleNode rightExpr = (RuleNode)childRule.getChildren().remove(2);
-					Node op = childRule.getChildren().remove(1);
-					RuleNode leftExpr = (RuleNode)childRule.getChildren().remove(0);
-					
-					if(leftExpr.getRule() == child) {
-						leftExpr = new RuleNode(parent, leftExpr);
-					}
-					
-					if(rightExpr.getRule() == child) {
-						childRule.getChildren().add(0, leftExpr);
-						childRule.getChildren().add(1, op);
-						childRule.getChildren().add(2, rightExpr);
-						break;
-					}
-					
-					if(rightExpr.getChildren().size() == 1) {
-						childRule.getChildren().add(0, leftExpr);
-						childRule.getChildren().add(1, op);
-						childRule.getChildren().add(2, rightExpr.getChildren().get(0));
-						break;
-					} else {
-						if(rightExpr.getChildren().size() != 3) {
-							throw new TigerParseException("Something bad happened!");
-						}
-						
-						childRule.getChildren().add(0, new RuleNode(parent, leftExpr, op, rightExpr.getChildren().get(0)));
-						childRule.getChildren().add(1, rightExpr.getChildren().get(1));
-						childRule.getChildren().add(2, rightExpr.getChildren().get(2));
-					}
-				} else {
-					break;
-				}
-			}
+	private void push(TigerSymbol symbol, int parent) {
+		if(stackSize == symbolStack.length) {
+			symbolStack = Arrays.copyOf(symbolStack, stackSize * 2);
+			parentStack = Arrays.copyOf(parentStack, stackSize * 2);
+		}
+		
+		symbolStack[stackSize] = symbol;
+		parentStack[stackSize] = parent;
+		stackSize++;
+	}
+	
+	/**
+	 * Picks a production where one token of lookahead is not enough.
+	 */
+	private int resolveConflict(TigerProductionRule rule) throws TigerParseException {
+		switch(rule) {
+			case STMT:
+				return isCallStatement() ? STMT_CALL : STMT_ASSIGN;
+			case OPTSTORE:
+				// only reached from STMT_CALL, where "id (" means there is nothing to store into
+				return peekClass(1) == TigerTokenClass.LPAREN ? TigerParseTable.EMPTY : OPTSTORE_STORE;
+			case PRED:
+				// "( numexpr )" is settled once the ) is matched
+				openGroups++;
+				return PRED_PAREN;
+			default:
+				throw new IllegalStateException("Unresolved LL(1) conflict in rule " + rule);
 		}
 	}
 	
-	private Node parse(Queue<TigerToken> tokenQueue, Deque<TigerSymbol> symbolStack) throws TigerParseException {
-		TigerToken token = tokenQueue.peek();
-		TigerSymbol symbol = symbolStack.pop();
+	/**
+	 * A statement starting with an id is a call if it is "id (" or "lvalue := id (".
+	 */
+	private boolean isCallStatement() throws TigerParseException {
+		if(peekClass(1) == TigerTokenClass.LPAREN) {
+			return true;
+		}
 		
-		if(symbol instanceof TigerProductionRule) {
-			TigerProductionRule rule = (TigerProductionRule)symbol;
-			
-			Pair<TigerTokenClass, List<TigerSymbol>> epsilon = null;
-			
-			TigerParseException innerParseException = null;
-			
-			for(Pair<TigerTokenClass, List<TigerSymbol>> pair : firsts.get(rule)) {
-				if(epsilon == null && pair.getKey() == TigerTokenClass.EPSILON) {
-					epsilon = pair;
-				} else if(token != null && pair.getKey() == token.getTokenClass()) {
-					Queue<TigerToken> newTokenQueue = new LinkedList<>(tokenQueue);
-					
-					Deque<TigerSymbol> newSymbolStack = new ArrayDeque<>();
-					for(int i = pair.getValue().size() - 1; i >= 0; i--) {
-						newSymbolStack.push(pair.getValue().get(i));
-					}
-					
-					RuleNode node = new RuleNode(rule);
-					
-					try {
-						while(!newSymbolStack.isEmpty()) {
-							node.getChildren().add(parse(newTokenQueue, newSymbolStack));
-						}
-					}
-					catch(TigerParseException exc) {
-						innerParseException = exc;
-						continue;
-					}
-					
-					tokenQueue.clear();
-					tokenQueue.addAll(newTokenQueue);
-					
-					return node;
-				}
+		int k = 1;
+		if(peekClass(k) == TigerTokenClass.LBRACKET) {
+			k = skipBalanced(k, TigerTokenClass.LBRACKET, TigerTokenClass.RBRACKET);
+		}
+		
+		return peekClass(k) == TigerTokenClass.ASSIGN && peekClass(k + 1) == TigerTokenClass.ID && peekClass(k + 2) == TigerTokenClass.LPAREN;
+	}
+	
+	/**
+	 * A pred starting with ( is "( boolexpr )", or a numexpr if the ) is followed by an operator that continues one.
+	 * It is parsed as "( boolexpr )", where the last pred inside can be a numexpr alone, and settled by the token
+	 * after its ) here, so the parse never looks further ahead than one token.
+	 * <p>
+	 * A pred that is only a numexpr, or that is only parentheses around one, followed by ) is pending until the
+	 * parentheses around it are settled. If it is not alone in them, it was not a numexpr after all.
+	 *
+	 * @param rparen the token of the ) of pred
+	 */
+	private void settleParenPred(NodeArena arena, int pred, int rparen) throws TigerParseException {
+		openGroups--;
+		
+		// a pending pred is always followed by the ) of the parentheses it is in
+		int errorToken = TokenBuffer.NONE;
+		if(pendingSize > 0 && pendingCloses[pendingSize - 1] == rparen) {
+			pendingSize--;
+			if(pendingPreds[pendingSize] != getOnlyPred(arena, pred)) {
+				throw unexpectedToken(pendingErrors[pendingSize]);
 			}
-			
-			if(epsilon != null) {
-				if(noErrorRules.contains(rule) && innerParseException != null) {
-					throw innerParseException;
-				}
-				
-				return new RuleNode(rule);
-			} else if(innerParseException != null) {
-				throw innerParseException;
-			} else if(token == null) {
-				throw new TigerParseException("Unexpected end-of-file.");
-			} else {
-				throw new TigerParseException("Unexpected token '" + token.getTokenString() + "'", token);
+			errorToken = pendingErrors[pendingSize];
+		}
+		
+		boolean isNumexpr = errorToken != TokenBuffer.NONE;
+		TigerTokenClass next = peekClass(0);
+		if(next == TigerTokenClass.RPAREN && openGroups > 0) {
+			if(isNumexpr) {
+				pushPending(pred, tokens.peek(), errorToken);
 			}
-		} else if(token == null) {
-			throw new TigerParseException("Unexpected end-of-file. Expected token " + symbol);
-		} else if(symbol == token.getTokenClass()) {
-			return new LeafNode(tokenQueue.remove());
-		} else {
-			throw new TigerParseException("Unexpected token '" + token.getTokenString() + "'", token);
+		} else if(continuesNumexpr(next)) {
+			if(!isNumexpr) {
+				throw unexpectedToken(findBoolOperator(arena, pred));
+			}
+			toNumexpr(arena, pred);
+		} else if(isNumexpr) {
+			// where a boolop was expected after the numexpr
+			throw unexpectedToken(errorToken);
 		}
 	}
 	
-	private static final List<TigerProductionRule> noErrorRules;
-	private static final HashMap<TigerProductionRule, List<Pair<TigerTokenClass, List<TigerSymbol>>>> firsts;
-	
-	static {
-		noErrorRules = new ArrayList<>();
-		noErrorRules.add(TigerProductionRule.DECLSEG);
-		noErrorRules.add(TigerProductionRule.TYPEDECLS);
-		noErrorRules.add(TigerProductionRule.VARDECLS);
-		noErrorRules.add(TigerProductionRule.FUNCDECLS);
-		noErrorRules.add(TigerProductionRule.OPTINIT);
-		noErrorRules.add(TigerProductionRule.PARAMS);
+	private static boolean continuesNumexpr(TigerTokenClass tokenClass) {
+		if(tokenClass == null) {
+			return false;
+		}
 		
-		firsts = new HashMap<>();
+		switch(tokenClass) {
+			case EQUAL:
+			case NOTEQUAL:
+			case LT:
+			case GT:
+			case LEQUAL:
+			case GEQUAL:
+			case PLUS:
+			case MINUS:
+			case STAR:
+			case FWSLASH:
+			case PERCENT:
+				return true;
+			default:
+				return false;
+		}
+	}
+	
+	/**
+	 * @param errorToken the token a boolop was expected at, if the pred turns out not to be a numexpr
+	 */
+	private void pushPending(int pred, int close, int errorToken) {
+		if(pendingSize == pendingPreds.length) {
+			pendingPreds = Arrays.copyOf(pendingPreds, pendingSize * 2);
+			pendingCloses = Arrays.copyOf(pendingCloses, pendingSize * 2);
+			pendingErrors = Arrays.copyOf(pendingErrors, pendingSize * 2);
+		}
 		
-		// Generate the firsts table for each rule
-		for(TigerProductionRule rule : TigerProductionRule.values()) {
-			if(rule.toString().endsWith("_TAIL"))
-				noErrorRules.add(rule);
-			
-			firsts.put(rule, getFirsts(rule));
+		pendingPreds[pendingSize] = pred;
+		pendingCloses[pendingSize] = close;
+		pendingErrors[pendingSize] = errorToken;
+		pendingSize++;
+	}
+	
+	/**
+	 * @return the pred inside "( boolexpr )" if there is no other, or NONE
+	 */
+	private static int getOnlyPred(NodeArena arena, int pred) {
+		int clause = arena.getFirstChild(arena.getNextSibling(arena.getFirstChild(pred)));
+		if(arena.getNextSibling(clause) != NodeArena.NONE) {
+			return NodeArena.NONE;
 		}
 		
-		// Remove all duplicate firsts for each symbol for each rule
-		for(TigerProductionRule rule : TigerProductionRule.values()) {
-			List<Pair<TigerTokenClass, List<TigerSymbol>>> f = firsts.get(rule);
-			for(Iterator<Pair<TigerTokenClass, List<TigerSymbol>>> it = f.iterator(); it.hasNext(); ) {
-				Pair<TigerTokenClass, List<TigerSymbol>> pair = it.next();
-				
-				for(Pair<TigerTokenClass, List<TigerSymbol>> innerPair : f) {
-					if(pair == innerPair) {
-						break;
-					}
-					
-					if(pair.getKey() == innerPair.getKey() && pair.getValue().equals(innerPair.getValue())) {
-						it.remove();
-						break;
-					}
-				}
+		int only = arena.getFirstChild(clause);
+		return arena.getNextSibling(only) == NodeArena.NONE ? only : NodeArena.NONE;
+	}
+	
+	/**
+	 * @return the first token inside "( boolexpr )" that cannot be in a numexpr, where parsing it as one would have failed
+	 */
+	private int findBoolOperator(NodeArena arena, int pred) {
+		TokenBuffer buffer = tokens.getTokenBuffer();
+		int token = arena.getTokenIndex(arena.getFirstChild(pred)) + 1;
+		for(; ; token++) {
+			switch(buffer.getTokenClass(token)) {
+				case EQUAL:
+				case NOTEQUAL:
+				case LT:
+				case GT:
+				case LEQUAL:
+				case GEQUAL:
+				case AMP:
+				case PIPE:
+					return token;
+				default:
+					break;
 			}
 		}
 	}
 	
-	private static List<Pair<TigerTokenClass, List<TigerSymbol>>> getFirsts(TigerProductionRule currentRule) {
-		List<Pair<TigerTokenClass, List<TigerSymbol>>> currentFirsts = new ArrayList<>();
-		
-		boolean foundEps = false;
+	/**
+	 * Rewrites a settled "( boolexpr )" as "numexpr boolop numexpr", whose first numexpr starts with the
+	 * parentheses as a factor. Parentheses inside that only hold more parentheses become factors too, down
+	 * to the numexpr. The rest of the pred is parsed next.
+	 */
+	private void toNumexpr(NodeArena arena, int pred) {
+		int[] groups = new int[8];
+		int count = 0;
 		
-		for(List<TigerSymbol> production : currentRule.productions) {
-			for(TigerSymbol symbol : production) {
-				if(symbol instanceof TigerTokenClass) {
-					if(symbol != TigerTokenClass.EPSILON) {
-						foundEps = false;
-					}
-					
-					currentFirsts.add(new Pair<>((TigerTokenClass)symbol, production));
-					break;
-				} else {
-					TigerProductionRule subRule = (TigerProductionRule)symbol;
-					
-					List<Pair<TigerTokenClass, List<TigerSymbol>>> subFirsts;
-					
-					if(firsts.containsKey(subRule)) {
-						subFirsts = firsts.get(subRule);
-						subFirsts = subFirsts.stream().map(Pair::new).collect(Collectors.toList());
-					}
-					else {
-						subFirsts = getFirsts(subRule);
-						firsts.put(subRule, subFirsts);
-					}
-					
-					foundEps = false;
-					
-					for(Iterator<Pair<TigerTokenClass, List<TigerSymbol>>> it = subFirsts.iterator(); it.hasNext(); ) {
-						Pair<TigerTokenClass, List<TigerSymbol>> pair = it.next();
-						
-						if(pair.getKey() == TigerTokenClass.EPSILON) {
-							foundEps = true;
-							it.remove();
-						} else {
-							pair.setValue(production);
-						}
-					}
-					
-					currentFirsts.addAll(subFirsts);
-					
-					if(!foundEps) {
-						break;
-					}
-				}
+		int node = pred;
+		while(arena.isLeaf(arena.getFirstChild(node))) {
+			if(count == groups.length) {
+				groups = Arrays.copyOf(groups, count * 2);
 			}
+			groups[count++] = node;
+			node = getOnlyPred(arena, node);
+		}
+		
+		int numexpr = arena.getFirstChild(node);
+		int term = NodeArena.NONE;
+		for(int i = count - 1; i >= 0; i--) {
+			int lparen = arena.getFirstChild(groups[i]);
+			int rparen = arena.getChild(groups[i], 2);
 			
-			if(foundEps) {
-				currentFirsts.add(new Pair<>(TigerTokenClass.EPSILON, new ArrayList<>()));
-			}
+			int factor = arena.addRule(TigerProductionRule.FACTOR);
+			arena.addChild(factor, lparen);
+			arena.addChild(factor, numexpr);
+			arena.addChild(factor, rparen);
+			
+			term = arena.addRule(TigerProductionRule.TERM);
+			arena.addChild(term, factor);
+			numexpr = arena.addRule(TigerProductionRule.NUMEXPR);
+			arena.addChild(numexpr, term);
 		}
 		
-		return currentFirsts;
+		arena.clearChildren(pred);
+		arena.addChild(pred, numexpr);
+		
+		push(TigerProductionRule.NUMEXPR, pred);
+		push(TigerProductionRule.BOOLOP, pred);
+		push(TigerProductionRule.NUMEXPR_TAIL, numexpr);
+		push(TigerProductionRule.TERM_TAIL, term);
+	}
+	
+	private TigerParseException unexpectedToken(int token) {
+		TokenBuffer buffer = tokens.getTokenBuffer();
+		return new TigerParseException("Unexpected token '" + buffer.getTokenString(token) + "'", buffer, token);
+	}
+	
+	/**
+	 * @return the lookahead offset right after the close token matching the open token at offset k
+	 */
+	private int skipBalanced(int k, TigerTokenClass open, TigerTokenClass close) throws TigerParseException {
+		int depth = 0;
+		for(TigerTokenClass tokenClass; (tokenClass = peekClass(k)) != null; k++) {
+			if(tokenClass == open) {
+				depth++;
+			} else if(tokenClass == close && --depth == 0) {
+				return k + 1;
+			}
+		}
+		return k;
+	}
+	
+	private TigerTokenClass peekClass(int k) throws TigerParseException {
+		int token = tokens.peek(k);
+		return token == TokenBuffer.NONE ? null : tokens.getTokenBuffer().getTokenClass(token);
+	}
+	
+	private static final boolean[] tailRules;
+	private static final EnumSet<TigerProductionRule> leftAssociativeRules = EnumSet.of(TigerProductionRule.NUMEXPR, TigerProductionRule.TERM,
+	                                                                                   TigerProductionRule.BOOLEXPR, TigerProductionRule.CLAUSE);
+	private static final EnumSet<TigerProductionRule> listRules = EnumSet.of(TigerProductionRule.TYPEDECLS, TigerProductionRule.VARDECLS, TigerProductionRule.IDS,
+	                                                                         TigerProductionRule.FUNCDECLS, TigerProductionRule.NEPARAMS, TigerProductionRule.STMTS,
+	                                                                         TigerProductionRule.NEEXPRS);
+	
+	static {
+		tailRules = new boolean[TigerProductionRule.values().length];
+		for(TigerProductionRule rule : TigerProductionRule.values()) {
+			tailRules[rule.ordinal()] = rule.toString().endsWith("_TAIL");
+		}
 	}
+	
+	private static final int STMT_CALL = TigerParseTable.getProduction(TigerProductionRule.STMT, TigerProductionRule.OPTSTORE);
+	private static final int STMT_ASSIGN = TigerParseTable.getProduction(TigerProductionRule.STMT, TigerProductionRule.LVALUE);
+	private static final int OPTSTORE_STORE = TigerParseTable.getProduction(TigerProductionRule.OPTSTORE, TigerProductionRule.LVALUE);
+	private static final int PRED_PAREN = TigerParseTable.getProduction(TigerProductionRule.PRED, TigerTokenClass.LPAREN);
 }
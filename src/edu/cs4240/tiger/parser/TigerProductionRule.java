@@ -1,14 +1,13 @@
 package edu.cs4240.tiger.parser;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 
 import edu.cs4240.tiger.util.Utils;
 
 /**
+ * The productions come from TigerGrammarTables, generated from ProductionRules.txt by 'make grammar'.
+ *
  * @author Roi Atalla
  */
 public enum TigerProductionRule implements TigerSymbol {
@@ -56,7 +55,9 @@ public enum TigerProductionRule implements TigerSymbol {
 	FACTOR_TAIL,
 	CONST;
 	
-	public final List<List<TigerSymbol>> productions = new ArrayList<>();
+	public List<List<TigerSymbol>> getProductions() {
+		return Productions.PRODUCTIONS.get(ordinal());
+	}
 	
 	public static String printRule(TigerProductionRule rule, List<TigerSymbol> symbols) {
 		char arrow = '→';
@@ -79,73 +80,28 @@ public enum TigerProductionRule implements TigerSymbol {
 		return s;
 	}
 	
-	static {
-		try {
-			BufferedReader reader = new BufferedReader(new InputStreamReader(TigerProductionRule.class.getResourceAsStream("ProductionRules.txt"), "UTF-8"));
-			
-			char arrow = '→';
+	/**
+	 * Decoded on first use instead of when the enum loads, so TigerGrammarTablesGenerator can still run
+	 * when the generated tables are out of date with the enum.
+	 */
+	private static class Productions {
+		static final List<List<List<TigerSymbol>>> PRODUCTIONS = new ArrayList<>();
+		
+		static {
+			TigerProductionRule[] rules = values();
+			TigerTokenClass[] tokenClasses = TigerTokenClass.values();
 			
-			String s;
-			while((s = reader.readLine()) != null) {
-				int arrowIdx = s.indexOf(arrow);
-				if(arrowIdx == -1) {
-					throw new RuntimeException("No arrow found: " + s);
-				}
-				
-				String productionName = s.substring(0, arrowIdx).trim().toUpperCase();
-				
-				TigerProductionRule productionRule;
-				try {
-					productionRule = TigerProductionRule.valueOf(productionName);
-				}
-				catch(Exception exc) {
-					throw new RuntimeException("Unrecognized production: " + productionName);
-				}
-				
-				ArrayList<TigerSymbol> production = new ArrayList<>();
-				
-				String[] symbols = s.substring(arrowIdx + 1).trim().split(" ");
-				for(String symbol : symbols) {
-					symbol = symbol.trim();
-					if(symbol.isEmpty()) {
-						continue;
-					}
-					
-					TigerTokenClass specialChar = Utils.specialTokenStringToClasses.get(symbol);
-					if(specialChar != null) {
-						production.add(specialChar);
-						continue;
+			for(TigerProductionRule rule : rules) {
+				ArrayList<List<TigerSymbol>> productions = new ArrayList<>();
+				for(int[] symbols : TigerGrammarTables.PRODUCTIONS[rule.ordinal()]) {
+					ArrayList<TigerSymbol> production = new ArrayList<>(symbols.length);
+					for(int symbol : symbols) {
+						production.add(symbol < 0 ? rules[~symbol] : tokenClasses[symbol]);
 					}
-					
-					symbol = symbol.toUpperCase();
-					
-					try {
-						TigerProductionRule rule = TigerProductionRule.valueOf(symbol);
-						production.add(rule);
-					}
-					catch(Exception exc) {
-						TigerTokenClass tokenClass;
-						try {
-							tokenClass = TigerTokenClass.valueOf(symbol);
-							production.add(tokenClass);
-						}
-						catch(Exception exc2) {
-							throw new RuntimeException("Unrecognized symbol '" + symbol + "' for rule " + productionName);
-						}
-					}
-				}
-				
-				productionRule.productions.add(production);
-			}
-			
-			for(TigerProductionRule rule : TigerProductionRule.values()) {
-				if(rule.productions.isEmpty()) {
-					throw new RuntimeException("Empty production rule: " + rule);
+					productions.add(production);
 				}
+				PRODUCTIONS.add(productions);
 			}
 		}
-		catch(IOException exc) {
-			throw new RuntimeException("Error trying to read ProductionRules.txt file.", exc);
-		}
 	}
 }
@@ -1,101 +1,172 @@
 package edu.cs4240.tiger.parser;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-
-import edu.cs4240.tiger.util.Regex.Match;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 /**
  * @author Roi Atalla
  */
 public class TigerScanner {
-	private BufferedReader source;
+	// the whole source, tokens only keep offsets into it
+	private char[] source;
+	private int length;
+	private CharSequence sourceView;
+	private TokenBuffer tokens;
+	
+	// to keep track of the current position
+	private int position;
+	private int currLineNum, currLineOffset;
+	
+	/**
+	 * Maps the file into memory and decodes it into a single char array.
+	 */
+	public TigerScanner(Path path) throws IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			char[] source = decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			init(source, source.length);
+		}
+	}
 	
-	// to keep track of the current line
-	private String currLine, buffer;
-	private int currLineNum;
+	/**
+	 * Decodes a source file the way the scanner reads it.
+	 */
+	public static char[] decode(ByteBuffer bytes) throws CharacterCodingException {
+		CharBuffer decoded = StandardCharsets.UTF_8.newDecoder()
+		                                           .onMalformedInput(CodingErrorAction.REPLACE)
+		                                           .onUnmappableCharacter(CodingErrorAction.REPLACE)
+		                                           .decode(bytes);
+		return decoded.limit() == decoded.array().length ? decoded.array() : Arrays.copyOf(decoded.array(), decoded.limit());
+	}
 	
-	public TigerScanner(BufferedReader source) throws IOException {
+	public TigerScanner(Reader source) throws IOException {
+		char[] buffer = new char[8192];
+		int length = 0;
+		
+		int read;
+		while((read = source.read(buffer, length, buffer.length - length)) != -1) {
+			length += read;
+			if(length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+		}
+		
+		init(buffer, length);
+	}
+	
+	public TigerScanner(char[] source) {
+		init(source, source.length);
+	}
+	
+	private void init(char[] source, int length) {
+		if(source.length != length) {
+			source = Arrays.copyOf(source, length);
+		}
+		
 		this.source = source;
+		this.length = length;
+		this.sourceView = CharBuffer.wrap(source);
+		this.tokens = new TokenBuffer(source);
 		
-		readNextLine();
+		currLineNum = 1;
 	}
 	
-	private void readNextLine() throws IOException {
-		String s = "";
-		int beginComment = -1;
-		do {
-			String n = source.readLine();
-			if(n != null) {
-				s += n;
-			} else if(beginComment == -1) {
-				break;
-			}
-			
-			currLineNum++;
+	private void newLine(int lineOffset) {
+		currLineNum++;
+		currLineOffset = lineOffset;
+	}
+	
+	private void skipWhitespaceAndComments() {
+		while(position < length) {
+			char c = source[position];
 			
-			while(true) {
-				beginComment = s.indexOf("//");
-				if(beginComment != -1) {
-					s = s.substring(0, beginComment);
-				}
-				
-				beginComment = s.indexOf("/*");
-				if(beginComment == -1) {
-					break;
+			if(c == '\n') {
+				newLine(++position);
+			} else if(c <= ' ') {
+				position++;
+			} else if(c == '/' && position + 1 < length && source[position + 1] == '/') {
+				while(position < length && source[position] != '\n') {
+					position++;
 				}
-				
-				int endComment = s.indexOf("*/", beginComment);
-				if(endComment == -1 && n == null) {
-					endComment = s.length();
-				}
-				
-				if(endComment == -1) {
-					s = s.substring(0, beginComment + 2);
-					break;
-				} else {
-					s = s.substring(0, beginComment) + " " + s.substring(endComment + 2);
+			} else if(c == '/' && position + 1 < length && source[position + 1] == '*') {
+				// an unterminated block comment runs until the end of the file
+				position += 2;
+				while(position < length && !(source[position] == '*' && position + 1 < length && source[position + 1] == '/')) {
+					if(source[position++] == '\n') {
+						newLine(position);
+					}
 				}
+				position = Math.min(position + 2, length);
+			} else {
+				break;
 			}
-			
-			if(s.trim().isEmpty())
-				s = s.trim();
-		} while(beginComment > -1 || s.trim().isEmpty());
-		
-		if(s.trim().isEmpty()) {
-			buffer = currLine = null;
-		} else {
-			currLine = s;
-			buffer = s.trim();
 		}
 	}
 	
+	/**
+	 * @return the buffer every scanned token is added to
+	 */
+	public TokenBuffer getTokenBuffer() {
+		return tokens;
+	}
+	
 	public TigerToken nextToken() throws IOException, TigerParseException {
-		if(buffer == null || buffer.isEmpty()) {
-			return null;
+		int index = scanToken();
+		return index == TokenBuffer.NONE ? null : tokens.getToken(index);
+	}
+	
+	/**
+	 * Scans the next token into the token buffer.
+	 *
+	 * @return the index of the token in the buffer, or TokenBuffer.NONE at the end of the file
+	 */
+	public int scanToken() throws TigerParseException {
+		skipWhitespaceAndComments();
+		
+		if(position >= length) {
+			return TokenBuffer.NONE;
 		}
 		
-		Match bestMatch = null;
+		// Maximal munch: remember the last accepting state seen before the DFA dies
+		int state = TigerTokenDFA.START;
+		int matchEnd = position;
 		TigerTokenClass bestMatchToken = null;
-		for(TigerTokenClass tokenClass : TigerTokenClass.values()) {
-			Match match = tokenClass.regex.match(buffer);
-			if(match != null && match.getMatch().length() > 0 && (bestMatch == null || match.getMatch().length() > bestMatch.getMatch().length())) {
-				bestMatch = match;
-				bestMatchToken = tokenClass;
+		for(int i = position; i < length; i++) {
+			state = TigerTokenDFA.next(state, source[i]);
+			if(state == TigerTokenDFA.DEAD) {
+				break;
+			}
+			
+			TigerTokenClass accepting = TigerTokenDFA.getAccepting(state);
+			if(accepting != null) {
+				bestMatchToken = accepting;
+				matchEnd = i + 1;
 			}
 		}
 		
-		if(bestMatch != null) {
-			TigerToken token = new TigerToken(bestMatchToken, bestMatch.getMatch(), currLine, currLineNum, currLine.lastIndexOf(buffer) + 1);
-			
-			buffer = buffer.substring(bestMatch.getMatch().length()).trim();
-			if(buffer.isEmpty()) {
-				readNextLine();
+		if(bestMatchToken != null) {
+			if(bestMatchToken == TigerTokenClass.ID) {
+				bestMatchToken = TigerTokenDFA.resolveKeyword(sourceView, position, matchEnd);
 			}
 			
-			return token;
+			int index = tokens.add(bestMatchToken, position, matchEnd - position, currLineNum);
+			position = matchEnd;
+			return index;
+		}
+		
+		int lineEnd = currLineOffset;
+		while(lineEnd < length && source[lineEnd] != '\n' && source[lineEnd] != '\r') {
+			lineEnd++;
 		}
 		
-		throw new TigerParseException("Invalid token", buffer, currLineNum, currLine.lastIndexOf(buffer) + 1);
+		throw new TigerParseException("Invalid token", new String(source, currLineOffset, lineEnd - currLineOffset), currLineNum, position - currLineOffset + 1);
 	}
 }
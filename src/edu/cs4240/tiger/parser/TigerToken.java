@@ -10,6 +10,10 @@ public class TigerToken {
 	private String line;
 	private int lineNum, indexNum;
 	
+	// Views of a TokenBuffer entry, the strings are built on demand
+	private TokenBuffer buffer;
+	private int index;
+	
 	public TigerToken(TigerTokenClass tokenClass, String token, String line, int lineNum, int indexNum) {
 		this.tokenClass = tokenClass;
 		this.token = token;
@@ -18,6 +22,25 @@ public class TigerToken {
 		this.indexNum = indexNum;
 	}
 	
+	public TigerToken(TokenBuffer buffer, int index) {
+		this.tokenClass = buffer.getTokenClass(index);
+		this.lineNum = buffer.getLineNumber(index);
+		this.indexNum = buffer.getIndexNumber(index);
+		this.buffer = buffer;
+		this.index = index;
+	}
+	
+	/**
+	 * @return the buffer this token is a view of, or null for standalone tokens
+	 */
+	public TokenBuffer getBuffer() {
+		return buffer;
+	}
+	
+	public int getIndex() {
+		return index;
+	}
+	
 	public TigerTokenClass getTokenClass() {
 		return tokenClass;
 	}
@@ -27,6 +50,10 @@ public class TigerToken {
 	}
 	
 	public String getTokenString() {
+		if(token == null && buffer != null) {
+			token = buffer.getTokenString(index);
+		}
+		
 		return token;
 	}
 	
@@ -35,6 +62,10 @@ public class TigerToken {
 	}
 	
 	public String getLine() {
+		if(line == null && buffer != null) {
+			line = buffer.getLine(index);
+		}
+		
 		return line;
 	}
 	
@@ -60,6 +91,6 @@ public class TigerToken {
 	
 	@Override
 	public String toString() {
-		return tokenClass + " - '" + token + "' on line " + lineNum + ", index " + indexNum + ": " + line;
+		return tokenClass + " - '" + getTokenString() + "' on line " + lineNum + ", index " + indexNum + ": " + getLine();
 	}
 }
@@ -0,0 +1,220 @@
+package edu.cs4240.tiger.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.cs4240.tiger.util.Pair;
+import edu.cs4240.tiger.util.Regex;
+import edu.cs4240.tiger.util.Regex.CharClass;
+
+/**
+ * DFA for every token class, built once from the TigerTokenClass regexes.
+ * <p>
+ * Keywords are left out of the automaton: they are also valid IDs, so an ID match is
+ * looked up in the keyword table afterwards.
+ *
+ * @author Roi Atalla
+ */
+public class TigerTokenDFA {
+	public static final int START = 0;
+	public static final int DEAD = -1;
+	
+	// One column per ASCII character, followed by the columns for non-ASCII characters
+	private static final int ASCII_COLUMNS = 128;
+	private static final int ALPHA_COLUMN = ASCII_COLUMNS;
+	private static final int DIGIT_COLUMN = ASCII_COLUMNS + 1;
+	private static final int SPACE_COLUMN = ASCII_COLUMNS + 2;
+	private static final int OTHER_COLUMN = ASCII_COLUMNS + 3;
+	private static final int COLUMNS = ASCII_COLUMNS + 4;
+	
+	// Representative characters for the non-ASCII columns
+	private static final char[] COLUMN_SAMPLES = { 'é', '٠', ' ', '§' };
+	
+	private static final int[] transitions;
+	private static final TigerTokenClass[] accepting;
+	
+	private static final String[] keywordStrings;
+	private static final TigerTokenClass[] keywordClasses;
+	
+	static {
+		List<TigerTokenClass> literals = new ArrayList<>();
+		List<TigerTokenClass> automatonClasses = new ArrayList<>();
+		
+		for(TigerTokenClass tokenClass : TigerTokenClass.values()) {
+			String literal = tokenClass.regex.getLiteral();
+			if(literal != null && literal.isEmpty()) {
+				continue; // EPSILON
+			}
+			
+			// Word literals are keywords, everything else goes in the automaton
+			if(literal != null && Character.isAlphabetic(literal.charAt(0))) {
+				literals.add(tokenClass);
+			} else {
+				automatonClasses.add(tokenClass);
+			}
+		}
+		
+		Regex.NFA nfa = new Regex.NFA();
+		HashMap<Integer, TigerTokenClass> nfaAccepting = new HashMap<>();
+		for(TigerTokenClass tokenClass : automatonClasses) {
+			int branch = nfa.newState();
+			nfa.addEpsilon(0, branch);
+			nfaAccepting.put(tokenClass.regex.compile(nfa, branch), tokenClass);
+		}
+		
+		List<int[]> rows = new ArrayList<>();
+		List<TigerTokenClass> acceptingList = new ArrayList<>();
+		HashMap<BitSet, Integer> dfaStates = new HashMap<>();
+		Deque<BitSet> worklist = new ArrayDeque<>();
+		
+		BitSet start = new BitSet();
+		start.set(0);
+		closure(nfa, start);
+		dfaStates.put(start, 0);
+		worklist.add(start);
+		
+		while(!worklist.isEmpty()) {
+			BitSet current = worklist.poll();
+			
+			int[] row = new int[COLUMNS];
+			TigerTokenClass accept = null;
+			
+			for(int column = 0; column < COLUMNS; column++) {
+				char c = column < ASCII_COLUMNS ? (char)column : COLUMN_SAMPLES[column - ASCII_COLUMNS];
+				
+				BitSet next = new BitSet();
+				for(int state = current.nextSetBit(0); state >= 0; state = current.nextSetBit(state + 1)) {
+					for(Pair<CharClass, Integer> edge : nfa.getEdges(state)) {
+						if(edge.getKey().matches(c)) {
+							next.set(edge.getValue());
+						}
+					}
+				}
+				
+				if(next.isEmpty()) {
+					row[column] = DEAD;
+					continue;
+				}
+				
+				closure(nfa, next);
+				
+				Integer id = dfaStates.get(next);
+				if(id == null) {
+					id = dfaStates.size();
+					dfaStates.put(next, id);
+					worklist.add(next);
+				}
+				row[column] = id;
+			}
+			
+			for(int state = current.nextSetBit(0); state >= 0; state = current.nextSetBit(state + 1)) {
+				TigerTokenClass tokenClass = nfaAccepting.get(state);
+				if(tokenClass != null && (accept == null || tokenClass.ordinal() < accept.ordinal())) {
+					accept = tokenClass;
+				}
+			}
+			
+			// States are polled in the order their ids were handed out
+			rows.add(row);
+			acceptingList.add(accept);
+		}
+		
+		transitions = new int[rows.size() * COLUMNS];
+		for(int i = 0; i < rows.size(); i++) {
+			System.arraycopy(rows.get(i), 0, transitions, i * COLUMNS, COLUMNS);
+		}
+		accepting = acceptingList.toArray(new TigerTokenClass[acceptingList.size()]);
+		
+		// Open-addressed keyword table, so lookups can run straight off the source characters
+		int size = Integer.highestOneBit(literals.size() * 4);
+		keywordStrings = new String[size];
+		keywordClasses = new TigerTokenClass[size];
+		for(TigerTokenClass keyword : literals) {
+			String literal = keyword.regex.getLiteral();
+			int slot = literal.hashCode() & (size - 1);
+			while(keywordStrings[slot] != null) {
+				slot = (slot + 1) & (size - 1);
+			}
+			keywordStrings[slot] = literal;
+			keywordClasses[slot] = keyword;
+		}
+	}
+	
+	private static void closure(Regex.NFA nfa, BitSet states) {
+		Deque<Integer> stack = new ArrayDeque<>();
+		for(int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+			stack.push(state);
+		}
+		
+		while(!stack.isEmpty()) {
+			for(int next : nfa.getEpsilons(stack.pop())) {
+				if(!states.get(next)) {
+					states.set(next);
+					stack.push(next);
+				}
+			}
+		}
+	}
+	
+	private static int column(char c) {
+		if(c < ASCII_COLUMNS) {
+			return c;
+		}
+		if(Character.isAlphabetic(c)) {
+			return ALPHA_COLUMN;
+		}
+		if(Character.isDigit(c)) {
+			return DIGIT_COLUMN;
+		}
+		if(Character.isWhitespace(c)) {
+			return SPACE_COLUMN;
+		}
+		return OTHER_COLUMN;
+	}
+	
+	public static int next(int state, char c) {
+		return transitions[state * COLUMNS + column(c)];
+	}
+	
+	/**
+	 * @return the token class recognized when the DFA stops in this state, or null if it is not accepting
+	 */
+	public static TigerTokenClass getAccepting(int state) {
+		return accepting[state];
+	}
+	
+	/**
+	 * Resolves an ID match to a keyword without allocating a String for it.
+	 *
+	 * @return the keyword token class for input[start, end), or ID if it is not a keyword
+	 */
+	public static TigerTokenClass resolveKeyword(CharSequence input, int start, int end) {
+		int hash = 0;
+		for(int i = start; i < end; i++) {
+			hash = 31 * hash + input.charAt(i);
+		}
+		
+		int mask = keywordStrings.length - 1;
+		for(int slot = hash & mask; keywordStrings[slot] != null; slot = (slot + 1) & mask) {
+			String keyword = keywordStrings[slot];
+			if(keyword.length() == end - start && regionEquals(keyword, input, start)) {
+				return keywordClasses[slot];
+			}
+		}
+		
+		return TigerTokenClass.ID;
+	}
+	
+	private static boolean regionEquals(String keyword, CharSequence input, int start) {
+		for(int i = 0; i < keyword.length(); i++) {
+			if(keyword.charAt(i) != input.charAt(start + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,66 @@
+package edu.cs4240.tiger.parser;
+
+/**
+ * Pull-based token stream between the scanner and the parser.
+ * <p>
+ * Tokens are scanned only when the parser asks for them. The predictive parser only moves forward,
+ * peeking at the next token, or further ahead to tell a call statement from an assignment. Tokens all
+ * end up in the scanner's TokenBuffer, which the AST leaves index into, so every token of the file is
+ * kept rather than only a lookahead window.
+ *
+ * @author Roi Atalla
+ */
+public class TigerTokenStream {
+	private TigerScanner scanner;
+	private TokenBuffer tokens;
+	private int position;
+	
+	public TigerTokenStream(TigerScanner scanner) {
+		this.scanner = scanner;
+		this.tokens = scanner.getTokenBuffer();
+	}
+	
+	/**
+	 * Streams over an already filled buffer.
+	 */
+	public TigerTokenStream(TokenBuffer tokens) {
+		this.tokens = tokens;
+	}
+	
+	public TokenBuffer getTokenBuffer() {
+		return tokens;
+	}
+	
+	public int peek() throws TigerParseException {
+		return peek(0);
+	}
+	
+	/**
+	 * @return the index of the token {@code k} tokens ahead of the current one, or TokenBuffer.NONE past the end of the file
+	 */
+	public int peek(int k) throws TigerParseException {
+		int index = position + k;
+		while(index >= tokens.size()) {
+			if(scanner == null || scanner.scanToken() == TokenBuffer.NONE) {
+				return TokenBuffer.NONE;
+			}
+		}
+		
+		return index;
+	}
+	
+	public int next() throws TigerParseException {
+		int index = peek(0);
+		if(index != TokenBuffer.NONE) {
+			position++;
+		}
+		return index;
+	}
+	
+	/**
+	 * Scans the rest of the input, so invalid characters past the end of the program are still reported.
+	 */
+	public void skipToEnd() throws TigerParseException {
+		while(next() != TokenBuffer.NONE) ;
+	}
+}
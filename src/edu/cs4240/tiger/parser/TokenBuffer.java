@@ -0,0 +1,268 @@
+package edu.cs4240.tiger.parser;
+
+import static edu.cs4240.tiger.util.Utils.*;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import edu.cs4240.tiger.util.SymbolInterner;
+
+/**
+ * All the tokens of a source, stored as parallel int arrays indexed by token.
+ * <p>
+ * Lexemes and lines are not kept around, they are rebuilt from the source text when asked for.
+ * Tokens added without a source (by the generators) have their lexeme appended to the text
+ * and a line number of 0.
+ * <p>
+ * Identifiers are interned as they are added, so every ID token also has the symbol id of its name.
+ *
+ * @author Roi Atalla
+ */
+public class TokenBuffer {
+	public static final int NONE = -1;
+	
+	private static final TigerTokenClass[] tokenClasses = TigerTokenClass.values();
+	
+	// the length of every token of a class that only matches one string, NONE for the others
+	private static final int[] literalLengths = new int[tokenClasses.length];
+	
+	static {
+		for(TigerTokenClass tokenClass : tokenClasses) {
+			String literal = tokenClass.regex.getLiteral();
+			literalLengths[tokenClass.ordinal()] = literal == null ? NONE : literal.length();
+		}
+	}
+	
+	private char[] text;
+	private int textLength;
+	
+	private final SymbolInterner symbols = new SymbolInterner();
+	
+	private int[] classes, starts, lengths, lines, symbolIds;
+	private int size;
+	
+	public TokenBuffer() {
+		this(new char[64], 0);
+	}
+	
+	/**
+	 * @param source the scanned source, tokens are offsets into it
+	 */
+	public TokenBuffer(char[] source) {
+		this(source, source.length);
+	}
+	
+	private TokenBuffer(char[] text, int textLength) {
+		this(text, textLength, Math.max(16, textLength / 4));
+	}
+	
+	private TokenBuffer(char[] text, int textLength, int capacity) {
+		this.text = text;
+		this.textLength = textLength;
+		
+		classes = new int[capacity];
+		starts = new int[capacity];
+		lengths = new int[capacity];
+		lines = new int[capacity];
+		symbolIds = new int[capacity];
+	}
+	
+	/**
+	 * Wraps a standalone token in a buffer of its own.
+	 */
+	public static TokenBuffer of(TigerToken token) {
+		TokenBuffer buffer = new TokenBuffer();
+		buffer.add(token.getTokenClass(), token.getTokenString());
+		return buffer;
+	}
+	
+	/**
+	 * Adds a token found at text[start, start + length).
+	 *
+	 * @return the index of the new token
+	 */
+	public int add(TigerTokenClass tokenClass, int start, int length, int lineNum) {
+		if(size == classes.length) {
+			int capacity = size * 2;
+			classes = Arrays.copyOf(classes, capacity);
+			starts = Arrays.copyOf(starts, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			lines = Arrays.copyOf(lines, capacity);
+			symbolIds = Arrays.copyOf(symbolIds, capacity);
+		}
+		
+		classes[size] = tokenClass.ordinal();
+		starts[size] = start;
+		lengths[size] = length;
+		lines[size] = lineNum;
+		symbolIds[size] = tokenClass == TigerTokenClass.ID ? symbols.intern(text, start, length) : NONE;
+		return size++;
+	}
+	
+	/**
+	 * Adds a token that does not come from the source, its lexeme is appended to the text.
+	 *
+	 * @return the index of the new token
+	 */
+	public int add(TigerTokenClass tokenClass, String lexeme) {
+		if(textLength + lexeme.length() > text.length) {
+			text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + lexeme.length()));
+		}
+		
+		lexeme.getChars(0, lexeme.length(), text, textLength);
+		textLength += lexeme.length();
+		
+		return add(tokenClass, textLength - lexeme.length(), lexeme.length(), 0);
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public TigerTokenClass getTokenClass(int index) {
+		return tokenClasses[classes[index]];
+	}
+	
+	public int getStart(int index) {
+		return starts[index];
+	}
+	
+	public int getLength(int index) {
+		return lengths[index];
+	}
+	
+	public int getLineNumber(int index) {
+		return lines[index];
+	}
+	
+	public String getTokenString(int index) {
+		if(symbolIds[index] != NONE) {
+			return symbols.getName(symbolIds[index]);
+		}
+		return new String(text, starts[index], lengths[index]);
+	}
+	
+	/**
+	 * @return the symbol id of an ID token, or NONE for other tokens
+	 */
+	public int getSymbol(int index) {
+		return symbolIds[index];
+	}
+	
+	/**
+	 * The names of all the identifiers in this buffer.
+	 */
+	public SymbolInterner getSymbols() {
+		return symbols;
+	}
+	
+	private int getLineStart(int index) {
+		int lineStart = starts[index];
+		while(lineStart > 0 && text[lineStart - 1] != '\n') {
+			lineStart--;
+		}
+		return lineStart;
+	}
+	
+	/**
+	 * @return the 1-based column of the token, or 0 for tokens that do not come from the source
+	 */
+	public int getIndexNumber(int index) {
+		if(lines[index] == 0) {
+			return 0;
+		}
+		
+		return starts[index] - getLineStart(index) + 1;
+	}
+	
+	public String getLine(int index) {
+		if(lines[index] == 0) {
+			return "";
+		}
+		
+		int lineStart = getLineStart(index);
+		int lineEnd = starts[index];
+		while(lineEnd < textLength && text[lineEnd] != '\n' && text[lineEnd] != '\r') {
+			lineEnd++;
+		}
+		
+		return new String(text, lineStart, lineEnd - lineStart);
+	}
+	
+	/**
+	 * Writes the tokens, read back with read against the same source. The text is not written: each token is
+	 * a byte of its class and the whitespace before it, followed by that whitespace when it is 3 or more and
+	 * the length of identifiers and literals, the other classes have a fixed length. Lines are recounted from
+	 * the source when reading, so only scanned tokens can be written.
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(size);
+		int end = 0;
+		for(int i = 0; i < size; i++) {
+			if(lines[i] == 0) {
+				throw new IllegalStateException("Token '" + getTokenString(i) + "' does not come from the source");
+			}
+			
+			int gap = starts[i] - end;
+			out.writeByte(classes[i] | Math.min(gap, 3) << 6);
+			if(gap >= 3) {
+				writeVarInt(out, gap);
+			}
+			if(literalLengths[classes[i]] == NONE) {
+				writeVarInt(out, lengths[i]);
+			}
+			
+			end = starts[i] + lengths[i];
+		}
+	}
+	
+	/**
+	 * Reads a buffer written by write from the position of in.
+	 *
+	 * @param source the source the buffer was scanned from
+	 * @throws IllegalArgumentException if a token does not fit in the source
+	 */
+	public static TokenBuffer read(ByteBuffer in, char[] source) {
+		int size = in.getInt();
+		if(size < 0 || size > in.remaining()) {
+			throw new IllegalArgumentException("Invalid token count " + size);
+		}
+		
+		// room for one more token, add grows the arrays by doubling
+		TokenBuffer buffer = new TokenBuffer(source, source.length, size + 1);
+		int end = 0, line = 1;
+		for(int i = 0; i < size; i++) {
+			int b = in.get() & 0xFF;
+			int tokenClass = b & 0x3F;
+			if(tokenClass >= tokenClasses.length) {
+				throw new IllegalArgumentException("Invalid token class " + tokenClass);
+			}
+			
+			int gap = b >>> 6;
+			int start = end + (gap == 3 ? readVarInt(in) : gap);
+			int length = literalLengths[tokenClass] == NONE ? readVarInt(in) : literalLengths[tokenClass];
+			if(start < end || length < 0 || start > source.length - length) {
+				throw new IllegalArgumentException("Token " + i + " is out of the source");
+			}
+			
+			for(int c = end; c < start; c++) {
+				if(source[c] == '\n') {
+					line++;
+				}
+			}
+			
+			buffer.add(tokenClasses[tokenClass], start, length, line);
+			end = start + length;
+		}
+		return buffer;
+	}
+	
+	/**
+	 * @return a TigerToken view of the token at this index
+	 */
+	public TigerToken getToken(int index) {
+		return new TigerToken(this, index);
+	}
+}
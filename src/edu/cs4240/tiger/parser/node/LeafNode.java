@@ -1,22 +1,58 @@
 package edu.cs4240.tiger.parser.node;
 
 import edu.cs4240.tiger.parser.TigerToken;
+import edu.cs4240.tiger.parser.TigerTokenClass;
+import edu.cs4240.tiger.parser.TokenBuffer;
 
 /**
  * @author Roi Atalla
  */
 public class LeafNode implements Node {
-	private TigerToken token;
+	private TokenBuffer tokens;
+	private int tokenIndex;
 	
 	public LeafNode() {
 	}
 	
+	public LeafNode(TokenBuffer tokens, int tokenIndex) {
+		this.tokens = tokens;
+		this.tokenIndex = tokenIndex;
+	}
+	
 	public LeafNode(TigerToken token) {
-		this.token = token;
+		if(token.getBuffer() != null) {
+			tokens = token.getBuffer();
+			tokenIndex = token.getIndex();
+		} else {
+			tokens = TokenBuffer.of(token);
+		}
+	}
+	
+	public TokenBuffer getTokenBuffer() {
+		return tokens;
+	}
+	
+	public int getTokenIndex() {
+		return tokenIndex;
+	}
+	
+	public TigerTokenClass getTokenClass() {
+		return tokens.getTokenClass(tokenIndex);
+	}
+	
+	public String getTokenString() {
+		return tokens.getTokenString(tokenIndex);
+	}
+	
+	/**
+	 * @return the id of the name in the SymbolInterner of the token buffer, or TokenBuffer.NONE if this is not an ID
+	 */
+	public int getSymbol() {
+		return tokens.getSymbol(tokenIndex);
 	}
 	
 	public TigerToken getToken() {
-		return token;
+		return tokens.getToken(tokenIndex);
 	}
 	
 	@Override
@@ -24,14 +60,19 @@ public class LeafNode implements Node {
 		if(o instanceof LeafNode) {
 			LeafNode l = (LeafNode)o;
 			
-			return this.token.getTokenClass() == l.getToken().getTokenClass() && this.token.getTokenString().equals(l.getToken().getTokenString());
+			return this.getTokenClass() == l.getTokenClass() && this.getTokenString().equals(l.getTokenString());
 		}
 		
 		return false;
 	}
 	
+	@Override
+	public int hashCode() {
+		return 31 * getTokenClass().ordinal() + getTokenString().hashCode();
+	}
+	
 	@Override
 	public String toString() {
-		return token.getTokenString();
+		return getTokenString();
 	}
 }
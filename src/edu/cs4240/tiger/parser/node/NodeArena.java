@@ -0,0 +1,567 @@
+package edu.cs4240.tiger.parser.node;
+
+import static edu.cs4240.tiger.util.Utils.*;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.cs4240.tiger.parser.TigerProductionRule;
+import edu.cs4240.tiger.parser.TigerTokenClass;
+import edu.cs4240.tiger.parser.TokenBuffer;
+
+/**
+ * Parse tree stored as parallel int arrays indexed by node instead of an object per node.
+ * <p>
+ * Rule nodes have the ordinal of their rule as kind, leaves have LEAF and the index of their token
+ * in the TokenBuffer. Children are linked through firstChild and nextSibling, NONE ends a chain.
+ *
+ * @author Roi Atalla
+ */
+public class NodeArena {
+	public static final int NONE = -1;
+	public static final int LEAF = -1;
+	
+	private static final TigerProductionRule[] rules = TigerProductionRule.values();
+	
+	// the kind of a leaf in the 6 bits write has for it, past every rule ordinal
+	private static final int LEAF_KIND = 0x3F;
+	
+	private final TokenBuffer tokens;
+	
+	// lastChild is only needed to append in constant time while building
+	private int[] kinds, firstChildren, lastChildren, nextSiblings, tokenIndices;
+	private int size;
+	private int root = NONE;
+	
+	public NodeArena(TokenBuffer tokens) {
+		// a parse tree has about three nodes per token
+		this(tokens, Math.max(16, tokens.size() * 3));
+	}
+	
+	private NodeArena(TokenBuffer tokens, int capacity) {
+		this.tokens = tokens;
+		
+		kinds = new int[capacity];
+		firstChildren = new int[capacity];
+		lastChildren = new int[capacity];
+		nextSiblings = new int[capacity];
+		tokenIndices = new int[capacity];
+	}
+	
+	/**
+	 * Copies a RuleNode tree into a new arena. Leaves that do not share the buffer of the first leaf
+	 * have their token copied into it.
+	 */
+	public static NodeArena of(RuleNode ruleNode) {
+		TokenBuffer tokens = null;
+		
+		ArrayDeque<Node> nodes = new ArrayDeque<>();
+		nodes.push(ruleNode);
+		while(tokens == null && !nodes.isEmpty()) {
+			Node node = nodes.pop();
+			if(node instanceof LeafNode) {
+				tokens = ((LeafNode)node).getTokenBuffer();
+			} else {
+				List<Node> children = ((RuleNode)node).getChildren();
+				for(int i = children.size() - 1; i >= 0; i--) {
+					nodes.push(children.get(i));
+				}
+			}
+		}
+		
+		NodeArena arena = new NodeArena(tokens == null ? new TokenBuffer() : tokens);
+		
+		ArrayDeque<Integer> parents = new ArrayDeque<>();
+		nodes.clear();
+		nodes.push(ruleNode);
+		parents.push(NONE);
+		while(!nodes.isEmpty()) {
+			Node node = nodes.pop();
+			int parent = parents.pop();
+			
+			int index;
+			if(node instanceof LeafNode) {
+				LeafNode leaf = (LeafNode)node;
+				int token = leaf.getTokenBuffer() == arena.tokens ? leaf.getTokenIndex() : arena.tokens.add(leaf.getTokenClass(), leaf.getTokenString());
+				index = arena.addLeaf(token);
+			} else {
+				RuleNode rule = (RuleNode)node;
+				index = arena.addRule(rule.getRule());
+				
+				List<Node> children = rule.getChildren();
+				for(int i = children.size() - 1; i >= 0; i--) {
+					nodes.push(children.get(i));
+					parents.push(index);
+				}
+			}
+			
+			if(parent == NONE) {
+				arena.setRoot(index);
+			} else {
+				arena.addChild(parent, index);
+			}
+		}
+		
+		return arena;
+	}
+	
+	/**
+	 * Writes the tree under the root in pre-order, not the TokenBuffer it points into. Each node is a byte:
+	 * the rule ordinal and its child count if under 3, or LEAF_KIND and whether its token follows the
+	 * previous leaf's. A larger child count or a token further away follows as a var int.
+	 * Read back with read.
+	 */
+	public void write(DataOutput out) throws IOException {
+		if(root == NONE) {
+			out.writeInt(0);
+			return;
+		}
+		
+		// the arena can hold nodes that are not under the root
+		int count = 0;
+		Cursor cursor = new Cursor(root);
+		do {
+			count++;
+		} while(cursor.gotoNext());
+		out.writeInt(count);
+		
+		int lastToken = -1;
+		cursor.reset(root);
+		do {
+			int node = cursor.getNode();
+			if(isLeaf(node)) {
+				int skipped = tokenIndices[node] - lastToken - 1;
+				out.writeByte(LEAF_KIND | (skipped == 0 ? 0 : 1) << 6);
+				if(skipped != 0) {
+					writeVarInt(out, skipped);
+				}
+				lastToken = tokenIndices[node];
+			} else {
+				int children = getChildCount(node);
+				out.writeByte(kinds[node] | Math.min(children, 3) << 6);
+				if(children >= 3) {
+					writeVarInt(out, children);
+				}
+			}
+		} while(cursor.gotoNext());
+	}
+	
+	/**
+	 * Reads an arena written by write from the position of in, its nodes are numbered in pre-order.
+	 *
+	 * @param tokens the buffer the arena was written with
+	 * @throws IllegalArgumentException if a node does not fit in the tree or the buffer
+	 */
+	public static NodeArena read(ByteBuffer in, TokenBuffer tokens) {
+		int count = in.getInt();
+		if(count < 0 || count > in.remaining()) {
+			throw new IllegalArgumentException("Invalid node count " + count);
+		}
+		
+		NodeArena arena = new NodeArena(tokens, count + 1);
+		if(count == 0) {
+			return arena;
+		}
+		
+		// rule nodes still waiting for children, and how many
+		int[] parents = new int[32];
+		int[] remaining = new int[32];
+		int depth = 0;
+		
+		int lastToken = -1;
+		for(int i = 0; i < count; i++) {
+			if(i > 0 && depth == 0) {
+				throw new IllegalArgumentException("Node " + i + " is outside the root");
+			}
+			
+			int b = in.get() & 0xFF;
+			int kind = b & 0x3F;
+			int node;
+			if(kind == LEAF_KIND) {
+				lastToken += ((b >>> 6) == 0 ? 0 : readVarInt(in)) + 1;
+				if(lastToken < 0 || lastToken >= tokens.size()) {
+					throw new IllegalArgumentException("Invalid token index " + lastToken);
+				}
+				node = arena.add(LEAF, lastToken);
+			} else if(kind < rules.length) {
+				node = arena.add(kind, NONE);
+			} else {
+				throw new IllegalArgumentException("Invalid rule " + kind);
+			}
+			
+			if(depth > 0) {
+				arena.addChild(parents[depth - 1], node);
+				remaining[depth - 1]--;
+			}
+			
+			if(kind != LEAF_KIND) {
+				int children = (b >>> 6) == 3 ? readVarInt(in) : b >>> 6;
+				if(children < 0) {
+					throw new IllegalArgumentException("Invalid child count " + children);
+				}
+				if(children > 0) {
+					if(depth == parents.length) {
+						parents = Arrays.copyOf(parents, depth * 2);
+						remaining = Arrays.copyOf(remaining, depth * 2);
+					}
+					parents[depth] = node;
+					remaining[depth] = children;
+					depth++;
+				}
+			}
+			
+			while(depth > 0 && remaining[depth - 1] == 0) {
+				depth--;
+			}
+		}
+		
+		if(depth > 0) {
+			throw new IllegalArgumentException("Missing " + remaining[depth - 1] + " children");
+		}
+		
+		arena.root = 0;
+		return arena;
+	}
+	
+	public TokenBuffer getTokenBuffer() {
+		return tokens;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public int getRoot() {
+		return root;
+	}
+	
+	public void setRoot(int node) {
+		root = node;
+	}
+	
+	/**
+	 * @return the index of the new rule node, it has no children yet
+	 */
+	public int addRule(TigerProductionRule rule) {
+		return add(rule.ordinal(), NONE);
+	}
+	
+	/**
+	 * @return the index of the new leaf for the token at tokenIndex in the TokenBuffer
+	 */
+	public int addLeaf(int tokenIndex) {
+		return add(LEAF, tokenIndex);
+	}
+	
+	private int add(int kind, int tokenIndex) {
+		if(size == kinds.length) {
+			int capacity = size * 2;
+			kinds = Arrays.copyOf(kinds, capacity);
+			firstChildren = Arrays.copyOf(firstChildren, capacity);
+			lastChildren = Arrays.copyOf(lastChildren, capacity);
+			nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+			tokenIndices = Arrays.copyOf(tokenIndices, capacity);
+		}
+		
+		kinds[size] = kind;
+		firstChildren[size] = NONE;
+		lastChildren[size] = NONE;
+		nextSiblings[size] = NONE;
+		tokenIndices[size] = tokenIndex;
+		return size++;
+	}
+	
+	/**
+	 * Appends child to the children of parent, child can be moved from another parent.
+	 */
+	public void addChild(int parent, int child) {
+		nextSiblings[child] = NONE;
+		if(firstChildren[parent] == NONE) {
+			firstChildren[parent] = child;
+		} else {
+			nextSiblings[lastChildren[parent]] = child;
+		}
+		lastChildren[parent] = child;
+	}
+	
+	/**
+	 * Detaches all the children of node, they can be added to other nodes.
+	 */
+	public void clearChildren(int node) {
+		firstChildren[node] = NONE;
+		lastChildren[node] = NONE;
+	}
+	
+	/**
+	 * Moves all the children of node into a new node of the same rule, which becomes its only child.
+	 *
+	 * @return the index of the new node
+	 */
+	public int wrapChildren(int node) {
+		int wrapper = add(kinds[node], NONE);
+		firstChildren[wrapper] = firstChildren[node];
+		lastChildren[wrapper] = lastChildren[node];
+		firstChildren[node] = wrapper;
+		lastChildren[node] = wrapper;
+		return wrapper;
+	}
+	
+	public boolean isLeaf(int node) {
+		return kinds[node] == LEAF;
+	}
+	
+	/**
+	 * @return the ordinal of the rule of a rule node, or LEAF
+	 */
+	public int getKind(int node) {
+		return kinds[node];
+	}
+	
+	public TigerProductionRule getRule(int node) {
+		return kinds[node] == LEAF ? null : rules[kinds[node]];
+	}
+	
+	public int getFirstChild(int node) {
+		return firstChildren[node];
+	}
+	
+	public int getNextSibling(int node) {
+		return nextSiblings[node];
+	}
+	
+	/**
+	 * Walks the sibling chain, prefer getFirstChild and getNextSibling when going through all the children.
+	 */
+	public int getChild(int node, int k) {
+		int child = firstChildren[node];
+		for(; k > 0 && child != NONE; k--) {
+			child = nextSiblings[child];
+		}
+		return child;
+	}
+	
+	public int getChildCount(int node) {
+		int count = 0;
+		for(int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+			count++;
+		}
+		return count;
+	}
+	
+	public boolean hasChildren(int node) {
+		return firstChildren[node] != NONE;
+	}
+	
+	public int getTokenIndex(int node) {
+		return tokenIndices[node];
+	}
+	
+	public TigerTokenClass getTokenClass(int node) {
+		return tokens.getTokenClass(tokenIndices[node]);
+	}
+	
+	public String getTokenString(int node) {
+		return tokens.getTokenString(tokenIndices[node]);
+	}
+	
+	/**
+	 * @return a LeafNode view of a leaf, for the consumers that keep tokens around
+	 */
+	public LeafNode getLeaf(int node) {
+		return new LeafNode(tokens, tokenIndices[node]);
+	}
+	
+	public Cursor cursor() {
+		return new Cursor();
+	}
+	
+	/**
+	 * @return the tree rooted at the root node as RuleNodes and LeafNodes
+	 */
+	public RuleNode toRuleNode() {
+		return (RuleNode)toNode(root);
+	}
+	
+	public Node toNode(int node) {
+		if(isLeaf(node)) {
+			return getLeaf(node);
+		}
+		
+		RuleNode top = new RuleNode(getRule(node));
+		
+		Cursor cursor = new Cursor(node);
+		if(!cursor.gotoFirstChild()) {
+			return top;
+		}
+		
+		// parents moves up and down along with the cursor
+		ArrayDeque<RuleNode> parents = new ArrayDeque<>();
+		parents.push(top);
+		while(true) {
+			int current = cursor.getNode();
+			if(isLeaf(current)) {
+				parents.peek().getChildren().add(getLeaf(current));
+			} else {
+				RuleNode ruleNode = new RuleNode(getRule(current));
+				parents.peek().getChildren().add(ruleNode);
+				
+				if(cursor.gotoFirstChild()) {
+					parents.push(ruleNode);
+					continue;
+				}
+			}
+			
+			while(!cursor.gotoNextSibling()) {
+				if(!cursor.gotoParent()) {
+					return top;
+				}
+				parents.pop();
+			}
+		}
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		try {
+			print(s);
+		}
+		catch(IOException exc) {
+			throw new UncheckedIOException(exc);
+		}
+		return s.toString();
+	}
+	
+	/**
+	 * Streams the same s-expression as RuleNode.print to out.
+	 */
+	public void print(Appendable out) throws IOException {
+		if(root == NONE) {
+			return;
+		}
+		
+		Cursor cursor = new Cursor(root);
+		while(true) {
+			int node = cursor.getNode();
+			if(isLeaf(node)) {
+				out.append(getTokenString(node));
+			} else if(!hasChildren(node)) {
+				out.append(getRule(node).toString().toLowerCase());
+			} else {
+				out.append('(').append(getRule(node).toString().toLowerCase()).append(' ');
+				cursor.gotoFirstChild();
+				continue;
+			}
+			
+			while(!cursor.gotoNextSibling()) {
+				if(!cursor.gotoParent()) {
+					return;
+				}
+				out.append(')');
+			}
+			out.append(' ');
+		}
+	}
+	
+	/**
+	 * Walks the arena without allocating, apart from growing its stack of parents on deep trees.
+	 */
+	public class Cursor {
+		private int node;
+		private int[] parents = new int[32];
+		private int depth;
+		
+		private Cursor() {
+			this(root);
+		}
+		
+		private Cursor(int node) {
+			reset(node);
+		}
+		
+		public void reset(int node) {
+			this.node = node;
+			depth = 0;
+		}
+		
+		public int getNode() {
+			return node;
+		}
+		
+		public int getDepth() {
+			return depth;
+		}
+		
+		public boolean isLeaf() {
+			return NodeArena.this.isLeaf(node);
+		}
+		
+		public TigerProductionRule getRule() {
+			return NodeArena.this.getRule(node);
+		}
+		
+		public TigerTokenClass getTokenClass() {
+			return NodeArena.this.getTokenClass(node);
+		}
+		
+		public String getTokenString() {
+			return NodeArena.this.getTokenString(node);
+		}
+		
+		public boolean gotoFirstChild() {
+			int child = firstChildren[node];
+			if(child == NONE) {
+				return false;
+			}
+			
+			if(depth == parents.length) {
+				parents = Arrays.copyOf(parents, depth * 2);
+			}
+			parents[depth++] = node;
+			node = child;
+			return true;
+		}
+		
+		public boolean gotoNextSibling() {
+			// the node the cursor was reset to has no siblings as far as the cursor is concerned
+			if(depth == 0 || nextSiblings[node] == NONE) {
+				return false;
+			}
+			
+			node = nextSiblings[node];
+			return true;
+		}
+		
+		public boolean gotoParent() {
+			if(depth == 0) {
+				return false;
+			}
+			
+			node = parents[--depth];
+			return true;
+		}
+		
+		/**
+		 * Moves to the next node in pre-order.
+		 *
+		 * @return false once the whole tree under the node the cursor was reset to has been visited
+		 */
+		public boolean gotoNext() {
+			if(gotoFirstChild()) {
+				return true;
+			}
+			
+			while(!gotoNextSibling()) {
+				if(!gotoParent()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package edu.cs4240.tiger.parser.node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import edu.cs4240.tiger.parser.TigerProductionRule;
+import edu.cs4240.tiger.parser.TigerTokenClass;
+import edu.cs4240.tiger.parser.TokenBuffer;
+
+/**
+ * Hash-consing factory: equal subtrees built or interned through the same factory are the same
+ * node, so comparing two of its trees is a reference comparison and their hash is cached.
+ * <p>
+ * Its nodes cannot be changed, their children lists are unmodifiable.
+ *
+ * @author Roi Atalla
+ */
+public class NodeFactory {
+	// every leaf of the factory has its token in here, so a leaf in this buffer is one of ours
+	private final TokenBuffer tokens = new TokenBuffer();
+	private final List<HashMap<String, LeafNode>> leaves = new ArrayList<>();
+	private final HashMap<Key, RuleNode> rules = new HashMap<>();
+	
+	public NodeFactory() {
+		for(int i = 0; i < TigerTokenClass.values().length; i++) {
+			leaves.add(new HashMap<>());
+		}
+	}
+	
+	/**
+	 * @return the number of distinct nodes made so far
+	 */
+	public int size() {
+		return tokens.size() + rules.size();
+	}
+	
+	public LeafNode leaf(TigerTokenClass tokenClass, String tokenString) {
+		HashMap<String, LeafNode> classLeaves = leaves.get(tokenClass.ordinal());
+		
+		LeafNode leaf = classLeaves.get(tokenString);
+		if(leaf == null) {
+			leaf = new LeafNode(tokens, tokens.add(tokenClass, tokenString));
+			classLeaves.put(tokenString, leaf);
+		}
+		return leaf;
+	}
+	
+	/**
+	 * Children that do not come from this factory are interned first.
+	 */
+	public RuleNode rule(TigerProductionRule rule, Node... children) {
+		Node[] interned = new Node[children.length];
+		for(int i = 0; i < children.length; i++) {
+			interned[i] = intern(children[i]);
+		}
+		return make(rule, interned);
+	}
+	
+	private RuleNode make(TigerProductionRule rule, Node[] children) {
+		Key key = new Key(rule, children);
+		
+		RuleNode node = rules.get(key);
+		if(node == null) {
+			node = new RuleNode(this, rule, Arrays.asList(children), key.hash);
+			rules.put(key, node);
+		}
+		return node;
+	}
+	
+	private boolean owns(Node node) {
+		if(node instanceof LeafNode) {
+			return ((LeafNode)node).getTokenBuffer() == tokens;
+		}
+		return ((RuleNode)node).getFactory() == this;
+	}
+	
+	/**
+	 * @return the node of this factory equal to the given tree
+	 */
+	public Node intern(Node node) {
+		if(owns(node)) {
+			return node;
+		}
+		
+		if(node instanceof LeafNode) {
+			LeafNode leaf = (LeafNode)node;
+			return leaf(leaf.getTokenClass(), leaf.getTokenString());
+		}
+		
+		// Explicit post-order walk, children are interned before their parents
+		IdentityHashMap<Node, Node> interned = new IdentityHashMap<>();
+		ArrayDeque<RuleNode> stack = new ArrayDeque<>();
+		stack.push((RuleNode)node);
+		
+		while(!stack.isEmpty()) {
+			RuleNode ruleNode = stack.peek();
+			if(interned.containsKey(ruleNode)) {
+				stack.pop();
+				continue;
+			}
+			
+			boolean ready = true;
+			for(Node child : ruleNode.getChildren()) {
+				if(child instanceof RuleNode && !owns(child) && !interned.containsKey(child)) {
+					stack.push((RuleNode)child);
+					ready = false;
+				}
+			}
+			
+			if(ready) {
+				stack.pop();
+				
+				List<Node> children = ruleNode.getChildren();
+				Node[] internedChildren = new Node[children.size()];
+				for(int i = 0; i < internedChildren.length; i++) {
+					Node child = children.get(i);
+					internedChildren[i] = child instanceof RuleNode && !owns(child) ? interned.get(child) : intern(child);
+				}
+				
+				interned.put(ruleNode, make(ruleNode.getRule(), internedChildren));
+			}
+		}
+		
+		return interned.get(node);
+	}
+	
+	/**
+	 * Rule and children, which are compared by reference since they are already shared.
+	 */
+	private static class Key {
+		private final TigerProductionRule rule;
+		private final Node[] children;
+		private final int hash;
+		
+		Key(TigerProductionRule rule, Node[] children) {
+			this.rule = rule;
+			this.children = children;
+			
+			int[] childHashes = new int[children.length];
+			for(int i = 0; i < children.length; i++) {
+				childHashes[i] = children[i].hashCode();
+			}
+			hash = RuleNode.hash(rule, childHashes, children.length);
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) {
+				return false;
+			}
+			
+			Key key = (Key)o;
+			if(rule != key.rule || hash != key.hash || children.length != key.children.length) {
+				return false;
+			}
+			
+			for(int i = 0; i < children.length; i++) {
+				if(children[i] != key.children[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
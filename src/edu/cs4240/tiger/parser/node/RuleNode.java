@@ -1,7 +1,12 @@
 package edu.cs4240.tiger.parser.node;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 import edu.cs4240.tiger.parser.TigerProductionRule;
@@ -13,6 +18,10 @@ public class RuleNode implements Node {
 	private TigerProductionRule rule;
 	private List<Node> children;
 	
+	// set on nodes owned by a NodeFactory, which are shared and never change
+	private NodeFactory factory;
+	private int hash;
+	
 	public RuleNode() {
 		this((TigerProductionRule)null);
 	}
@@ -27,11 +36,25 @@ public class RuleNode implements Node {
 		this.children = new ArrayList<>(Arrays.asList(children));
 	}
 	
+	RuleNode(NodeFactory factory, TigerProductionRule rule, List<Node> children, int hash) {
+		this.factory = factory;
+		this.rule = rule;
+		this.children = Collections.unmodifiableList(children);
+		this.hash = hash;
+	}
+	
+	NodeFactory getFactory() {
+		return factory;
+	}
+	
 	public TigerProductionRule getRule() {
 		return rule;
 	}
 	
 	public void setRule(TigerProductionRule rule) {
+		if(factory != null) {
+			throw new UnsupportedOperationException("Nodes from a NodeFactory cannot be changed");
+		}
 		this.rule = rule;
 	}
 	
@@ -39,28 +62,149 @@ public class RuleNode implements Node {
 		return children;
 	}
 	
+	/**
+	 * Hash of a rule node from the hashes of its children, the same for equal trees.
+	 */
+	static int hash(TigerProductionRule rule, int[] childHashes, int count) {
+		int h = rule == null ? 0 : rule.ordinal() + 1;
+		for(int i = 0; i < count; i++) {
+			h = 31 * h + childHashes[i];
+		}
+		return h;
+	}
+	
+	/**
+	 * Cached for nodes from a NodeFactory, otherwise the whole tree is hashed on every call.
+	 */
+	@Override
+	public int hashCode() {
+		if(factory != null) {
+			return hash;
+		}
+		
+		// Children have to be hashed before their parents, so hash the nodes in reverse pre-order
+		ArrayList<RuleNode> order = new ArrayList<>();
+		ArrayDeque<RuleNode> stack = new ArrayDeque<>();
+		stack.push(this);
+		while(!stack.isEmpty()) {
+			RuleNode ruleNode = stack.pop();
+			order.add(ruleNode);
+			
+			for(Node child : ruleNode.children) {
+				if(child instanceof RuleNode && ((RuleNode)child).factory == null) {
+					stack.push((RuleNode)child);
+				}
+			}
+		}
+		
+		IdentityHashMap<RuleNode, Integer> hashes = new IdentityHashMap<>();
+		int[] childHashes = new int[8];
+		for(int i = order.size() - 1; i >= 0; i--) {
+			RuleNode ruleNode = order.get(i);
+			
+			if(childHashes.length < ruleNode.children.size()) {
+				childHashes = new int[ruleNode.children.size()];
+			}
+			for(int c = 0; c < ruleNode.children.size(); c++) {
+				Node child = ruleNode.children.get(c);
+				childHashes[c] = child instanceof RuleNode && ((RuleNode)child).factory == null ? hashes.get(child) : child.hashCode();
+			}
+			
+			hashes.put(ruleNode, hash(ruleNode.rule, childHashes, ruleNode.children.size()));
+		}
+		
+		return hashes.get(this);
+	}
+	
 	@Override
 	public boolean equals(Object o) {
-		if(o instanceof RuleNode) {
-			RuleNode r = (RuleNode)o;
+		if(!(o instanceof Node)) {
+			return false;
+		}
+		
+		// Explicit stack, expression chains can nest far deeper than the call stack allows
+		ArrayDeque<Node> left = new ArrayDeque<>();
+		ArrayDeque<Node> right = new ArrayDeque<>();
+		left.push(this);
+		right.push((Node)o);
+		
+		while(!left.isEmpty()) {
+			Node l = left.pop();
+			Node r = right.pop();
+			
+			if(l == r) {
+				continue;
+			}
+			
+			if(l instanceof LeafNode || r instanceof LeafNode) {
+				if(!(l instanceof LeafNode) || !l.equals(r)) {
+					return false;
+				}
+				continue;
+			}
+			
+			RuleNode lRule = (RuleNode)l;
+			RuleNode rRule = (RuleNode)r;
+			if(lRule.factory != null && lRule.factory == rRule.factory) {
+				// a factory shares equal subtrees, so different nodes are different trees
+				return false;
+			}
+			if(lRule.factory != null && rRule.factory != null && lRule.hash != rRule.hash) {
+				return false;
+			}
+			if(lRule.rule != rRule.rule || lRule.children.size() != rRule.children.size()) {
+				return false;
+			}
 			
-			return this.rule == r.getRule() && this.children.equals(r.children);
+			for(int i = 0; i < lRule.children.size(); i++) {
+				left.push(lRule.children.get(i));
+				right.push(rRule.children.get(i));
+			}
 		}
 		
-		return false;
+		return true;
 	}
 	
 	@Override
 	public String toString() {
-		if(children.size() == 0) {
-			return rule.toString().toLowerCase();
+		StringBuilder s = new StringBuilder();
+		try {
+			print(s);
 		}
+		catch(IOException exc) {
+			throw new UncheckedIOException(exc);
+		}
+		return s.toString();
+	}
+	
+	/**
+	 * Streams the s-expression of this tree to out.
+	 */
+	public void print(Appendable out) throws IOException {
+		// Holds nodes and the closing parentheses still to be printed
+		ArrayDeque<Object> stack = new ArrayDeque<>();
+		stack.push(this);
 		
-		String s = "(" + rule.toString().toLowerCase();
-		for(Node child : children) {
-			s += " " + child.toString();
+		while(!stack.isEmpty()) {
+			Object o = stack.pop();
+			
+			if(o instanceof RuleNode) {
+				RuleNode ruleNode = (RuleNode)o;
+				
+				if(ruleNode.children.size() == 0) {
+					out.append(ruleNode.rule.toString().toLowerCase());
+				} else {
+					out.append('(').append(ruleNode.rule.toString().toLowerCase());
+					
+					stack.push(")");
+					for(int i = ruleNode.children.size() - 1; i >= 0; i--) {
+						stack.push(ruleNode.children.get(i));
+						stack.push(" ");
+					}
+				}
+			} else {
+				out.append(o.toString());
+			}
 		}
-		s += ")";
-		return s;
 	}
 }
@@ -0,0 +1,70 @@
+package edu.cs4240.tiger.tests;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import edu.cs4240.tiger.analyzer.TigerAnalysisCache;
+import edu.cs4240.tiger.analyzer.TigerAnalyzer;
+import edu.cs4240.tiger.ast.TigerASTBuilder;
+import edu.cs4240.tiger.parser.TigerParser;
+import edu.cs4240.tiger.parser.TigerScanner;
+import edu.cs4240.tiger.parser.node.NodeArena;
+
+/**
+ * Writes the analysis cache of test.tgr, then checks that it reads back, and that every copy of it with a
+ * bit of one byte flipped or cut short is rejected instead of being decoded.
+ *
+ * @author Roi Atalla
+ */
+public class AnalysisCacheTester {
+	public static void main(String[] args) throws Exception {
+		Path sourcePath = Paths.get(System.getProperty("user.dir"), "src/edu/cs4240/tiger/tests/test.tgr");
+		byte[] sourceBytes = Files.readAllBytes(sourcePath);
+		long sourceHash = TigerAnalysisCache.hashSource(sourceBytes);
+		char[] source = TigerScanner.decode(ByteBuffer.wrap(sourceBytes));
+		
+		NodeArena arena = new TigerParser(new TigerScanner(source)).parseArena();
+		TigerAnalyzer analyzer = new TigerAnalyzer(TigerASTBuilder.build(arena));
+		analyzer.run();
+		
+		Path cachePath = Files.createTempFile("test", ".tgc");
+		try {
+			TigerAnalysisCache.write(cachePath, sourceHash, arena, analyzer.getSymbolTable());
+			byte[] cache = Files.readAllBytes(cachePath);
+			
+			TigerAnalysisCache read = TigerAnalysisCache.read(cachePath, sourceHash, source);
+			if(read == null || read.getProgram().exprCount != analyzer.getProgram().exprCount) {
+				System.out.println("The unmodified cache was not read back");
+				return;
+			}
+			
+			int accepted = 0;
+			// a different bit of each byte
+			for(int i = 0; i < cache.length; i++) {
+				byte[] corrupt = cache.clone();
+				corrupt[i] ^= 1 << (i % 8);
+				Files.write(cachePath, corrupt);
+				if(TigerAnalysisCache.read(cachePath, sourceHash, source) != null) {
+					System.out.println("Accepted bit " + (i % 8) + " of byte " + i + " flipped");
+					accepted++;
+				}
+			}
+			
+			for(int length = 0; length < cache.length; length++) {
+				Files.write(cachePath, Arrays.copyOf(cache, length));
+				if(TigerAnalysisCache.read(cachePath, sourceHash, source) != null) {
+					System.out.println("Accepted the cache cut to " + length + " bytes");
+					accepted++;
+				}
+			}
+			
+			System.out.println(cache.length + " byte cache, " + accepted + " corrupt copies accepted.");
+		}
+		finally {
+			Files.delete(cachePath);
+		}
+	}
+}
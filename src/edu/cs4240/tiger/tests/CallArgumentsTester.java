@@ -0,0 +1,48 @@
+package edu.cs4240.tiger.tests;
+
+import edu.cs4240.tiger.analyzer.TigerAnalyzer;
+import edu.cs4240.tiger.intermediate.TigerIRGenerator;
+import edu.cs4240.tiger.intermediate.TigerIRProgram;
+import edu.cs4240.tiger.intermediate.interpreter.TigerInterpreter;
+import edu.cs4240.tiger.parser.TigerParser;
+import edu.cs4240.tiger.parser.TigerScanner;
+import edu.cs4240.tiger.util.StringifyTigerIR;
+
+/**
+ * Generates IR for calls that pass int arguments to float parameters and calls that pass more arguments
+ * than there are parameters, which the analyzer accepts. The programs that only call built-in functions
+ * are run too.
+ *
+ * @author Roi Atalla
+ */
+public class CallArgumentsTester {
+	public static void main(String[] args) {
+		String[] programs = { "let var x : int := 1; in printi(x, 5); end",
+		                      "let in printf(2); printf(2, 3.5); end",
+		                      "let var z : float; func f(a : float) : float begin return a; end; in z := f(2, 3.5); end",
+		                      "let func g(a : float) begin printf(a); end; in g(2); g(2, 3); end" };
+		
+		int failures = 0;
+		for(String program : programs) {
+			System.out.println(program);
+			try {
+				TigerAnalyzer analyzer = new TigerAnalyzer(new TigerParser(new TigerScanner(program.toCharArray())).parse());
+				analyzer.run();
+				
+				TigerIRProgram ir = new TigerIRGenerator(analyzer.getProgram(), analyzer.getSymbolTable()).generateIR();
+				StringifyTigerIR.printIR(ir, System.out);
+				
+				if(!program.contains("func")) {
+					new TigerInterpreter(ir).run(false);
+				}
+			}
+			catch(Exception exc) {
+				System.out.println("FAILED: " + exc);
+				failures++;
+			}
+			System.out.println();
+		}
+		
+		System.out.println(failures + " failures.");
+	}
+}
@@ -3,10 +3,10 @@ package edu.cs4240.tiger.tests;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.List;
 
 import edu.cs4240.tiger.analyzer.TigerAnalyzer;
 import edu.cs4240.tiger.intermediate.TigerIRGenerator;
+import edu.cs4240.tiger.intermediate.TigerIRProgram;
 import edu.cs4240.tiger.intermediate.interpreter.TigerInterpreter;
 import edu.cs4240.tiger.parser.TigerParseException;
 import edu.cs4240.tiger.parser.TigerParser;
@@ -22,8 +22,8 @@ public class IRGeneratorTester {
 			TigerAnalyzer analyzer = new TigerAnalyzer(parser.parse());
 			analyzer.run();
 			
-			TigerIRGenerator generator = new TigerIRGenerator(parser.parse(), analyzer.getSymbolTable());
-			List<String> ir = generator.generateIR();
+			TigerIRGenerator generator = new TigerIRGenerator(analyzer.getProgram(), analyzer.getSymbolTable());
+			TigerIRProgram ir = generator.generateIR();
 			
 			//System.out.println(StringifyTigerIR.stringifyIR(ir));
 			TigerInterpreter interpreter = new TigerInterpreter(ir);
@@ -0,0 +1,42 @@
+package edu.cs4240.tiger.tests;
+
+import java.util.Random;
+
+import edu.cs4240.tiger.generator.TigerSemanticallyCorrectGenerator;
+import edu.cs4240.tiger.parser.TigerParseException;
+import edu.cs4240.tiger.parser.TigerParser;
+import edu.cs4240.tiger.parser.TigerScanner;
+import edu.cs4240.tiger.parser.node.Node;
+import edu.cs4240.tiger.parser.node.NodeFactory;
+import edu.cs4240.tiger.parser.node.RuleNode;
+import edu.cs4240.tiger.util.StringifyTigerAST;
+
+/**
+ * Parses generated programs twice and checks both trees intern to the same node.
+ *
+ * @author Roi Atalla
+ */
+public class NodeFactoryTester {
+	public static void main(String[] args) throws TigerParseException {
+		NodeFactory factory = new NodeFactory();
+		
+		int failures = 0;
+		for(long seed = 0; seed < 20; seed++) {
+			String source = StringifyTigerAST.stringifyAST(TigerSemanticallyCorrectGenerator.generate(new Random(seed), 10));
+			
+			RuleNode first = new TigerParser(new TigerScanner(source.toCharArray())).parse();
+			RuleNode second = new TigerParser(new TigerScanner(source.toCharArray())).parse();
+			
+			Node firstInterned = factory.intern(first);
+			Node secondInterned = factory.intern(second);
+			
+			if(firstInterned != secondInterned || first.hashCode() != firstInterned.hashCode() || !first.equals(second) || !firstInterned.equals(first)) {
+				System.out.println("Seed " + seed + " interned to different trees");
+				failures++;
+			}
+		}
+		
+		System.out.println(factory.size() + " distinct nodes");
+		System.out.println(failures == 0 ? "All trees matched!" : failures + " failures");
+	}
+}
@@ -12,7 +12,7 @@ import edu.cs4240.tiger.parser.TigerSymbol;
 public class ProductionRulesTester {
 	public static void main(String[] args) {
 		for(TigerProductionRule rule : TigerProductionRule.values()) {
-			for(List<TigerSymbol> production : rule.productions) {
+			for(List<TigerSymbol> production : rule.getProductions()) {
 				System.out.println(TigerProductionRule.printRule(rule, production));
 			}
 		}
@@ -37,7 +37,7 @@ public class ProductionRulesTester {
 			
 			rulesVisited.add(currentRule);
 			
-			currentRule.productions.forEach((production) -> {
+			currentRule.getProductions().forEach((production) -> {
 				if(production.size() > 0 && production.get(0) instanceof TigerProductionRule) {
 					firsts(indent + 1, rulesVisited, (TigerProductionRule)production.get(0));
 				}
@@ -0,0 +1,89 @@
+package edu.cs4240.tiger.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.cs4240.tiger.parser.TigerParseException;
+import edu.cs4240.tiger.parser.TigerScanner;
+import edu.cs4240.tiger.parser.TigerTokenClass;
+import edu.cs4240.tiger.parser.TokenBuffer;
+
+/**
+ * Scans each input with TigerScanner and checks the token classes and lengths against maximal munch
+ * over the token class regexes.
+ *
+ * @author Roi Atalla
+ */
+public class TokenDFATester {
+	public static void main(String[] args) {
+		String[] inputs = { "myVar", "_a_b", "__9x", "if", "ifx", "enddo", "endif;", "end", "12", "12.", "12.5e", "123abc",
+		                    ":=", ":", "<=", "<>", "<", ">=", ">", ".", "type_", "array[", "_", "$",
+		                    "x:=y+1.5*z;", "if a<>b then enddo", "  var  a , b :int:=0 ;", "a$b" };
+		
+		int failures = 0;
+		for(String input : inputs) {
+			List<String> expected = expectedTokens(input);
+			List<String> actual = scannedTokens(input);
+			
+			if(expected.equals(actual)) {
+				System.out.println(input + " matched " + actual);
+			} else {
+				System.out.println(input + " MISMATCH: expected " + expected + ", got " + actual);
+				failures++;
+			}
+		}
+		
+		System.out.println("\n" + failures + " mismatches.");
+	}
+	
+	private static List<String> scannedTokens(String input) {
+		ArrayList<String> tokens = new ArrayList<>();
+		
+		TigerScanner scanner = new TigerScanner(input.toCharArray());
+		TokenBuffer buffer = scanner.getTokenBuffer();
+		try {
+			int index;
+			while((index = scanner.scanToken()) != TokenBuffer.NONE) {
+				tokens.add(buffer.getTokenClass(index) + "(" + buffer.getLength(index) + ")");
+			}
+		}
+		catch(TigerParseException exc) {
+			tokens.add("invalid");
+		}
+		
+		return tokens;
+	}
+	
+	private static List<String> expectedTokens(String input) {
+		ArrayList<String> tokens = new ArrayList<>();
+		
+		int position = 0;
+		while(true) {
+			while(position < input.length() && input.charAt(position) <= ' ') {
+				position++;
+			}
+			
+			if(position == input.length()) {
+				return tokens;
+			}
+			
+			TigerTokenClass expectedClass = null;
+			int expectedEnd = position;
+			for(TigerTokenClass tokenClass : TigerTokenClass.values()) {
+				int end = tokenClass.regex.match(input, position);
+				if(end > expectedEnd) {
+					expectedClass = tokenClass;
+					expectedEnd = end;
+				}
+			}
+			
+			if(expectedClass == null) {
+				tokens.add("invalid");
+				return tokens;
+			}
+			
+			tokens.add(expectedClass + "(" + (expectedEnd - position) + ")");
+			position = expectedEnd;
+		}
+	}
+}
@@ -1,5 +1,8 @@
 package edu.cs4240.tiger.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Roi Atalla
  */
@@ -20,27 +23,129 @@ public abstract class Regex {
 		}
 	}
 	
+	/**
+	 * A set of characters a single NFA edge can consume.
+	 */
+	public interface CharClass {
+		boolean matches(char c);
+	}
+	
+	/**
+	 * Thompson-style NFA that regexes compile themselves into. State 0 is always the start state.
+	 */
+	public static class NFA {
+		private List<List<Integer>> epsilons = new ArrayList<>();
+		private List<List<Pair<CharClass, Integer>>> edges = new ArrayList<>();
+		
+		public NFA() {
+			newState();
+		}
+		
+		public int newState() {
+			epsilons.add(new ArrayList<>());
+			edges.add(new ArrayList<>());
+			return epsilons.size() - 1;
+		}
+		
+		public int getStateCount() {
+			return epsilons.size();
+		}
+		
+		public void addEpsilon(int from, int to) {
+			epsilons.get(from).add(to);
+		}
+		
+		public void addEdge(int from, CharClass charClass, int to) {
+			edges.get(from).add(new Pair<>(charClass, to));
+		}
+		
+		public List<Integer> getEpsilons(int state) {
+			return epsilons.get(state);
+		}
+		
+		public List<Pair<CharClass, Integer>> getEdges(int state) {
+			return edges.get(state);
+		}
+	}
+	
 	private Regex() {
 	}
 	
-	public abstract Match match(String input);
+	public Match match(String input) {
+		int end = match(input, 0);
+		if(end < 0) {
+			return null;
+		}
+		
+		return new Match(input.substring(0, end));
+	}
+	
+	/**
+	 * Matches this regex against the input starting at {@code start}, without allocating.
+	 *
+	 * @return the offset right after the match, or -1 if there is no match
+	 */
+	public abstract int match(CharSequence input, int start);
+	
+	/**
+	 * Adds this regex to the NFA, starting at state {@code start}, and returns the state reached after a match.
+	 */
+	public abstract int compile(NFA nfa, int start);
+	
+	/**
+	 * @return the exact string this regex matches, or null if it is not a plain string
+	 */
+	public String getLiteral() {
+		return null;
+	}
+	
+	private static Regex charClass(CharClass charClass, String description) {
+		return new Regex() {
+			@Override
+			public int match(CharSequence input, int start) {
+				if(start < input.length() && charClass.matches(input.charAt(start))) {
+					return start + 1;
+				}
+				return -1;
+			}
+			
+			@Override
+			public int compile(NFA nfa, int start) {
+				int end = nfa.newState();
+				nfa.addEdge(start, charClass, end);
+				return end;
+			}
+			
+			@Override
+			public String toString() {
+				return description;
+			}
+		};
+	}
 	
 	public static Regex and(Regex... regs) {
 		return new Regex() {
 			@Override
-			public Match match(String input) {
-				Match match = new Match("");
+			public int match(CharSequence input, int start) {
+				int offset = start;
 				
 				for(Regex r : regs) {
-					Match m = r.match(input.substring(match.piece.length()));
-					if(m == null) {
-						return null;
+					offset = r.match(input, offset);
+					if(offset < 0) {
+						return -1;
 					}
-					
-					match.append(m);
 				}
 				
-				return match;
+				return offset;
+			}
+			
+			@Override
+			public int compile(NFA nfa, int start) {
+				int state = start;
+				for(Regex r : regs) {
+					state = r.compile(nfa, state);
+				}
+				return state;
 			}
 			
 			@Override
@@ -56,17 +161,28 @@ public abstract class Regex {
 	public static Regex or(Regex... regs) {
 		return new Regex() {
 			@Override
-			public Match match(String input) {
+			public int match(CharSequence input, int start) {
 				for(Regex r : regs) {
-					Match m = r.match(input);
-					if(m == null) {
+					int end = r.match(input, start);
+					if(end < 0) {
 						continue;
 					}
 					
-					return m;
+					return end;
 				}
 				
-				return null;
+				return -1;
+			}
+			
+			@Override
+			public int compile(NFA nfa, int start) {
+				int end = nfa.newState();
+				for(Regex r : regs) {
+					int branch = nfa.newState();
+					nfa.addEpsilon(start, branch);
+					nfa.addEpsilon(r.compile(nfa, branch), end);
+				}
+				return end;
 			}
 			
 			@Override
@@ -86,12 +202,22 @@ public abstract class Regex {
 	public static Regex optional(Regex regex) {
 		return new Regex() {
 			@Override
-			public Match match(String input) {
-				Match match = regex.match(input);
-				if(match == null) {
-					return new Match("");
+			public int match(CharSequence input, int start) {
+				int end = regex.match(input, start);
+				if(end < 0) {
+					return start;
 				}
-				return match;
+				return end;
+			}
+			
+			@Override
+			public int compile(NFA nfa, int start) {
+				int branch = nfa.newState();
+				int end = nfa.newState();
+				nfa.addEpsilon(start, branch);
+				nfa.addEpsilon(start, end);
+				nfa.addEpsilon(regex.compile(nfa, branch), end);
+				return end;
 			}
 			
 			@Override
@@ -104,19 +230,27 @@ public abstract class Regex {
 	public static Regex zeroOrMore(Regex regex) {
 		return new Regex() {
 			@Override
-			public Match match(String input) {
-				Match match = new Match("");
+			public int match(CharSequence input, int start) {
+				int offset = start;
 				
-				while(input.length() > match.piece.length()) {
-					Match m = regex.match(input.substring(match.piece.length()));
-					if(m == null) {
-						return match;
+				while(input.length() > offset) {
+					int end = regex.match(input, offset);
+					if(end <= offset) { // no match, or an empty one that would loop forever
+						return offset;
 					}
 					
-					match.append(m);
+					offset = end;
 				}
 				
-				return match;
+				return offset;
+			}
+			
+			@Override
+			public int compile(NFA nfa, int start) {
+				int loop = nfa.newState();
+				nfa.addEpsilon(start, loop);
+				nfa.addEpsilon(regex.compile(nfa, loop), loop);
+				return loop;
 			}
 			
 			@Override
@@ -129,24 +263,31 @@ public abstract class Regex {
 	public static Regex oneOrMore(Regex regex) {
 		return new Regex() {
 			@Override
-			public Match match(String input) {
-				Match match = null;
+			public int match(CharSequence input, int start) {
+				int offset = regex.match(input, start);
+				if(offset < 0) {
+					return -1;
+				}
 				
-				while(match == null || input.length() > match.piece.length()) {
-					Match m = regex.match(match == null ? input : input.substring(match.piece.length()));
-					
-					if(m == null) {
-						return match;
+				while(input.length() > offset) {
+					int end = regex.match(input, offset);
+					if(end <= offset) { // no match, or an empty one that would loop forever
+						return offset;
 					}
 					
-					if(match == null) {
-						match = new Match(m.piece);
-					} else {
-						match.append(m);
-					}
+					offset = end;
 				}
 				
-				return match;
+				return offset;
+			}
+			
+			@Override
+			public int compile(NFA nfa, int start) {
+				int loop = nfa.newState();
+				nfa.addEpsilon(start, loop);
+				int end = regex.compile(nfa, loop);
+				nfa.addEpsilon(end, loop);
+				return end;
 			}
 			
 			@Override
@@ -159,12 +300,35 @@ public abstract class Regex {
 	public static Regex string(String s) {
 		return new Regex() {
 			@Override
-			public Match match(String input) {
-				if(input.startsWith(s)) {
-					return new Match(s);
+			public int match(CharSequence input, int start) {
+				if(input.length() - start < s.length()) {
+					return -1;
+				}
+				
+				for(int i = 0; i < s.length(); i++) {
+					if(input.charAt(start + i) != s.charAt(i)) {
+						return -1;
+					}
 				}
 				
-				return null;
+				return start + s.length();
+			}
+			
+			@Override
+			public int compile(NFA nfa, int start) {
+				int state = start;
+				for(int i = 0; i < s.length(); i++) {
+					char expected = s.charAt(i);
+					int next = nfa.newState();
+					nfa.addEdge(state, c -> c == expected, next);
+					state = next;
+				}
+				return state;
+			}
+			
+			@Override
+			public String getLiteral() {
+				return s;
 			}
 			
 			@Override
@@ -185,87 +349,22 @@ public abstract class Regex {
 	}
 	
 	public static Regex letter() {
-		return new Regex() {
-			@Override
-			public Match match(String input) {
-				if(input.length() > 0 && Character.isAlphabetic(input.charAt(0))) {
-					return new Match(input.substring(0, 1));
-				}
-				return null;
-			}
-			
-			@Override
-			public String toString() {
-				return "[A-Za-z]";
-			}
-		};
+		return charClass(Character::isAlphabetic, "[A-Za-z]");
 	}
 	
 	public static Regex number() {
-		return new Regex() {
-			@Override
-			public Match match(String input) {
-				if(input.length() > 0 && Character.isDigit(input.charAt(0))) {
-					return new Match(input.substring(0, 1));
-				}
-				return null;
-			}
-			
-			@Override
-			public String toString() {
-				return "[0-9]";
-			}
-		};
+		return charClass(Character::isDigit, "[0-9]");
 	}
 	
 	public static Regex alphanumeric() {
-		return new Regex() {
-			@Override
-			public Match match(String input) {
-				if(input.length() > 0 && (Character.isAlphabetic(input.charAt(0)) || Character.isDigit(input.charAt(0)))) {
-					return new Match(input.substring(0, 1));
-				}
-				return null;
-			}
-			
-			@Override
-			public String toString() {
-				return "[A-Za-z0-9]";
-			}
-		};
+		return charClass(c -> Character.isAlphabetic(c) || Character.isDigit(c), "[A-Za-z0-9]");
 	}
 	
 	public static Regex wordChar() {
-		return new Regex() {
-			@Override
-			public Match match(String input) {
-				if(input.length() > 0 && (Character.isAlphabetic(input.charAt(0)) || Character.isDigit(input.charAt(0)) || input.charAt(0) == '_')) {
-					return new Match(input.substring(0, 1));
-				}
-				return null;
-			}
-			
-			@Override
-			public String toString() {
-				return "[A-Za-z0-9_]";
-			}
-		};
+		return charClass(c -> Character.isAlphabetic(c) || Character.isDigit(c) || c == '_', "[A-Za-z0-9_]");
 	}
 	
 	public static Regex whitespace() {
-		return new Regex() {
-			@Override
-			public Match match(String input) {
-				if(input.length() > 0 && Character.isWhitespace(input.charAt(0))) {
-					return new Match(input.substring(0, 1));
-				}
-				return null;
-			}
-			
-			@Override
-			public String toString() {
-				return "\\s";
-			}
-		};
+		return charClass(Character::isWhitespace, "\\s");
 	}
 }
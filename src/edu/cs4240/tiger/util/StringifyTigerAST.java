@@ -1,7 +1,10 @@
 package edu.cs4240.tiger.util;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+
 import edu.cs4240.tiger.parser.TigerProductionRule;
-import edu.cs4240.tiger.parser.TigerToken;
 import edu.cs4240.tiger.parser.TigerTokenClass;
 import edu.cs4240.tiger.parser.node.LeafNode;
 import edu.cs4240.tiger.parser.node.Node;
@@ -12,44 +15,64 @@ import edu.cs4240.tiger.parser.node.RuleNode;
  */
 public class StringifyTigerAST {
 	public static String stringifyAST(Node node) {
-		return stringifyAST(0, node);
+		StringBuilder s = new StringBuilder();
+		try {
+			printAST(node, s);
+		}
+		catch(IOException exc) {
+			throw new UncheckedIOException(exc);
+		}
+		return s.toString();
 	}
 	
-	private static String stringifyAST(int level, Node node) {
-		String s = "";
+	/**
+	 * Streams the program as indented Tiger source.
+	 */
+	public static void printAST(Node node, Appendable s) throws IOException {
+		// Explicit stack of nodes and their indentation levels, deeply nested programs would overflow the call stack
+		ArrayDeque<Pair<Node, Integer>> stack = new ArrayDeque<>();
+		stack.push(new Pair<>(node, 0));
 		
-		if(node instanceof RuleNode) {
-			RuleNode ruleNode = (RuleNode)node;
-			
-			if(addIndent(ruleNode.getRule())) {
-				level += 1;
-			}
+		while(!stack.isEmpty()) {
+			Pair<Node, Integer> pair = stack.pop();
+			Node current = pair.getKey();
+			int level = pair.getValue();
 			
-			if(printIndent(ruleNode.getRule())) {
-				for(int i = 0; i < level; i++) {
-					s += "   ";
+			if(current instanceof RuleNode) {
+				RuleNode ruleNode = (RuleNode)current;
+				
+				if(addIndent(ruleNode.getRule())) {
+					level += 1;
 				}
-			}
-			
-			for(Node child : ruleNode.getChildren()) {
-				s += stringifyAST(level, child);
-			}
-		} else if(((LeafNode)node).getToken().getTokenClass() != TigerTokenClass.EPSILON) {
-			TigerToken token = ((LeafNode)node).getToken();
-			
-			if(printIndent(token.getTokenClass())) {
-				for(int i = 0; i < level; i++) {
-					s += "   ";
+				
+				if(printIndent(ruleNode.getRule())) {
+					indent(s, level);
+				}
+				
+				for(int i = ruleNode.getChildren().size() - 1; i >= 0; i--) {
+					stack.push(new Pair<>(ruleNode.getChildren().get(i), level));
+				}
+			} else if(((LeafNode)current).getTokenClass() != TigerTokenClass.EPSILON) {
+				LeafNode leaf = (LeafNode)current;
+				
+				if(printIndent(leaf.getTokenClass())) {
+					indent(s, level);
+				} else if(addWhitespace(leaf.getTokenClass())) {
+					s.append(' ');
+				}
+				
+				s.append(leaf.getTokenString());
+				if(generateNewLine(leaf.getTokenClass())) {
+					s.append('\n');
 				}
-			} else if(addWhitespace(token.getTokenClass())) {
-				s += " ";
 			}
-			
-			s += token.getTokenString();
-			s += generateNewLine(token.getTokenClass()) ? "\n" : "";
 		}
-		
-		return s;
+	}
+	
+	private static void indent(Appendable s, int level) throws IOException {
+		for(int i = 0; i < level; i++) {
+			s.append("   ");
+		}
 	}
 	
 	private static boolean printIndent(TigerProductionRule rule) {
@@ -1,23 +1,29 @@
 package edu.cs4240.tiger.util;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import edu.cs4240.tiger.intermediate.TigerIRProgram;
 
 /**
  * @author Roi Atalla
  */
 public class StringifyTigerIR {
-	public static String stringifyIR(List<String> ir) {
-		String stringified = "";
-		
-		int line = 1;
-		for(String s : ir) {
-			if(s.charAt(0) != '.' && s.indexOf(':') == -1) {
-				stringified += "\t";
-			}
-			
-			stringified += s + "\n";
+	public static String stringifyIR(TigerIRProgram ir) {
+		StringBuilder s = new StringBuilder();
+		try {
+			printIR(ir, s);
+		}
+		catch(IOException exc) {
+			throw new UncheckedIOException(exc);
 		}
-		
-		return stringified;
+		return s.toString();
+	}
+	
+	/**
+	 * Streams the text form of the IR to out, one instruction per line with everything but labels and directives indented.
+	 */
+	public static void printIR(TigerIRProgram ir, Appendable out) throws IOException {
+		ir.print(out);
 	}
 }
@@ -0,0 +1,118 @@
+package edu.cs4240.tiger.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Gives every distinct name of a compilation a small int id, counting up from 0, so tables keyed by
+ * name can be indexed by id instead of hashing the string on every lookup.
+ * <p>
+ * Names can be interned straight from the scanned text, the String is only created the first time a
+ * name is seen.
+ *
+ * @author Roi Atalla
+ */
+public class SymbolInterner {
+	public static final int NONE = -1;
+	
+	private final ArrayList<String> names = new ArrayList<>();
+	private int[] hashes = new int[16];
+	
+	// open addressing table of id + 1, 0 is an empty slot
+	private int[] table = new int[32];
+	
+	public int intern(String name) {
+		int hash = name.hashCode();
+		int slot = slot(hash);
+		for(int id; (id = table[slot] - 1) != NONE; slot = (slot + 1) & (table.length - 1)) {
+			if(hashes[id] == hash && names.get(id).equals(name)) {
+				return id;
+			}
+		}
+		return add(name, hash, slot);
+	}
+	
+	/**
+	 * Interns text[start, start + length) without creating a String when the name is already known.
+	 */
+	public int intern(char[] text, int start, int length) {
+		// same hash as String.hashCode, so both intern methods agree
+		int hash = 0;
+		for(int i = start; i < start + length; i++) {
+			hash = 31 * hash + text[i];
+		}
+		
+		int slot = slot(hash);
+		for(int id; (id = table[slot] - 1) != NONE; slot = (slot + 1) & (table.length - 1)) {
+			if(hashes[id] == hash && matches(names.get(id), text, start, length)) {
+				return id;
+			}
+		}
+		return add(new String(text, start, length), hash, slot);
+	}
+	
+	/**
+	 * @return the id of the name, or NONE if it was never interned
+	 */
+	public int find(String name) {
+		int hash = name.hashCode();
+		for(int slot = slot(hash), id; (id = table[slot] - 1) != NONE; slot = (slot + 1) & (table.length - 1)) {
+			if(hashes[id] == hash && names.get(id).equals(name)) {
+				return id;
+			}
+		}
+		return NONE;
+	}
+	
+	public String getName(int id) {
+		return names.get(id);
+	}
+	
+	public int size() {
+		return names.size();
+	}
+	
+	private int slot(int hash) {
+		return (hash ^ (hash >>> 16)) & (table.length - 1);
+	}
+	
+	private static boolean matches(String name, char[] text, int start, int length) {
+		if(name.length() != length) {
+			return false;
+		}
+		
+		for(int i = 0; i < length; i++) {
+			if(name.charAt(i) != text[start + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private int add(String name, int hash, int slot) {
+		int id = names.size();
+		names.add(name);
+		
+		if(id == hashes.length) {
+			hashes = Arrays.copyOf(hashes, id * 2);
+		}
+		hashes[id] = hash;
+		
+		table[slot] = id + 1;
+		if(names.size() * 2 > table.length) {
+			rehash();
+		}
+		return id;
+	}
+	
+	private void rehash() {
+		table = new int[table.length * 2];
+		for(int id = 0; id < names.size(); id++) {
+			int slot = slot(hashes[id]);
+			while(table[slot] != 0) {
+				slot = (slot + 1) & (table.length - 1);
+			}
+			table[slot] = id + 1;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package edu.cs4240.tiger.util;
+
+import java.util.Arrays;
+
+/**
+ * Map from interned symbol ids to values, stored as an array indexed by id.
+ *
+ * @author Roi Atalla
+ */
+public class SymbolMap<V> {
+	private Object[] values = new Object[16];
+	private int size;
+	
+	@SuppressWarnings("unchecked")
+	public V get(int symbol) {
+		return symbol >= 0 && symbol < values.length ? (V)values[symbol] : null;
+	}
+	
+	public boolean containsKey(int symbol) {
+		return get(symbol) != null;
+	}
+	
+	/**
+	 * @return the previous value, or null
+	 */
+	public V put(int symbol, V value) {
+		if(symbol >= values.length) {
+			values = Arrays.copyOf(values, Math.max(values.length * 2, symbol + 1));
+		}
+		
+		V previous = get(symbol);
+		values[symbol] = value;
+		if(previous == null) {
+			size++;
+		}
+		return previous;
+	}
+	
+	public int size() {
+		return size;
+	}
+}
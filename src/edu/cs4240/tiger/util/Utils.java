@@ -1,6 +1,11 @@
 package edu.cs4240.tiger.util;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.HashMap;
+import java.util.List;
 
 import edu.cs4240.tiger.parser.TigerToken;
 import edu.cs4240.tiger.parser.TigerTokenClass;
@@ -74,21 +79,45 @@ public class Utils {
 	}
 	
 	public static TigerToken getLeftmostLeaf(RuleNode node) {
-		if(node.getChildren().size() == 0) {
-			return null;
-		}
+		ArrayDeque<Node> stack = new ArrayDeque<>();
+		stack.push(node);
 		
-		for(Node child : node.getChildren()) {
-			if(child instanceof LeafNode) {
-				return ((LeafNode)child).getToken();
+		while(!stack.isEmpty()) {
+			Node current = stack.pop();
+			if(current instanceof LeafNode) {
+				return ((LeafNode)current).getToken();
 			}
 			
-			TigerToken childToken = getLeftmostLeaf((RuleNode)child);
-			if(childToken != null) {
-				return childToken;
+			List<Node> children = ((RuleNode)current).getChildren();
+			for(int i = children.size() - 1; i >= 0; i--) {
+				stack.push(children.get(i));
 			}
 		}
 		
 		return null;
 	}
+	
+	/**
+	 * Writes a zigzag-encoded LEB128 int: small values of either sign take a single byte.
+	 */
+	public static void writeVarInt(DataOutput out, int value) throws IOException {
+		int zigzag = (value << 1) ^ (value >> 31);
+		while((zigzag & ~0x7F) != 0) {
+			out.writeByte((zigzag & 0x7F) | 0x80);
+			zigzag >>>= 7;
+		}
+		out.writeByte(zigzag);
+	}
+	
+	public static int readVarInt(ByteBuffer in) {
+		int zigzag = 0;
+		for(int shift = 0; ; shift += 7) {
+			byte b = in.get();
+			zigzag |= (b & 0x7F) << shift;
+			if(b >= 0) {
+				break;
+			}
+		}
+		return (zigzag >>> 1) ^ -(zigzag & 1);
+	}
 }